@@ -0,0 +1,450 @@
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.plugins.haxe.module.HaxeModuleSettingsBase;
+import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
+import com.intellij.util.io.DigestUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * What the last successful build of a module was made from: the compiler command lines, the
+ * defines, the haxelib versions, the content of every file on the classpath, and the output
+ * artifacts it left behind.  A module whose fingerprint still matches doesn't need compiling.
+ *
+ * File contents are compared by hash, so touching or reverting a file doesn't force a build.  A
+ * file is only read again when its size or modification time differs from the recorded one.
+ *
+ * Both the IDE and the JPS builder use it; each keeps the fingerprints in its own storage.
+ */
+public final class HaxeBuildFingerprint {
+  private static final Logger LOG = Logger.getInstance(HaxeBuildFingerprint.class);
+  private static final int VERSION = 1;
+  // How deep hxml files may include one another before the rest is ignored.
+  private static final int MAX_HXML_DEPTH = 8;
+  // How many names an explanation lists before summarizing the rest.
+  private static final int MAX_LISTED = 5;
+
+  /** A file's size and modification time, and the hash of its content. */
+  static final class FileState {
+    final String stamp;
+    final String hash;
+
+    FileState(@NotNull String stamp, @NotNull String hash) {
+      this.stamp = stamp;
+      this.hash = hash;
+    }
+  }
+
+  private final List<String> myCommandLines;
+  private final SortedMap<String, String> myDefines;
+  private final SortedSet<String> myLibraries;
+  private final SortedMap<String, FileState> myInputs;
+  // Null when the build system decides where the output goes, so it can't be checked.
+  @Nullable private final SortedMap<String, String> myOutputs;
+
+  HaxeBuildFingerprint(@NotNull List<String> commandLines,
+                       @NotNull Map<String, String> defines,
+                       @NotNull Collection<String> libraries,
+                       @NotNull Map<String, FileState> inputs,
+                       @Nullable Map<String, String> outputs) {
+    myCommandLines = new ArrayList<>(commandLines);
+    myDefines = new TreeMap<>();
+    defines.forEach((name, value) -> myDefines.put(name, StringUtil.notNullize(value)));
+    myLibraries = new TreeSet<>(libraries);
+    myInputs = new TreeMap<>(inputs);
+    myOutputs = outputs != null ? new TreeMap<>(outputs) : null;
+  }
+
+  /**
+   * Fingerprints a module as it would be built now.
+   *
+   * @param defines  the defines the build sees besides those on its command line.
+   * @param libraries the names of the module's libraries, which carry their haxelib versions.
+   * @param previous the module's last fingerprint, whose hashes are reused for unchanged files.
+   */
+  @NotNull
+  public static HaxeBuildFingerprint compute(@NotNull HaxeCommonCompilerUtil.CompilationContext context,
+                                             @NotNull Map<String, String> defines,
+                                             @NotNull Collection<String> libraries,
+                                             @Nullable HaxeBuildFingerprint previous) {
+    Sources sources = Sources.collect(context);
+    Map<String, FileState> inputs = new HashMap<>();
+    // Without known outputs the build can't be skipped, so the sources needn't be read.
+    if (sources.outputs != null) {
+      // Output often goes below a source root; it mustn't count as a source.
+      Set<Path> outputs = new HashSet<>();
+      for (String output : sources.outputs) {
+        outputs.add(Paths.get(output).toAbsolutePath().normalize());
+      }
+      for (String root : sources.classpath) {
+        hashTree(Paths.get(root), outputs, previous, inputs);
+      }
+      for (String file : sources.projectFiles) {
+        hashTree(Paths.get(file), outputs, previous, inputs);
+      }
+    }
+    return new HaxeBuildFingerprint(sources.commandLines, defines, libraries, inputs,
+                                    sources.outputs != null ? stampOutputs(sources.outputs) : null);
+  }
+
+  /**
+   * @return why the module must be built again, or null if this fingerprint matches the previous one.
+   */
+  @Nullable
+  public String explainRebuild(@Nullable HaxeBuildFingerprint previous) {
+    if (previous == null) {
+      return "no previous successful build is recorded";
+    }
+    if (myOutputs == null) {
+      return "the output of this build system is not tracked";
+    }
+    if (!myCommandLines.equals(previous.myCommandLines)) {
+      return "the compiler command line changed from\n  " + String.join("\n  ", previous.myCommandLines) +
+             "\nto\n  " + String.join("\n  ", myCommandLines);
+    }
+    if (!myDefines.equals(previous.myDefines)) {
+      return "defines changed: " + describeChanges(previous.myDefines, myDefines);
+    }
+    if (!myLibraries.equals(previous.myLibraries)) {
+      return "haxelib versions changed: " + describeChanges(toMap(previous.myLibraries), toMap(myLibraries));
+    }
+    Map<String, String> inputs = new TreeMap<>();
+    myInputs.forEach((path, state) -> inputs.put(path, state.hash));
+    Map<String, String> previousInputs = new TreeMap<>();
+    previous.myInputs.forEach((path, state) -> previousInputs.put(path, state.hash));
+    if (!inputs.equals(previousInputs)) {
+      return "sources changed: " + describeChanges(previousInputs, inputs);
+    }
+    if (!myOutputs.equals(previous.myOutputs)) {
+      return "output artifacts changed since the last build: " +
+             describeChanges(previous.myOutputs != null ? previous.myOutputs : Collections.emptyMap(), myOutputs);
+    }
+    return null;
+  }
+
+  /**
+   * @return this fingerprint, with the output artifacts as they are now.
+   */
+  @NotNull
+  public HaxeBuildFingerprint withCurrentOutputs() {
+    return myOutputs == null ? this :
+           new HaxeBuildFingerprint(myCommandLines, myDefines, myLibraries, myInputs, stampOutputs(myOutputs.keySet()));
+  }
+
+  private static Map<String, String> toMap(Collection<String> names) {
+    Map<String, String> map = new TreeMap<>();
+    for (String name : names) {
+      map.put(name, "");
+    }
+    return map;
+  }
+
+  private static String describeChanges(@NotNull Map<String, String> before, @NotNull Map<String, String> after) {
+    List<String> changes = new ArrayList<>();
+    for (Map.Entry<String, String> entry : after.entrySet()) {
+      String old = before.get(entry.getKey());
+      if (old == null) {
+        changes.add("added " + entry.getKey());
+      }
+      else if (!old.equals(entry.getValue())) {
+        changes.add("modified " + entry.getKey());
+      }
+    }
+    for (String key : before.keySet()) {
+      if (!after.containsKey(key)) {
+        changes.add("removed " + key);
+      }
+    }
+    if (changes.size() <= MAX_LISTED) {
+      return String.join(", ", changes);
+    }
+    return String.join(", ", changes.subList(0, MAX_LISTED)) + " and " + (changes.size() - MAX_LISTED) + " more";
+  }
+
+  private static void hashTree(@NotNull Path root, @NotNull Set<Path> excluded, @Nullable HaxeBuildFingerprint previous,
+                               @NotNull Map<String, FileState> inputs) {
+    if (!Files.exists(root)) {
+      return;
+    }
+    try {
+      Files.walkFileTree(root, new SimpleFileVisitor<>() {
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+          Path name = dir.getFileName();
+          boolean hidden = !dir.equals(root) && name != null && name.toString().startsWith(".");
+          return hidden || excluded.contains(dir.toAbsolutePath().normalize())
+                 ? FileVisitResult.SKIP_SUBTREE
+                 : FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+          if (attributes.isRegularFile() && !excluded.contains(file.toAbsolutePath().normalize())) {
+            String path = FileUtil.toSystemIndependentName(file.toString());
+            if (!inputs.containsKey(path)) {
+              String stamp = attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+              FileState old = previous != null ? previous.myInputs.get(path) : null;
+              inputs.put(path, old != null && old.stamp.equals(stamp) ? old : new FileState(stamp, hashFile(file)));
+            }
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+          // Unreadable now; it gets an entry that won't match once it can be read.
+          inputs.put(FileUtil.toSystemIndependentName(file.toString()), new FileState("", "unreadable"));
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    catch (IOException e) {
+      LOG.debug("Cannot fingerprint " + root, e);
+      inputs.put(FileUtil.toSystemIndependentName(root.toString()), new FileState("", "unreadable"));
+    }
+  }
+
+  @NotNull
+  private static String hashFile(@NotNull Path file) throws IOException {
+    MessageDigest digest = DigestUtil.sha256();
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream in = Files.newInputStream(file)) {
+      for (int read; (read = in.read(buffer)) > 0; ) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    return DigestUtil.digestToHash(digest);
+  }
+
+  /**
+   * Stamps output files by size and modification time; directories by their number of files, their
+   * total size and their newest modification time.
+   */
+  @NotNull
+  private static Map<String, String> stampOutputs(@NotNull Collection<String> outputs) {
+    Map<String, String> stamps = new TreeMap<>();
+    for (String output : outputs) {
+      Path path = Paths.get(output);
+      try {
+        if (Files.isDirectory(path)) {
+          long[] totals = new long[3];
+          Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+              totals[0]++;
+              totals[1] += attributes.size();
+              totals[2] = Math.max(totals[2], attributes.lastModifiedTime().toMillis());
+              return FileVisitResult.CONTINUE;
+            }
+          });
+          stamps.put(output, totals[0] + " files:" + totals[1] + ":" + totals[2]);
+        }
+        else if (Files.exists(path)) {
+          stamps.put(output, Files.size(path) + ":" + Files.getLastModifiedTime(path).toMillis());
+        }
+        else {
+          stamps.put(output, "missing");
+        }
+      }
+      catch (IOException e) {
+        stamps.put(output, "unreadable");
+      }
+    }
+    return stamps;
+  }
+
+  /**
+   * What a module is built from, as far as it is known without running the build.
+   */
+  private static final class Sources {
+    final List<String> commandLines = new ArrayList<>();
+    final Set<String> classpath = new LinkedHashSet<>();
+    final Set<String> projectFiles = new LinkedHashSet<>();
+    @Nullable Set<String> outputs = new LinkedHashSet<>();
+
+    static Sources collect(@NotNull HaxeCommonCompilerUtil.CompilationContext context) {
+      Sources sources = new Sources();
+      for (List<String> commandLine : HaxeCommonCompilerUtil.generateCommandLines(context)) {
+        sources.commandLines.add(String.join(" ", commandLine));
+      }
+      sources.classpath.addAll(context.getSourceRoots());
+
+      HaxeModuleSettingsBase settings = context.getModuleSettings();
+      String workingPath = HaxeCommonCompilerUtil.calculateWorkingPath(context);
+      if (settings.isUseUserPropertiesToBuild()) {
+        if (context.getHaxeTarget() != null && !context.getHaxeTarget().isNoOutput()) {
+          sources.outputs.add(HaxeCommonCompilerUtil.calculateOutputPath(context));
+        }
+      }
+      else if (settings.isUseHxmlToBuild()) {
+        String hxmlPath = resolve(workingPath, settings.getHxmlPath());
+        sources.projectFiles.add(hxmlPath);
+        sources.collectHxml(hxmlPath, workingPath, 0);
+      }
+      else {
+        // lime and NME decide where their output goes, and keep track of it themselves.
+        sources.projectFiles.add(settings.isUseOpenFLToBuild() ? settings.getOpenFLPath() : settings.getNmmlPath());
+        sources.outputs = null;
+      }
+      return sources;
+    }
+
+    /**
+     * Reads the class paths and the target outputs of an hxml file, and of the hxml files it includes.
+     *
+     * @return the directory relative paths resolve against after the file, which --cwd may have changed.
+     */
+    private String collectHxml(@NotNull String hxmlPath, @NotNull String base, int depth) {
+      List<String> lines;
+      try {
+        lines = FileUtil.loadLines(hxmlPath);
+      }
+      catch (IOException e) {
+        LOG.debug("Cannot read " + hxmlPath, e);
+        outputs = null;
+        return base;
+      }
+      for (String line : lines) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+          continue;
+        }
+        int separator = StringUtil.indexOfAny(trimmed, " \t");
+        String flag = separator < 0 ? trimmed : trimmed.substring(0, separator);
+        String value = separator < 0 ? "" : trimmed.substring(separator + 1).trim();
+        if (separator < 0 && flag.endsWith(".hxml")) {
+          if (depth < MAX_HXML_DEPTH) {
+            String included = resolve(base, flag);
+            projectFiles.add(included);
+            base = collectHxml(included, base, depth + 1);
+          }
+        }
+        else if (flag.equals("-cp") || flag.equals("-p") || flag.equals("--class-path")) {
+          classpath.add(resolve(base, value));
+        }
+        else if (flag.equals("--cwd") || flag.equals("-C")) {
+          base = resolve(base, value);
+        }
+        else if (outputs != null && !value.isEmpty() && isOutputFlag(flag)) {
+          outputs.add(resolve(base, value));
+        }
+      }
+      return base;
+    }
+
+    private static boolean isOutputFlag(@NotNull String flag) {
+      for (HaxeTarget target : HaxeTarget.values()) {
+        if (!target.isNoOutput() && (flag.equals(target.getCompilerFlag()) || flag.equals("-" + target.getCompilerFlag()))) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private static String resolve(@NotNull String base, @NotNull String path) {
+      String unquoted = StringUtil.unquoteString(path.trim());
+      return FileUtil.isAbsolute(unquoted) ? unquoted : FileUtil.toSystemIndependentName(new File(base, unquoted).getPath());
+    }
+  }
+
+  /**
+   * @return the fingerprint saved in the file, or null if there is none or it can't be read.
+   */
+  @Nullable
+  public static HaxeBuildFingerprint load(@NotNull File file) {
+    if (!file.isFile()) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != VERSION) {
+        return null;
+      }
+      List<String> commandLines = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        commandLines.add(IOUtil.readUTF(in));
+      }
+      Map<String, String> defines = new HashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        defines.put(IOUtil.readUTF(in), IOUtil.readUTF(in));
+      }
+      List<String> libraries = new ArrayList<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        libraries.add(IOUtil.readUTF(in));
+      }
+      Map<String, FileState> inputs = new HashMap<>();
+      for (int i = in.readInt(); i > 0; i--) {
+        inputs.put(IOUtil.readUTF(in), new FileState(IOUtil.readUTF(in), IOUtil.readUTF(in)));
+      }
+      Map<String, String> outputs = null;
+      int outputCount = in.readInt();
+      if (outputCount >= 0) {
+        outputs = new HashMap<>();
+        for (int i = outputCount; i > 0; i--) {
+          outputs.put(IOUtil.readUTF(in), IOUtil.readUTF(in));
+        }
+      }
+      return new HaxeBuildFingerprint(commandLines, defines, libraries, inputs, outputs);
+    }
+    catch (IOException e) {
+      LOG.debug("Cannot read the build fingerprint in " + file, e);
+      return null;
+    }
+  }
+
+  public void save(@NotNull File file) {
+    try {
+      FileUtil.createParentDirs(file);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+        out.writeInt(VERSION);
+        out.writeInt(myCommandLines.size());
+        for (String commandLine : myCommandLines) {
+          IOUtil.writeUTF(out, commandLine);
+        }
+        out.writeInt(myDefines.size());
+        for (Map.Entry<String, String> define : myDefines.entrySet()) {
+          IOUtil.writeUTF(out, define.getKey());
+          IOUtil.writeUTF(out, define.getValue());
+        }
+        out.writeInt(myLibraries.size());
+        for (String library : myLibraries) {
+          IOUtil.writeUTF(out, library);
+        }
+        out.writeInt(myInputs.size());
+        for (Map.Entry<String, FileState> input : myInputs.entrySet()) {
+          IOUtil.writeUTF(out, input.getKey());
+          IOUtil.writeUTF(out, input.getValue().stamp);
+          IOUtil.writeUTF(out, input.getValue().hash);
+        }
+        out.writeInt(myOutputs != null ? myOutputs.size() : -1);
+        if (myOutputs != null) {
+          for (Map.Entry<String, String> output : myOutputs.entrySet()) {
+            IOUtil.writeUTF(out, output.getKey());
+            IOUtil.writeUTF(out, output.getValue());
+          }
+        }
+      }
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot save the build fingerprint in " + file, e);
+      FileUtil.delete(file);
+    }
+  }
+
+  /**
+   * Forgets the module's last build, so that it is built next time.
+   */
+  public static void clear(@NotNull File file) {
+    FileUtil.delete(file);
+  }
+}
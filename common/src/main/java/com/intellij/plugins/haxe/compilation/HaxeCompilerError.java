@@ -20,6 +20,7 @@ package com.intellij.plugins.haxe.compilation;
 
 import com.intellij.openapi.compiler.CompilerMessageCategory;
 import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.VirtualFileManager;
@@ -112,8 +113,11 @@ public class HaxeCompilerError {
         // Trim the trailing newline, if any.
         String trimmed = message.trim();
 
+        // Each pattern is only tried on lines that contain the text it needs to match, so that a line
+        // is scanned by one regex at most, however much output a failing build produces.
+
         // Library (\S+) (is not installed.*)
-        if ((m = pLibraryNotInstalled.matcher(trimmed)).matches()) {
+        if (trimmed.startsWith("Library ") && (m = pLibraryNotInstalled.matcher(trimmed)).matches()) {
             return new HaxeCompilerError(CompilerMessageCategory.ERROR,
                                          "Library " + m.group(1).trim() +
                                          " " +
@@ -123,21 +127,21 @@ public class HaxeCompilerError {
         String rawPath = null, rawLine, rawColumn, text;
 
         // ([^:]+):([\\d]+): characters ([\\d]+)-[\\d]+ :(.*)
-        if ((m = pColumnError.matcher(trimmed)).matches()) {
+        if (trimmed.contains(": characters ") && (m = pColumnError.matcher(trimmed)).matches()) {
             rawPath = m.group(1);
             rawLine = m.group(2);
             rawColumn = m.group(3);
             text = m.group(4).trim();
         }
         // ([^:]+):([\\d]+): lines [\\d]+-[\\d]+ :(.*)
-        else if ((m = pLineError.matcher(trimmed)).matches()) {
+        else if (trimmed.contains(": lines ") && (m = pLineError.matcher(trimmed)).matches()) {
             rawPath = m.group(1);
             rawLine = m.group(2);
             rawColumn = "-1";
             text = m.group(3).trim();
         }
         // ([^:]*)Error:(.*)
-        else if ((m = pBareError.matcher(trimmed)).matches()) {
+        else if (StringUtil.containsIgnoreCase(trimmed, "error:") && (m = pBareError.matcher(trimmed)).matches()) {
           String msg = buildGenericErrorMessage(m.group(1).trim(), m.group(2).trim());
           return new HaxeCompilerError(CompilerMessageCategory.ERROR,
                                        msg, null, -1, -1);
@@ -147,7 +151,7 @@ public class HaxeCompilerError {
         // match the expression that are not errors.  Those we try to ignore.
         // Windows file paths don't have spaces around the colon, so should not
         // match the pattern.
-        else if ((m = pGenericError.matcher(trimmed)).matches()) {
+        else if (trimmed.contains(" : ") && (m = pGenericError.matcher(trimmed)).matches()) {
           String error = m.group(1).trim();
           if (matchesInformationalPattern(error)) {
             // Don't trim the message for information.  (Spaces are meaningful in the compiler banners.)
@@ -224,23 +228,23 @@ public class HaxeCompilerError {
     }
 
     private static boolean matchesInformationalPattern(String message) {
-      return pGeneratingStatusMessage.matcher(message).matches()
-          || mInformationalMessages.contains(message)
-          || pCompilingStatusMessage.matcher(message).matches();
+      return mInformationalMessages.contains(message)
+          || message.startsWith("Generating ") && pGeneratingStatusMessage.matcher(message).matches()
+          || message.startsWith("- Compiling ") && pCompilingStatusMessage.matcher(message).matches();
     }
 
-    static Pattern pLibraryNotInstalled = Pattern.compile
+    static final Pattern pLibraryNotInstalled = Pattern.compile
         ("Library (\\S+) (is not installed.*)");
-    static Pattern pBareError = Pattern.compile("([^:]*)Error:(.*)", Pattern.CASE_INSENSITIVE);
-    static Pattern pColumnError =
+    static final Pattern pBareError = Pattern.compile("([^:]*)Error:(.*)", Pattern.CASE_INSENSITIVE);
+    static final Pattern pColumnError =
         Pattern.compile("(.+?):([\\d]+): characters ([\\d]+)-[\\d]+ :(.*)");
-    static Pattern pLineError =
+    static final Pattern pLineError =
         Pattern.compile("(.+?):([\\d]+): lines [\\d]+-[\\d]+ :(.*)");
 
     // Unfortunately, the Haxe compiler doesn't always mark its error lines with
     // a useful "Warning" or "Error" prefix.  However, the common error output (main.ml)
     // uses the pattern "%s : %s".
-    static Pattern pGenericError = Pattern.compile("(.+?) : (.+)");
+    static final Pattern pGenericError = Pattern.compile("(.+?) : (.+)");
 
     // These are a few well-known informational patterns that should NOT be marked
     // as errors.  Keeping this up to date will always be an arms race.
@@ -252,6 +256,6 @@ public class HaxeCompilerError {
       };
       mInformationalMessages.addAll(Arrays.asList(nonErrors));
     }
-    static Pattern pGeneratingStatusMessage = Pattern.compile("Generating (.+)");
-    static Pattern pCompilingStatusMessage = Pattern.compile("- Compiling (.+)");
+    static final Pattern pGeneratingStatusMessage = Pattern.compile("Generating (.+)");
+    static final Pattern pCompilingStatusMessage = Pattern.compile("- Compiling (.+)");
 }
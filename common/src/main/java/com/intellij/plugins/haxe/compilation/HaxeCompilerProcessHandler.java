@@ -16,28 +16,37 @@
 package com.intellij.plugins.haxe.compilation;
 
 import com.intellij.execution.process.ColoredProcessHandler;
+import com.intellij.execution.process.ProcessOutputType;
 import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.plugins.haxe.HaxeCommonBundle;
 import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Runs the compiler and handles its output.
  *
+ * Output is split into lines as it arrives, and each line is classified and handed to the
+ * compilation context right away.  A warning or error that was already reported isn't
+ * reported again: macros and -D warn-* can print the same one thousands of times.
+ *
  * Created by ebishton on 6/14/17.
  */
 public class HaxeCompilerProcessHandler extends ColoredProcessHandler {
 
-  static final String STDERR_PREFIX = "(stderr) ";
-
   final HaxeCommonCompilerUtil.CompilationContext context;
 
+  private final Object myLock = new Object();
+  // What each stream has printed of its current line so far.
+  private final StringBuilder myStdoutLine = new StringBuilder();
+  private final StringBuilder myStderrLine = new StringBuilder();
+  private final Set<String> myReportedProblems = new HashSet<String>();
+  private int mySuppressedCount;
+
   public HaxeCompilerProcessHandler(@NotNull HaxeCommonCompilerUtil.CompilationContext context, @NotNull Process process, /*@NotNull*/ String commandLine, @NotNull Charset charset) {
     super(process, commandLine, charset);
     this.context = context;
@@ -45,42 +54,60 @@ public class HaxeCompilerProcessHandler extends ColoredProcessHandler {
 
   @Override
   protected void onOSProcessTerminated(int exitCode) {
-    if (exitCode != 0) {
-      List<String> errors = new ArrayList<String>();
-
-      if (processHasSeparateErrorStream()) {
-        InputStream stderr = this.getProcess().getErrorStream();
-
-
-        InputStreamReader reader = new InputStreamReader(stderr);
-        Scanner scanner = new Scanner(reader);
-
-        boolean hadOutput = false;
-        while (scanner.hasNextLine()) {
-          String nextLine = scanner.nextLine();
-          errors.add(STDERR_PREFIX + nextLine);
-          hadOutput = true;
-        }
+    flushOutput(exitCode);
+    super.onOSProcessTerminated(exitCode);
+  }
 
-        if (hadOutput) {
-          errors.add( STDERR_PREFIX + " ==== End of stderr output. ==== ");
-        } else {
-          errors.add("No additional error information available.");
-        }
+  /**
+   * Delivers the lines the compiler didn't finish, and the summary of its run.
+   */
+  void flushOutput(int exitCode) {
+    synchronized (myLock) {
+      flushLine(myStdoutLine);
+      flushLine(myStderrLine);
+      if (mySuppressedCount > 0) {
+        deliver(HaxeCommonBundle.message("compiler.repeated.messages.suppressed", mySuppressedCount));
+        mySuppressedCount = 0;
+      }
+      if (exitCode != 0) {
+        deliver("Command exited with an error code : " + exitCode);
       }
-      errors.add("Command exited with an error code : " + exitCode);
-
-      context.handleOutput(errors.toArray(new String[0]));
     }
-    super.onOSProcessTerminated(exitCode);
   }
 
   @Override
   public void coloredTextAvailable(@NotNull String text, @NotNull Key attributes) {
     super.coloredTextAvailable(text, attributes);
-    if(text.trim().length()>0) {// avoid empty lines
-      context.handleOutput(new String[]{text});
+    synchronized (myLock) {
+      StringBuilder line = ProcessOutputType.isStderr(attributes) ? myStderrLine : myStdoutLine;
+      int start = 0;
+      for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+        line.append(text, start, end);
+        flushLine(line);
+        start = end + 1;
+      }
+      line.append(text, start, text.length());
+    }
+  }
+
+  private void flushLine(@NotNull StringBuilder line) {
+    String text = StringUtil.trimTrailing(line.toString(), '\r');
+    line.setLength(0);
+    if (text.trim().length() > 0) { // avoid empty lines
+      deliver(text);
+    }
+  }
+
+  private void deliver(@NotNull String line) {
+    HaxeCompilerError message = HaxeCompilerError.create(StringUtil.notNullize(context.getErrorRoot()), line);
+    if (message != null && !message.isInformationalMessage()) {
+      String problem = message.getCategory() + ":" + message.getPath() + ":" + message.getLine() + ":" + message.getColumn() +
+                       ":" + message.getErrorMessage();
+      if (!myReportedProblems.add(problem)) {
+        mySuppressedCount++;
+        return;
+      }
     }
-    // TODO mlo: add support for compiler new output format
+    context.handleCompilerMessage(line, message);
   }
 }
@@ -23,6 +23,8 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.plugins.haxe.HaxeCommonBundle;
+import com.intellij.plugins.haxe.compilation.HaxeBuildFingerprint;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerError;
 import com.intellij.plugins.haxe.compilation.HaxeCompilerProcessHandler;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.config.NMETarget;
@@ -33,13 +35,19 @@ import com.intellij.util.BooleanValueHolder;
 import com.intellij.util.PathUtil;
 import com.intellij.util.text.StringTokenizer;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.PropertyKey;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -47,6 +55,15 @@ import java.util.regex.Pattern;
  * @author: Fedor.Korotkov
  */
 public class HaxeCommonCompilerUtil {
+
+  /**
+   * Names of the build parameters the IDE hands the JPS builder: the id of the runner the build is for,
+   * the comma separated names of the modules the IDE compiles itself, and the project's defines
+   * (see {@link #encodeDefines}).
+   */
+  public static final String RUNNER_ID_PARAMETER = "RUNNER_ID";
+  public static final String IDE_BUILT_MODULES_PARAMETER = "HAXE_IDE_BUILT_MODULES";
+  public static final String DEFINES_PARAMETER = "HAXE_DEFINES";
   public interface CompilationContext {
 
     HaxeSdkAdditionalDataBase getHaxeSdkData();
@@ -87,13 +104,100 @@ public class HaxeCommonCompilerUtil {
 
     void handleOutput(String[] lines);
 
+    /**
+     * Receives a line of compiler output as soon as the compiler has printed it, along with what it says.
+     * Without an override, the line goes to {@link #handleOutput}.
+     */
+    default void handleCompilerMessage(@NotNull String line, @Nullable HaxeCompilerError message) {
+      handleOutput(new String[]{line});
+    }
+
     HaxeTarget getHaxeTarget();
 
     String getModuleDirPath();
+
+    /**
+     * Arguments that hand the compilation to a compilation server, such as {@code --connect <port>}.
+     * They only apply to builds that run the haxe compiler directly.
+     */
+    default List<String> getCompilationServerArguments() {
+      return Collections.emptyList();
+    }
   }
 
   private static final Logger LOG = Logger.getInstance("#HaxeCommonCompilerUtil");
 
+  /**
+   * Compiles the module unless the fingerprint of its last successful build, kept in {@code fingerprintFile},
+   * shows that nothing it is built from has changed since.
+   *
+   * @param defines   the defines the build sees besides those on its command line.
+   * @param libraries the names of the module's libraries.
+   * @param forced    whether a rebuild was requested, which compiles the module regardless.
+   */
+  public static boolean compileIfChanged(final CompilationContext context,
+                                         @NotNull File fingerprintFile,
+                                         @NotNull Map<String, String> defines,
+                                         @NotNull Collection<String> libraries,
+                                         boolean forced) {
+    HaxeBuildFingerprint fingerprint = null;
+    HaxeBuildFingerprint previous = null;
+    if (!context.getModuleSettings().isExcludeFromCompilation()) {
+      previous = HaxeBuildFingerprint.load(fingerprintFile);
+      try {
+        fingerprint = HaxeBuildFingerprint.compute(context, defines, libraries, previous);
+      }
+      catch (RuntimeException e) {
+        // Incomplete settings; the compiler reports them.
+        LOG.debug("Cannot fingerprint module " + context.getModuleName(), e);
+      }
+    }
+    if (fingerprint != null) {
+      String reason = forced ? "a rebuild was requested" : fingerprint.explainRebuild(previous);
+      if (reason == null) {
+        context.infoHandler(HaxeCommonBundle.message("module.0.is.up.to.date", context.getModuleName()));
+        return true;
+      }
+      context.infoHandler(HaxeCommonBundle.message("compiling.module.0.because.1", context.getModuleName(), reason));
+    }
+
+    boolean compiled = compile(context);
+
+    if (!compiled) {
+      HaxeBuildFingerprint.clear(fingerprintFile);
+    }
+    else if (fingerprint != null) {
+      fingerprint.withCurrentOutputs().save(fingerprintFile);
+    }
+    return compiled;
+  }
+
+  /**
+   * @return the defines as one line per define, {@code name=value}, for {@link #DEFINES_PARAMETER}.
+   */
+  @NotNull
+  public static String encodeDefines(@NotNull Map<String, String> defines) {
+    StringBuilder encoded = new StringBuilder();
+    for (Map.Entry<String, String> define : new TreeMap<>(defines).entrySet()) {
+      encoded.append(define.getKey()).append('=').append(StringUtil.notNullize(define.getValue())).append('\n');
+    }
+    return encoded.toString();
+  }
+
+  @NotNull
+  public static Map<String, String> decodeDefines(@Nullable String encoded) {
+    Map<String, String> defines = new HashMap<>();
+    if (encoded != null) {
+      for (String line : StringUtil.splitByLines(encoded)) {
+        int separator = line.indexOf('=');
+        if (separator > 0) {
+          defines.put(line.substring(0, separator), line.substring(separator + 1));
+        }
+      }
+    }
+    return defines;
+  }
+
   public static boolean compile(final CompilationContext context) {
     HaxeModuleSettingsBase settings = context.getModuleSettings();
     if (settings.isExcludeFromCompilation()) {
@@ -118,10 +222,16 @@ public class HaxeCommonCompilerUtil {
     }
 
     final List<List<String>> commandLines = generateCommandLines(context);
+    final List<String> serverArguments = settings.isUseHxmlToBuild() || settings.isUseUserPropertiesToBuild()
+                                         ? context.getCompilationServerArguments()
+                                         : Collections.<String>emptyList();
 
     final BooleanValueHolder hasErrors = new BooleanValueHolder(false);
     try {
-      for (List<String> commandLine : commandLines) {
+      for (List<String> generatedCommandLine : commandLines) {
+        final List<String> commandLine = new ArrayList<String>(generatedCommandLine);
+        // The haxe client passes everything after --connect on to the server.
+        commandLine.addAll(1, serverArguments);
 
         // Show the command line in the output window.
         // TODO: Make a checkbox in the SDK configuration window to enable/disable showing the command line.
@@ -237,7 +347,7 @@ public class HaxeCommonCompilerUtil {
 
 
   @NotNull
-  private static String calculateWorkingPath(CompilationContext context) {
+  public static String calculateWorkingPath(CompilationContext context) {
     HaxeModuleSettingsBase settings = context.getModuleSettings();
 
     // TODO: Add a setting for the working directory to the project/module settings dialog.  Then use that here.
@@ -328,7 +438,7 @@ public class HaxeCommonCompilerUtil {
   }
 
 
-  private static List<List<String>> generateCommandLines(CompilationContext context) {
+  public static List<List<String>> generateCommandLines(CompilationContext context) {
     List<List<String>> clList = new ArrayList<List<String>>();
     HaxeModuleSettingsBase settings = context.getModuleSettings();
 
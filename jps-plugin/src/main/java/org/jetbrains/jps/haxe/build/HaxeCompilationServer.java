@@ -0,0 +1,242 @@
+package org.jetbrains.jps.haxe.build;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
+import com.intellij.plugins.haxe.util.HaxeSdkUtilBase;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.jps.incremental.CompileContext;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * A {@code haxe --wait} compilation server that lives as long as one build.
+ *
+ * Compilations handed to it with {@code --connect} reuse the std library and the haxelibs typed by
+ * the compilations before them.  A server compiles one request at a time, so modules built in
+ * parallel lease a server each; a released server is reused by the next module built with the same SDK.
+ */
+final class HaxeCompilationServer {
+  private static final Logger LOG = Logger.getInstance(HaxeCompilationServer.class);
+  private static final Key<Pool> POOL = Key.create("haxe.compilation.servers");
+  // Set to true to compile every module with a compiler of its own.
+  private static final String DISABLED_PROPERTY = "haxe.compilation.server.disabled";
+  private static final long STARTUP_TIMEOUT_MS = 10000;
+  private static final int CONNECT_TIMEOUT_MS = 200;
+  private static final String HOST = "127.0.0.1";
+
+  private final String mySdkHomePath;
+  private final Process myProcess;
+  private final int myPort;
+
+  HaxeCompilationServer(@NotNull String sdkHomePath, @NotNull Process process, int port) {
+    mySdkHomePath = sdkHomePath;
+    myProcess = process;
+    myPort = port;
+  }
+
+  /**
+   * Takes an idle server for the SDK, or starts one.  The caller has it to itself until it is released.
+   *
+   * @return the server, or null if none could be started; the module is then compiled on its own.
+   */
+  @Nullable
+  static HaxeCompilationServer lease(@NotNull CompileContext context,
+                                     @Nullable String sdkHomePath,
+                                     @Nullable HaxeSdkAdditionalDataBase sdkData) {
+    if (sdkHomePath == null || Boolean.getBoolean(DISABLED_PROPERTY)) {
+      return null;
+    }
+    return getPool(context).lease(sdkHomePath, () -> start(sdkHomePath, sdkData));
+  }
+
+  /**
+   * Gives the server back for other modules to use.
+   */
+  void release(@NotNull CompileContext context) {
+    getPool(context).release(this);
+  }
+
+  /**
+   * Stops the servers of the build.  Servers leased at the time stop as well.
+   */
+  static void stopAll(@NotNull CompileContext context) {
+    getPool(context).stopAll();
+  }
+
+  @NotNull
+  List<String> getConnectArguments() {
+    return Arrays.asList("--connect", HOST + ":" + myPort);
+  }
+
+  boolean isAlive() {
+    return myProcess.isAlive();
+  }
+
+  /**
+   * @return whether the server still accepts connections.  A server that doesn't would fail the
+   *         {@code --connect} of the next compilation handed to it.
+   */
+  boolean isResponding() {
+    return isAlive() && canConnect(myPort);
+  }
+
+  private void stop() {
+    myProcess.destroy();
+  }
+
+  @NotNull
+  private static Pool getPool(@NotNull CompileContext context) {
+    synchronized (POOL) {
+      Pool pool = context.getUserData(POOL);
+      if (pool == null) {
+        pool = new Pool();
+        context.putUserData(POOL, pool);
+      }
+      return pool;
+    }
+  }
+
+  @Nullable
+  private static HaxeCompilationServer start(@NotNull String sdkHomePath, @Nullable HaxeSdkAdditionalDataBase sdkData) {
+    String compilerPath = HaxeSdkUtilBase.getCompilerPathByFolderPath(sdkHomePath);
+    if (compilerPath == null) {
+      return null;
+    }
+    Process process = null;
+    try {
+      int port = findFreePort();
+      List<String> commandLine = Arrays.asList(compilerPath, "--wait", HOST + ":" + port);
+      ProcessBuilder builder = HaxeSdkUtilBase.createProcessBuilder(commandLine, null, sdkData);
+      // The server logs each request; nobody reads it.
+      builder.redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD);
+      process = builder.start();
+      if (awaitListening(process, port)) {
+        LOG.info("Started a Haxe compilation server on port " + port + " for " + sdkHomePath);
+        return new HaxeCompilationServer(sdkHomePath, process, port);
+      }
+      LOG.warn("Haxe compilation server for " + sdkHomePath + " didn't start listening; compiling without it");
+    }
+    catch (IOException e) {
+      LOG.warn("Cannot start a Haxe compilation server for " + sdkHomePath + "; compiling without it", e);
+    }
+    if (process != null) {
+      process.destroy();
+    }
+    return null;
+  }
+
+  private static int findFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0, 0, InetAddress.getByName(HOST))) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static boolean awaitListening(@NotNull Process process, int port) {
+    long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+    while (process.isAlive() && System.currentTimeMillis() < deadline) {
+      if (canConnect(port)) {
+        return true;
+      }
+      try {
+        Thread.sleep(50);
+      }
+      catch (InterruptedException interrupted) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return false;
+  }
+
+  private static boolean canConnect(int port) {
+    try (Socket socket = new Socket()) {
+      socket.connect(new InetSocketAddress(HOST, port), CONNECT_TIMEOUT_MS);
+      return true;
+    }
+    catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * The servers of one build.
+   */
+  static final class Pool {
+    private final Map<String, Deque<HaxeCompilationServer>> idle = new HashMap<>();
+    private final List<HaxeCompilationServer> all = new ArrayList<>();
+    private boolean stopped;
+
+    /**
+     * @return an idle server for the SDK that still responds, or one from [starter].  Idle servers
+     *         that stopped responding are stopped and left out.
+     */
+    @Nullable
+    HaxeCompilationServer lease(@NotNull String sdkHomePath, @NotNull Supplier<HaxeCompilationServer> starter) {
+      while (true) {
+        HaxeCompilationServer server;
+        synchronized (this) {
+          if (stopped) {
+            return null;
+          }
+          Deque<HaxeCompilationServer> servers = idle.get(sdkHomePath);
+          server = servers != null ? servers.poll() : null;
+        }
+        if (server == null) {
+          break;
+        }
+        // Checked outside the lock; a server that hangs takes a while to time out.
+        if (server.isResponding()) {
+          return server;
+        }
+        LOG.warn("Haxe compilation server for " + sdkHomePath + " stopped responding; replacing it");
+        synchronized (this) {
+          all.remove(server);
+        }
+        server.stop();
+      }
+      HaxeCompilationServer server = starter.get();
+      if (server != null) {
+        synchronized (this) {
+          if (!stopped) {
+            all.add(server);
+            return server;
+          }
+        }
+        server.stop();
+      }
+      return null;
+    }
+
+    void release(@NotNull HaxeCompilationServer server) {
+      synchronized (this) {
+        if (!stopped && server.isAlive()) {
+          idle.computeIfAbsent(server.mySdkHomePath, path -> new ArrayDeque<>()).push(server);
+          return;
+        }
+        all.remove(server);
+      }
+      server.stop();
+    }
+
+    void stopAll() {
+      List<HaxeCompilationServer> servers;
+      synchronized (this) {
+        stopped = true;
+        servers = new ArrayList<>(all);
+        all.clear();
+        idle.clear();
+      }
+      for (HaxeCompilationServer server : servers) {
+        server.stop();
+      }
+    }
+  }
+}
@@ -19,14 +19,15 @@
 package org.jetbrains.jps.haxe.build;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.plugins.haxe.HaxeCommonBundle;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerError;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
 import com.intellij.plugins.haxe.module.HaxeModuleSettingsBase;
 import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
-import com.intellij.util.Function;
-import com.intellij.util.containers.ContainerUtil;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -34,6 +35,7 @@ import org.jetbrains.jps.ModuleChunk;
 import org.jetbrains.jps.builders.DirtyFilesHolder;
 import org.jetbrains.jps.builders.java.JavaSourceRootDescriptor;
 import org.jetbrains.jps.haxe.model.module.JpsHaxeModuleSettings;
+import org.jetbrains.jps.haxe.model.module.JpsHaxeModuleType;
 import org.jetbrains.jps.haxe.model.sdk.JpsHaxeSdkAdditionalData;
 import org.jetbrains.jps.haxe.model.sdk.JpsHaxeSdkType;
 import org.jetbrains.jps.haxe.util.JpsHaxeUtil;
@@ -43,16 +45,20 @@ import org.jetbrains.jps.incremental.messages.CompilerMessage;
 import org.jetbrains.jps.incremental.messages.ProgressMessage;
 import org.jetbrains.jps.model.java.JpsJavaExtensionService;
 import org.jetbrains.jps.model.java.JpsJavaProjectExtension;
+import org.jetbrains.jps.model.library.JpsLibrary;
 import org.jetbrains.jps.model.library.sdk.JpsSdk;
 import org.jetbrains.jps.model.module.JpsModule;
-import org.jetbrains.jps.model.module.JpsModuleSourceRoot;
 import org.jetbrains.jps.model.serialization.JpsModelSerializationDataService;
-import org.jetbrains.jps.util.JpsPathUtil;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * @author: Fedor.Korotkov
@@ -81,17 +87,23 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
     throws ProjectBuildException, IOException {
     boolean doneSomething = false;
 
-    // Don't do this.  HaxeCompiler already does it, and doing it here just
-    // does it again.
-//    for (final JpsModule module : chunk.getModules()) {
-//      if (module.getModuleType() == JpsHaxeModuleType.INSTANCE) {
-//        doneSomething |= processModule(context, dirtyFilesHolder, module);
-//      }
-//    }
+    // Chunks that don't depend on each other are built concurrently when the build runs in parallel,
+    // so this must not keep any state of its own.
+    final boolean forced = context.getScope().isBuildForced(chunk.representativeTarget());
+    for (final JpsModule module : chunk.getModules()) {
+      if (module.getModuleType() == JpsHaxeModuleType.INSTANCE) {
+        doneSomething |= processModule(context, dirtyFilesHolder, module, forced);
+      }
+    }
 
     return doneSomething ? ExitCode.OK : ExitCode.NOTHING_DONE;
   }
 
+  @Override
+  public void buildFinished(CompileContext context) {
+    HaxeCompilationServer.stopAll(context);
+  }
+
   @Override
   public List<String> getCompilableFileExtensions() {
     return Collections.emptyList();
@@ -99,11 +111,15 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
   private boolean processModule(final CompileContext context,
                                 final DirtyFilesHolder<JavaSourceRootDescriptor, ModuleBuildTarget> holder,
-                                final JpsModule module) {
-    final boolean isDebugRunner = "HaxeDebugRunner".equals(context.getBuilderParameter("RUNNER_ID"));
+                                final JpsModule module,
+                                final boolean forced) {
+    final boolean isDebugRunner = "HaxeDebugRunner".equals(context.getBuilderParameter(HaxeCommonCompilerUtil.RUNNER_ID_PARAMETER));
     if (isDebugRunner ^ myDebugBuilder) {
       return false;
     }
+    if (isBuiltByIde(context, module)) {
+      return false;
+    }
     final JpsHaxeModuleSettings moduleSettings = JpsHaxeUtil.getModuleSettings(module);
     if (moduleSettings == null) {
       context.processMessage(new CompilerMessage(
@@ -121,7 +137,78 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
     context.processMessage(new ProgressMessage(HaxeCommonBundle.message("haxe.module.compilation.progress.message", module.getName())));
 
-    boolean compiled = HaxeCommonCompilerUtil.compile(new HaxeCommonCompilerUtil.CompilationContext() {
+    HaxeCompilationServer server = null;
+    if (moduleSettings.isUseHxmlToBuild() || moduleSettings.isUseUserPropertiesToBuild()) {
+      server = HaxeCompilationServer.lease(context, jpsSdk.getHomePath(), jpsSdk.getSdkProperties());
+    }
+    boolean compiled;
+    try {
+      compiled = HaxeCommonCompilerUtil.compileIfChanged(
+        createCompilationContext(context, module, moduleSettings, jpsSdk, isDebugRunner, server),
+        getFingerprintFile(context, module), getDefines(context), getLibraryNames(module), forced);
+    }
+    finally {
+      if (server != null) {
+        server.release(context);
+      }
+    }
+
+    if (!compiled) {
+      context.processMessage(new CompilerMessage(BUILDER_NAME, BuildMessage.Kind.ERROR, "compilation failed"));
+    }
+
+    return compiled;
+  }
+
+  private static boolean isBuiltByIde(@NotNull CompileContext context, @NotNull JpsModule module) {
+    final String modules = context.getBuilderParameter(HaxeCommonCompilerUtil.IDE_BUILT_MODULES_PARAMETER);
+    return modules != null && StringUtil.split(modules, ",").contains(module.getName());
+  }
+
+  @NotNull
+  private static File getFingerprintFile(@NotNull CompileContext context, @NotNull JpsModule module) {
+    final File dataRoot = context.getProjectDescriptor().dataManager.getDataPaths().getDataStorageRoot();
+    return new File(new File(dataRoot, "haxe-fingerprints"), FileUtil.sanitizeFileName(module.getName(), false) + ".bin");
+  }
+
+  /**
+   * @return the defines of the project, as the IDE handed them over.  They are fingerprinted the same
+   *         way the IDE's own builds fingerprint them.
+   */
+  @NotNull
+  private static Map<String, String> getDefines(@NotNull CompileContext context) {
+    return HaxeCommonCompilerUtil.decodeDefines(context.getBuilderParameter(HaxeCommonCompilerUtil.DEFINES_PARAMETER));
+  }
+
+  /**
+   * @return the roots the module compiles against: the source roots of the module and of the modules
+   *         it depends on, and the roots of its libraries.  The IDE's compiler uses the same ones.
+   */
+  @NotNull
+  private static List<String> getClasspathRoots(@NotNull JpsModule module) {
+    final Set<String> roots = new LinkedHashSet<String>();
+    for (File root : JpsJavaExtensionService.dependencies(module).recursively().withoutSdk().exportedOnly().sources().getRoots()) {
+      roots.add(FileUtil.toSystemIndependentName(root.getPath()));
+    }
+    return new ArrayList<String>(roots);
+  }
+
+  @NotNull
+  private static Set<String> getLibraryNames(@NotNull JpsModule module) {
+    final Set<String> names = new HashSet<String>();
+    for (JpsLibrary library : JpsJavaExtensionService.dependencies(module).recursively().getLibraries()) {
+      names.add(library.getName());
+    }
+    return names;
+  }
+
+  private static HaxeCommonCompilerUtil.CompilationContext createCompilationContext(final CompileContext context,
+                                                                                    final JpsModule module,
+                                                                                    final JpsHaxeModuleSettings moduleSettings,
+                                                                                    final JpsSdk<JpsHaxeSdkAdditionalData> jpsSdk,
+                                                                                    final boolean isDebugRunner,
+                                                                                    @Nullable final HaxeCompilationServer server) {
+    return new HaxeCommonCompilerUtil.CompilationContext() {
       private String myErrorRoot;
 
       @Override
@@ -206,12 +293,7 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
       @Override
       public List<String> getSourceRoots() {
-        return ContainerUtil.map(module.getSourceRoots(), new Function<JpsModuleSourceRoot, String>() {
-          @Override
-          public String fun(JpsModuleSourceRoot root) {
-            return JpsPathUtil.urlToPath(root.getUrl());
-          }
-        });
+        return getClasspathRoots(module);
       }
 
       @Override
@@ -243,18 +325,30 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
 
       @Override
       public void handleOutput(String[] lines) {
-        /*for (String error : lines) {
-          final HaxeCompilerError compilerError = HaxeCompilerError.create(StringUtil.notNullize(getErrorRoot()), error);
-          context.processMessage(new CompilerMessage(
-            BUILDER_NAME,
-            BuildMessage.Kind.WARNING,
-            compilerError != null ? compilerError.getErrorMessage() : error,
-            compilerError != null ? compilerError.getPath() : null,
-            -1L, -1L, -1L,
-            compilerError != null ? (long)compilerError.getLine() : -1L,
-            compilerError != null ? (long)compilerError.getColumn() : -1L
-          ));
-        }*/
+        for (String error : lines) {
+          handleCompilerMessage(error, HaxeCompilerError.create(StringUtil.notNullize(getErrorRoot()), error));
+        }
+      }
+
+      @Override
+      public void handleCompilerMessage(@NotNull String line, @Nullable HaxeCompilerError compilerError) {
+        final BuildMessage.Kind kind = compilerError == null || compilerError.isInformationalMessage() ? BuildMessage.Kind.INFO
+                                     : compilerError.isWarningMessage() ? BuildMessage.Kind.WARNING
+                                     : BuildMessage.Kind.ERROR;
+        context.processMessage(new CompilerMessage(
+          BUILDER_NAME,
+          kind,
+          compilerError != null ? compilerError.getErrorMessage() : line,
+          compilerError != null ? compilerError.getPath() : null,
+          -1L, -1L, -1L,
+          compilerError != null ? (long)compilerError.getLine() : -1L,
+          compilerError != null ? (long)compilerError.getColumn() : -1L
+        ));
+      }
+
+      @Override
+      public List<String> getCompilationServerArguments() {
+        return server != null ? server.getConnectArguments() : Collections.<String>emptyList();
       }
 
       @Override
@@ -272,12 +366,6 @@ public class HaxeModuleLevelBuilder extends ModuleLevelBuilder {
         final File baseDirectory = JpsModelSerializationDataService.getBaseDirectory(module);
         return baseDirectory != null ? baseDirectory.getPath() : null;
       }
-    });
-
-    if (!compiled) {
-      context.processMessage(new CompilerMessage(BUILDER_NAME, BuildMessage.Kind.ERROR, "compilation failed"));
-    }
-
-    return compiled;
+    };
   }
 }
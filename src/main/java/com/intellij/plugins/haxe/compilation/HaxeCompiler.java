@@ -24,6 +24,8 @@ import com.intellij.execution.configurations.ModuleBasedConfiguration;
 import com.intellij.execution.configurations.RunConfiguration;
 import com.intellij.execution.configurations.RunConfigurationModule;
 import com.intellij.execution.executors.DefaultDebugExecutor;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.application.ReadAction;
 import com.intellij.openapi.compiler.*;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleType;
@@ -41,6 +43,7 @@ import com.intellij.openapi.vfs.newvfs.impl.FakeVirtualFile;
 import com.intellij.plugins.haxe.HaxeBundle;
 import com.intellij.plugins.haxe.config.HaxeTarget;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
+import com.intellij.plugins.haxe.haxelib.definitions.HaxeDefineDetectionManager;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
 import com.intellij.plugins.haxe.module.HaxeModuleSettingsBase;
@@ -51,21 +54,16 @@ import com.intellij.plugins.haxe.util.HaxeSdkUtilBase;
 import com.intellij.util.PathUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.DataInput;
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 @CustomLog
 public class HaxeCompiler implements FileProcessingCompiler {
-
-  /*
-  // flag to indicate whether a module needs to be built
-  private static HashMap<Module, Boolean> skipBuildMap = new HashMap<Module, Boolean>();
-  // holds the change set for each module to track whether anything changed since last build
-  private static HashMap<Module, Set<String>> changeSetMap = new HashMap<Module, Set<String>>();
-  */
+  private static final String FINGERPRINT_DIRECTORY_PROPERTY = "haxe.build.fingerprint.dir";
 
   @NotNull
   public String getDescription() {
@@ -92,30 +90,6 @@ public class HaxeCompiler implements FileProcessingCompiler {
     for (final Module module : scope.getAffectedModules()) {
       if (ModuleType.get(module) != HaxeModuleType.getInstance()) continue;
       result.add(module);
-      /*
-      boolean skipBuilding = false; // default: always build
-      //-- are any changes since last build
-      if (changeSetMap.get(module) != null) { // was built at least once, in past ...
-        final Set<String> latestChangeSet = new HashSet<String>();
-        Collection<VirtualFile> vFileCollection = FileTypeIndex
-          .getFiles(HaxeFileType.HAXE_FILE_TYPE, module.getModuleWithDependenciesScope());
-        final VirtualFile[] virtualFiles = vFileCollection.toArray(new VirtualFile[0]);
-        for (VirtualFile file : virtualFiles) {
-          final FileStatus fileStatus = FileStatusManager.getInstance(project).getStatus(file);
-          if (fileStatus.equals(FileStatus.NOT_CHANGED) || fileStatus.equals(FileStatus.UNKNOWN)) continue;
-          latestChangeSet.add(file.getPath());
-        }
-        skipBuilding = latestChangeSet.equals(changeSetMap.get(module));
-        changeSetMap.put(module, latestChangeSet);
-      }
-      else {
-        changeSetMap.put(module, new HashSet<String>());
-      }
-      skipBuildMap.put(module, new Boolean(skipBuilding));
-      if (! skipBuilding) {
-        result.add(module);
-      }
-      */
     }
     return result;
   }
@@ -167,17 +141,13 @@ public class HaxeCompiler implements FileProcessingCompiler {
                                        Module module,
                                        @NotNull final HaxeCommonCompilerUtil.CompilationContext compilationContext) {
 
-    /*
-    if ((skipBuildMap.get(module) != null) && (skipBuildMap.get(module).booleanValue())) {
-      return false;
-    }
-    */
-
     if (!ModuleType.get(module).equals(HaxeModuleType.getInstance())) {
       return true;
     }
 
-    boolean compiled = HaxeCommonCompilerUtil.compile(compilationContext);
+    boolean compiled = HaxeCommonCompilerUtil.compileIfChanged(compilationContext, getFingerprintFile(module),
+                                                               getDefines(module.getProject()), getLibraryNames(module),
+                                                               context.isRebuild());
 
     if (!compiled) {
       context.addMessage(CompilerMessageCategory.ERROR, "Compilation failed", null, 0, 0);
@@ -186,6 +156,43 @@ public class HaxeCompiler implements FileProcessingCompiler {
     return compiled;
   }
 
+  /**
+   * @return the defines that builds of the project see besides those on their command lines.
+   */
+  @NotNull
+  static Map<String, String> getDefines(@NotNull Project project) {
+    return ReadAction.compute(() -> HaxeDefineDetectionManager.getInstance(project).getAllDefinitions());
+  }
+
+  @NotNull
+  private static Set<String> getLibraryNames(@NotNull Module module) {
+    Set<String> names = new HashSet<>();
+    ReadAction.run(() -> OrderEnumerator.orderEntries(module).recursively().withoutSdk().librariesOnly().forEachLibrary(library -> {
+      if (library.getName() != null) {
+        names.add(library.getName());
+      }
+      return true;
+    }));
+    return names;
+  }
+
+  @NotNull
+  private static File getFingerprintFile(@NotNull Module module) {
+    String configured = System.getProperty(FINGERPRINT_DIRECTORY_PROPERTY);
+    File directory = configured != null && !configured.isEmpty()
+                     ? new File(configured)
+                     : new File(PathManager.getSystemPath(), "haxe/build-fingerprints");
+    return new File(new File(directory, module.getProject().getLocationHash()),
+                    FileUtil.sanitizeFileName(module.getName(), false) + ".bin");
+  }
+
+  /**
+   * @return whether the build is for a debug session of a Haxe program that is about to start.
+   */
+  static boolean isDebugRunStarting(@NotNull Project project) {
+    return ExecutorRegistry.getInstance().isStarting(project, DefaultDebugExecutor.EXECUTOR_ID, HaxeDebugRunner.HAXE_DEBUG_RUNNER_ID);
+  }
+
   public static HaxeCommonCompilerUtil.CompilationContext createDummyCompilationContext(final Module module) {
     DummyCompileContext context = new DummyCompileContext(module.getProject()) {
       @Override
@@ -201,8 +208,7 @@ public class HaxeCompiler implements FileProcessingCompiler {
                                                                                     ModuleBasedConfiguration configuration) {
 
     final HaxeModuleSettings settings = HaxeModuleSettings.getInstance(module);
-    final boolean isDebug = ExecutorRegistry.getInstance()
-      .isStarting(context.getProject(), DefaultDebugExecutor.EXECUTOR_ID, HaxeDebugRunner.HAXE_DEBUG_RUNNER_ID);
+    final boolean isDebug = isDebugRunStarting(context.getProject());
     final ModuleRootManager moduleRootManager = ModuleRootManager.getInstance(module);
     final Sdk sdk = moduleRootManager.getSdk();
     if (sdk == null) {
@@ -347,6 +353,13 @@ public class HaxeCompiler implements FileProcessingCompiler {
         HaxeCompilerUtil.fillContext(context, getErrorRoot(), lines);
       }
 
+      @Override
+      public void handleCompilerMessage(@NotNull String line, @Nullable HaxeCompilerError message) {
+        if (message != null) {
+          HaxeCompilerUtil.addMessageToContext(message, context);
+        }
+      }
+
       @Override
       public HaxeTarget getHaxeTarget() {
         //actually only neko target is supported for tests
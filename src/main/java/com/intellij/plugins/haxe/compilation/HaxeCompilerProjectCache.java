@@ -15,18 +15,33 @@
  */
 package com.intellij.plugins.haxe.compilation;
 
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.module.Module;
-import com.intellij.openapi.vfs.VirtualFileEvent;
-import com.intellij.openapi.vfs.VirtualFileListener;
-import com.intellij.openapi.vfs.VirtualFileManager;
-import com.intellij.plugins.haxe.config.HaxeProjectSettings;
-import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
-import com.intellij.plugins.haxe.util.HaxeTrackedModifiable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.io.DigestUtil;
+import com.intellij.util.io.IOUtil;
+import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Created by ebishton on 2/11/17.
@@ -35,104 +50,405 @@ import java.util.List;
  * (For example, when the Haxe project target is OpenFL, lime is run to extract
  * the arguments from the project.xml.  Those results are cached here.)
  *
- * This cache employs a file watcher to ensure that internal or external changes
- * to the cache are acted upon.
+ * Arguments are kept per module, project file, directory lime runs in and lime command
+ * line (which holds the target and the debug flags), so switching targets or configurations
+ * doesn't run lime again.  An entry stays valid while project.xml and the files it includes
+ * keep their contents; when they change, the old arguments are handed out while lime runs
+ * again in the background.  When lime fails, the files it failed on are remembered, and it
+ * isn't run again until they change.  Entries are saved in the system directory and survive
+ * restarts.
  */
+@CustomLog
 public class HaxeCompilerProjectCache {
 
   static final List<String> EMPTY_LIST = new ArrayList<String>(0);
 
+  private static final int VERSION = 2;
+  private static final int MAX_ENTRIES_PER_PROJECT = 32;
+  private static final int MAX_INCLUDE_DEPTH = 8;
+  private static final String MISSING = "missing";
+  private static final Pattern INCLUDE_PATH = Pattern.compile("<include\\s[^>]*?\\bpath\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
 
-  // We're only keeping one file for now, to keep things simple.
-  private cacheEntry myCacheEntry = null;
-  private static class cacheEntry {
+  private static final ExecutorService ourRefreshExecutor =
+    AppExecutorUtil.createBoundedApplicationPoolExecutor("Lime Display Arguments", 1);
 
-    public Module myModule;
-    public String myFilename; // project file name (from module, but fully located path that the compiler will use).
-    public String myTarget;
-    public List<String> myArguments;
-    public HaxeTrackedModifiable.Stamp moduleStamp;
-    public HaxeTrackedModifiable.Stamp projectStamp;
+  private final Map<String, ProjectEntries> myProjects = new ConcurrentHashMap<>();
+  private final Map<String, CompletableFuture<Void>> myRefreshes = new ConcurrentHashMap<>();
+  private final File myDirectory;
 
-    public cacheEntry(Module module, String projectFile, String target, List<String> args) {
-      init(module, projectFile, target, args);
-    }
+  public HaxeCompilerProjectCache() {
+    this(new File(PathManager.getSystemPath(), "haxe/lime-display"));
+  }
+
+  HaxeCompilerProjectCache(@NotNull File directory) {
+    myDirectory = directory;
+  }
 
-    public void init(Module module, String projectFile, String target, List<String> args) {
-      myModule = module;
-      myFilename = null != projectFile ? projectFile : "";
-      myTarget = null != target ? target : "";
-      myArguments = null != args ? args : EMPTY_LIST;
-      moduleStamp = null != module ? HaxeModuleSettings.getInstance(module).getStamp() : HaxeTrackedModifiable.INVALID_STAMP;
-      projectStamp = null != module ? HaxeProjectSettings.getInstance(module.getProject()).getStamp() : HaxeTrackedModifiable.INVALID_STAMP;
+  /**
+   * Gets the arguments lime displays for a project file.
+   *
+   * @param projectFilePath - the project.xml that lime reads.
+   * @param compileRoot - the directory lime runs in, if any; relative paths in the project resolve against it.
+   * @param commandLine - the lime command line; it is part of the key, along with the module, project file
+   *                      and compile root.
+   * @param computer - runs lime; it's called on this thread when nothing is cached, and on a
+   *                   pooled thread when the cached arguments are out of date.
+   * @return the cached arguments, the ones that were computed, or an empty list.
+   */
+  @NotNull
+  public List<String> get(@NotNull Module module,
+                          @NotNull String projectFilePath,
+                          @Nullable String compileRoot,
+                          @NotNull List<String> commandLine,
+                          @NotNull Supplier<List<String>> computer) {
+    return get(module.getProject().getLocationHash(), module.getName(), projectFilePath, compileRoot, commandLine, computer);
+  }
+
+  @NotNull
+  List<String> get(@NotNull String projectLocationHash,
+                   @NotNull String moduleName,
+                   @NotNull String projectFilePath,
+                   @Nullable String compileRoot,
+                   @NotNull List<String> commandLine,
+                   @NotNull Supplier<List<String>> computer) {
+    ProjectEntries entries = getEntries(projectLocationHash);
+    String key = createKey(moduleName, projectFilePath, compileRoot, commandLine);
+
+    Entry entry = entries.get(key);
+    if (null == entry) {
+      return compute(entries, key, projectFilePath, computer);
+    }
+    if (isUpToDate(entry.myFiles) || (null != entry.myFailedFiles && isUpToDate(entry.myFailedFiles))) {
+      return entry.myArguments;
+    }
+    if (entry.myArguments.isEmpty()) {
+      // Lime failed before, and there's nothing to hand out while it runs again.
+      return compute(entries, key, projectFilePath, computer);
     }
+    refreshInBackground(entries, key, projectFilePath, computer);
+    return entry.myArguments;
   }
 
+  /**
+   * Forgets the cached arguments of a project, including the saved ones.  Called when the haxelib
+   * caches are reloaded on request, since lime resolves the project's libraries through haxelib.
+   */
+  public void invalidate(@NotNull Project project) {
+    invalidate(project.getLocationHash());
+  }
 
-  public HaxeCompilerProjectCache() {
-    myCacheEntry = null;
+  void invalidate(@NotNull String projectLocationHash) {
+    ProjectEntries entries = getEntries(projectLocationHash);
+    entries.clear();
+    ourRefreshExecutor.execute(entries::delete);
+  }
 
-    VirtualFileManager mgr = VirtualFileManager.getInstance();
-    mgr.addVirtualFileListener(new VirtualFileListener() {
-      @Override
-      public void fileDeleted(@NotNull VirtualFileEvent event) {
-        updateCache(event);
-      }
+  /**
+   * Waits for the entries to be saved.
+   */
+  @TestOnly
+  static void waitForBackgroundWork() {
+    CompletableFuture.runAsync(() -> {}, ourRefreshExecutor).join();
+  }
 
-      @Override
-      public void contentsChanged(@NotNull VirtualFileEvent event) {
-        updateCache(event);
-      }
+  @NotNull
+  static String createKey(@NotNull String moduleName,
+                           @NotNull String projectFilePath,
+                           @Nullable String compileRoot,
+                           @NotNull List<String> commandLine) {
+    return moduleName + '\n' + FileUtil.toSystemIndependentName(projectFilePath) + '\n' +
+           (null == compileRoot ? "" : FileUtil.toSystemIndependentName(compileRoot)) + '\n' +
+           StringUtil.join(commandLine, "\n");
+  }
+
+  @NotNull
+  private ProjectEntries getEntries(@NotNull String projectLocationHash) {
+    return myProjects.computeIfAbsent(projectLocationHash, hash -> new ProjectEntries(new File(myDirectory, hash + ".bin")));
+  }
 
-      @Override
-      public void fileCreated(@NotNull VirtualFileEvent event) {
-        updateCache(event);
+  @NotNull
+  private List<String> compute(@NotNull ProjectEntries entries,
+                               @NotNull String key,
+                               @NotNull String projectFilePath,
+                               @NotNull Supplier<List<String>> computer) {
+    // Stamp the files first, so that edits made while lime runs are seen next time.
+    Map<String, FileState> files = snapshot(projectFilePath);
+    List<String> arguments = computer.get();
+    if (null == arguments || arguments.isEmpty()) {
+      // Lime failed.  Keep what it displayed last, but don't run it again until the files change.
+      Entry previous = entries.get(key);
+      if (null == previous || previous.myArguments.isEmpty()) {
+        entries.put(key, new Entry(EMPTY_LIST, files));
+        return EMPTY_LIST;
       }
+      entries.put(key, new Entry(previous.myArguments, previous.myFiles, files));
+      return previous.myArguments;
+    }
+    arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+    entries.put(key, new Entry(arguments, files));
+    ourRefreshExecutor.execute(entries::save);
+    return arguments;
+  }
+
+  private void refreshInBackground(@NotNull ProjectEntries entries,
+                                   @NotNull String key,
+                                   @NotNull String projectFilePath,
+                                   @NotNull Supplier<List<String>> computer) {
+    myRefreshes.computeIfAbsent(key, k -> {
+      log.debug("Project files of " + projectFilePath + " changed; refreshing the lime display arguments");
+      return CompletableFuture.runAsync(() -> compute(entries, key, projectFilePath, computer), ourRefreshExecutor)
+        .whenComplete((result, error) -> {
+          myRefreshes.remove(key);
+          if (null != error) {
+            log.warn("Cannot refresh the lime display arguments for " + projectFilePath, error);
+          }
+        });
+    });
+  }
 
-      private void updateCache(VirtualFileEvent event) {
-        // If it changed, kick it out of the cache.
-        if (null != myCacheEntry && event.getFile().getUrl().equals(myCacheEntry.myFilename)) {
-          invalidate();
+  /**
+   * Checks the files the arguments were computed from.  Files that were only touched get their
+   * new stamp, so they aren't hashed again.
+   */
+  static boolean isUpToDate(@NotNull Entry entry) {
+    return isUpToDate(entry.myFiles);
+  }
+
+  private static boolean isUpToDate(@NotNull Map<String, FileState> files) {
+    synchronized (files) {
+      for (Map.Entry<String, FileState> file : files.entrySet()) {
+        Path path = Paths.get(file.getKey());
+        String stamp = stampOf(path);
+        FileState recorded = file.getValue();
+        if (recorded.stamp.equals(stamp)) {
+          continue;
+        }
+        String hash = MISSING.equals(stamp) ? MISSING : hashFile(path);
+        if (!recorded.hash.equals(hash)) {
+          return false;
         }
+        file.setValue(new FileState(stamp, hash));
       }
-    });
+      return true;
+    }
   }
 
-  public void put(Module module, String projectFileUri, String target, List<String> args) {
-    // Put always kicks out the previous value, so just re-use the object.
-    if (null == myCacheEntry) {
-      myCacheEntry = new cacheEntry(module, projectFileUri, target, args);
-    } else {
-      myCacheEntry.init(module, projectFileUri, target, args);
+  /**
+   * Stamps and hashes the project file and the files it includes.  Missing files are recorded
+   * too, so that creating one of them is noticed.
+   */
+  @NotNull
+  static Map<String, FileState> snapshot(@NotNull String projectFilePath) {
+    Map<String, FileState> files = new LinkedHashMap<>();
+    collect(Paths.get(projectFilePath).toAbsolutePath().normalize(), files, 0);
+    return files;
+  }
+
+  private static void collect(@NotNull Path file, @NotNull Map<String, FileState> files, int depth) {
+    String path = FileUtil.toSystemIndependentName(file.toString());
+    if (files.containsKey(path)) {
+      return;
+    }
+    String stamp = stampOf(file);
+    if (MISSING.equals(stamp)) {
+      files.put(path, new FileState(MISSING, MISSING));
+      return;
+    }
+    files.put(path, new FileState(stamp, hashFile(file)));
+    if (depth >= MAX_INCLUDE_DEPTH) {
+      return;
+    }
+    for (Path include : findIncludes(file)) {
+      collect(include, files, depth + 1);
+    }
+  }
+
+  /**
+   * Finds the files named by {@code <include path="..."/>}, whatever their conditions.  A directory
+   * stands for the include.xml in it.  Paths built from lime variables can't be followed.
+   */
+  @NotNull
+  static List<Path> findIncludes(@NotNull Path projectFile) {
+    String text;
+    try {
+      text = new String(Files.readAllBytes(projectFile), StandardCharsets.UTF_8);
+    }
+    catch (IOException e) {
+      return Collections.emptyList();
     }
+    Path base = projectFile.getParent();
+    List<Path> includes = new ArrayList<>();
+    Matcher matcher = INCLUDE_PATH.matcher(text);
+    while (matcher.find()) {
+      String value = null != matcher.group(1) ? matcher.group(1) : matcher.group(2);
+      if (value.isEmpty() || value.contains("${")) {
+        continue;
+      }
+      Path include = (null != base ? base.resolve(value) : Paths.get(value)).normalize();
+      includes.add(Files.isDirectory(include) ? include.resolve("include.xml") : include);
+    }
+    return includes;
   }
 
-  private boolean stringsAreEqual(String left, String right) {
-    if (null != left && null != right) {
-      return left.equals(right);
+  @NotNull
+  private static String stampOf(@NotNull Path file) {
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      return attributes.isRegularFile() ? attributes.size() + ":" + attributes.lastModifiedTime().toMillis() : MISSING;
+    }
+    catch (IOException e) {
+      return MISSING;
     }
-    return false;
   }
 
-  @Nullable
-  public List<String> get(Module module, String projectFileUri, String target) {
-    if (null != myCacheEntry
-        &&  myCacheEntry.myModule.equals(module)
-        &&  stringsAreEqual(myCacheEntry.myFilename, projectFileUri)
-        &&  stringsAreEqual(myCacheEntry.myTarget,target)
-       ) {
-      if (!myCacheEntry.moduleStamp.isOutOfDate() && !myCacheEntry.projectStamp.isOutOfDate()) {
-        return myCacheEntry.myArguments;
-      } else {
-        invalidate();
-        return null;
+  @NotNull
+  private static String hashFile(@NotNull Path file) {
+    MessageDigest digest = DigestUtil.sha256();
+    byte[] buffer = new byte[64 * 1024];
+    try (InputStream in = Files.newInputStream(file)) {
+      for (int read; (read = in.read(buffer)) > 0; ) {
+        digest.update(buffer, 0, read);
       }
     }
-    return null;
+    catch (IOException e) {
+      // Unreadable now; it won't match once it can be read.
+      return "unreadable";
+    }
+    return DigestUtil.digestToHash(digest);
   }
 
-  public void invalidate() {
-    myCacheEntry = null;
+  static final class FileState {
+    final String stamp;
+    final String hash;
+
+    FileState(@NotNull String stamp, @NotNull String hash) {
+      this.stamp = stamp;
+      this.hash = hash;
+    }
   }
 
+  static final class Entry {
+    final List<String> myArguments;
+    final Map<String, FileState> myFiles;
+    // The files lime last failed on, when that happened after the arguments were computed.
+    @Nullable final Map<String, FileState> myFailedFiles;
+
+    Entry(@NotNull List<String> arguments, @NotNull Map<String, FileState> files) {
+      this(arguments, files, null);
+    }
+
+    Entry(@NotNull List<String> arguments,
+          @NotNull Map<String, FileState> files,
+          @Nullable Map<String, FileState> failedFiles) {
+      myArguments = arguments;
+      myFiles = files;
+      myFailedFiles = failedFiles;
+    }
+  }
+
+  /**
+   * The entries of one project, most recently used last, loaded from disk on first use.
+   */
+  private static final class ProjectEntries {
+    private final File myFile;
+    private LinkedHashMap<String, Entry> myEntries;
+
+    ProjectEntries(@NotNull File file) {
+      myFile = file;
+    }
+
+    @Nullable
+    synchronized Entry get(@NotNull String key) {
+      return getEntries().get(key);
+    }
+
+    synchronized void put(@NotNull String key, @NotNull Entry entry) {
+      getEntries().put(key, entry);
+    }
+
+    synchronized void clear() {
+      getEntries().clear();
+    }
+
+    synchronized void delete() {
+      FileUtil.delete(myFile);
+    }
+
+    @NotNull
+    private LinkedHashMap<String, Entry> getEntries() {
+      if (null == myEntries) {
+        myEntries = new LinkedHashMap<String, Entry>(MAX_ENTRIES_PER_PROJECT, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES_PER_PROJECT;
+          }
+        };
+        load();
+      }
+      return myEntries;
+    }
+
+    private void load() {
+      if (!myFile.isFile()) {
+        return;
+      }
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(myFile)))) {
+        if (in.readInt() != VERSION) {
+          return;
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+          String key = IOUtil.readUTF(in);
+          List<String> arguments = new ArrayList<>();
+          for (int j = in.readInt(); j > 0; j--) {
+            arguments.add(IOUtil.readUTF(in));
+          }
+          Map<String, FileState> files = new LinkedHashMap<>();
+          for (int j = in.readInt(); j > 0; j--) {
+            files.put(IOUtil.readUTF(in), new FileState(IOUtil.readUTF(in), IOUtil.readUTF(in)));
+          }
+          myEntries.put(key, new Entry(Collections.unmodifiableList(arguments), files));
+        }
+      }
+      catch (IOException e) {
+        log.debug("Cannot read the lime display arguments in " + myFile, e);
+        myEntries.clear();
+      }
+    }
+
+    synchronized void save() {
+      try {
+        FileUtil.createParentDirs(myFile);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(myFile)))) {
+          // Failures aren't saved, so lime gets another chance after a restart.
+          List<Map.Entry<String, Entry>> saved = new ArrayList<>();
+          for (Map.Entry<String, Entry> entry : getEntries().entrySet()) {
+            if (!entry.getValue().myArguments.isEmpty()) {
+              saved.add(entry);
+            }
+          }
+          out.writeInt(VERSION);
+          out.writeInt(saved.size());
+          for (Map.Entry<String, Entry> entry : saved) {
+            IOUtil.writeUTF(out, entry.getKey());
+            out.writeInt(entry.getValue().myArguments.size());
+            for (String argument : entry.getValue().myArguments) {
+              IOUtil.writeUTF(out, argument);
+            }
+            synchronized (entry.getValue().myFiles) {
+              out.writeInt(entry.getValue().myFiles.size());
+              for (Map.Entry<String, FileState> file : entry.getValue().myFiles.entrySet()) {
+                IOUtil.writeUTF(out, file.getKey());
+                IOUtil.writeUTF(out, file.getValue().stamp);
+                IOUtil.writeUTF(out, file.getValue().hash);
+              }
+            }
+          }
+        }
+      }
+      catch (IOException e) {
+        log.warn("Cannot save the lime display arguments in " + myFile, e);
+        FileUtil.delete(myFile);
+      }
+    }
+  }
 }
@@ -85,6 +85,13 @@ public class HaxeCompilerServices {
         myErrorNotifier = errorNotifier;
     }
 
+    /**
+     * Forgets the lime display arguments of a project, so that lime is run again.
+     */
+    public static void invalidateProjectCache(@NotNull Project project) {
+        openFLDisplayArguments.invalidate(project);
+    }
+
     public List<String> getLimeProjectConfiguration(Module module, @Nullable HaxeDebugTimeLog timeLog) {
         return getLimeProjectConfiguration(module, false, timeLog);
     }
@@ -95,46 +102,52 @@ public class HaxeCompilerServices {
 
         String projectFilePath = moduleSettings.getOpenFLPath();
         VirtualFile projectFile = verifyProjectFile(module, "OpenFL", projectFilePath, myErrorNotifier);
-        if (null == projectFile) {
-            // todo ???
-        }
         VirtualFile compileRoot = HaxeCompilerUtil.findCompileRoot(module);
 
-        List<String> compilerArgsFromProjectFile = openFLDisplayArguments.get(module, projectFile != null ? projectFile.getUrl() : "", targetFlag);
-        if (compilerArgsFromProjectFile == null) {
-            ArrayList<String> limeArguments = new ArrayList<String>();
-
-            limeArguments.add(HaxelibCommandUtils.getHaxelibPath(module));
-            limeArguments.add("run");
-            limeArguments.add("lime");
-            limeArguments.add("display");
-            //flash, html5, linux, etc
-            limeArguments.add(targetFlag);
-
-            if (useDebugConfig) {
-                limeArguments.add("-Ddebug");
-                limeArguments.add("-debug");
-                limeArguments.add("-Dfdb"); // XXX: Unnecessary??
-            }
+        ArrayList<String> limeArguments = new ArrayList<String>();
 
-            // Add arguments from the settings panel.  They get echoed out via display,
-            // if appropriate.
-            formatAndAddCompilerArguments(limeArguments, moduleSettings.getOpenFLFlags());
+        limeArguments.add(HaxelibCommandUtils.getHaxelibPath(module));
+        limeArguments.add("run");
+        limeArguments.add("lime");
+        limeArguments.add("display");
+        //flash, html5, linux, etc
+        limeArguments.add(targetFlag);
 
-            if (null != timeLog) {
-                timeLog.stamp("Get display vars from lime.");
-            }
-            List<String> stdout = new ArrayList<String>();
-            HaxeCompilerUtil.runInterruptibleCompileProcess(limeArguments, false,
-                                                            compileRoot, HaxeSdkUtilBase.getSdkData(module),
-                                                            stdout, null, timeLog);
-
-            // Need to filter out empty/blank lines.  They cause an empty argument to
-            // haxelib, which errors out and breaks completion.
-            compilerArgsFromProjectFile = filterEmptyLines(stdout);
-            openFLDisplayArguments.put(module, projectFile.getUrl(), targetFlag, compilerArgsFromProjectFile);
+        if (useDebugConfig) {
+            limeArguments.add("-Ddebug");
+            limeArguments.add("-debug");
+            limeArguments.add("-Dfdb"); // XXX: Unnecessary??
+        }
+
+        // Add arguments from the settings panel.  They get echoed out via display,
+        // if appropriate.
+        formatAndAddCompilerArguments(limeArguments, moduleSettings.getOpenFLFlags());
+
+        if (null == projectFile) {
+            return runLimeDisplay(module, limeArguments, compileRoot, timeLog);
+        }
+        // The time log belongs to this request; a background refresh outlives it.
+        return openFLDisplayArguments.get(module, projectFile.getPath(),
+                                          null == compileRoot ? null : compileRoot.getPath(), limeArguments,
+                                          () -> runLimeDisplay(module, limeArguments, compileRoot, null));
+    }
+
+    @NotNull
+    private List<String> runLimeDisplay(@NotNull Module module,
+                                        @NotNull List<String> limeArguments,
+                                        VirtualFile compileRoot,
+                                        @Nullable HaxeDebugTimeLog timeLog) {
+        if (null != timeLog) {
+            timeLog.stamp("Get display vars from lime.");
         }
-        return compilerArgsFromProjectFile;
+        List<String> stdout = new ArrayList<String>();
+        HaxeCompilerUtil.runInterruptibleCompileProcess(limeArguments, false,
+                                                        compileRoot, HaxeSdkUtilBase.getSdkData(module),
+                                                        stdout, null, timeLog);
+
+        // Need to filter out empty/blank lines.  They cause an empty argument to
+        // haxelib, which errors out and breaks completion.
+        return filterEmptyLines(stdout);
     }
 
 
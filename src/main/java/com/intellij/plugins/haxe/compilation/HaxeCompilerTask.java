@@ -17,19 +17,53 @@
  */
 package com.intellij.plugins.haxe.compilation;
 
+import com.intellij.compiler.options.CompileStepBeforeRun;
+import com.intellij.execution.configurations.RunConfiguration;
 import com.intellij.openapi.compiler.CompileContext;
+import com.intellij.openapi.compiler.CompileScope;
 import com.intellij.openapi.compiler.CompileTask;
 import com.intellij.openapi.compiler.FileProcessingCompiler;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.util.Key;
+import com.intellij.plugins.haxe.runner.debugger.HaxeDebugRunner;
+import com.intellij.plugins.haxe.tests.runner.HaxeTestsConfiguration;
+import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
 
 /**
+ * Runs before the build and tells the JPS Haxe builder, which compiles the modules, what the build is for
+ * and which defines the project has.
+ * The compile scope's user data reaches the builder as its build parameters.
+ *
+ * Test runs are still compiled here: they build a runner class of the run configuration rather than the
+ * module's main class, and the builder is told to leave those modules alone.
+ *
  * Created by as3boyan on 03.08.14.
  */
 public class HaxeCompilerTask implements CompileTask {
+  private static final Key<String> RUNNER_ID = Key.create(HaxeCommonCompilerUtil.RUNNER_ID_PARAMETER);
+  private static final Key<String> IDE_BUILT_MODULES = Key.create(HaxeCommonCompilerUtil.IDE_BUILT_MODULES_PARAMETER);
+  private static final Key<String> DEFINES = Key.create(HaxeCommonCompilerUtil.DEFINES_PARAMETER);
 
   static HaxeCompiler haxeCompiler;
 
   @Override
   public boolean execute(CompileContext context) {
+    final CompileScope scope = context.getCompileScope();
+    if (HaxeCompiler.isDebugRunStarting(context.getProject())) {
+      scope.putUserData(RUNNER_ID, HaxeDebugRunner.HAXE_DEBUG_RUNNER_ID);
+    }
+    // The builder can't detect the defines itself, but they are part of what it fingerprints.
+    scope.putUserData(DEFINES, HaxeCommonCompilerUtil.encodeDefines(HaxeCompiler.getDefines(context.getProject())));
+
+    final RunConfiguration runConfiguration = CompileStepBeforeRun.getRunConfiguration(scope);
+    if (!(runConfiguration instanceof HaxeTestsConfiguration)) {
+      return true;
+    }
+    final Module module = ((HaxeTestsConfiguration)runConfiguration).getConfigurationModule().getModule();
+    if (module != null) {
+      scope.putUserData(IDE_BUILT_MODULES, module.getName());
+    }
+
     if (haxeCompiler == null) {
       haxeCompiler = new HaxeCompiler();
     }
@@ -164,12 +164,6 @@ public class HaxeCompilerUtil
     private static void addErrorToContext(String error, CompileContext context,
                                           String errorRoot)
     {
-        // TODO: Add a button to the Haxe module settings to control whether we always open the window or not.
-        if (context.getUserData(messageWindowAutoOpened) == null) {
-            openCompilerMessagesWindow(context);
-            context.putUserData(messageWindowAutoOpened, "yes");
-        }
-
         final HaxeCompilerError compilerError = HaxeCompilerError.create
             (errorRoot,
              error,
@@ -177,16 +171,30 @@ public class HaxeCompilerUtil
         
 
         if (null != compilerError) {
-            String path = compilerError.getPath();
-            context.addMessage
-                (compilerError.getCategory(),
-                 compilerError.getErrorMessage(),
-                 path == null ? null : VfsUtilCore.pathToUrl(compilerError.getPath()),
-                 compilerError.getLine(),
-                 compilerError.getColumn());
+            addMessageToContext(compilerError, context);
         }
     }
 
+    /**
+     * Add a compiler message that is already parsed to the compile context.
+     */
+    public static void addMessageToContext(@NotNull HaxeCompilerError compilerError, CompileContext context)
+    {
+        // TODO: Add a button to the Haxe module settings to control whether we always open the window or not.
+        if (context.getUserData(messageWindowAutoOpened) == null) {
+            openCompilerMessagesWindow(context);
+            context.putUserData(messageWindowAutoOpened, "yes");
+        }
+
+        String path = compilerError.getPath();
+        context.addMessage
+            (compilerError.getCategory(),
+             compilerError.getErrorMessage(),
+             path == null ? null : VfsUtilCore.pathToUrl(compilerError.getPath()),
+             compilerError.getLine(),
+             compilerError.getColumn());
+    }
+
     private static boolean isHeadless() {
       return ApplicationManager.getApplication().isUnitTestMode() || ApplicationManager.getApplication().isHeadlessEnvironment();
     }
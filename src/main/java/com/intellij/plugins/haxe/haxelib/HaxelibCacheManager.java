@@ -10,13 +10,17 @@ import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
- * A cache manager for library information retrieved from haxelib
+ * A cache manager for library information retrieved from haxelib.
+ *
+ * haxelib runs on pooled threads; the *Async methods never wait for it, the others do.
  */
 @CustomLog
 public class HaxelibCacheManager implements Disposable {
@@ -25,17 +29,14 @@ public class HaxelibCacheManager implements Disposable {
   private static Pattern HAXELIB_VERSION_LINE =
     Pattern.compile("(?<date>\\d{4}-\\d{2}-\\d{2}\s\\d{2}:\\d{2}:\\d{2})\s(?<version>.*?)\s:\s?(?<description>.*)");
 
-  private static Map<Module, HaxelibCacheManager> instances = new HashMap<>();
+  private static Map<Module, HaxelibCacheManager> instances = new ConcurrentHashMap<>();
 
   public static Collection<HaxelibCacheManager> getAllInstances() {
     return instances.values();
   }
 
   public static HaxelibCacheManager getInstance(@NotNull Module module) {
-    if (!instances.containsKey(module)) {
-      instances.put(module, new HaxelibCacheManager(module));
-    }
-    return instances.get(module);
+    return instances.computeIfAbsent(module, HaxelibCacheManager::new);
   }
 
   public static void removeInstance(@NotNull Module module) {
@@ -43,8 +44,10 @@ public class HaxelibCacheManager implements Disposable {
   }
 
 
-  private final Map<String, Set<String>> installedLibraries = new HashMap<>();
-  private final Map<String, Set<String>> availableLibraries = new HashMap<>();
+  // Null until first asked for; the futures are shared by everybody asking in the meantime.
+  private CompletableFuture<Map<String, Set<String>>> installedLibraries;
+  private CompletableFuture<Map<String, Set<String>>> availableLibraries;
+  private final Map<String, CompletableFuture<Set<String>>> availableVersions = new ConcurrentHashMap<>();
 
   private Module module;
 
@@ -54,86 +57,102 @@ public class HaxelibCacheManager implements Disposable {
   }
 
 
-  public void clear() {
-    installedLibraries.clear();
-    availableLibraries.clear();
+  public synchronized void clear() {
+    installedLibraries = null;
+    availableLibraries = null;
+    availableVersions.clear();
   }
 
+  /**
+   * Forgets what haxelib said, and starts asking again in the background.
+   */
   public void reload() {
+    HaxelibCommandUtils.invalidateCache();
     clear();
-    getInstalledLibraries();
-    getAvailableLibraries();
+    getInstalledLibrariesAsync();
+    getAvailableLibrariesAsync();
   }
 
 
   public Map<String, Set<String>> getInstalledLibraries() {
-    if (installedLibraries.isEmpty()) {
-      fetchInstalledLibraryData();
-    }
-    return new HashMap<>(installedLibraries);
+    return HaxelibCommandUtils.awaitResult(getInstalledLibrariesAsync());
   }
 
-
-  public Map<String, Set<String>> getAvailableLibraries() {
-    if (availableLibraries.isEmpty()) {
-      fetchAvailableForDownload();
+  @NotNull
+  public synchronized CompletableFuture<Map<String, Set<String>>> getInstalledLibrariesAsync() {
+    if (installedLibraries == null) {
+      Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
+      if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)) {
+        log.warn("Unable to fetchInstalledLibraryData, invalid SDK paths");
+        return CompletableFuture.completedFuture(new HashMap<>());
+      }
+      installedLibraries = readInstalledLibraries(sdk);
     }
-    return new HashMap<>(availableLibraries);
+    return installedLibraries.thenApply(HashMap::new);
   }
 
-  private void fetchInstalledLibraryData() {
-    Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
-    if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)) {
-      log.warn("Unable to fetchInstalledLibraryData, invalid SDK paths");
-      return;
-    }
-    installedLibraries.putAll(readInstalledLibraries(sdk));
+
+  public Map<String, Set<String>> getAvailableLibraries() {
+    return HaxelibCommandUtils.awaitResult(getAvailableLibrariesAsync());
   }
 
-  private void fetchAvailableForDownload() {
-    Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
-    if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)) {
-      log.warn("Unable to fetchAvailableForDownload, invalid SDK paths");
-      return;
+  @NotNull
+  public synchronized CompletableFuture<Map<String, Set<String>>> getAvailableLibrariesAsync() {
+    if (availableLibraries == null) {
+      Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
+      if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)) {
+        log.warn("Unable to fetchAvailableForDownload, invalid SDK paths");
+        return CompletableFuture.completedFuture(new HashMap<>());
+      }
+      availableLibraries = readAvailableOnline(sdk);
     }
-    availableLibraries.putAll(readAvailableOnline(sdk));
+    return availableLibraries.thenApply(libraries -> {
+      Map<String, Set<String>> result = new HashMap<>(libraries);
+      availableVersions.forEach((name, versions) -> {
+        if (versions.isDone() && !versions.isCompletedExceptionally()) {
+          result.put(name, versions.join());
+        }
+      });
+      return result;
+    });
   }
 
 
-  private static Map<String, Set<String>> readAvailableOnline(Sdk sdk) {
+  private static CompletableFuture<Map<String, Set<String>>> readAvailableOnline(Sdk sdk) {
     // "Empty" string means all of them. (whitespace needed for argument not to be dropped)
-    List<String> searchResults = HaxelibClasspathUtils.getAvailableLibrariesMatching(sdk, " ");
-    Map<String, Set<String>> libMap = new HashMap<>();
-    searchResults.forEach(libName -> libMap.put(libName, Set.of()));
-    return libMap;
+    return HaxelibClasspathUtils.getAvailableLibrariesMatchingAsync(sdk, " ").thenApply(searchResults -> {
+      Map<String, Set<String>> libMap = new HashMap<>();
+      searchResults.forEach(libName -> libMap.put(libName, Set.of()));
+      return libMap;
+    });
   }
 
-  private Map<String, Set<String>> readInstalledLibraries(@NotNull Sdk sdk) {
+  private CompletableFuture<Map<String, Set<String>>> readInstalledLibraries(@NotNull Sdk sdk) {
     VirtualFile file = ProjectUtil.guessModuleDir(module);
-    HaxelibInstalledIndex index = HaxelibInstalledIndex.fetchFromHaxelib(sdk, file);
-    return index.getInstalledLibrariesAndVersions();
-
+    return HaxelibInstalledIndex.fetchFromHaxelibAsync(sdk, file)
+      .thenApply(HaxelibInstalledIndex::getInstalledLibrariesAndVersions);
   }
 
   public Set<String> fetchAvailableVersions(String name) {
-    if (getAvailableLibraries().getOrDefault(name, Set.of()).isEmpty()) {
-      Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
-      if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)) {
-        log.warn("Unable to fetch Available Versions, invalid SDK paths");
-        return Set.of();
-      }
-      VirtualFile file = ProjectUtil.guessModuleDir(module);
-      List<String> list = HaxelibCommandUtils.issueHaxelibCommand(sdk, file,"info", name);
-      // filter to find version numbers
+    return HaxelibCommandUtils.awaitResult(fetchAvailableVersionsAsync(name));
+  }
 
-      Set<String> versions = list.stream()
+  @NotNull
+  public CompletableFuture<Set<String>> fetchAvailableVersionsAsync(String name) {
+    Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
+    if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)) {
+      log.warn("Unable to fetch Available Versions, invalid SDK paths");
+      return CompletableFuture.completedFuture(Set.of());
+    }
+    VirtualFile file = ProjectUtil.guessModuleDir(module);
+    return availableVersions.computeIfAbsent(name, libName ->
+      // filter to find version numbers
+      HaxelibCommandUtils.issueHaxelibCommandAsync(sdk, file, "info", libName).thenApply(list -> list.stream()
         .map(String::trim)
         .map(HaxelibCacheManager::extractVersion)
         .filter(Objects::nonNull)
-        .collect(Collectors.toSet());
-      availableLibraries.put(name, new ConcurrentSkipListSet<>(versions));
-    }
-    return new HashSet<>(availableLibraries.get(name));
+        .collect(Collectors.<String, Set<String>>toCollection(ConcurrentSkipListSet::new)))
+    ).thenApply(HashSet::new);
   }
 
   private static String extractVersion(String line) {
@@ -52,6 +52,7 @@ import org.jetbrains.io.LocalFileFinder;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Static interface to haxelib class path functionality.
@@ -283,20 +284,25 @@ public class HaxelibClasspathUtils {
    * Local classpaths of specified libraries and their dependencies.
    */
   public static Set<String> getHaxelibLibrariesClasspaths(@NotNull Sdk sdk,VirtualFile workDir, String... libNames) {
-    Set<String> result = new HashSet<>();
+    return HaxelibCommandUtils.awaitResult(getHaxelibLibrariesClasspathsAsync(sdk, workDir, libNames));
+  }
 
+  @NotNull
+  public static CompletableFuture<Set<String>> getHaxelibLibrariesClasspathsAsync(@NotNull Sdk sdk, VirtualFile workDir, String... libNames) {
     ArrayList<String> args = new ArrayList<>();
     args.add("path");
     Collections.addAll(args, libNames);
 
-    List<String> out = HaxelibCommandUtils.issueHaxelibCommand(sdk,workDir,  args.toArray(new String[0]));
-    for(String line:out) {
-      if(!isClassPathLine(line)) {
-        continue;
+    return HaxelibCommandUtils.issueHaxelibCommandAsync(sdk, workDir, args.toArray(new String[0])).thenApply(out -> {
+      Set<String> result = new HashSet<>();
+      for(String line:out) {
+        if(!isClassPathLine(line)) {
+          continue;
+        }
+        result.add(line);
       }
-      result.add(line);
-    }
-    return result;
+      return result;
+    });
   }
 
 
@@ -313,12 +319,18 @@ public class HaxelibClasspathUtils {
    */
   @NotNull
   public static List<String> getAvailableLibrariesMatching(@NotNull Sdk sdk, @NotNull String word) {
-    List<String> stringList = HaxelibCommandUtils.issueHaxelibCommand(sdk, null,"search", word);
-    if (stringList.size() > 0) {
-      // Last line is the count of libraries found.
-      stringList.remove(stringList.size() - 1);
-    }
-    return stringList;
+    return HaxelibCommandUtils.awaitResult(getAvailableLibrariesMatchingAsync(sdk, word));
+  }
+
+  @NotNull
+  public static CompletableFuture<List<String>> getAvailableLibrariesMatchingAsync(@NotNull Sdk sdk, @NotNull String word) {
+    return HaxelibCommandUtils.issueHaxelibCommandAsync(sdk, null, "search", word).thenApply(stringList -> {
+      if (stringList.size() > 0) {
+        // Last line is the count of libraries found.
+        stringList.remove(stringList.size() - 1);
+      }
+      return stringList;
+    });
   }
 
   /**
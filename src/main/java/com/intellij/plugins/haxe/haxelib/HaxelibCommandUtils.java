@@ -18,10 +18,10 @@
  */
 package com.intellij.plugins.haxe.haxelib;
 
-import com.intellij.openapi.application.Application;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.projectRoots.SdkAdditionalData;
 import com.intellij.openapi.vfs.LocalFileSystem;
@@ -31,16 +31,18 @@ import com.intellij.plugins.haxe.config.sdk.HaxeSdkData;
 import com.intellij.plugins.haxe.config.sdk.HaxeSdkUtil;
 import com.intellij.plugins.haxe.util.HaxeProcessUtil;
 import com.intellij.plugins.haxe.util.HaxeSdkUtilBase;
+import com.intellij.util.SystemProperties;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 
 /**
  * Utilities to run the haxelib command and capture its output.
@@ -48,6 +50,15 @@ import java.util.concurrent.TimeUnit;
 @CustomLog
 public class HaxelibCommandUtils {
 
+  // haxelib commands that only read the repository; their output is kept until the repository changes.
+  private static final Set<String> QUERY_COMMANDS = Set.of("config", "info", "libpath", "list", "path", "search");
+  private static final long PROCESS_TIMEOUT_SECONDS = 60;
+  private static final int MAX_QUERY_RESULTS = 256;
+  private static final long REPOSITORY_STAMP_TTL_MILLIS = 1000;
+
+  private static final ExecutorService ourExecutor =
+    AppExecutorUtil.createBoundedApplicationPoolExecutor("Haxelib Commands", 4);
+  private static final HaxelibQueryCache ourQueryResults = new HaxelibQueryCache(MAX_QUERY_RESULTS, REPOSITORY_STAMP_TTL_MILLIS);
 
   /**
    * Find the path to the 'haxelib' executable, using the module paths.
@@ -93,41 +104,99 @@ public class HaxelibCommandUtils {
   /**
    * Issue a 'haxelib' command to the OS, capturing its output.
    *
+   * Blocks until the command has finished; prefer {@link #issueHaxelibCommandAsync}.
+   *
    * @param args arguments to be provided to the haxelib command.
    * @return a set of Strings, possibly empty, one per line of command output.
    */
 
   @NotNull
   public static List<String> issueHaxelibCommand(@NotNull Sdk sdk, @Nullable VirtualFile workDir, String... args) {
-    Application application = ApplicationManager.getApplication();
-    if (application.isDispatchThread()) {
-      List<String> result = new ArrayList<>();
-      ProgressManager.getInstance().runProcessWithProgressSynchronously(() -> result.addAll(_issueHaxelibCommand(sdk,workDir, args)),
-                                                                        "Haxelib Command", false, null);
-      return result;
+    return awaitResult(issueHaxelibCommandAsync(sdk, workDir, args));
+  }
+
+  /**
+   * Issue a 'haxelib' command to the OS on a pooled thread, capturing its output.
+   *
+   * The output of commands that only read the repository is kept, per SDK, working directory and
+   * arguments, until the repository it was read from changes (see {@link HaxelibQueryCache}) or
+   * {@link #invalidateCache} is called; a failing command is run again next time.
+   *
+   * @param args arguments to be provided to the haxelib command.
+   * @return a future of the output lines, possibly none; the list belongs to the caller.
+   */
+  @NotNull
+  public static CompletableFuture<List<String>> issueHaxelibCommandAsync(@NotNull Sdk sdk, @Nullable VirtualFile workDir, String... args) {
+    if (args.length == 0 || !QUERY_COMMANDS.contains(args[0])) {
+      return CompletableFuture.supplyAsync(() -> new ArrayList<>(_issueHaxelibCommand(sdk, workDir, args).lines), ourExecutor);
     }
-    else if (application.isReadAccessAllowed()) {
-      try {
-        // TODO: this is a hacky way to get around the `checkEdtAndReadAction` check,
-        //  while we move the logic to another thread we block the current one using get(), preferred
-        //  method would be some kind of callback
-        return application.executeOnPooledThread(()-> _issueHaxelibCommand(sdk, workDir, args)).get();
-      }
-      catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-      catch (ExecutionException e) {
-        throw new RuntimeException(e);
-      }
+    return queryAsync(sdk, workDir, args).thenApply(result -> new ArrayList<>(result.lines));
+  }
+
+  /**
+   * Runs a query, or reuses its output.  The repository a query reads is the one {@code haxelib config}
+   * names, so that is asked first.
+   */
+  @NotNull
+  private static CompletableFuture<CommandOutput> queryAsync(@NotNull Sdk sdk, @Nullable VirtualFile workDir, String... args) {
+    String prefix = sdk.getName() + '\n' + getHaxelibPath(sdk) + '\n' + (workDir != null ? workDir.getPath() : "") + '\n';
+    List<File> configuration = getRepositoryConfiguration(workDir);
+    if (args.length == 1 && args[0].equals("config")) {
+      return ourQueryResults.get(prefix + "config", configuration,
+                                 () -> CompletableFuture.supplyAsync(() -> _issueHaxelibCommand(sdk, workDir, args), ourExecutor));
     }
-    else {
-      return _issueHaxelibCommand(sdk, workDir, args);
+    return queryAsync(sdk, workDir, "config").thenCompose(config -> {
+      List<File> repositories = new ArrayList<>(configuration);
+      if (config.exitCode == 0) {
+        config.lines.stream().map(String::trim).filter(line -> !line.isEmpty()).findFirst()
+          .ifPresent(repository -> repositories.add(new File(repository)));
+      }
+      return ourQueryResults.get(prefix + String.join("\n", args), repositories,
+                                 () -> CompletableFuture.supplyAsync(() -> _issueHaxelibCommand(sdk, workDir, args), ourExecutor));
+    });
+  }
+
+  /**
+   * @return what decides which repository haxelib uses in the directory: a local repository in it, or
+   *         else the repository set up in the user's haxelib configuration.
+   */
+  @NotNull
+  private static List<File> getRepositoryConfiguration(@Nullable VirtualFile workDir) {
+    List<File> files = new ArrayList<>();
+    if (workDir != null) {
+      files.add(new File(workDir.getPath(), HaxelibUtil.LOCAL_REPO));
     }
+    files.add(new File(SystemProperties.getUserHome(), ".haxelib"));
+    return files;
+  }
 
+  /**
+   * Forgets the output of earlier haxelib commands; for when the haxelib configuration changed in a way
+   * that doesn't show in the repositories.
+   */
+  public static void invalidateCache() {
+    ourQueryResults.clear();
+  }
+
+  /**
+   * Waits for a haxelib result.  Elsewhere than on the dispatch thread, it keeps checking for cancellation,
+   * so that a read action waiting here doesn't hold off write actions.  The plugin doesn't wait on the
+   * dispatch thread, which uses the {@code *Async} methods; should a caller still do so, it waits under
+   * a modal progress.
+   */
+  public static <T> T awaitResult(@NotNull CompletableFuture<T> future) {
+    if (future.isDone()) {
+      return future.join();
+    }
+    if (ApplicationManager.getApplication().isDispatchThread()) {
+      return ProgressManager.getInstance().runProcessWithProgressSynchronously(
+        () -> ProgressIndicatorUtils.awaitWithCheckCanceled(future), "Haxelib Command", false, null);
+    }
+    return ProgressIndicatorUtils.awaitWithCheckCanceled(future);
   }
 
   @NotNull
-  private static List<String> _issueHaxelibCommand(@NotNull Sdk sdk, @Nullable VirtualFile workDir, String... args) {
+  private static CommandOutput _issueHaxelibCommand(@NotNull Sdk sdk, @Nullable VirtualFile workDir, String... args) {
 
     // TODO: Wrap the process with a timer?
 
@@ -139,7 +208,7 @@ public class HaxelibCommandUtils {
     String haxelibPath = null != sdkData ? sdkData.getHaxelibPath() : HaxeSdkUtil.suggestHomePath();
     if (null == haxelibPath) {
       log.warn("Could not find 'haxelib' executable to run using " + sdk.getName());
-      return Collections.EMPTY_LIST;
+      return new CommandOutput(List.of(), -1);
     }
 
     // TODO mlo: try to clean up code so it only uses either dir or file
@@ -151,7 +220,7 @@ public class HaxelibCommandUtils {
     }
     if (workDir == null) {
       log.error("unable to execute haxelib command, haxelib path is null");
-      return List.of();
+      return new CommandOutput(List.of(), -1);
     }
     List<String> stdout = new ArrayList<String>();
     int exitvalue = HaxeProcessUtil.runProcess(commandLineArguments, true, workDir, sdkData,
@@ -162,7 +231,17 @@ public class HaxelibCommandUtils {
       log.warn("Error " + Integer.toString(exitvalue) + " returned from " + commandLineArguments.toString());
     }
 
-    return stdout;
+    return new CommandOutput(stdout, exitvalue);
+  }
+
+  static final class CommandOutput {
+    final List<String> lines;
+    final int exitCode;
+
+    CommandOutput(@NotNull List<String> lines, int exitCode) {
+      this.lines = Collections.unmodifiableList(lines);
+      this.exitCode = exitCode;
+    }
   }
 
 
@@ -201,6 +280,8 @@ public class HaxelibCommandUtils {
   /**
    * Run a shell command, capturing its standard output.
    *
+   * Blocks until the command has finished; prefer {@link #getProcessStdoutAsync}.
+   *
    * @param commandLineArguments a command and its arguments, as a list of strings.
    * @param dir                  directory in which to run the command.
    * @return the output of the command, as a list of strings, one line per string.
@@ -209,34 +290,52 @@ public class HaxelibCommandUtils {
   public static List<String> getProcessStdout(@NotNull ArrayList<String> commandLineArguments,
                                               @Nullable File dir,
                                               @Nullable HaxeSdkAdditionalDataBase haxeSdkData) {
+    return awaitResult(getProcessStdoutAsync(commandLineArguments, dir, haxeSdkData));
+  }
+
+  /**
+   * Run a shell command on a pooled thread, capturing its standard output.  A command that
+   * doesn't finish within {@value #PROCESS_TIMEOUT_SECONDS} seconds is stopped.
+   *
+   * @param commandLineArguments a command and its arguments, as a list of strings.
+   * @param dir                  directory in which to run the command.
+   * @return a future of the output of the command, one line per string.
+   */
+  @NotNull
+  public static CompletableFuture<List<String>> getProcessStdoutAsync(@NotNull List<String> commandLineArguments,
+                                                                      @Nullable File dir,
+                                                                      @Nullable HaxeSdkAdditionalDataBase haxeSdkData) {
+    List<String> commandLine = new ArrayList<>(commandLineArguments);
+    return CompletableFuture.supplyAsync(() -> readProcessStdout(commandLine, dir, haxeSdkData), ourExecutor);
+  }
+
+  @NotNull
+  private static List<String> readProcessStdout(@NotNull List<String> commandLineArguments,
+                                                @Nullable File dir,
+                                                @Nullable HaxeSdkAdditionalDataBase haxeSdkData) {
     List<String> strings = new ArrayList<String>();
 
     try {
       ProcessBuilder builder = HaxeSdkUtilBase.createProcessBuilder(commandLineArguments, dir, haxeSdkData);
       builder.redirectErrorStream(true);
-      if (dir != null) {
-        builder = builder.directory(dir);
-      }
       Process process = builder.start();
-      InputStreamReader reader = new InputStreamReader(process.getInputStream());
-      Scanner scanner = new Scanner(reader);
-      process.waitFor(100, TimeUnit.MILLISECONDS);
-
-      if (reader.ready()) {
-        while (scanner.hasNextLine()) {
-          String nextLine = scanner.nextLine();
-          strings.add(nextLine);
+      ScheduledFuture<?> timeout = AppExecutorUtil.getAppScheduledExecutorService()
+        .schedule(process::destroy, PROCESS_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+          strings.add(line);
         }
+        process.waitFor();
       }
-
-      if (process.isAlive()) {
-        if (!process.waitFor(10, TimeUnit.MILLISECONDS)) {
-          process.destroy();
-        }
+      finally {
+        timeout.cancel(false);
       }
     }
-    catch (IOException | InterruptedException e) {
-      e.printStackTrace();
+    catch (IOException e) {
+      log.warn("Cannot run " + commandLineArguments, e);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
 
     return strings;
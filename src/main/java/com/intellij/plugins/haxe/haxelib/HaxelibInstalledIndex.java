@@ -5,6 +5,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 public class HaxelibInstalledIndex {
@@ -41,6 +42,14 @@ public class HaxelibInstalledIndex {
   }
 
   public static HaxelibInstalledIndex fetchFromHaxelib(@NotNull Sdk sdk, VirtualFile workDir){
+    return HaxelibCommandUtils.awaitResult(fetchFromHaxelibAsync(sdk, workDir));
+  }
+
+  public static CompletableFuture<HaxelibInstalledIndex> fetchFromHaxelibAsync(@NotNull Sdk sdk, VirtualFile workDir) {
+    return HaxelibCommandUtils.issueHaxelibCommandAsync(sdk, workDir, "list").thenApply(HaxelibInstalledIndex::parse);
+  }
+
+  private static HaxelibInstalledIndex parse(List<String> listCmdOutput) {
     // haxelib list output looks like:
     //      lime-tools: 1.4.0 [1.5.6]
     // The library name comes first, followed by a colon, followed by a
@@ -48,7 +57,6 @@ public class HaxelibInstalledIndex {
 
     HaxelibInstalledIndex index = new HaxelibInstalledIndex();
 
-    List<String> listCmdOutput = HaxelibCommandUtils.issueHaxelibCommand(sdk, workDir,  "list");
     if ((listCmdOutput.size() > 0) && (!listCmdOutput.get(0).contains("Unknown command"))) {
       for (String line : listCmdOutput) {
         int firstColon = line.indexOf(":");
@@ -3,6 +3,7 @@ package com.intellij.plugins.haxe.haxelib;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.startup.ProjectActivity;
+import com.intellij.plugins.haxe.ide.index.HaxeLibraryIndexChunks;
 import kotlin.Unit;
 import kotlin.coroutines.Continuation;
 import lombok.CustomLog;
@@ -17,6 +18,7 @@ public class HaxelibProjectStartActivity implements ProjectActivity {
 
     if (!ApplicationManager.getApplication().isUnitTestMode()) {
       HaxelibProjectUpdater.getInstance().openProject(project);
+      HaxeLibraryIndexChunks.getInstance().scheduleGeneration(project);
     }
     return null;
   }
@@ -0,0 +1,121 @@
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.plugins.haxe.haxelib.HaxelibCommandUtils.CommandOutput;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The output of haxelib commands that only read the repositories, such as {@code list} or {@code path}.
+ *
+ * An output is kept until one of the repositories it was read from changes on disk, which happens when a
+ * library is installed, removed or has another version selected.  The output of a failed command isn't
+ * kept, and only the most recently used outputs are.
+ */
+final class HaxelibQueryCache {
+  private final Map<String, Entry> myEntries;
+  private final Map<File, Stamp> myStamps = new ConcurrentHashMap<>();
+  // How long the state of a repository is trusted before it is read from disk again.
+  private final long myStampTtlMillis;
+
+  private record Entry(@NotNull CompletableFuture<CommandOutput> output, @NotNull String stamp) {
+  }
+
+  private record Stamp(long readAt, @NotNull String value) {
+  }
+
+  HaxelibQueryCache(int maxEntries, long stampTtlMillis) {
+    myStampTtlMillis = stampTtlMillis;
+    myEntries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  /**
+   * @param repositories the repository directories and configuration files the command reads.
+   * @param command      runs the command, when there is no output for it that is still valid.
+   */
+  @NotNull
+  CompletableFuture<CommandOutput> get(@NotNull String key,
+                                       @NotNull List<File> repositories,
+                                       @NotNull Supplier<CompletableFuture<CommandOutput>> command) {
+    String stamp = stamp(repositories);
+    synchronized (myEntries) {
+      Entry entry = myEntries.get(key);
+      if (entry != null && entry.stamp().equals(stamp)) {
+        return entry.output();
+      }
+      Entry created = new Entry(command.get(), stamp);
+      myEntries.put(key, created);
+      created.output().whenComplete((result, error) -> {
+        if (error != null || result.exitCode != 0) {
+          myEntries.remove(key, created);
+        }
+      });
+      return created.output();
+    }
+  }
+
+  void clear() {
+    myEntries.clear();
+    myStamps.clear();
+  }
+
+  int size() {
+    return myEntries.size();
+  }
+
+  @NotNull
+  private String stamp(@NotNull List<File> repositories) {
+    StringBuilder stamp = new StringBuilder();
+    for (File repository : repositories) {
+      stamp.append(repository.getPath()).append('=').append(getStamp(repository)).append('\n');
+    }
+    return stamp.toString();
+  }
+
+  @NotNull
+  private String getStamp(@NotNull File repository) {
+    long now = System.currentTimeMillis();
+    Stamp stamp = myStamps.get(repository);
+    if (stamp == null || now - stamp.readAt() >= myStampTtlMillis) {
+      stamp = new Stamp(now, readStamp(repository));
+      myStamps.put(repository, stamp);
+    }
+    return stamp.value();
+  }
+
+  /**
+   * A repository has a directory per installed library, which records the selected version in a
+   * {@code .current} or {@code .dev} file.  Their modification times change with what is installed.
+   */
+  @NotNull
+  static String readStamp(@NotNull File repository) {
+    if (repository.isFile()) {
+      return repository.length() + ":" + repository.lastModified();
+    }
+    File[] libraries = repository.listFiles(File::isDirectory);
+    if (libraries == null) {
+      return "missing";
+    }
+    Arrays.sort(libraries);
+    long times = repository.lastModified();
+    for (File library : libraries) {
+      times = times * 31 + library.lastModified();
+      times = times * 31 + new File(library, ".current").lastModified();
+      times = times * 31 + new File(library, ".dev").lastModified();
+    }
+    return libraries.length + ":" + times;
+  }
+}
@@ -57,6 +57,7 @@ public class HaxelibUtil {
   static private  Map<String,String> libBasePathCache = new HashMap<>();
   public static void clearCache() {
     libBasePathCache.clear();
+    HaxelibCommandUtils.invalidateCache();
   }
 
   static {      // Take this out when finished debugging.
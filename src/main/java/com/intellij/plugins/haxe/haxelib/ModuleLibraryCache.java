@@ -23,11 +23,13 @@ import com.intellij.openapi.module.Module;
 import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Manages library retrieval and caching.
@@ -66,13 +68,34 @@ public final class ModuleLibraryCache {
     loadInstalledLibrariesList(mySdk);
   }
 
+  /**
+   * Like {@link #reload}, but haxelib is asked on pooled threads; for callers on the dispatch thread.
+   */
+  @NotNull
+  public CompletableFuture<Void> reloadAsync() {
+    repositoryPath = null;
+    myCache.clear();
+    haxelibIndex = HaxelibInstalledIndex.EMPTY;
+    if(!HaxelibSdkUtils.isValidHaxeSdk(mySdk)){
+      log.warn("Unable to load install library list, invalid SDK paths");
+      return CompletableFuture.completedFuture(null);
+    }
+    // Loading the libraries asks haxelib for their paths and waits, which mustn't hold up a haxelib thread.
+    return HaxelibInstalledIndex.fetchFromHaxelibAsync(mySdk, getHaxelibWorkDirectory())
+      .thenAcceptAsync(this::loadInstalledLibraries, AppExecutorUtil.getAppExecutorService());
+  }
+
   private void loadInstalledLibrariesList(@NotNull Sdk sdk) {
     if(!HaxelibSdkUtils.isValidHaxeSdk(sdk)){
       log.warn("Unable to load install library list, invalid SDK paths");
       return;
     }
     VirtualFile workDir = getHaxelibWorkDirectory();
-    haxelibIndex = HaxelibInstalledIndex.fetchFromHaxelib(sdk, workDir);
+    loadInstalledLibraries(HaxelibInstalledIndex.fetchFromHaxelib(sdk, workDir));
+  }
+
+  private void loadInstalledLibraries(@NotNull HaxelibInstalledIndex index) {
+    haxelibIndex = index;
 
     for (String libName : haxelibIndex.getInstalledLibraries()) {
       Set<String> versions = haxelibIndex.getInstalledVersions(libName);
@@ -26,6 +26,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.plugins.haxe.buildsystem.hxml.HXMLLanguage;
 import com.intellij.plugins.haxe.haxelib.HaxelibCacheManager;
+import com.intellij.plugins.haxe.haxelib.HaxelibCommandUtils;
 import com.intellij.plugins.haxe.hxml.psi.HXMLLib;
 import com.intellij.plugins.haxe.hxml.psi.HXMLValue;
 import com.intellij.util.ProcessingContext;
@@ -33,7 +34,9 @@ import lombok.CustomLog;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import static com.intellij.patterns.StandardPatterns.not;
 import static com.intellij.patterns.StandardPatterns.string;
@@ -84,8 +87,11 @@ public class HXMLHaxelibCompletionContributor extends CompletionContributor {
         Module module = ModuleUtil.findModuleForFile(file, project);
         HaxelibCacheManager cacheManager = HaxelibCacheManager.getInstance(module);
 
-        Set<String>  available = cacheManager.getAvailableLibraries().keySet();
-        Set<String>  installed = cacheManager.getInstalledLibraries().keySet();
+        // Both haxelib queries run at once; waiting for them gives way to typing and write actions.
+        CompletableFuture<Map<String, Set<String>>> availableLibraries = cacheManager.getAvailableLibrariesAsync();
+        CompletableFuture<Map<String, Set<String>>> installedLibraries = cacheManager.getInstalledLibrariesAsync();
+        Set<String>  available = HaxelibCommandUtils.awaitResult(availableLibraries).keySet();
+        Set<String>  installed = HaxelibCommandUtils.awaitResult(installedLibraries).keySet();
 
         List<LookupElementBuilder> installedSuggestions = installed.stream()
           .map(libName -> LookupElementBuilder.create(libName).withTailText(" installed", true))
@@ -120,8 +126,10 @@ public class HXMLHaxelibCompletionContributor extends CompletionContributor {
         Module module = ModuleUtil.findModuleForFile(file, project);
         HaxelibCacheManager cacheManager = HaxelibCacheManager.getInstance(module);
 
-        Set<String> available = cacheManager.fetchAvailableVersions(libName);
-        Set<String> installed = cacheManager.getInstalledLibraries().getOrDefault(libName, Set.of());
+        CompletableFuture<Set<String>> availableVersions = cacheManager.fetchAvailableVersionsAsync(libName);
+        CompletableFuture<Map<String, Set<String>>> installedLibraries = cacheManager.getInstalledLibrariesAsync();
+        Set<String> available = HaxelibCommandUtils.awaitResult(availableVersions);
+        Set<String> installed = HaxelibCommandUtils.awaitResult(installedLibraries).getOrDefault(libName, Set.of());
 
         List<LookupElementBuilder> installedSuggestions = installed.stream()
           .map(version -> LookupElementBuilder.create(libName + ":" + version).withTailText(" installed", true))
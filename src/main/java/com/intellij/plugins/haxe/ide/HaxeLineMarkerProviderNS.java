@@ -31,12 +31,17 @@ import com.intellij.icons.AllIcons;
 import com.intellij.openapi.editor.markup.GutterIconRenderer;
 import com.intellij.plugins.haxe.HaxeBundle;
 import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.ide.index.HaxeInheritanceDefinitionsUtil;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolIndex;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolInfo;
 import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
 import com.intellij.psi.NavigatablePsiElement;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.Function;
 import com.intellij.util.containers.ContainerUtil;
@@ -46,9 +51,7 @@ import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.awt.event.MouseEvent;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.function.Supplier;
 
 /**
@@ -77,15 +80,18 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
   private static void collectClassMarkers(Collection<LineMarkerInfo> result, @NotNull HaxeClass haxeClass) {
     final List<HaxeClass> supers = HaxeResolveUtil.tryResolveClassesByQName(haxeClass.getHaxeExtendsList());
     supers.addAll(HaxeResolveUtil.tryResolveClassesByQName(haxeClass.getHaxeImplementsList()));
-    final List<HaxeNamedComponent> superItems = HaxeResolveUtil.findNamedSubComponents(null, supers.toArray(HaxeClass.EMPTY_ARRAY));
+    final Map<String, List<HaxeNamedComponent>> superItemsByName =
+      groupByName(HaxeResolveUtil.findNamedSubComponents(null, supers.toArray(HaxeClass.EMPTY_ARRAY)));
 
-    final Collection<HaxeClass> subs = HaxeInheritanceDefinitionsUtil.getItemsByQNameFirstLevelChildrenOnly(haxeClass);
-    final List<HaxeClass> subClasses = subs.stream().filter(c -> !(c instanceof  HaxeTypedefDeclaration)).toList();;
+    // Subclasses and implementations in libraries get markers too.
+    final GlobalSearchScope scope = GlobalSearchScope.allScope(haxeClass.getProject());
+    final Collection<HaxeClass> subs = HaxeInheritanceDefinitionsUtil.getItemsByQNameFirstLevelChildrenOnly(haxeClass, scope);
+    final List<HaxeClass> subClasses = subs.stream().filter(c -> !(c instanceof  HaxeTypedefDeclaration)).toList();
     final List<HaxeClass> typeDefs = subs.stream().filter(c -> c instanceof  HaxeTypedefDeclaration).toList();
 
-    final List<HaxeNamedComponent> subItems = new ArrayList<>();
+    final Set<String> subClassNames = new HashSet<>();
     for (HaxeClass subClass : subClasses) {
-        subItems.addAll(HaxeResolveUtil.getNamedSubComponents(subClass));
+      ContainerUtil.addIfNotNull(subClassNames, HaxeSymbolIndex.getOwnerQualifiedName(subClass));
     }
 
     final boolean isInterface = HaxeComponentType.typeOf(haxeClass) == HaxeComponentType.INTERFACE;
@@ -93,11 +99,12 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
       for (HaxeNamedComponent haxeNamedComponent : HaxeResolveUtil.getNamedSubComponents(haxeClass)) {
         final HaxeComponentType type = HaxeComponentType.typeOf(haxeNamedComponent);
         if (type == HaxeComponentType.METHOD || type == HaxeComponentType.FIELD) {
-          LineMarkerInfo item = HaxeLineMarkerProviderNS.tryCreateOverrideMarker(haxeNamedComponent, superItems);
+          final String name = haxeNamedComponent.getName();
+          LineMarkerInfo item = HaxeLineMarkerProviderNS.tryCreateOverrideMarker(haxeNamedComponent, superItemsByName.get(name));
           if (item != null) {
             result.add(item);
           }
-          item = HaxeLineMarkerProviderNS.tryCreateImplementationMarker(haxeNamedComponent, subItems, isInterface);
+          item = HaxeLineMarkerProviderNS.tryCreateImplementationMarker(haxeNamedComponent, findSubItems(name, subClassNames, scope), isInterface);
           if (item != null) {
             result.add(item);
           }
@@ -135,9 +142,42 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
     }
   }
 
+  @NotNull
+  private static Map<String, List<HaxeNamedComponent>> groupByName(@NotNull List<HaxeNamedComponent> components) {
+    final Map<String, List<HaxeNamedComponent>> result = new HashMap<>();
+    for (HaxeNamedComponent component : components) {
+      final String name = component.getName();
+      if (name != null) {
+        result.computeIfAbsent(name, k -> new ArrayList<>(1)).add(component);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Finds the subclass members with the given name from the symbol index, so that subclasses
+   * don't have to be loaded to see whether they redeclare a member.
+   */
+  @NotNull
+  private static List<Pair<VirtualFile, HaxeSymbolInfo>> findSubItems(@Nullable String name,
+                                                                      @NotNull Set<String> subClassNames,
+                                                                      @NotNull GlobalSearchScope scope) {
+    if (name == null || name.isEmpty() || subClassNames.isEmpty()) {
+      return Collections.emptyList();
+    }
+    final List<Pair<VirtualFile, HaxeSymbolInfo>> result = new ArrayList<>();
+    HaxeSymbolIndex.processSymbols(name, scope, null, (file, info) -> {
+      if (info.isMember() && subClassNames.contains(info.getOwnerQualifiedName())) {
+        result.add(Pair.create(file, info));
+      }
+      return true;
+    });
+    return result;
+  }
+
   @Nullable
   private static LineMarkerInfo tryCreateOverrideMarker(final HaxeNamedComponent namedComponent,
-                                                        List<HaxeNamedComponent> superItems) {
+                                                        @Nullable List<HaxeNamedComponent> superItems) {
 
     final HaxeComponentName componentName = namedComponent.getComponentName();
     final String methodName = namedComponent.getName();
@@ -145,8 +185,7 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
       return null;
     }
 
-    final List<HaxeNamedComponent> filteredSuperItems = ContainerUtil.filter(superItems, item -> methodName.equals(item.getName()));
-    if (filteredSuperItems.isEmpty()) {
+    if (superItems == null || superItems.isEmpty()) {
       return null;
     }
     final PsiElement element = componentName.getIdentifier().getFirstChild();
@@ -178,7 +217,7 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
       new GutterIconNavigationHandler<PsiElement>() {
         @Override
         public void navigate(MouseEvent e, PsiElement elt) {
-          NavigatablePsiElement[] psiElements = HaxeResolveUtil.getComponentNames(filteredSuperItems).toArray(new NavigatablePsiElement[filteredSuperItems.size()]);
+          NavigatablePsiElement[] psiElements = HaxeResolveUtil.getComponentNames(superItems).toArray(new NavigatablePsiElement[superItems.size()]);
           String title = DaemonBundle.message("navigation.title.super.method", namedComponent.getName());
           String tab = DaemonBundle.message("navigation.findUsages.title.super.method", namedComponent.getName());
           new PsiTargetNavigator<>(psiElements).tabTitle(tab).navigate(e, title, elt.getProject());
@@ -191,7 +230,7 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
 
   @Nullable
   private static LineMarkerInfo tryCreateImplementationMarker(final HaxeNamedComponent namedComponent,
-                                                              List<HaxeNamedComponent> subItems,
+                                                              List<Pair<VirtualFile, HaxeSymbolInfo>> subItems,
                                                               final boolean isInterface) {
     final HaxeComponentName componentName = namedComponent.getComponentName();
     final String methodName = namedComponent.getName();
@@ -199,8 +238,7 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
       return null;
     }
 
-    final List<HaxeNamedComponent> filteredSubItems = ContainerUtil.filter(subItems, item -> methodName.equals(item.getName()));
-    if (filteredSubItems.isEmpty()) {
+    if (subItems.isEmpty()) {
       return null;
     }
     final PsiElement element = componentName.getIdentifier().getFirstChild();
@@ -220,15 +258,16 @@ public abstract class HaxeLineMarkerProviderNS implements LineMarkerProvider {
       new GutterIconNavigationHandler<PsiElement>() {
         @Override
         public void navigate(MouseEvent e, PsiElement elt) {
-
-
-
-          NavigatablePsiElement[] psiElements =
-            HaxeResolveUtil.getComponentNames(filteredSubItems).toArray(new NavigatablePsiElement[filteredSubItems.size()]);
+          // Targets are only loaded once the marker is actually used.
+          List<NavigatablePsiElement> targets = new ArrayList<>(subItems.size());
+          for (Pair<VirtualFile, HaxeSymbolInfo> item : subItems) {
+            ContainerUtil.addIfNotNull(targets, HaxeSymbolIndex.findComponentName(elt.getProject(), item.getFirst(), item.getSecond()));
+          }
+          NavigatablePsiElement[] psiElements = targets.toArray(new NavigatablePsiElement[0]);
 
           String title = isInterface ?
-                         DaemonBundle.message("navigation.title.implementation.method", namedComponent.getName(), filteredSubItems.size()) :
-                         DaemonBundle.message("navigation.title.overrider.method", namedComponent.getName(), filteredSubItems.size());
+                         DaemonBundle.message("navigation.title.implementation.method", namedComponent.getName(), psiElements.length) :
+                         DaemonBundle.message("navigation.title.overrider.method", namedComponent.getName(), psiElements.length);
 
           new PsiTargetNavigator<>(psiElements)
             .tabTitle("Implementations of " + namedComponent.getName())
@@ -17,32 +17,35 @@
  */
 package com.intellij.plugins.haxe.ide;
 
-import com.intellij.navigation.ChooseByNameContributor;
+import com.intellij.navigation.ChooseByNameContributorEx;
 import com.intellij.navigation.NavigationItem;
 import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.ide.index.HaxeSymbolIndex;
-import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
 import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FindSymbolParameters;
+import com.intellij.util.indexing.IdFilter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-
-public class HaxeSymbolContributor implements ChooseByNameContributor {
-  @NotNull
+/**
+ * Go to Symbol items come straight from the symbol index, so listing and filtering them does not
+ * parse any file (see HaxeSymbolNavigationItem).
+ */
+public class HaxeSymbolContributor implements ChooseByNameContributorEx {
   @Override
-  public String[] getNames(@NotNull final Project project, final boolean includeNonProjectItems) {
-    final GlobalSearchScope scope = includeNonProjectItems ? GlobalSearchScope.allScope(project) : GlobalSearchScope.projectScope(project);
-    return HaxeSymbolIndex.getAllSymbols(scope);
+  public void processNames(@NotNull Processor<? super String> processor,
+                           @NotNull GlobalSearchScope scope,
+                           @Nullable IdFilter filter) {
+    HaxeSymbolIndex.processAllSymbols(processor, scope, filter);
   }
 
-  @NotNull
   @Override
-  public NavigationItem[] getItemsByName(@NotNull final String name,
-                                         @NotNull final String pattern,
-                                         @NotNull final Project project,
-                                         final boolean includeNonProjectItems) {
-    final GlobalSearchScope scope = includeNonProjectItems ? GlobalSearchScope.allScope(project) : GlobalSearchScope.projectScope(project);
-    final Collection<HaxeComponentName> result = HaxeSymbolIndex.getItemsByName(name, project, scope);
-    return result.toArray(new NavigationItem[0]);
+  public void processElementsWithName(@NotNull String name,
+                                      @NotNull Processor<? super NavigationItem> processor,
+                                      @NotNull FindSymbolParameters parameters) {
+    final Project project = parameters.getProject();
+    HaxeSymbolIndex.processSymbols(name, parameters.getSearchScope(), parameters.getIdFilter(), (file, info) ->
+      processor.process(new HaxeSymbolNavigationItem(project, file, name, info)));
   }
 }
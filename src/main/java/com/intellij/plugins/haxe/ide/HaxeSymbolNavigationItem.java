@@ -0,0 +1,115 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.navigation.ItemPresentation;
+import com.intellij.navigation.NavigationItem;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolIndex;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolInfo;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.pom.Navigatable;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * A Go to Symbol result built from the symbol index alone.  The declaration's PSI is only
+ * loaded when the item is navigated to.
+ */
+public class HaxeSymbolNavigationItem implements NavigationItem, ItemPresentation {
+  private final Project myProject;
+  private final VirtualFile myFile;
+  private final String myName;
+  private final HaxeSymbolInfo myInfo;
+
+  public HaxeSymbolNavigationItem(@NotNull Project project,
+                                  @NotNull VirtualFile file,
+                                  @NotNull String name,
+                                  @NotNull HaxeSymbolInfo info) {
+    myProject = project;
+    myFile = file;
+    myName = name;
+    myInfo = info;
+  }
+
+  @NotNull
+  public HaxeSymbolInfo getInfo() {
+    return myInfo;
+  }
+
+  @NotNull
+  public VirtualFile getFile() {
+    return myFile;
+  }
+
+  @Nullable
+  public HaxeComponentName findComponentName() {
+    return myFile.isValid() ? HaxeSymbolIndex.findComponentName(myProject, myFile, myInfo) : null;
+  }
+
+  @NotNull
+  @Override
+  public String getName() {
+    return myName;
+  }
+
+  @NotNull
+  @Override
+  public ItemPresentation getPresentation() {
+    return this;
+  }
+
+  @NotNull
+  @Override
+  public String getPresentableText() {
+    return myName;
+  }
+
+  @Override
+  public String getLocationString() {
+    if (!myInfo.isMember()) {
+      return myInfo.getOwnerPackage();
+    }
+    return StringUtil.getQualifiedName(myInfo.getOwnerPackage(), myInfo.getOwnerName());
+  }
+
+  @Nullable
+  @Override
+  public Icon getIcon(boolean unused) {
+    return myInfo.getIcon();
+  }
+
+  @Override
+  public void navigate(boolean requestFocus) {
+    Navigatable target = findComponentName();
+    if (target == null || !target.canNavigate()) {
+      target = new OpenFileDescriptor(myProject, myFile, myInfo.getOffset());
+    }
+    target.navigate(requestFocus);
+  }
+
+  @Override
+  public boolean canNavigate() {
+    return myFile.isValid();
+  }
+
+  @Override
+  public boolean canNavigateToSource() {
+    return canNavigate();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof HaxeSymbolNavigationItem item)) return false;
+    return myFile.equals(item.myFile) && myName.equals(item.myName) && myInfo.equals(item.myInfo);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * myFile.hashCode() + myInfo.getOffset();
+  }
+}
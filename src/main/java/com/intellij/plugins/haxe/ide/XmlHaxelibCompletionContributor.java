@@ -27,6 +27,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.PlatformPatterns;
 import com.intellij.patterns.XmlPatterns;
 import com.intellij.plugins.haxe.haxelib.HaxelibCacheManager;
+import com.intellij.plugins.haxe.haxelib.HaxelibCommandUtils;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.ProcessingContext;
@@ -35,7 +36,9 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Created by as3boyan on 15.11.14.
@@ -75,8 +78,11 @@ public class XmlHaxelibCompletionContributor extends CompletionContributor {
         Module moduleForFile = ModuleUtil.findModuleForFile(file, project);
         HaxelibCacheManager instance = HaxelibCacheManager.getInstance(moduleForFile);
 
-        Set<String> availableVersions = instance.fetchAvailableVersions(libName);
-        Set<String> installedVersions = instance.getInstalledLibraries().getOrDefault(libName, Set.of());
+        // Both haxelib queries run at once; waiting for them gives way to typing and write actions.
+        CompletableFuture<Set<String>> available = instance.fetchAvailableVersionsAsync(libName);
+        CompletableFuture<Map<String, Set<String>>> installed = instance.getInstalledLibrariesAsync();
+        Set<String> availableVersions = HaxelibCommandUtils.awaitResult(available);
+        Set<String> installedVersions = HaxelibCommandUtils.awaitResult(installed).getOrDefault(libName, Set.of());
         availableVersions.removeAll(installedVersions); // avoid duplicates
 
         for (String libVersion : installedVersions) {
@@ -117,8 +123,10 @@ public class XmlHaxelibCompletionContributor extends CompletionContributor {
         Module moduleForFile = ModuleUtil.findModuleForFile(file, project);
         HaxelibCacheManager instance = HaxelibCacheManager.getInstance(moduleForFile);
 
-        Set<String> available = instance.getAvailableLibraries().keySet();
-        Set<String> installed = instance.getInstalledLibraries().keySet();
+        CompletableFuture<Map<String, Set<String>>> availableLibraries = instance.getAvailableLibrariesAsync();
+        CompletableFuture<Map<String, Set<String>>> installedLibraries = instance.getInstalledLibrariesAsync();
+        Set<String> available = HaxelibCommandUtils.awaitResult(availableLibraries).keySet();
+        Set<String> installed = HaxelibCommandUtils.awaitResult(installedLibraries).keySet();
 
         List<LookupElementBuilder> installedSuggestions = installed.stream()
           .map(libName -> LookupElementBuilder.create(libName).withTailText(" installed", true))
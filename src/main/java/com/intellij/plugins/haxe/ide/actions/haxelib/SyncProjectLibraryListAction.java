@@ -9,17 +9,20 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.buildsystem.hxml.psi.HXMLFile;
 import com.intellij.plugins.haxe.buildsystem.lime.LimeOpenFlUtil;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerServices;
 import com.intellij.plugins.haxe.haxelib.HaxelibProjectUpdater;
 import com.intellij.plugins.haxe.haxelib.HaxelibUtil;
 import com.intellij.plugins.haxe.haxelib.ModuleLibraryCache;
 import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 public class SyncProjectLibraryListAction extends AnAction implements DumbAware {
 
@@ -35,22 +38,27 @@ public class SyncProjectLibraryListAction extends AnAction implements DumbAware
     HaxelibUtil.clearCache();
     HaxelibProjectUpdater instance = HaxelibProjectUpdater.INSTANCE;
     Project project = getProject(e);
+    if (project != null) {
+      HaxeCompilerServices.invalidateProjectCache(project);
+    }
     HaxelibProjectUpdater.ProjectTracker tracker = instance.findProjectTracker(project);
 
-    clearHaxelibCaches(project);
+    CompletableFuture<Void> reloaded = clearHaxelibCaches(project);
 
     if(tracker!= null){
       tracker.getCache().clear();
-      instance.synchronizeClasspaths(tracker);
+      // Synchronizing asks haxelib as well, so it doesn't happen on the dispatch thread either.
+      reloaded.whenCompleteAsync((ignored, error) -> instance.synchronizeClasspaths(tracker), AppExecutorUtil.getAppExecutorService());
     }
   }
 
-  private static void clearHaxelibCaches(Project project) {
+  private static CompletableFuture<Void> clearHaxelibCaches(Project project) {
     Collection<Module> modules = ModuleUtil.getModulesOfType(project, HaxeModuleType.getInstance());
-    modules.stream()
+    return CompletableFuture.allOf(modules.stream()
       .map(HaxelibProjectUpdater::getLibraryCache)
       .filter(Objects::nonNull)
-      .forEach(ModuleLibraryCache::reload);
+      .map(ModuleLibraryCache::reloadAsync)
+      .toArray(CompletableFuture[]::new));
   }
 
   protected boolean isAvailable(AnActionEvent e) {
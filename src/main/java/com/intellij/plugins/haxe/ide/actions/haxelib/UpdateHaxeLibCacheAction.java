@@ -9,6 +9,7 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.buildsystem.hxml.psi.HXMLFile;
 import com.intellij.plugins.haxe.buildsystem.lime.LimeOpenFlUtil;
+import com.intellij.plugins.haxe.compilation.HaxeCompilerServices;
 import com.intellij.plugins.haxe.haxelib.HaxelibCacheManager;
 import com.intellij.plugins.haxe.haxelib.HaxelibProjectUpdater;
 import com.intellij.plugins.haxe.haxelib.HaxelibUtil;
@@ -39,12 +40,15 @@ public class UpdateHaxeLibCacheAction extends AnAction implements DumbAware {
   public void actionPerformed(@NotNull AnActionEvent event) {
     HaxelibUtil.clearCache();
     Project project = event.getProject();
+    if (project != null) {
+      HaxeCompilerServices.invalidateProjectCache(project);
+    }
 
     Collection<Module> modules = ModuleUtil.getModulesOfType(project, HaxeModuleType.getInstance());
     modules.stream()
       .map(HaxelibProjectUpdater::getLibraryCache)
       .filter(Objects::nonNull)
-      .forEach(ModuleLibraryCache::reload);
+      .forEach(ModuleLibraryCache::reloadAsync);
 
     HaxelibCacheManager.getAllInstances().forEach(HaxelibCacheManager::reload);
   }
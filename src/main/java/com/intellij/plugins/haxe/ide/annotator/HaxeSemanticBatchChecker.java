@@ -0,0 +1,249 @@
+package com.intellij.plugins.haxe.ide.annotator;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.codeInspection.HighlightVisitorBasedInspection;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionEP;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.lang.psi.HaxeFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.util.containers.ContainerUtil;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the Haxe annotators over many files at once, outside of the editor.
+ *
+ * Files are checked concurrently on the platform's pooled threads, one file per task, so a batch
+ * uses every core.  The evaluator and resolver keep their recursion guards in thread locals, which
+ * are restored when a file's check finishes or is cancelled, so that a pooled thread starts the next
+ * file with clean state.  The time spent on each file is recorded to find the files (usually those
+ * with large untyped functions) that dominate a run.
+ */
+@CustomLog
+public final class HaxeSemanticBatchChecker {
+
+  private static final int SLOWEST_FILES_TO_LOG = 10;
+
+  private HaxeSemanticBatchChecker() {
+  }
+
+  public static final class FileResult {
+    private final VirtualFile myFile;
+    private final List<HighlightInfo> myProblems;
+    private final long myElapsedNanos;
+
+    FileResult(@NotNull VirtualFile file, @NotNull List<HighlightInfo> problems, long elapsedNanos) {
+      myFile = file;
+      myProblems = problems;
+      myElapsedNanos = elapsedNanos;
+    }
+
+    @NotNull
+    public VirtualFile getFile() {
+      return myFile;
+    }
+
+    /** Problems of weak warning severity and above; syntax coloring is left out. */
+    @NotNull
+    public List<HighlightInfo> getProblems() {
+      return myProblems;
+    }
+
+    public long getElapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(myElapsedNanos);
+    }
+  }
+
+  public static final class InspectionResult {
+    private final VirtualFile myFile;
+    private final Map<String, List<ProblemDescriptor>> myProblems;
+    private final long myElapsedNanos;
+
+    InspectionResult(@NotNull VirtualFile file, @NotNull Map<String, List<ProblemDescriptor>> problems, long elapsedNanos) {
+      myFile = file;
+      myProblems = problems;
+      myElapsedNanos = elapsedNanos;
+    }
+
+    @NotNull
+    public VirtualFile getFile() {
+      return myFile;
+    }
+
+    /** Problems by the short name of the inspection reporting them. */
+    @NotNull
+    public Map<String, List<ProblemDescriptor>> getProblems() {
+      return myProblems;
+    }
+
+    public long getElapsedMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(myElapsedNanos);
+    }
+  }
+
+  /**
+   * @return the Haxe files in the project's source content, excluding libraries.
+   */
+  @NotNull
+  public static List<VirtualFile> collectProjectFiles(@NotNull Project project) {
+    List<VirtualFile> files = new ArrayList<>();
+    ReadAction.run(() -> ProjectFileIndex.getInstance(project).iterateContent(file -> {
+      if (!file.isDirectory() && file.getFileType() == HaxeFileType.INSTANCE) {
+        files.add(file);
+      }
+      return true;
+    }));
+    return files;
+  }
+
+  /**
+   * Checks the files concurrently.  Cancelling the indicator stops the run with a
+   * ProcessCanceledException.
+   *
+   * @return one result per Haxe file, in the order of the given files.
+   */
+  @NotNull
+  public static List<FileResult> check(@NotNull Project project,
+                                       @NotNull List<VirtualFile> files,
+                                       @Nullable ProgressIndicator indicator) {
+    Queue<FileResult> results = new ConcurrentLinkedQueue<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    long start = System.nanoTime();
+
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, file -> {
+      FileResult result = checkFile(psiManager, file);
+      if (result != null) {
+        results.add(result);
+      }
+      if (indicator != null) {
+        indicator.setText2(file.getPresentableUrl());
+      }
+      return true;
+    });
+    if (!completed) {
+      ProgressManager.checkCanceled();
+    }
+
+    Map<VirtualFile, Integer> order = new HashMap<>();
+    for (int i = 0; i < files.size(); i++) {
+      order.put(files.get(i), i);
+    }
+    List<FileResult> sorted = new ArrayList<>(results);
+    sorted.sort(Comparator.comparingInt(result -> order.get(result.getFile())));
+    logTimings(sorted, System.nanoTime() - start);
+    return sorted;
+  }
+
+  /**
+   * @return new instances of the local inspections registered for Haxe by the given package.
+   */
+  @NotNull
+  public static List<LocalInspectionTool> createInspections(@NotNull String packagePrefix) {
+    List<LocalInspectionTool> tools = new ArrayList<>();
+    for (LocalInspectionEP ep : LocalInspectionEP.LOCAL_INSPECTION.getExtensionList()) {
+      if (ep.implementationClass != null && ep.implementationClass.startsWith(packagePrefix)
+          && ep.instantiateTool() instanceof LocalInspectionTool tool) {
+        tools.add(tool);
+      }
+    }
+    return tools;
+  }
+
+  /**
+   * Runs the inspections over the files concurrently, like {@link #check}.  Inspection instances are
+   * shared between threads, as they are when the platform runs them.
+   */
+  @NotNull
+  public static List<InspectionResult> inspect(@NotNull Project project,
+                                               @NotNull List<VirtualFile> files,
+                                               @NotNull List<LocalInspectionTool> tools,
+                                               @Nullable ProgressIndicator indicator) {
+    Map<VirtualFile, InspectionResult> results = new ConcurrentHashMap<>();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    InspectionManager inspectionManager = InspectionManager.getInstance(project);
+
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(files, indicator, file -> {
+      ReadAction.run(() -> {
+        PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+        if (!(psiFile instanceof HaxeFile)) {
+          return;
+        }
+        long start = System.nanoTime();
+        Map<String, List<ProblemDescriptor>> problems = new LinkedHashMap<>();
+        for (LocalInspectionTool tool : tools) {
+          List<ProblemDescriptor> descriptors = tool.processFile(psiFile, inspectionManager);
+          if (!descriptors.isEmpty()) {
+            problems.put(tool.getShortName(), descriptors);
+          }
+        }
+        results.put(file, new InspectionResult(file, problems, System.nanoTime() - start));
+      });
+      return true;
+    });
+    if (!completed) {
+      ProgressManager.checkCanceled();
+    }
+
+    List<InspectionResult> sorted = new ArrayList<>(files.size());
+    for (VirtualFile file : files) {
+      ContainerUtil.addIfNotNull(sorted, results.get(file));
+    }
+    return sorted;
+  }
+
+  @Nullable
+  private static FileResult checkFile(@NotNull PsiManager psiManager, @NotNull VirtualFile file) {
+    return ReadAction.compute(() -> {
+      PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+      if (!(psiFile instanceof HaxeFile)) {
+        return null;
+      }
+      long start = System.nanoTime();
+      List<HighlightInfo> problems = new ArrayList<>();
+      for (Pair<PsiFile, HighlightInfo> pair : HighlightVisitorBasedInspection.runAnnotatorsInGeneralHighlighting(psiFile, true, true, true)) {
+        HighlightInfo info = pair.getSecond();
+        if (info.getSeverity().compareTo(HighlightSeverity.WEAK_WARNING) >= 0) {
+          problems.add(info);
+        }
+      }
+      return new FileResult(file, problems, System.nanoTime() - start);
+    });
+  }
+
+  private static void logTimings(@NotNull List<FileResult> results, long elapsedNanos) {
+    if (results.isEmpty()) {
+      return;
+    }
+    long totalMillis = 0;
+    for (FileResult result : results) {
+      totalMillis += result.getElapsedMillis();
+    }
+    log.info("Checked " + results.size() + " Haxe files in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms (" +
+             totalMillis + " ms of file time)");
+
+    List<FileResult> slowest = new ArrayList<>(results);
+    slowest.sort(Comparator.comparingLong(FileResult::getElapsedMillis).reversed());
+    for (FileResult result : slowest.subList(0, Math.min(SLOWEST_FILES_TO_LOG, slowest.size()))) {
+      log.info("  " + result.getElapsedMillis() + " ms  " + result.getFile().getPresentableUrl());
+    }
+  }
+}
@@ -0,0 +1,209 @@
+package com.intellij.plugins.haxe.ide.annotator;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The results of a headless semantic check, rendered as JSON or as SARIF 2.1.0.
+ *
+ * Besides the problems, the report keeps the time and heap use at the end of every phase of the
+ * run and the time spent on each file, so that runs on CI can be compared.
+ */
+public final class HaxeSemanticCheckReport {
+
+  public static final String SARIF_VERSION = "2.1.0";
+  public static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+
+  public enum Level {
+    ERROR("error"),
+    WARNING("warning"),
+    NOTE("note");
+
+    private final String myName;
+
+    Level(@NotNull String name) {
+      myName = name;
+    }
+
+    @NotNull
+    public String getName() {
+      return myName;
+    }
+  }
+
+  public record Problem(@NotNull String ruleId, @NotNull Level level, @NotNull String message,
+                        @NotNull String path, int line, int column) {
+  }
+
+  public record Phase(@NotNull String name, long millis, long usedMemoryBytes) {
+  }
+
+  private final String myToolVersion;
+  private final List<Problem> myProblems = new ArrayList<>();
+  private final List<Phase> myPhases = new ArrayList<>();
+  private final Map<String, Long> myFileMillis = new LinkedHashMap<>();
+
+  public HaxeSemanticCheckReport(@NotNull String toolVersion) {
+    myToolVersion = toolVersion;
+  }
+
+  public void addProblem(@NotNull Problem problem) {
+    myProblems.add(problem);
+  }
+
+  public void addPhase(@NotNull Phase phase) {
+    myPhases.add(phase);
+  }
+
+  /** Adds to the time recorded for the file, which is checked once per phase. */
+  public void addFileTime(@NotNull String path, long millis) {
+    myFileMillis.merge(path, millis, Long::sum);
+  }
+
+  @NotNull
+  public List<Problem> getProblems() {
+    return Collections.unmodifiableList(myProblems);
+  }
+
+  @NotNull
+  public List<Phase> getPhases() {
+    return Collections.unmodifiableList(myPhases);
+  }
+
+  public int countProblems(@NotNull Level level) {
+    int count = 0;
+    for (Problem problem : myProblems) {
+      if (problem.level() == level) count++;
+    }
+    return count;
+  }
+
+  /**
+   * @return problems sorted by path and position, so that reports of the same tree are comparable.
+   */
+  @NotNull
+  private List<Problem> getSortedProblems() {
+    List<Problem> sorted = new ArrayList<>(myProblems);
+    sorted.sort(Comparator.comparing(Problem::path).thenComparingInt(Problem::line).thenComparingInt(Problem::column)
+                  .thenComparing(Problem::ruleId));
+    return sorted;
+  }
+
+  @NotNull
+  public String toJson() {
+    JsonObject root = new JsonObject();
+
+    JsonObject summary = new JsonObject();
+    summary.addProperty("files", myFileMillis.size());
+    for (Level level : Level.values()) {
+      summary.addProperty(level.getName() + "s", countProblems(level));
+    }
+    root.add("summary", summary);
+
+    JsonArray problems = new JsonArray();
+    for (Problem problem : getSortedProblems()) {
+      JsonObject object = new JsonObject();
+      object.addProperty("rule", problem.ruleId());
+      object.addProperty("level", problem.level().getName());
+      object.addProperty("message", problem.message());
+      object.addProperty("path", problem.path());
+      object.addProperty("line", problem.line());
+      object.addProperty("column", problem.column());
+      problems.add(object);
+    }
+    root.add("problems", problems);
+    root.add("statistics", createStatistics());
+    return render(root);
+  }
+
+  @NotNull
+  public String toSarif() {
+    JsonObject driver = new JsonObject();
+    driver.addProperty("name", "Haxe");
+    driver.addProperty("version", myToolVersion);
+    JsonArray rules = new JsonArray();
+    Set<String> ruleIds = new TreeSet<>();
+    for (Problem problem : myProblems) {
+      ruleIds.add(problem.ruleId());
+    }
+    for (String ruleId : ruleIds) {
+      JsonObject rule = new JsonObject();
+      rule.addProperty("id", ruleId);
+      rules.add(rule);
+    }
+    driver.add("rules", rules);
+    JsonObject tool = new JsonObject();
+    tool.add("driver", driver);
+
+    JsonArray results = new JsonArray();
+    for (Problem problem : getSortedProblems()) {
+      JsonObject region = new JsonObject();
+      region.addProperty("startLine", problem.line());
+      region.addProperty("startColumn", problem.column());
+      JsonObject artifactLocation = new JsonObject();
+      artifactLocation.addProperty("uri", problem.path());
+      JsonObject physicalLocation = new JsonObject();
+      physicalLocation.add("artifactLocation", artifactLocation);
+      physicalLocation.add("region", region);
+      JsonObject location = new JsonObject();
+      location.add("physicalLocation", physicalLocation);
+      JsonArray locations = new JsonArray();
+      locations.add(location);
+
+      JsonObject message = new JsonObject();
+      message.addProperty("text", problem.message());
+
+      JsonObject result = new JsonObject();
+      result.addProperty("ruleId", problem.ruleId());
+      result.addProperty("level", problem.level().getName());
+      result.add("message", message);
+      result.add("locations", locations);
+      results.add(result);
+    }
+
+    JsonObject properties = new JsonObject();
+    properties.add("statistics", createStatistics());
+
+    JsonObject run = new JsonObject();
+    run.add("tool", tool);
+    run.add("results", results);
+    run.add("properties", properties);
+    JsonArray runs = new JsonArray();
+    runs.add(run);
+
+    JsonObject root = new JsonObject();
+    root.addProperty("$schema", SARIF_SCHEMA);
+    root.addProperty("version", SARIF_VERSION);
+    root.add("runs", runs);
+    return render(root);
+  }
+
+  @NotNull
+  private JsonObject createStatistics() {
+    JsonArray phases = new JsonArray();
+    for (Phase phase : myPhases) {
+      JsonObject object = new JsonObject();
+      object.addProperty("name", phase.name());
+      object.addProperty("millis", phase.millis());
+      object.addProperty("usedMemoryBytes", phase.usedMemoryBytes());
+      phases.add(object);
+    }
+    JsonObject files = new JsonObject();
+    for (Map.Entry<String, Long> entry : myFileMillis.entrySet()) {
+      files.addProperty(entry.getKey(), entry.getValue());
+    }
+    JsonObject statistics = new JsonObject();
+    statistics.add("phases", phases);
+    statistics.add("fileMillis", files);
+    return statistics;
+  }
+
+  @NotNull
+  private static String render(@NotNull JsonObject root) {
+    return new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(root);
+  }
+}
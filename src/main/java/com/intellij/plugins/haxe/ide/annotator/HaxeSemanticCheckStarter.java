@@ -0,0 +1,289 @@
+package com.intellij.plugins.haxe.ide.annotator;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemDescriptorUtil;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.ide.impl.ProjectUtil;
+import com.intellij.ide.plugins.IdeaPluginDescriptor;
+import com.intellij.ide.plugins.PluginManagerCore;
+import com.intellij.lang.annotation.HighlightSeverity;
+import com.intellij.openapi.application.ApplicationStarter;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.extensions.PluginId;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Level;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Phase;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Problem;
+import com.intellij.psi.PsiElement;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks a Haxe project from the command line, without opening the IDE:
+ * <pre>
+ *   idea haxe-check &lt;project path&gt; [--format=sarif|json] [--output=&lt;file&gt;] [--no-inspections]
+ * </pre>
+ * The project is opened and indexed, then the annotators and the local inspections of the plugin are
+ * run over its Haxe sources, concurrently (see {@link HaxeSemanticBatchChecker}).  The results are
+ * written as SARIF or JSON to the output file or to stdout, along with the time and heap use of each
+ * phase.  The exit code is 0 when no errors were found, 1 when some were, and 2 when the check failed.
+ */
+@CustomLog
+public final class HaxeSemanticCheckStarter implements ApplicationStarter {
+
+  private static final String PLUGIN_ID = "com.intellij.plugins.haxe";
+  private static final String INSPECTIONS_PACKAGE = "com.intellij.plugins.haxe.ide.inspections.";
+  private static final String ANNOTATOR_RULE_ID = "HaxeAnnotator";
+
+  private static final int EXIT_OK = 0;
+  private static final int EXIT_ERRORS_FOUND = 1;
+  private static final int EXIT_FAILURE = 2;
+
+  @Override
+  public int getRequiredModality() {
+    return NOT_IN_EDT;
+  }
+
+  @Override
+  public void main(@NotNull List<String> args) {
+    int exitCode;
+    try {
+      exitCode = run(args);
+    }
+    catch (Throwable t) {
+      log.error("Haxe check failed", t);
+      System.err.println("Haxe check failed: " + t.getMessage());
+      exitCode = EXIT_FAILURE;
+    }
+    System.exit(exitCode);
+  }
+
+  private static int run(@NotNull List<String> args) throws IOException {
+    // The first argument is the command name.
+    Path projectPath = null;
+    String format = "sarif";
+    Path output = null;
+    boolean inspections = true;
+    for (String arg : args.subList(Math.min(1, args.size()), args.size())) {
+      if (arg.startsWith("--format=")) {
+        format = arg.substring("--format=".length());
+      }
+      else if (arg.startsWith("--output=")) {
+        output = Path.of(arg.substring("--output=".length()));
+      }
+      else if (arg.equals("--no-inspections")) {
+        inspections = false;
+      }
+      else if (projectPath == null && !arg.startsWith("--")) {
+        projectPath = Path.of(arg).toAbsolutePath().normalize();
+      }
+      else {
+        return usage("Unexpected argument: " + arg);
+      }
+    }
+    if (projectPath == null) {
+      return usage("No project path given");
+    }
+    if (!format.equals("sarif") && !format.equals("json")) {
+      return usage("Unknown format: " + format);
+    }
+
+    HaxeSemanticCheckReport report = new HaxeSemanticCheckReport(getPluginVersion());
+    PhaseTimer timer = new PhaseTimer(report);
+
+    Project project = ProjectUtil.openOrImport(projectPath, null, false);
+    if (project == null) {
+      System.err.println("Cannot open project " + projectPath);
+      return EXIT_FAILURE;
+    }
+    timer.finish("open");
+    try {
+      DumbService.getInstance(project).waitForSmartMode();
+      List<VirtualFile> files = HaxeSemanticBatchChecker.collectProjectFiles(project);
+      timer.finish("index");
+
+      annotate(project, files, report);
+      timer.finish("annotate");
+
+      if (inspections) {
+        inspect(project, files, report);
+        timer.finish("inspect");
+      }
+    }
+    finally {
+      ProjectManager.getInstance().closeAndDispose(project);
+    }
+
+    String rendered = format.equals("json") ? report.toJson() : report.toSarif();
+    if (output != null) {
+      Files.writeString(output, rendered, StandardCharsets.UTF_8);
+    }
+    else {
+      System.out.println(rendered);
+    }
+    timer.finish("report");
+
+    int errors = report.countProblems(Level.ERROR);
+    System.err.println("Haxe check: " + errors + " errors, " + report.countProblems(Level.WARNING) + " warnings, " +
+                       report.countProblems(Level.NOTE) + " notes");
+    for (Phase phase : report.getPhases()) {
+      System.err.println("  " + phase.name() + ": " + phase.millis() + " ms, " + (phase.usedMemoryBytes() >> 20) + " MB used");
+    }
+    return errors > 0 ? EXIT_ERRORS_FOUND : EXIT_OK;
+  }
+
+  /**
+   * Runs the annotators over the files and adds what they report, with the time spent on each file.
+   */
+  public static void annotate(@NotNull Project project, @NotNull List<VirtualFile> files,
+                              @NotNull HaxeSemanticCheckReport report) {
+    VirtualFile baseDir = com.intellij.openapi.project.ProjectUtil.guessProjectDir(project);
+    List<HaxeSemanticBatchChecker.FileResult> annotated = runUnderProgress(() ->
+      HaxeSemanticBatchChecker.check(project, files, ProgressManager.getInstance().getProgressIndicator()));
+    ReadAction.run(() -> {
+      for (HaxeSemanticBatchChecker.FileResult result : annotated) {
+        String path = getPath(result.getFile(), baseDir);
+        report.addFileTime(path, result.getElapsedMillis());
+        Document document = FileDocumentManager.getInstance().getDocument(result.getFile());
+        for (HighlightInfo info : result.getProblems()) {
+          String ruleId = info.getInspectionToolId() != null ? info.getInspectionToolId() : ANNOTATOR_RULE_ID;
+          report.addProblem(createProblem(ruleId, getLevel(info.getSeverity()), info.getDescription(), path, document,
+                                          info.getStartOffset()));
+        }
+      }
+    });
+  }
+
+  /**
+   * Runs the local inspections of the plugin over the files and adds what they report, with the time
+   * spent on each file.
+   */
+  public static void inspect(@NotNull Project project, @NotNull List<VirtualFile> files,
+                             @NotNull HaxeSemanticCheckReport report) {
+    VirtualFile baseDir = com.intellij.openapi.project.ProjectUtil.guessProjectDir(project);
+    List<LocalInspectionTool> tools = HaxeSemanticBatchChecker.createInspections(INSPECTIONS_PACKAGE);
+    List<HaxeSemanticBatchChecker.InspectionResult> inspected = runUnderProgress(() ->
+      HaxeSemanticBatchChecker.inspect(project, files, tools, ProgressManager.getInstance().getProgressIndicator()));
+    ReadAction.run(() -> {
+      for (HaxeSemanticBatchChecker.InspectionResult result : inspected) {
+        String path = getPath(result.getFile(), baseDir);
+        report.addFileTime(path, result.getElapsedMillis());
+        Document document = FileDocumentManager.getInstance().getDocument(result.getFile());
+        for (Map.Entry<String, List<ProblemDescriptor>> entry : result.getProblems().entrySet()) {
+          for (ProblemDescriptor descriptor : entry.getValue()) {
+            Problem problem = createProblem(entry.getKey(), descriptor, path, document);
+            if (problem != null) {
+              report.addProblem(problem);
+            }
+          }
+        }
+      }
+    });
+  }
+
+  private static int usage(@NotNull String message) {
+    System.err.println(message);
+    System.err.println("Usage: haxe-check <project path> [--format=sarif|json] [--output=<file>] [--no-inspections]");
+    return EXIT_FAILURE;
+  }
+
+  private static <T> T runUnderProgress(@NotNull Computable<T> computable) {
+    return ProgressManager.getInstance().runProcess(computable, new EmptyProgressIndicator());
+  }
+
+  @NotNull
+  private static String getPluginVersion() {
+    IdeaPluginDescriptor plugin = PluginManagerCore.getPlugin(PluginId.getId(PLUGIN_ID));
+    return plugin != null && plugin.getVersion() != null ? plugin.getVersion() : "unknown";
+  }
+
+  @NotNull
+  private static String getPath(@NotNull VirtualFile file, @Nullable VirtualFile baseDir) {
+    String relative = baseDir != null ? VfsUtilCore.getRelativePath(file, baseDir) : null;
+    return relative != null ? relative : file.getPath();
+  }
+
+  @Nullable
+  private static Problem createProblem(@NotNull String ruleId, @NotNull ProblemDescriptor descriptor,
+                                       @NotNull String path, @Nullable Document document) {
+    PsiElement element = descriptor.getPsiElement();
+    if (element == null) {
+      return null;
+    }
+    TextRange range = element.getTextRange();
+    TextRange rangeInElement = descriptor.getTextRangeInElement();
+    int offset = range.getStartOffset() + (rangeInElement != null ? rangeInElement.getStartOffset() : 0);
+    String message = ProblemDescriptorUtil.renderDescriptionMessage(descriptor, element);
+    return createProblem(ruleId, getLevel(descriptor.getHighlightType()), message, path, document, offset);
+  }
+
+  @NotNull
+  private static Problem createProblem(@NotNull String ruleId, @NotNull Level level, @Nullable String message,
+                                       @NotNull String path, @Nullable Document document, int offset) {
+    int line = 1;
+    int column = 1;
+    if (document != null && offset >= 0 && offset <= document.getTextLength()) {
+      int lineIndex = document.getLineNumber(offset);
+      line = lineIndex + 1;
+      column = offset - document.getLineStartOffset(lineIndex) + 1;
+    }
+    return new Problem(ruleId, level, message != null ? message : "", path, line, column);
+  }
+
+  @NotNull
+  private static Level getLevel(@NotNull HighlightSeverity severity) {
+    if (severity.compareTo(HighlightSeverity.ERROR) >= 0) return Level.ERROR;
+    if (severity.compareTo(HighlightSeverity.WARNING) >= 0) return Level.WARNING;
+    return Level.NOTE;
+  }
+
+  @NotNull
+  private static Level getLevel(@NotNull ProblemHighlightType type) {
+    return switch (type) {
+      case ERROR, GENERIC_ERROR -> Level.ERROR;
+      case LIKE_UNUSED_SYMBOL, WEAK_WARNING, INFORMATION -> Level.NOTE;
+      default -> Level.WARNING;
+    };
+  }
+
+  /**
+   * Records the wall time since the previous phase and the heap in use at the end of each phase.
+   */
+  private static final class PhaseTimer {
+    private final HaxeSemanticCheckReport myReport;
+    private long myPhaseStart = System.nanoTime();
+
+    PhaseTimer(@NotNull HaxeSemanticCheckReport report) {
+      myReport = report;
+    }
+
+    void finish(@NotNull String name) {
+      long now = System.nanoTime();
+      Runtime runtime = Runtime.getRuntime();
+      Phase phase = new Phase(name, (now - myPhaseStart) / 1_000_000, runtime.totalMemory() - runtime.freeMemory());
+      myReport.addPhase(phase);
+      log.info("Haxe check phase " + name + ": " + phase.millis() + " ms");
+      myPhaseStart = now;
+    }
+  }
+}
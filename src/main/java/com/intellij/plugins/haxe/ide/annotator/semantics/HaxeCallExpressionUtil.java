@@ -1,5 +1,8 @@
 package com.intellij.plugins.haxe.ide.annotator.semantics;
 
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.plugins.haxe.HaxeBundle;
 import com.intellij.plugins.haxe.lang.psi.*;
@@ -12,24 +15,75 @@ import com.intellij.plugins.haxe.model.type.resolver.ResolveSource;
 import com.intellij.plugins.haxe.model.type.resolver.ResolverEntry;
 import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
 import com.intellij.psi.util.PsiTreeUtil;
 import lombok.Data;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import static com.intellij.plugins.haxe.ide.annotator.semantics.TypeParameterUtil.*;
 import static com.intellij.plugins.haxe.model.type.HaxeTypeCompatible.canAssignToFrom;
 
+/**
+ * Validates the arguments of calls and constructor invocations against the parameters of their callee.
+ *
+ * The annotator, the resolver, completion, parameter info and inlay hints all need the validation of
+ * the same calls, so results are cached per call expression (and callee) until PSI changes, and every
+ * caller gets its own copy.  Validations that were cut short by a recursion guard are not cached.
+ */
 public class HaxeCallExpressionUtil {
 
+  private static final Key<CachedValue<Map<ValidationKey, CallExpressionValidation>>> VALIDATIONS_KEY =
+    Key.create("HAXE_CALL_EXPRESSION_VALIDATIONS");
+
+  private record ValidationKey(@Nullable HaxeMethod method, boolean isFirstRef) {
+  }
+
   //TODO find a way to combine check method, function, constructor and Enum constructor
   // (amongst the problem is mixed parameter classes and method needing reference for type resolve)
   @NotNull
   public static CallExpressionValidation checkMethodCall(@NotNull HaxeCallExpression callExpression, @NotNull HaxeMethod method) {
     return checkMethodCall(callExpression, method, false);
   }
+
+  @NotNull
   public static CallExpressionValidation checkMethodCall(@NotNull HaxeCallExpression callExpression, @NotNull HaxeMethod method, boolean isFirstRef) {
+    return getCachedValidation(callExpression, new ValidationKey(method, isFirstRef),
+                               () -> computeMethodCall(callExpression, method, isFirstRef));
+  }
+
+  @NotNull
+  public static CallExpressionValidation checkConstructor(@NotNull HaxeNewExpression newExpression) {
+    return getCachedValidation(newExpression, new ValidationKey(null, false), () -> computeConstructor(newExpression));
+  }
+
+  @NotNull
+  private static CallExpressionValidation getCachedValidation(@NotNull PsiElement call,
+                                                              @NotNull ValidationKey key,
+                                                              @NotNull Supplier<CallExpressionValidation> validator) {
+    Map<ValidationKey, CallExpressionValidation> validations = CachedValuesManager.getCachedValue(call, VALIDATIONS_KEY, () ->
+      CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.MODIFICATION_COUNT));
+    CallExpressionValidation cached = validations.get(key);
+    if (cached != null) {
+      return cached.copy();
+    }
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    CallExpressionValidation validation = validator.get();
+    if (stamp.mayCacheNow()) {
+      validations.put(key, validation.copy());
+    }
+    return validation;
+  }
+
+  @NotNull
+  private static CallExpressionValidation computeMethodCall(@NotNull HaxeCallExpression callExpression, @NotNull HaxeMethod method, boolean isFirstRef) {
     CallExpressionValidation validation  = new CallExpressionValidation();
     validation.isMethod = true;
 
@@ -473,7 +527,8 @@ public class HaxeCallExpressionUtil {
   }
 
 
-  public static CallExpressionValidation checkConstructor(HaxeNewExpression newExpression) {
+  @NotNull
+  private static CallExpressionValidation computeConstructor(@NotNull HaxeNewExpression newExpression) {
     CallExpressionValidation validation  = new CallExpressionValidation();
     validation.isConstructor = true;
 
@@ -1013,6 +1068,37 @@ public class HaxeCallExpressionUtil {
     boolean isFunction = false;
     boolean isMethod = false;
 
+    /**
+     * @return a deep copy, so that a cached validation isn't changed through the copies handed out.
+     */
+    @NotNull
+    public CallExpressionValidation copy() {
+      CallExpressionValidation copy = new CallExpressionValidation();
+      copy.unknownCallie = unknownCallie;
+      copy.argumentToParameterIndex.putAll(argumentToParameterIndex);
+      duplicateAll(argumentIndexToType, copy.argumentIndexToType);
+      duplicateAll(parameterIndexToType, copy.parameterIndexToType);
+      duplicateAll(originalParameterIndexToType, copy.originalParameterIndexToType);
+      copy.ParameterNames.addAll(ParameterNames);
+      copy.returnType = returnType == null ? null : returnType.duplicate();
+      copy.errors.addAll(errors);
+      copy.warnings.addAll(warnings);
+      copy.resolver = resolver.copy();
+      copy.completed = completed;
+      copy.memberMacroFunction = memberMacroFunction;
+      copy.isStaticExtension = isStaticExtension;
+      copy.isConstructor = isConstructor;
+      copy.isFunction = isFunction;
+      copy.isMethod = isMethod;
+      return copy;
+    }
+
+    private static void duplicateAll(Map<Integer, ResultHolder> from, Map<Integer, ResultHolder> to) {
+      for (Map.Entry<Integer, ResultHolder> entry : from.entrySet()) {
+        to.put(entry.getKey(), entry.getValue() == null ? null : entry.getValue().duplicate());
+      }
+    }
+
     public void reResolveParameters() {
       HaxeGenericResolver genericResolver = resolver.withoutUnknowns();
       for (Map.Entry<Integer, ResultHolder> entry : originalParameterIndexToType.entrySet()) {
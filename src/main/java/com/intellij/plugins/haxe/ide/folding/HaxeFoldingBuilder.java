@@ -50,6 +50,10 @@ import static com.intellij.psi.TokenType.WHITE_SPACE;
 public class HaxeFoldingBuilder implements FoldingBuilder {
 
   private static final Key<RegionDefinition> REGION_DEFINITION_KEY = new Key<>("HaxeRegionDefinition");
+  private static final Key<SubtreeFolding> SUBTREE_FOLDING_KEY = new Key<>("HaxeSubtreeFolding");
+
+  // Smaller subtrees are cheaper to walk again than to keep.
+  private static final int MIN_CACHED_SUBTREE_LENGTH = 2048;
 
   private static final String PLACEHOLDER_TEXT = "...";
 
@@ -172,11 +176,72 @@ public class HaxeFoldingBuilder implements FoldingBuilder {
       descriptors.add(descriptor);
     }
 
+    if (node.getTextLength() >= MIN_CACHED_SUBTREE_LENGTH && node.getFirstChildNode() != null) {
+      getSubtreeFolding(node).appendTo(node.getStartOffset(), descriptors, regionMarkers, ccMarkers);
+    } else {
+      buildChildrenFolding(node, descriptors, regionMarkers, ccMarkers);
+    }
+  }
+
+  private static void buildChildrenFolding(@NotNull ASTNode node, List<FoldingDescriptor> descriptors,
+                                           List<RegionMarker> regionMarkers,
+                                           List<RegionMarker> ccMarkers) {
     for (ASTNode child : node.getChildren(null)) {
       buildFolding(child, descriptors, regionMarkers, ccMarkers);
     }
   }
 
+  /**
+   * The folding of a large node's children is kept on the node and reused as long as nothing in the
+   * subtree changes, so that after an edit only the reparsed part of the file is walked again.
+   * Everything cached here depends only on the subtree: the node's own region, which may depend on its
+   * siblings, is built by the caller.
+   */
+  @NotNull
+  private static SubtreeFolding getSubtreeFolding(@NotNull ASTNode node) {
+    int stamp = UsefulPsiTreeUtil.getSubtreeModificationCount(node);
+    SubtreeFolding folding = node.getUserData(SUBTREE_FOLDING_KEY);
+    if (folding == null || folding.stamp != stamp || stamp < 0) {
+      List<FoldingDescriptor> descriptors = new ArrayList<>();
+      List<RegionMarker> regionMarkers = new ArrayList<>();
+      List<RegionMarker> ccMarkers = new ArrayList<>();
+      buildChildrenFolding(node, descriptors, regionMarkers, ccMarkers);
+      folding = new SubtreeFolding(stamp, node.getStartOffset(), descriptors, regionMarkers, ccMarkers);
+      node.putUserData(SUBTREE_FOLDING_KEY, folding);
+    }
+    return folding;
+  }
+
+  private static class SubtreeFolding {
+    final int stamp;
+    final ASTNode[] nodes;
+    final TextRange[] relativeRanges;
+    final List<RegionMarker> regionMarkers;
+    final List<RegionMarker> ccMarkers;
+
+    SubtreeFolding(int stamp, int startOffset, List<FoldingDescriptor> descriptors,
+                   List<RegionMarker> regionMarkers, List<RegionMarker> ccMarkers) {
+      this.stamp = stamp;
+      this.nodes = new ASTNode[descriptors.size()];
+      this.relativeRanges = new TextRange[descriptors.size()];
+      for (int i = 0; i < descriptors.size(); i++) {
+        nodes[i] = descriptors.get(i).getElement();
+        relativeRanges[i] = descriptors.get(i).getRange().shiftLeft(startOffset);
+      }
+      this.regionMarkers = List.copyOf(regionMarkers);
+      this.ccMarkers = List.copyOf(ccMarkers);
+    }
+
+    void appendTo(int startOffset, List<FoldingDescriptor> descriptors,
+                  List<RegionMarker> regionMarkers, List<RegionMarker> ccMarkers) {
+      for (int i = 0; i < nodes.length; i++) {
+        descriptors.add(new FoldingDescriptor(nodes[i], relativeRanges[i].shiftRight(startOffset)));
+      }
+      regionMarkers.addAll(this.regionMarkers);
+      ccMarkers.addAll(this.ccMarkers);
+    }
+  }
+
   private static boolean isDocComment(IElementType type) {
     return type == DOC_COMMENT;
   }
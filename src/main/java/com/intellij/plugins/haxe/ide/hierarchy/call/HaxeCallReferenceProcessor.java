@@ -21,8 +21,8 @@ import com.intellij.ide.hierarchy.call.CallHierarchyNodeDescriptor;
 import com.intellij.ide.hierarchy.call.CallReferenceProcessor;
 import com.intellij.ide.hierarchy.call.JavaCallHierarchyData;
 import com.intellij.ide.util.treeView.NodeDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
 import com.intellij.plugins.haxe.lang.psi.HaxeNewExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeReferenceExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeSuperExpression;
@@ -43,8 +43,6 @@ import java.util.Set;
 public class HaxeCallReferenceProcessor implements CallReferenceProcessor {
 
   public static class CallData extends JavaCallHierarchyData {
-    HaxeHierarchyTimeoutHandler myTimeoutHandler;
-
     public CallData(PsiClass originalClass,
                                  PsiMethod methodToFind,
                                  PsiClassType originalType,
@@ -52,14 +50,8 @@ public class HaxeCallReferenceProcessor implements CallReferenceProcessor {
                                  Set<PsiMethod> methodsToFind,
                                  NodeDescriptor nodeDescriptor,
                                  Map<PsiMember, NodeDescriptor<?>> resultMap,
-                                 Project project,
-                                 HaxeHierarchyTimeoutHandler timeoutHandler) {
+                                 Project project) {
       super(originalClass, methodToFind, originalType, method, methodsToFind, nodeDescriptor, resultMap, project);
-      myTimeoutHandler = timeoutHandler;
-    }
-
-    public HaxeHierarchyTimeoutHandler getTimeoutHandler() {
-      return myTimeoutHandler;
     }
   }
 
@@ -80,12 +72,8 @@ public class HaxeCallReferenceProcessor implements CallReferenceProcessor {
     PsiClassType originalType = data.getOriginalType();
     Map<PsiMember, NodeDescriptor<?>> methodToDescriptorMap = data.getResultMap();
     Project myProject = data.getProject();
-    HaxeHierarchyTimeoutHandler timeoutHandler = data.getTimeoutHandler();
 
-    // All done, if we time out.
-    if (timeoutHandler.checkAndCancelIfNecessary()) {
-      return false;
-    }
+    ProgressManager.checkCanceled();
 
     if (reference instanceof HaxeReferenceExpression) {
       final PsiElement qualifierElement = ((HaxeReferenceExpression)reference).getQualifier();
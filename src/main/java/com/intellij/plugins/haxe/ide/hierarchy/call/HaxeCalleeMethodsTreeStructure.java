@@ -20,8 +20,8 @@ package com.intellij.plugins.haxe.ide.hierarchy.call;
 import com.intellij.ide.hierarchy.HierarchyNodeDescriptor;
 import com.intellij.ide.hierarchy.HierarchyTreeStructure;
 import com.intellij.ide.hierarchy.call.CallHierarchyNodeDescriptor;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
 import com.intellij.plugins.haxe.lang.psi.HaxeCallExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
 import com.intellij.plugins.haxe.lang.psi.HaxeNewExpression;
@@ -52,74 +52,58 @@ public class HaxeCalleeMethodsTreeStructure extends HierarchyTreeStructure {
 
   @NotNull
   protected final Object[] buildChildren(@NotNull final HierarchyNodeDescriptor descriptor) {
-    final HaxeHierarchyTimeoutHandler timeoutHandler = new HaxeHierarchyTimeoutHandler();
-
-    try {
-      final PsiMember enclosingElement = ((CallHierarchyNodeDescriptor)descriptor).getEnclosingElement();
-      if (!(enclosingElement instanceof PsiMethod)) {
-        return ArrayUtil.EMPTY_OBJECT_ARRAY;
-      }
-      final PsiMethod method = (PsiMethod)enclosingElement;
+    final PsiMember enclosingElement = ((CallHierarchyNodeDescriptor)descriptor).getEnclosingElement();
+    if (!(enclosingElement instanceof PsiMethod)) {
+      return ArrayUtil.EMPTY_OBJECT_ARRAY;
+    }
+    final PsiMethod method = (PsiMethod)enclosingElement;
 
-      final ArrayList<PsiMethod> methods = new ArrayList<PsiMethod>();
+    final ArrayList<PsiMethod> methods = new ArrayList<PsiMethod>();
 
-      final PsiCodeBlock body = method.getBody();
-      if (body != null) {
-        visitor(body, methods);
-      }
+    final PsiCodeBlock body = method.getBody();
+    if (body != null) {
+      visitor(body, methods);
+    }
 
-      final PsiMethod baseMethod = (PsiMethod)((CallHierarchyNodeDescriptor)getBaseDescriptor()).getTargetElement();
-      final PsiClass baseClass = baseMethod.getContainingClass();
+    final PsiMethod baseMethod = (PsiMethod)((CallHierarchyNodeDescriptor)getBaseDescriptor()).getTargetElement();
+    final PsiClass baseClass = baseMethod.getContainingClass();
 
-      final HashMap<PsiMethod, CallHierarchyNodeDescriptor> methodToDescriptorMap = new HashMap<PsiMethod, CallHierarchyNodeDescriptor>();
+    final HashMap<PsiMethod, CallHierarchyNodeDescriptor> methodToDescriptorMap = new HashMap<PsiMethod, CallHierarchyNodeDescriptor>();
 
-      final ArrayList<CallHierarchyNodeDescriptor> result = new ArrayList<CallHierarchyNodeDescriptor>();
+    final ArrayList<CallHierarchyNodeDescriptor> result = new ArrayList<CallHierarchyNodeDescriptor>();
 
-      for (final PsiMethod calledMethod : methods) {
-        if (timeoutHandler.checkAndCancelIfNecessary()) {
-          break;
-        }
+    for (final PsiMethod calledMethod : methods) {
+      ProgressManager.checkCanceled();
 
-        if (!isInScope(baseClass, calledMethod, myScopeType)) continue;
+      if (!isInScope(baseClass, calledMethod, myScopeType)) continue;
 
-        CallHierarchyNodeDescriptor d = methodToDescriptorMap.get(calledMethod);
-        if (d == null) {
-          d = new CallHierarchyNodeDescriptor(myProject, descriptor, calledMethod, false, false);
-          methodToDescriptorMap.put(calledMethod, d);
-          result.add(d);
-        }
-        else {
-          d.incrementUsageCount();
-        }
+      CallHierarchyNodeDescriptor d = methodToDescriptorMap.get(calledMethod);
+      if (d == null) {
+        d = new CallHierarchyNodeDescriptor(myProject, descriptor, calledMethod, false, false);
+        methodToDescriptorMap.put(calledMethod, d);
+        result.add(d);
       }
-
-      // also add overriding methods as children
-      if (!timeoutHandler.isCanceled()) {
-        Query<PsiMethod> query = HaxeMethodsSearch.search(method, timeoutHandler);
-        query.forEach(new Processor<PsiMethod>() {
-          @Override
-          public boolean process(PsiMethod overridingMethod) {
-            if (isInScope(baseClass, overridingMethod, myScopeType)) {
-              final CallHierarchyNodeDescriptor node =
-                new CallHierarchyNodeDescriptor(myProject, descriptor, overridingMethod, false, false);
-              if (!result.contains(node)) result.add(node);
-            }
-            return timeoutHandler.checkAndCancelIfNecessary();
-          }
-        });
+      else {
+        d.incrementUsageCount();
       }
+    }
 
-      return ArrayUtil.toObjectArray(result);
-
-    } finally {
-      // This is in a finally clause because a cancellation would otherwise throw
-      // right past us.
-
-      timeoutHandler.stop(); // Clean up.
-      if (timeoutHandler.isCanceled()) {
-        timeoutHandler.postCanceledDialog(myProject);
+    // also add overriding methods as children
+    Query<PsiMethod> query = HaxeMethodsSearch.search(method);
+    query.forEach(new Processor<PsiMethod>() {
+      @Override
+      public boolean process(PsiMethod overridingMethod) {
+        ProgressManager.checkCanceled();
+        if (isInScope(baseClass, overridingMethod, myScopeType)) {
+          final CallHierarchyNodeDescriptor node =
+            new CallHierarchyNodeDescriptor(myProject, descriptor, overridingMethod, false, false);
+          if (!result.contains(node)) result.add(node);
+        }
+        return true;
       }
-    }
+    });
+
+    return ArrayUtil.toObjectArray(result);
   }
 
   private static void visitor(final PsiElement element, final ArrayList<PsiMethod> methods) {
@@ -22,16 +22,11 @@ import com.intellij.ide.hierarchy.HierarchyTreeStructure;
 import com.intellij.ide.hierarchy.call.CallHierarchyNodeDescriptor;
 import com.intellij.ide.hierarchy.call.CallReferenceProcessor;
 import com.intellij.ide.util.treeView.NodeDescriptor;
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.diagnostic.LogLevel;
-import com.intellij.openapi.progress.*;
 import com.intellij.openapi.project.Project;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
 import com.intellij.psi.*;
 import com.intellij.psi.search.SearchScope;
-import com.intellij.psi.search.searches.MethodReferencesSearch;
 import com.intellij.util.ArrayUtil;
-import com.intellij.util.Processor;
 import com.intellij.util.containers.ContainerUtil;
 
 import lombok.CustomLog;
@@ -63,124 +58,46 @@ public class HaxeCallerMethodsTreeStructure extends HierarchyTreeStructure {
     myScopeType = scopeType;
   }
 
-  private String getSearchTargetName(@NotNull final HierarchyNodeDescriptor descriptor) {
+  @NotNull
+  @Override
+  protected final Object[] buildChildren(@NotNull final HierarchyNodeDescriptor descriptor) {
     final PsiMember enclosingElement = ((CallHierarchyNodeDescriptor)descriptor).getEnclosingElement();
     HierarchyNodeDescriptor nodeDescriptor = getBaseDescriptor();
     if (!(enclosingElement instanceof PsiMethod) || nodeDescriptor == null) {
-      return "";
+      return ArrayUtil.EMPTY_OBJECT_ARRAY;
     }
     final PsiMethod method = (PsiMethod)enclosingElement;
-    return method.getName();
-  }
-
-
-  @NotNull
-  @Override
-  protected final Object[] buildChildren(@NotNull final HierarchyNodeDescriptor descriptor) {
-    if (false) {
-
-      // XXX: (ebishton)
-      //
-      // This first block was an attempt to build the children with a cancelable background
-      // progress indicator.  It doesn't work right (asserts that it needs to run on the UI
-      // thread), but I'd like to come back to it at some
-      // point.  If you click on the little 'round' indicator while running, then the process
-      // will cancel, but that is a very subtle UI feature.  I'd prefer to have the progress
-      // showed on the status bar with a red (X) like most background processes.
-
-
-      final ArrayList<Object> children = new ArrayList<Object>();
-
-      ApplicationManager.getApplication().runReadAction(new Runnable() {
-        @Override
-        public void run() {
-          ProgressManager.getInstance().run(
-            // TODO: Put this string in a resource bundle.
-            new Task.Backgroundable(myProject, "Searching for callers of " + getSearchTargetName(descriptor),
-                                    false, PerformInBackgroundOption.ALWAYS_BACKGROUND) {
-              @Override
-              public void run(@NotNull ProgressIndicator indicator) {
-                children.addAll(Arrays.asList(buildChildrenInternal(descriptor)));
-              }
-            });
+    final PsiMethod baseMethod = (PsiMethod)((CallHierarchyNodeDescriptor)nodeDescriptor).getTargetElement();
+    final PsiClass baseClass = baseMethod.getContainingClass();
+    final SearchScope searchScope = getSearchScope(myScopeType, baseClass);
+    final String scopeKey = myScopeType + ":" + (baseClass == null ? "" : baseClass.getQualifiedName());
+
+    final PsiClass originalClass = method.getContainingClass();
+    assert originalClass != null;
+    final PsiClassType originalType = JavaPsiFacade.getElementFactory(myProject).createType(originalClass);
+    final Set<PsiMethod> methodsToFind = new HashSet<PsiMethod>();
+    methodsToFind.add(method);
+    ContainerUtil.addAll(methodsToFind, method.findDeepestSuperMethods());
+
+    final Map<PsiMember, NodeDescriptor<?>> methodToDescriptorMap = new HashMap<PsiMember, NodeDescriptor<?>>();
+    for (final PsiMethod methodToFind : methodsToFind) {
+      final HaxeCallReferenceProcessor.CallData data =
+        new HaxeCallReferenceProcessor.CallData(originalClass, methodToFind, originalType, method, methodsToFind,
+                                                descriptor, methodToDescriptorMap, myProject);
+
+      log.debug("Looking for references to method: " + methodToFind.getName());
+      // Cancellation comes from the hierarchy's progress indicator: closing or refreshing the view stops the search.
+      HaxeCallerSearch.processCallers(methodToFind, searchScope, scopeKey, reference -> {
+        for (CallReferenceProcessor processor : CallReferenceProcessor.EP_NAME.getExtensions()) {
+          if (!processor.process(reference, data)) break;
         }
+        return true;
       });
-      // XXX: If this mechanism works, make buildChildrenInternal() return a list instead of an array.
-      //       So we don't have all of this useless conversion back and forth.
-      return children.toArray(new Object[0]);
-
-    } else {
-
-      return buildChildrenInternal(descriptor);
-
     }
-  }
-
-
-  @NotNull
-  protected final Object[] buildChildrenInternal(@NotNull final HierarchyNodeDescriptor descriptor) {
-    final HaxeHierarchyTimeoutHandler timeoutHandler = new HaxeHierarchyTimeoutHandler();
-    // final HaxeDebugTimeLog timeLog = HaxeDebugTimeLog.startNew("buildChildren", HaxeDebugTimeLog.Since.StartAndPrevious);
-
-    try {
-      final PsiMember enclosingElement = ((CallHierarchyNodeDescriptor)descriptor).getEnclosingElement();
-      HierarchyNodeDescriptor nodeDescriptor = getBaseDescriptor();
-      if (!(enclosingElement instanceof PsiMethod) || nodeDescriptor == null) {
-        return ArrayUtil.EMPTY_OBJECT_ARRAY;
-      }
-      final PsiMethod method = (PsiMethod)enclosingElement;
-      final PsiMethod baseMethod = (PsiMethod)((CallHierarchyNodeDescriptor)nodeDescriptor).getTargetElement();
-      final SearchScope searchScope = getSearchScope(myScopeType, baseMethod.getContainingClass());
-
-      final PsiClass originalClass = method.getContainingClass();
-      assert originalClass != null;
-      final PsiClassType originalType = JavaPsiFacade.getElementFactory(myProject).createType(originalClass);
-      final Set<PsiMethod> methodsToFind = new HashSet<PsiMethod>();
-      methodsToFind.add(method);
-
-      // timeLog.stampAndEcho("calling method.findDeepestSuperMethods()");
-      ContainerUtil.addAll(methodsToFind, method.findDeepestSuperMethods());
-      // timeLog.stampAndEcho("beginning to walk " + methodsToFind.size() + " methods");
-
-      final Map<PsiMember, NodeDescriptor<?>> methodToDescriptorMap = new HashMap<PsiMember, NodeDescriptor<?>>();
-      for (final PsiMethod methodToFind : methodsToFind) {
-        final HaxeCallReferenceProcessor.CallData data =
-          new HaxeCallReferenceProcessor.CallData(originalClass, methodToFind, originalType, method, methodsToFind,
-                                                  descriptor, methodToDescriptorMap, myProject, timeoutHandler);
-
-        // timeLog.stampAndEcho("Looking for references in method: " + methodToFind.getName());
-        MethodReferencesSearch.search(methodToFind, searchScope, true).forEach(new Processor<PsiReference>() {
-          @Override
-          public boolean process(final PsiReference reference) {
-            for (CallReferenceProcessor processor : CallReferenceProcessor.EP_NAME.getExtensions()) {
-              if (!processor.process(reference, data)) break;
-              // timeLog.stampAndEcho("processing entry in forEach()");
-              if (timeoutHandler.checkAndCancelIfNecessary()) break;
-            }
-            return !timeoutHandler.isCanceled();
-          }
-        });
-
-        // timeLog.stampAndEcho("finished with " + methodToFind.getName());
-        if (timeoutHandler.checkAndCancelIfNecessary()) break;
-      }
 
+    synchronized (methodToDescriptorMap) {
       return methodToDescriptorMap.values().toArray(new Object[0]);
-
-    } catch (ProcessCanceledException e) {
-
-      // timeLog.stampAndEcho("ProcessCanceledException was thrown.");
-      throw e;
-
-    } finally {
-
-      timeoutHandler.stop(); // Clean up.
-      if (timeoutHandler.isCanceled()) {
-        // timeLog.stampAndEcho("posting dialog with canceled message");
-        timeoutHandler.postCanceledDialog(myProject);
-      }
     }
-
   }
 
   @Override
@@ -0,0 +1,122 @@
+package com.intellij.plugins.haxe.ide.hierarchy.call;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.psi.*;
+import com.intellij.psi.search.*;
+import com.intellij.psi.search.searches.MethodReferencesSearch;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds the references to a method for the call hierarchy.
+ *
+ * Only the files that contain the method's name in code (according to the word index) are searched,
+ * concurrently and under the caller's progress indicator, so that closing or refreshing the hierarchy
+ * cancels the search instead of a fixed timeout.  References are handed to the processor as they are
+ * found, and the complete result is remembered per method and scope until PSI changes.
+ */
+public final class HaxeCallerSearch {
+
+  private HaxeCallerSearch() {
+  }
+
+  /**
+   * @param scopeKey identifies the search scope in the cache; equal keys must mean equal scopes.
+   * @param processor called for each reference, possibly from several threads at once.
+   * @return false if the processor stopped the search.
+   */
+  public static boolean processCallers(@NotNull PsiMethod method,
+                                       @NotNull SearchScope scope,
+                                       @NotNull String scopeKey,
+                                       @NotNull Processor<? super PsiReference> processor) {
+    ConcurrentMap<String, List<PsiReference>> cache = getCache(method);
+    List<PsiReference> cached = cache.get(scopeKey);
+    if (cached != null) {
+      for (PsiReference reference : cached) {
+        ProgressManager.checkCanceled();
+        if (!processor.process(reference)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    List<PsiReference> found = Collections.synchronizedList(new ArrayList<>());
+    boolean completed = search(method, scope, reference -> {
+      found.add(reference);
+      return processor.process(reference);
+    });
+    if (completed) {
+      cache.put(scopeKey, new ArrayList<>(found));
+    }
+    return completed;
+  }
+
+  @NotNull
+  private static ConcurrentMap<String, List<PsiReference>> getCache(@NotNull PsiMethod method) {
+    return CachedValuesManager.getCachedValue(method, () ->
+      CachedValueProvider.Result.create(new ConcurrentHashMap<>(), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  private static boolean search(@NotNull PsiMethod method,
+                                @NotNull SearchScope scope,
+                                @NotNull Processor<? super PsiReference> processor) {
+    String name = method.getName();
+    // Constructors are referenced through their class name, which only the full search knows about.
+    if (method.isConstructor() || !(scope instanceof GlobalSearchScope globalScope)) {
+      return MethodReferencesSearch.search(method, scope, true).forEach(processor);
+    }
+
+    Project project = method.getProject();
+    List<VirtualFile> candidates = new ArrayList<>();
+    PsiSearchHelper.getInstance(project)
+      .processCandidateFilesForText(globalScope, UsageSearchContext.IN_CODE, true, name, file -> {
+        candidates.add(file);
+        return true;
+      });
+    if (candidates.isEmpty()) {
+      return true;
+    }
+
+    ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+    AtomicInteger foundCount = new AtomicInteger();
+    AtomicBoolean stopped = new AtomicBoolean();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    boolean completed = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(candidates, indicator, file ->
+      ReadAction.compute(() -> {
+        PsiFile psiFile = file.isValid() ? psiManager.findFile(file) : null;
+        if (psiFile == null) {
+          return true;
+        }
+        return ReferencesSearch.search(method, new LocalSearchScope(psiFile), false).forEach(reference -> {
+          if (indicator != null) {
+            indicator.setText2(HaxeBundle.message("haxe.hierarchy.callers.found", foundCount.incrementAndGet()));
+          }
+          if (!processor.process(reference)) {
+            stopped.set(true);
+            return false;
+          }
+          return true;
+        });
+      }));
+    return completed && !stopped.get();
+  }
+}
@@ -20,7 +20,6 @@ package com.intellij.plugins.haxe.ide.hierarchy.call;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.extensions.ExtensionPointName;
 import com.intellij.openapi.util.Computable;
-import com.intellij.plugins.haxe.ide.hierarchy.HaxeHierarchyTimeoutHandler;
 import com.intellij.psi.PsiAnonymousClass;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiMethod;
@@ -36,8 +35,6 @@ import org.jetbrains.annotations.NonNls;
 /*
  * Created by ebishton on 1/21/15.  Lifted from OverridingMethodsSearch and hacked
  * because (private static) cannotBeOverridden() was incorrect for Haxe.  (Haxe private == Java protected).
- *
- * And then, we needed to add timeout checks to the processing, so we added that here.
  */
 public class HaxeMethodsSearch extends ExtensibleQueryFactory<PsiMethod, HaxeMethodsSearch.SearchParameters> {
 
@@ -60,7 +57,7 @@ public class HaxeMethodsSearch extends ExtensibleQueryFactory<PsiMethod, HaxeMet
     super(EP_NAME);
   }
 
-  public static Query<PsiMethod> search(final PsiMethod method, SearchScope scope, final boolean checkDeep, HaxeHierarchyTimeoutHandler timeoutHandler) {
+  public static Query<PsiMethod> search(final PsiMethod method, SearchScope scope, final boolean checkDeep) {
     if (ApplicationManager.getApplication().runReadAction(new Computable<Boolean>() {
       @Override
       public Boolean compute() {
@@ -80,17 +77,17 @@ public class HaxeMethodsSearch extends ExtensibleQueryFactory<PsiMethod, HaxeMet
            || parentClass instanceof PsiAnonymousClass;
   }
 
-  public static Query<PsiMethod> search(final PsiMethod method, final boolean checkDeep, HaxeHierarchyTimeoutHandler timeoutHandler) {
+  public static Query<PsiMethod> search(final PsiMethod method, final boolean checkDeep) {
     return search(method, ApplicationManager.getApplication().runReadAction(new Computable<SearchScope>() {
       @Override
       public SearchScope compute() {
         return method.getUseScope();
       }
-    }), checkDeep, timeoutHandler);
+    }), checkDeep);
   }
 
-  public static Query<PsiMethod> search(final PsiMethod method, HaxeHierarchyTimeoutHandler timeoutHandler) {
-    return search(method, true, timeoutHandler);
+  public static Query<PsiMethod> search(final PsiMethod method) {
+    return search(method, true);
   }
 
 }
@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.HaxeSwitchCaseCaptureVar;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorContext;
@@ -11,38 +12,48 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 
 public class HaxeInlayCaptureVariableHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-      if (element instanceof HaxeSwitchCaseCaptureVar varDeclaration) {
-        handleCaptureVarDeclarationHints(element, sink, varDeclaration);
-      }
+    public String getProviderId() {
+      return "haxe.capture.variable";
+    }
+
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeSwitchCaseCaptureVar varDeclaration
+             && varDeclaration.getTypeTag() == null && varDeclaration.getVarInit() == null;
+    }
+
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      return computeCaptureVarDeclarationHints((HaxeSwitchCaseCaptureVar)element);
     }
 
 
-    private static void handleCaptureVarDeclarationHints(@NotNull PsiElement element,
-                                                         @NotNull InlayTreeSink sink,
-                                                         HaxeSwitchCaseCaptureVar varDeclaration) {
-      if (varDeclaration.getTypeTag() == null && varDeclaration.getVarInit() == null) {
-        ResultHolder result = HaxeExpressionEvaluator.evaluate(varDeclaration, new HaxeExpressionEvaluatorContext(element), null).result;
+    private static List<Hint> computeCaptureVarDeclarationHints(@NotNull HaxeSwitchCaseCaptureVar varDeclaration) {
+      ResultHolder result = HaxeExpressionEvaluator.evaluate(varDeclaration, new HaxeExpressionEvaluatorContext(varDeclaration), null).result;
 
-        if (!result.isUnknown() && !result.getType().isInvalid()) {
-          int offset = varDeclaration.getComponentName().getTextRange().getEndOffset();
-          InlineInlayPosition position = new InlineInlayPosition(offset, true, 0);
-          sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(result)
-          );
-        }
+      if (!result.isUnknown() && !result.getType().isInvalid()) {
+        int offset = varDeclaration.getComponentName().getTextRange().getEndOffset();
+        return List.of(createHint(offset, true, result));
       }
+      return List.of();
     }
   }
 }
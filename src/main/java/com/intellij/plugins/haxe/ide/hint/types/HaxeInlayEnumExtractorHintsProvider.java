@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.HaxeEnumExtractedValueReference;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
 import com.intellij.plugins.haxe.model.type.*;
@@ -10,27 +11,40 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 public class HaxeInlayEnumExtractorHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
+
+    @NotNull
+    @Override
+    public String getProviderId() {
+      return "haxe.enum.extractor";
+    }
+
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeEnumExtractedValueReference;
+    }
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-      if (element instanceof HaxeEnumExtractedValueReference extractedValue) {
-        handleEnumArgumentExtractorHints(sink, extractedValue);
-      }
+    public List<Hint> compute(@NotNull PsiElement element) {
+      return computeEnumArgumentExtractorHints((HaxeEnumExtractedValueReference)element);
     }
 
-    private static void handleEnumArgumentExtractorHints(@NotNull InlayTreeSink sink, HaxeEnumExtractedValueReference extractedValue) {
-      InlineInlayPosition position = new InlineInlayPosition(extractedValue.getTextRange().getEndOffset(), true, 0);
+    private static List<Hint> computeEnumArgumentExtractorHints(HaxeEnumExtractedValueReference extractedValue) {
       ResultHolder type = HaxeExpressionEvaluator.evaluate(extractedValue, null).result;
-      sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(type));
+      return List.of(createHint(extractedValue.getTextRange().getEndOffset(), true, type));
     }
   }
 }
@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.HaxeExpression;
 import com.intellij.plugins.haxe.lang.psi.HaxeFieldDeclaration;
 import com.intellij.plugins.haxe.model.HaxeFieldModel;
@@ -14,27 +15,39 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 public class HaxeInlayFieldHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-      if (element instanceof HaxeFieldDeclaration fieldDeclaration) {
-        handleFieldDeclarationHints(element, sink, fieldDeclaration);
-      }
+    public String getProviderId() {
+      return "haxe.field.type";
+    }
+
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeFieldDeclaration;
+    }
+
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      return computeFieldDeclarationHints((HaxeFieldDeclaration)element);
     }
 
 
-    private static void handleFieldDeclarationHints(@NotNull PsiElement element,
-                                                    @NotNull InlayTreeSink sink,
-                                                    HaxeFieldDeclaration fieldDeclaration) {
+    private static List<Hint> computeFieldDeclarationHints(HaxeFieldDeclaration fieldDeclaration) {
       HaxeFieldModel field = (HaxeFieldModel)fieldDeclaration.getModel();
 
       if (!field.hasTypeTag()) {
@@ -43,7 +56,7 @@ public class HaxeInlayFieldHintsProvider implements InlayHintsProvider {
         if (expression != null) {
 
           HaxeGenericResolver resolver = HaxeGenericResolverUtil.generateResolverFromScopeParents(expression);
-          ResultHolder type = HaxeTypeResolver.getPsiElementType(element,  resolver);
+          ResultHolder type = HaxeTypeResolver.getPsiElementType(fieldDeclaration,  resolver);
 
           if (!type.isUnknown() && !type.getType().isInvalid()) {
             int offset;
@@ -53,12 +66,11 @@ public class HaxeInlayFieldHintsProvider implements InlayHintsProvider {
             else {
               offset = field.getPsiField().getComponentName().getTextRange().getEndOffset();
             }
-            InlineInlayPosition position = new InlineInlayPosition(offset, true, 0);
-            sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(type)
-            );
+            return List.of(createHint(offset, true, type));
           }
         }
       }
+      return List.of();
     }
   }
 }
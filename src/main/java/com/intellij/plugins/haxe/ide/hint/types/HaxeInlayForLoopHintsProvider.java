@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
 import com.intellij.plugins.haxe.model.type.*;
@@ -10,29 +11,41 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class HaxeInlayForLoopHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-      if (element instanceof HaxeForStatement forStatement) {
-        handleForEachHints(element, sink, forStatement);
-      }
+    public String getProviderId() {
+      return "haxe.loop.type";
     }
 
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeForStatement;
+    }
 
-    private static void handleForEachHints(@NotNull PsiElement element,
-                                                    @NotNull InlayTreeSink sink,
-                                           HaxeForStatement forStatement) {
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      return computeForEachHints((HaxeForStatement)element);
+    }
 
 
+    private static List<Hint> computeForEachHints(@NotNull HaxeForStatement forStatement) {
+      List<Hint> hints = new ArrayList<>(2);
 
       HaxeIterable iterable = forStatement.getIterable();
       HaxeKeyValueIterator keyValueIterator = forStatement.getKeyValueIterator();
@@ -40,8 +53,8 @@ public class HaxeInlayForLoopHintsProvider implements InlayHintsProvider {
       if (iterable != null && keyValueIterator == null) {
         HaxeValueIterator valueIterator = forStatement.getValueIterator();
         if (valueIterator != null) {
-          ResultHolder type = HaxeTypeResolver.getPsiElementType(valueIterator, element, resolver);
-          createInlayHint(valueIterator.getComponentName(), sink, type);
+          ResultHolder type = HaxeTypeResolver.getPsiElementType(valueIterator, forStatement, resolver);
+          addTypeHint(valueIterator.getComponentName(), hints, type);
         }
       }
       if (keyValueIterator != null) {
@@ -51,20 +64,18 @@ public class HaxeInlayForLoopHintsProvider implements InlayHintsProvider {
         ResultHolder keyType = HaxeExpressionEvaluator.findIteratorType(iteratorKey);
         ResultHolder valueType = HaxeExpressionEvaluator.findIteratorType(iteratorValue);
 
-        if (!keyType.isUnknown()) createInlayHint(iteratorKey.getComponentName(), sink, keyType);
-        if (!valueType.isUnknown()) createInlayHint(iteratorValue.getComponentName(), sink, valueType);
+        if (!keyType.isUnknown()) addTypeHint(iteratorKey.getComponentName(), hints, keyType);
+        if (!valueType.isUnknown()) addTypeHint(iteratorValue.getComponentName(), hints, valueType);
       }
-
+      return hints;
     }
 
 
 
-    private static void createInlayHint(@NotNull HaxeComponentName componentName,@NotNull InlayTreeSink sink, ResultHolder type ) {
+    private static void addTypeHint(@NotNull HaxeComponentName componentName, @NotNull List<Hint> hints, ResultHolder type) {
       if (!type.isUnknown() && !type.getType().isInvalid()) {
         int offset = componentName.getTextRange().getEndOffset();
-        InlineInlayPosition position = new InlineInlayPosition(offset, true, 0);
-        sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(type)
-        );
+        hints.add(createHint(offset, true, type));
       }
     }
   }
@@ -0,0 +1,72 @@
+package com.intellij.plugins.haxe.ide.hint.types;
+
+import com.intellij.openapi.options.SearchableConfigurable;
+import com.intellij.openapi.ui.LabeledComponent;
+import com.intellij.plugins.haxe.HaxeHintBundle;
+import com.intellij.ui.JBIntSpinner;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Settings > Editor > Inlay Hints > Haxe type hints: the time budget of {@link HaxeInlayHintsSettings}.
+ */
+public class HaxeInlayHintsConfigurable implements SearchableConfigurable {
+
+  private static final int MAX_BUDGET_MILLIS = 60_000;
+
+  private JBIntSpinner myBudgetSpinner;
+
+  @NotNull
+  @Override
+  public String getId() {
+    return "haxe.inlay.hints";
+  }
+
+  @Override
+  public String getDisplayName() {
+    return HaxeHintBundle.message("haxe.type.hints.settings.name");
+  }
+
+  @Override
+  public JComponent createComponent() {
+    myBudgetSpinner = new JBIntSpinner(HaxeInlayHintsSettings.DEFAULT_TYPE_HINTS_BUDGET_MILLIS, 0, MAX_BUDGET_MILLIS, 50);
+    LabeledComponent<JBIntSpinner> budget =
+      LabeledComponent.create(myBudgetSpinner, HaxeHintBundle.message("haxe.type.hints.budget.label"));
+    budget.setToolTipText(HaxeHintBundle.message("haxe.type.hints.budget.description"));
+
+    JPanel panel = new JPanel(new BorderLayout());
+    panel.add(budget, BorderLayout.NORTH);
+    return panel;
+  }
+
+  @Override
+  public boolean isModified() {
+    return myBudgetSpinner != null && myBudgetSpinner.getNumber() != getSettings().getTypeHintsBudgetMillis();
+  }
+
+  @Override
+  public void apply() {
+    if (myBudgetSpinner != null) {
+      getSettings().setTypeHintsBudgetMillis(myBudgetSpinner.getNumber());
+    }
+  }
+
+  @Override
+  public void reset() {
+    if (myBudgetSpinner != null) {
+      myBudgetSpinner.setNumber(getSettings().getTypeHintsBudgetMillis());
+    }
+  }
+
+  @Override
+  public void disposeUIResources() {
+    myBudgetSpinner = null;
+  }
+
+  @NotNull
+  private static HaxeInlayHintsSettings getSettings() {
+    return HaxeInlayHintsSettings.getInstance();
+  }
+}
@@ -0,0 +1,43 @@
+package com.intellij.plugins.haxe.ide.hint.types;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+
+@State(name = "HaxeInlayHintsSettings", storages = @Storage("editor.codeinsight.xml"))
+public class HaxeInlayHintsSettings implements PersistentStateComponent<HaxeInlayHintsSettings> {
+
+  public static final int DEFAULT_TYPE_HINTS_BUDGET_MILLIS = 300;
+
+  /**
+   * Time that the type hints of a file may take outside the visible area before the rest is left
+   * to the background; zero or less means no limit.
+   *
+   * @see HaxeInlayTypeInference
+   */
+  private int myTypeHintsBudgetMillis = DEFAULT_TYPE_HINTS_BUDGET_MILLIS;
+
+  public static HaxeInlayHintsSettings getInstance() {
+    return ApplicationManager.getApplication().getService(HaxeInlayHintsSettings.class);
+  }
+
+  @Override
+  public HaxeInlayHintsSettings getState() {
+    return this;
+  }
+
+  @Override
+  public void loadState(@NotNull final HaxeInlayHintsSettings state) {
+    XmlSerializerUtil.copyBean(state, this);
+  }
+
+  public int getTypeHintsBudgetMillis() {
+    return myTypeHintsBudgetMillis;
+  }
+  public void setTypeHintsBudgetMillis(final int value) {
+    myTypeHintsBudgetMillis = value;
+  }
+}
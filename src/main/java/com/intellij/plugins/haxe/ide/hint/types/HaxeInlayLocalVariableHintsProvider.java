@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.model.type.*;
 import com.intellij.psi.PsiElement;
@@ -9,38 +10,51 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 
 public class HaxeInlayLocalVariableHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-      if (element instanceof HaxeLocalVarDeclaration varDeclaration) {
-        handleLocalVarDeclarationHints(sink, varDeclaration);
-      }
+    public String getProviderId() {
+      return "haxe.local.variable";
+    }
+
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      // capture variables are handled by HaxeInlayCaptureVariableHintsProvider
+      return element instanceof HaxeLocalVarDeclaration varDeclaration
+             && !(varDeclaration instanceof HaxeSwitchCaseCaptureVar)
+             && varDeclaration.getTypeTag() == null;
+    }
+
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      return computeLocalVarDeclarationHints((HaxeLocalVarDeclaration)element);
     }
 
 
-    private static void handleLocalVarDeclarationHints(@NotNull InlayTreeSink sink, @NotNull HaxeLocalVarDeclaration varDeclaration) {
-      if (varDeclaration instanceof  HaxeSwitchCaseCaptureVar) return; // handled by HaxeInlayCaptureVariableHintsProvider
-      HaxeTypeTag tag = varDeclaration.getTypeTag();
-      if (tag == null) {
-        // attempts to resolve type from init or usage
-        ResultHolder type = HaxeTypeResolver.getPsiElementType(varDeclaration, null);
+    private static List<Hint> computeLocalVarDeclarationHints(@NotNull HaxeLocalVarDeclaration varDeclaration) {
+      // attempts to resolve type from init or usage
+      ResultHolder type = HaxeTypeResolver.getPsiElementType(varDeclaration, null);
 
-        if (!type.isUnknown() && !type.getType().isInvalid()) {
-          int offset = varDeclaration.getComponentName().getTextRange().getEndOffset();
-          InlineInlayPosition position = new InlineInlayPosition(offset, true, 0);
-          sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(type));
-        }
+      if (!type.isUnknown() && !type.getType().isInvalid()) {
+        int offset = varDeclaration.getComponentName().getTextRange().getEndOffset();
+        return List.of(createHint(offset, true, type));
       }
+      return List.of();
     }
   }
 }
@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.HaxeLocalFunctionDeclaration;
 import com.intellij.plugins.haxe.lang.psi.HaxeMethodDeclaration;
 import com.intellij.plugins.haxe.model.HaxeMethodModel;
@@ -12,43 +13,56 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 public class HaxeInlayReturnTypeHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-      if (element instanceof HaxeMethodDeclaration fieldDeclaration) {
-        handleMethodDeclarationHints(sink, fieldDeclaration);
-      }else if (element instanceof HaxeLocalFunctionDeclaration functionDeclaration) {
-        handleFunctionDeclarationHints(sink, functionDeclaration);
-      }
+    public String getProviderId() {
+      return "haxe.return.type";
     }
 
-    private void handleFunctionDeclarationHints(InlayTreeSink sink, HaxeLocalFunctionDeclaration declaration) {
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeMethodDeclaration
+             || element instanceof HaxeLocalFunctionDeclaration functionDeclaration && functionDeclaration.getTypeTag() == null;
+    }
+
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      if (element instanceof HaxeMethodDeclaration methodDeclaration) {
+        return computeMethodDeclarationHints(methodDeclaration);
+      }
+      return computeFunctionDeclarationHints((HaxeLocalFunctionDeclaration)element);
+    }
 
-      if (declaration.getTypeTag() == null) {
-        SpecificFunctionReference functionReference = HaxeTypeResolver.getPsiElementType(declaration, null).getFunctionType();
-        if (functionReference != null) {
-          ResultHolder returnType = functionReference.getReturnType();
-          PsiElement paramListEnd = UsefulPsiTreeUtil.getNextSiblingSkipWhiteSpacesAndComments(declaration.getParameterList());
-          if (paramListEnd == null) return;
-          int offset = paramListEnd.getTextRange().getEndOffset();
-          if (!returnType.isUnknown() && !returnType.getType().isInvalid()) {
-            InlineInlayPosition position = new InlineInlayPosition(offset, true, 0);
-            sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(returnType));
-          }
+    private static List<Hint> computeFunctionDeclarationHints(HaxeLocalFunctionDeclaration declaration) {
+      SpecificFunctionReference functionReference = HaxeTypeResolver.getPsiElementType(declaration, null).getFunctionType();
+      if (functionReference != null) {
+        ResultHolder returnType = functionReference.getReturnType();
+        PsiElement paramListEnd = UsefulPsiTreeUtil.getNextSiblingSkipWhiteSpacesAndComments(declaration.getParameterList());
+        if (paramListEnd == null) return List.of();
+        int offset = paramListEnd.getTextRange().getEndOffset();
+        if (!returnType.isUnknown() && !returnType.getType().isInvalid()) {
+          return List.of(createHint(offset, true, returnType));
         }
       }
+      return List.of();
     }
 
-    private void handleMethodDeclarationHints(InlayTreeSink sink, HaxeMethodDeclaration declaration) {
+    private static List<Hint> computeMethodDeclarationHints(HaxeMethodDeclaration declaration) {
       HaxeMethodModel methodModel = declaration.getModel();
 
       if (methodModel != null && methodModel.getReturnTypeTagPsi() == null && !methodModel.isConstructor()) {
@@ -56,18 +70,13 @@ public class HaxeInlayReturnTypeHintsProvider implements InlayHintsProvider {
         resolver = resolver.withTypeParametersAsType(methodModel.getGenericParams());
         ResultHolder returnType = methodModel.getReturnType(resolver);
         PsiElement paramListEnd = UsefulPsiTreeUtil.getNextSiblingSkipWhiteSpacesAndComments(declaration.getParameterList());
-        if (paramListEnd == null) return;
+        if (paramListEnd == null) return List.of();
         int offset = paramListEnd.getTextRange().getEndOffset();
         if (!returnType.isUnknown() && !returnType.getType().isInvalid()) {
-          InlineInlayPosition position = new InlineInlayPosition(offset, false, 0);
-          sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(returnType));
+          return List.of(createHint(offset, false, returnType));
         }
       }
+      return List.of();
     }
-
-
-
-
-
   }
 }
@@ -0,0 +1,262 @@
+package com.intellij.plugins.haxe.ide.hint.types;
+
+import com.intellij.codeInsight.daemon.impl.VisibleHighlightingPassFactory;
+import com.intellij.codeInsight.hints.declarative.DeclarativeInlayHintsSettings;
+import com.intellij.codeInsight.hints.declarative.impl.DeclarativeInlayHintsPassFactory;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The type hints of a file, inferred in one pass that all type inlay providers read from.
+ *
+ * The first provider to collect a file walks it once and computes the hints of every enabled
+ * {@link HintKind}, those in the visible part of the editor first.  Hints are kept until PSI changes,
+ * so neither the other providers nor later collections evaluate the file again.  Elements in the
+ * visible part are always computed.  Once the file has used up its time budget (see
+ * {@link HaxeInlayHintsSettings}), other elements are left without hints and are completed in the
+ * background, after which the inlay hints of the file's editors are refreshed.
+ */
+public final class HaxeInlayTypeInference {
+
+  public record Hint(int offset, boolean relatedToPrevious, @NotNull String text) {
+  }
+
+  /**
+   * The hints that one provider shows.
+   */
+  public interface HintKind {
+    /** The providerId of the provider, as registered in plugin.xml. */
+    @NotNull
+    String getProviderId();
+
+    boolean accepts(@NotNull PsiElement element);
+
+    /** Called at most once per PSI modification for an element, unless a recursion guard affected the result. */
+    @NotNull
+    List<Hint> compute(@NotNull PsiElement element);
+  }
+
+  private static final List<HintKind> KINDS = List.of(
+    HaxeInlayCaptureVariableHintsProvider.KIND,
+    HaxeInlayEnumExtractorHintsProvider.KIND,
+    HaxeInlayFieldHintsProvider.KIND,
+    HaxeInlayForLoopHintsProvider.KIND,
+    HaxeInlayLocalVariableHintsProvider.KIND,
+    HaxeInlayReturnTypeHintsProvider.KIND,
+    HaxeInlayUntypedParameterHintsProvider.KIND
+  );
+
+  private record HintKey(@NotNull HintKind kind, @NotNull PsiElement element) {
+  }
+
+  private final PsiFile myFile;
+  private final Map<HintKey, List<Hint>> myHints = new ConcurrentHashMap<>();
+  private final Map<HintKey, Boolean> myDeferred = new ConcurrentHashMap<>();
+  private final AtomicLong mySpentNanos = new AtomicLong();
+  private final AtomicBoolean myWalkStarted = new AtomicBoolean();
+  private final AtomicBoolean myCompletionScheduled = new AtomicBoolean();
+
+  private HaxeInlayTypeInference(@NotNull PsiFile file) {
+    myFile = file;
+  }
+
+  @NotNull
+  public static HaxeInlayTypeInference forFile(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, () ->
+      CachedValueProvider.Result.create(new HaxeInlayTypeInference(file), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  /**
+   * @return a view for one collection pass over the editor, which knows the editor's visible area.
+   */
+  @NotNull
+  public static Pass startPass(@NotNull PsiFile file, @NotNull Editor editor) {
+    return startPass(file, VisibleHighlightingPassFactory.calculateVisibleRange(editor));
+  }
+
+  /**
+   * @return a view for one collection pass over the given visible range of the file.
+   */
+  @NotNull
+  public static Pass startPass(@NotNull PsiFile file, @NotNull TextRange visibleRange) {
+    return new Pass(forFile(file), visibleRange);
+  }
+
+  public static final class Pass {
+    private final HaxeInlayTypeInference myInference;
+    private final TextRange myVisibleRange;
+
+    private Pass(@NotNull HaxeInlayTypeInference inference, @NotNull TextRange visibleRange) {
+      myInference = inference;
+      myVisibleRange = visibleRange;
+    }
+
+    /**
+     * @return the hints of the kind for the element, or none when the element is deferred to the background.
+     */
+    @NotNull
+    public List<Hint> getHints(@NotNull HintKind kind, @NotNull PsiElement element) {
+      myInference.walk(myVisibleRange);
+      return myInference.getHints(new HintKey(kind, element), isVisible(element));
+    }
+
+    private boolean isVisible(@NotNull PsiElement element) {
+      return myVisibleRange.intersects(element.getTextRange());
+    }
+  }
+
+  /**
+   * Computes the hints of all enabled kinds for the file, visible elements first, and defers what
+   * doesn't fit in the budget.  Only the first caller walks; the others compute what they miss.
+   */
+  private void walk(@NotNull TextRange visibleRange) {
+    if (!myWalkStarted.compareAndSet(false, true)) {
+      return;
+    }
+    boolean completed = false;
+    try {
+      List<HintKind> kinds = getEnabledKinds();
+      List<HintKey> rest = new ArrayList<>();
+      myFile.accept(new PsiRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitElement(@NotNull PsiElement element) {
+          for (HintKind kind : kinds) {
+            if (kind.accepts(element)) {
+              HintKey key = new HintKey(kind, element);
+              if (visibleRange.intersects(element.getTextRange())) {
+                getHints(key, true);
+              }
+              else {
+                rest.add(key);
+              }
+            }
+          }
+          super.visitElement(element);
+        }
+      });
+      for (HintKey key : rest) {
+        ProgressManager.checkCanceled();
+        getHints(key, false);
+      }
+      completed = true;
+    }
+    finally {
+      if (!completed) {
+        myWalkStarted.set(false);
+      }
+    }
+  }
+
+  @NotNull
+  private static List<HintKind> getEnabledKinds() {
+    DeclarativeInlayHintsSettings settings = DeclarativeInlayHintsSettings.getInstance();
+    List<HintKind> kinds = new ArrayList<>(KINDS.size());
+    for (HintKind kind : KINDS) {
+      // All the type providers are enabled by default.
+      if (!Boolean.FALSE.equals(settings.isProviderEnabled(kind.getProviderId()))) {
+        kinds.add(kind);
+      }
+    }
+    return kinds;
+  }
+
+  @NotNull
+  private List<Hint> getHints(@NotNull HintKey key, boolean visible) {
+    List<Hint> hints = myHints.get(key);
+    if (hints != null) {
+      return hints;
+    }
+    if (!visible && isOverBudget()) {
+      myDeferred.put(key, Boolean.TRUE);
+      scheduleCompletion();
+      return List.of();
+    }
+    return compute(key);
+  }
+
+  @NotNull
+  private List<Hint> compute(@NotNull HintKey key) {
+    long start = System.nanoTime();
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    List<Hint> hints = List.copyOf(key.kind().compute(key.element()));
+    if (stamp.mayCacheNow()) {
+      myHints.put(key, hints);
+    }
+    mySpentNanos.addAndGet(System.nanoTime() - start);
+    return hints;
+  }
+
+  private boolean isOverBudget() {
+    long budgetMillis = HaxeInlayHintsSettings.getInstance().getTypeHintsBudgetMillis();
+    return budgetMillis > 0 && mySpentNanos.get() > budgetMillis * 1_000_000;
+  }
+
+  private void scheduleCompletion() {
+    if (!myCompletionScheduled.compareAndSet(false, true)) {
+      return;
+    }
+    ReadAction.nonBlocking(this::completeDeferred)
+      .inSmartMode(myFile.getProject())
+      .expireWhen(() -> !myFile.isValid() || forFile(myFile) != this)
+      .finishOnUiThread(ModalityState.nonModal(), ignored -> refreshHints())
+      .submit(AppExecutorUtil.getAppExecutorService());
+  }
+
+  /**
+   * Computes the deferred hints.  A write action cancels and restarts this, but hints that were
+   * already computed are kept.  Elements deferred meanwhile are picked up before this finishes.
+   * Results are kept even when a recursion guard affected them, so that the refresh doesn't defer
+   * the same elements again.
+   */
+  private Void completeDeferred() {
+    do {
+      for (HintKey key : new ArrayList<>(myDeferred.keySet())) {
+        ProgressManager.checkCanceled();
+        if (!myHints.containsKey(key) && key.element().isValid()) {
+          myHints.put(key, List.copyOf(key.kind().compute(key.element())));
+        }
+        myDeferred.remove(key);
+      }
+      myCompletionScheduled.set(false);
+    }
+    while (!myDeferred.isEmpty() && myCompletionScheduled.compareAndSet(false, true));
+    return null;
+  }
+
+  /**
+   * Has the inlay hints of the file's editors collected again.  PSI hasn't changed, so the inlay pass
+   * must be told that its results are outdated; restarting the daemon alone would skip it.
+   */
+  private void refreshHints() {
+    Document document = PsiDocumentManager.getInstance(myFile.getProject()).getDocument(myFile);
+    if (document == null) {
+      return;
+    }
+    for (Editor editor : EditorFactory.getInstance().getEditors(document, myFile.getProject())) {
+      DeclarativeInlayHintsPassFactory.Companion.scheduleRecompute(editor, myFile.getProject());
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.intellij.plugins.haxe.ide.hint.types;
 
 import com.intellij.codeInsight.hints.declarative.*;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.lang.psi.HaxeFunctionLiteral;
 import com.intellij.plugins.haxe.lang.psi.HaxeParameter;
 import com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluator;
@@ -12,39 +13,48 @@ import com.intellij.psi.PsiFile;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.List;
+
 
 public class HaxeInlayUntypedParameterHintsProvider implements InlayHintsProvider {
 
+  static final HaxeInlayTypeInference.HintKind KIND = new TypeHints();
+
   @Nullable
   @Override
   public InlayHintsCollector createCollector(@NotNull PsiFile file, @NotNull Editor editor) {
-    return new TypeCollector();
+    return new HaxeSharedBypassCollector(HaxeInlayTypeInference.startPass(file, editor), KIND);
   }
 
-  private static class TypeCollector extends HaxeSharedBypassCollector {
+  private static class TypeHints implements HaxeInlayTypeInference.HintKind {
 
+    @NotNull
     @Override
-    public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
-        if (element instanceof HaxeParameter parameter && parameter.getParent().getParent() instanceof HaxeFunctionLiteral) {
-          if (parameter.getTypeTag() == null && parameter.getVarInit() == null) {
-            handleUntypedParameterHints(parameter, sink);
-          }
-      }
+    public String getProviderId() {
+      return "haxe.untyped.parameter.type";
+    }
+
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeParameter parameter && parameter.getParent().getParent() instanceof HaxeFunctionLiteral
+             && parameter.getTypeTag() == null && parameter.getVarInit() == null;
+    }
+
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      return computeUntypedParameterHints((HaxeParameter)element);
     }
 
 
-    private static void handleUntypedParameterHints(@NotNull HaxeParameter parameter,
-                                                         @NotNull InlayTreeSink sink) {
-      if (parameter.getTypeTag() == null && parameter.getVarInit() == null) {
-        ResultHolder result = HaxeExpressionEvaluator.evaluate(parameter, new HaxeExpressionEvaluatorContext(parameter), null).result;
+    private static List<Hint> computeUntypedParameterHints(@NotNull HaxeParameter parameter) {
+      ResultHolder result = HaxeExpressionEvaluator.evaluate(parameter, new HaxeExpressionEvaluatorContext(parameter), null).result;
 
-        if (!result.isUnknown() && !result.getType().isInvalid()) {
-          int offset = parameter.getComponentName().getTextRange().getEndOffset();
-          InlineInlayPosition position = new InlineInlayPosition(offset, true, 0);
-          sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(result)
-          );
-        }
+      if (!result.isUnknown() && !result.getType().isInvalid()) {
+        int offset = parameter.getComponentName().getTextRange().getEndOffset();
+        return List.of(createHint(offset, true, result));
       }
+      return List.of();
     }
   }
 }
@@ -1,19 +1,51 @@
 package com.intellij.plugins.haxe.ide.hint.types;
 
+import com.intellij.codeInsight.hints.declarative.InlayTreeSink;
+import com.intellij.codeInsight.hints.declarative.InlineInlayPosition;
 import com.intellij.codeInsight.hints.declarative.PresentationTreeBuilder;
 import com.intellij.codeInsight.hints.declarative.SharedBypassCollector;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
 import com.intellij.plugins.haxe.model.type.ResultHolder;
 import com.intellij.plugins.haxe.model.type.SpecificEnumValueReference;
+import com.intellij.psi.PsiElement;
 import kotlin.Unit;
 import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
 
-public abstract class HaxeSharedBypassCollector implements SharedBypassCollector {
+/**
+ * Shows the hints of one {@link HaxeInlayTypeInference.HintKind}, which are inferred once per file
+ * modification for all the type providers (see {@link HaxeInlayTypeInference}).
+ */
+public class HaxeSharedBypassCollector implements SharedBypassCollector {
+
+  private final HaxeInlayTypeInference.Pass myPass;
+  private final HaxeInlayTypeInference.HintKind myKind;
+
+  public HaxeSharedBypassCollector(@NotNull HaxeInlayTypeInference.Pass pass, @NotNull HaxeInlayTypeInference.HintKind kind) {
+    myPass = pass;
+    myKind = kind;
+  }
+
+  @Override
+  public void collectFromElement(@NotNull PsiElement element, @NotNull InlayTreeSink sink) {
+    if (!myKind.accepts(element)) {
+      return;
+    }
+    for (Hint hint : myPass.getHints(myKind, element)) {
+      InlineInlayPosition position = new InlineInlayPosition(hint.offset(), hint.relatedToPrevious(), 0);
+      sink.addPresentation(position, null, null, false, appendTypeTextToBuilder(hint.text()));
+    }
+  }
+
+  @NotNull
+  protected static Hint createHint(int offset, boolean relatedToPrevious, @NotNull ResultHolder type) {
+    return new Hint(offset, relatedToPrevious, getPresentationText(type));
+  }
 
   @NotNull
-  protected static Function1<PresentationTreeBuilder, Unit> appendTypeTextToBuilder(ResultHolder type) {
+  private static Function1<PresentationTreeBuilder, Unit> appendTypeTextToBuilder(String typeText) {
     return builder -> {
-      builder.text(":" + getPresentationText(type), null);
+      builder.text(":" + typeText, null);
       return null;
     };
   }
@@ -44,7 +44,7 @@ import java.util.*;
 public class HaxeComponentIndex extends FileBasedIndexExtension<String, HaxeClassInfo> {
   public static final ID<String, HaxeClassInfo> HAXE_COMPONENT_INDEX = ID.create("HaxeComponentIndex");
   private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 9;
-  private final DataIndexer<String, HaxeClassInfo, FileContent> myIndexer = new MyDataIndexer();
+  private final DataIndexer<String, HaxeClassInfo, FileContent> myIndexer = HaxeLibraryIndexChunks.reusable(this, new MyDataIndexer());
   private final DataExternalizer<HaxeClassInfo> myExternalizer = new HaxeClassInfoExternalizer();
 
   @NotNull
@@ -16,6 +16,11 @@ import java.util.List;
 
 public class HaxeInheritanceDefinitionsUtil {
   public static Collection<HaxeClass> getItemsByQNameFirstLevelChildrenOnly(final HaxeClass haxeClass) {
+    return getItemsByQNameFirstLevelChildrenOnly(haxeClass, GlobalSearchScope.projectScope(haxeClass.getProject()));
+  }
+
+  public static Collection<HaxeClass> getItemsByQNameFirstLevelChildrenOnly(final HaxeClass haxeClass,
+                                                                            final GlobalSearchScope scope) {
     Project project = haxeClass.getProject();
     if (project.isDisposed()) {
       throw new ProcessCanceledException(new Throwable("Project disposed"));
@@ -26,7 +31,7 @@ public class HaxeInheritanceDefinitionsUtil {
       dumbService.waitForSmartMode();
     }
 
-    return dumbService.runReadActionInSmartMode(() -> _getItemsByQNameFirstLevelChildrenOnly(haxeClass, project));
+    return dumbService.runReadActionInSmartMode(() -> _getItemsByQNameFirstLevelChildrenOnly(haxeClass, scope));
   }
 
 
@@ -44,9 +49,7 @@ public class HaxeInheritanceDefinitionsUtil {
     return dumbService.runReadActionInSmartMode(() -> _getItemsByQNameIncludingSubChildren(haxeClass));
   }
 
-  private static @NotNull Collection<HaxeClass> _getItemsByQNameFirstLevelChildrenOnly(HaxeClass haxeClass, Project project) {
-    GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
-
+  private static @NotNull Collection<HaxeClass> _getItemsByQNameFirstLevelChildrenOnly(HaxeClass haxeClass, GlobalSearchScope scope) {
     return DefinitionsScopedSearch.search(haxeClass, scope, false)
       .allowParallelProcessing()
       .filtering(element -> element instanceof HaxeClass)
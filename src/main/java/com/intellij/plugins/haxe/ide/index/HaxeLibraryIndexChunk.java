@@ -0,0 +1,181 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Prebuilt index data for all of the sources of one haxelib library version.
+ *
+ * Entries are keyed by the path relative to the library root and only apply to a file whose
+ * content hash matches the one recorded when the chunk was built, so a chunk can never hand
+ * out data for sources that have been changed since.
+ */
+public class HaxeLibraryIndexChunk {
+
+  private static final int FORMAT_VERSION = 1;
+
+  private final String myLibraryName;
+  private final String myLibraryVersion;
+  private final String myFingerprint;
+  private final Map<String, FileEntry> myFiles;
+
+  private static class FileEntry {
+    final byte[] contentHash;
+    final Map<String, Map<?, ?>> indexData;
+
+    FileEntry(byte[] contentHash, Map<String, Map<?, ?>> indexData) {
+      this.contentHash = contentHash;
+      this.indexData = indexData;
+    }
+  }
+
+  private HaxeLibraryIndexChunk(String libraryName, String libraryVersion, String fingerprint, Map<String, FileEntry> files) {
+    myLibraryName = libraryName;
+    myLibraryVersion = libraryVersion;
+    myFingerprint = fingerprint;
+    myFiles = files;
+  }
+
+  public String getLibraryName() {
+    return myLibraryName;
+  }
+
+  public String getLibraryVersion() {
+    return myLibraryVersion;
+  }
+
+  public String getFingerprint() {
+    return myFingerprint;
+  }
+
+  public int getFileCount() {
+    return myFiles.size();
+  }
+
+  /**
+   * @return the data recorded for the given index, or null if the file isn't part of this chunk
+   *         or its content differs from what the chunk was built from.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  public <K, V> Map<K, V> getIndexData(@NotNull String relativePath, byte @NotNull [] contentHash, @NotNull String indexName) {
+    FileEntry entry = myFiles.get(relativePath);
+    if (entry == null || !Arrays.equals(entry.contentHash, contentHash)) {
+      return null;
+    }
+    return (Map<K, V>)entry.indexData.get(indexName);
+  }
+
+  public static class Builder {
+    private final String myLibraryName;
+    private final String myLibraryVersion;
+    private final String myFingerprint;
+    private final Map<String, FileEntry> myFiles = new HashMap<>();
+
+    public Builder(@NotNull String libraryName, @NotNull String libraryVersion, @NotNull String fingerprint) {
+      myLibraryName = libraryName;
+      myLibraryVersion = libraryVersion;
+      myFingerprint = fingerprint;
+    }
+
+    public void addFile(@NotNull String relativePath, byte @NotNull [] contentHash, @NotNull Map<String, Map<?, ?>> indexData) {
+      myFiles.put(relativePath, new FileEntry(contentHash, indexData));
+    }
+
+    public HaxeLibraryIndexChunk build() {
+      return new HaxeLibraryIndexChunk(myLibraryName, myLibraryVersion, myFingerprint, new HashMap<>(myFiles));
+    }
+  }
+
+  public void write(@NotNull DataOutput out,
+                    @NotNull Function<String, FileBasedIndexExtension<?, ?>> extensions) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(myLibraryName);
+    out.writeUTF(myLibraryVersion);
+    out.writeUTF(myFingerprint);
+    out.writeInt(myFiles.size());
+    for (Map.Entry<String, FileEntry> file : myFiles.entrySet()) {
+      out.writeUTF(file.getKey());
+      FileEntry entry = file.getValue();
+      out.writeInt(entry.contentHash.length);
+      out.write(entry.contentHash);
+      out.writeInt(entry.indexData.size());
+      for (Map.Entry<String, Map<?, ?>> index : entry.indexData.entrySet()) {
+        FileBasedIndexExtension<?, ?> extension = extensions.apply(index.getKey());
+        if (extension == null) {
+          throw new IOException("Unknown index " + index.getKey());
+        }
+        out.writeUTF(index.getKey());
+        writeIndexData(out, extension, index.getValue());
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <K, V> void writeIndexData(DataOutput out, FileBasedIndexExtension<K, V> extension, Map<?, ?> data) throws IOException {
+    KeyDescriptor<K> keys = extension.getKeyDescriptor();
+    DataExternalizer<V> values = extension.getValueExternalizer();
+    out.writeInt(data.size());
+    for (Map.Entry<?, ?> entry : data.entrySet()) {
+      keys.save(out, (K)entry.getKey());
+      values.save(out, (V)entry.getValue());
+    }
+  }
+
+  /**
+   * @throws IOException if the data is truncated, was written by another format version or
+   *                     refers to an index that no longer exists.
+   */
+  @NotNull
+  public static HaxeLibraryIndexChunk read(@NotNull DataInput in,
+                                           @NotNull Function<String, FileBasedIndexExtension<?, ?>> extensions) throws IOException {
+    int format = in.readInt();
+    if (format != FORMAT_VERSION) {
+      throw new IOException("Unsupported chunk format " + format);
+    }
+    String libraryName = in.readUTF();
+    String libraryVersion = in.readUTF();
+    String fingerprint = in.readUTF();
+    int fileCount = in.readInt();
+    Map<String, FileEntry> files = new HashMap<>(fileCount);
+    for (int i = 0; i < fileCount; ++i) {
+      String relativePath = in.readUTF();
+      byte[] contentHash = new byte[in.readInt()];
+      in.readFully(contentHash);
+      int indexCount = in.readInt();
+      Map<String, Map<?, ?>> indexData = new HashMap<>(indexCount);
+      for (int j = 0; j < indexCount; ++j) {
+        String indexName = in.readUTF();
+        FileBasedIndexExtension<?, ?> extension = extensions.apply(indexName);
+        if (extension == null) {
+          throw new IOException("Unknown index " + indexName);
+        }
+        indexData.put(indexName, readIndexData(in, extension));
+      }
+      files.put(relativePath, new FileEntry(contentHash, indexData));
+    }
+    return new HaxeLibraryIndexChunk(libraryName, libraryVersion, fingerprint, files);
+  }
+
+  private static <K, V> Map<K, V> readIndexData(DataInput in, FileBasedIndexExtension<K, V> extension) throws IOException {
+    KeyDescriptor<K> keys = extension.getKeyDescriptor();
+    DataExternalizer<V> values = extension.getValueExternalizer();
+    int size = in.readInt();
+    if (size == 0) {
+      return Collections.emptyMap();
+    }
+    Map<K, V> data = new HashMap<>(size);
+    for (int i = 0; i < size; ++i) {
+      K key = keys.read(in);
+      data.put(key, values.read(in));
+    }
+    return data;
+  }
+}
@@ -0,0 +1,459 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleManager;
+import com.intellij.openapi.module.ModuleType;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeBundle;
+import com.intellij.plugins.haxe.haxelib.HaxelibMetadata;
+import com.intellij.plugins.haxe.haxelib.definitions.HaxeDefineDetectionManager;
+import com.intellij.plugins.haxe.ide.module.HaxeModuleSettings;
+import com.intellij.plugins.haxe.ide.module.HaxeModuleType;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DigestUtil;
+import lombok.CustomLog;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Prebuilt, reusable index data for haxelib libraries.
+ *
+ * Library sources are identical in every project that uses the same library version, but each
+ * new checkout (or project-local haxelib repository) has them indexed from scratch, which means
+ * parsing every file.  Once a project has finished indexing, the data of the indexes that only
+ * depend on a file's own content is written to one chunk per library name and version.  When
+ * another project indexes the same library, the indexers take their results from that chunk
+ * instead of building PSI.
+ *
+ * The data also depends on the compiler defines (conditional compilation decides which
+ * declarations exist) and on the modules' targets, so chunks are keyed by a fingerprint of the
+ * defines, the targets and the index versions, and every file entry is additionally checked
+ * against the file's content hash.
+ *
+ * Chunks are stored in the IDE system directory, or in the directory set with the
+ * "haxe.library.index.dir" system property, which can point into a (shared) haxelib repository.
+ */
+@CustomLog
+public class HaxeLibraryIndexChunks {
+
+  private static final String CHUNK_DIR_PROPERTY = "haxe.library.index.dir";
+  private static final String CHUNK_EXTENSION = ".chunk";
+  private static final Key<byte[]> CONTENT_HASH = Key.create("haxe.library.index.content.hash");
+  private static final Key<Fingerprint> FINGERPRINT = Key.create("haxe.library.index.fingerprint");
+  // Both caches outlive projects; keep them to what a few open projects need.
+  private static final int MAX_LIBRARY_DIRECTORIES = 4096;
+  private static final int MAX_LOADED_CHUNKS = 64;
+
+  /** A haxelib library version on disk: the directory holding its haxelib.json. */
+  private static class LibraryRoot {
+    final VirtualFile directory;
+    final String name;
+    final String version;
+
+    LibraryRoot(VirtualFile directory, String name, String version) {
+      this.directory = directory;
+      this.name = name;
+      this.version = version;
+    }
+  }
+
+  private static final LibraryRoot NOT_A_LIBRARY = new LibraryRoot(null, null, null);
+  private static final HaxeLibraryIndexChunk NO_CHUNK = new HaxeLibraryIndexChunk.Builder("", "", "").build();
+
+  /** The fingerprint of a project, computed once per indexing session. */
+  private static class Fingerprint {
+    final long dumbModeStamp;
+    final String value;
+
+    Fingerprint(long dumbModeStamp, String value) {
+      this.dumbModeStamp = dumbModeStamp;
+      this.value = value;
+    }
+  }
+
+  private final Map<VirtualFile, LibraryRoot> myLibraryRoots = createLruMap(MAX_LIBRARY_DIRECTORIES);
+  private final Map<String, HaxeLibraryIndexChunk> myChunks = createLruMap(MAX_LOADED_CHUNKS);
+
+  private static <K, V> Map<K, V> createLruMap(int maxEntries) {
+    return Collections.synchronizedMap(new LinkedHashMap<K, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > maxEntries;
+      }
+    });
+  }
+
+  public static HaxeLibraryIndexChunks getInstance() {
+    return ApplicationManager.getApplication().getService(HaxeLibraryIndexChunks.class);
+  }
+
+  /**
+   * Wraps an indexer so that it uses prebuilt library data when it is available.  Only use this
+   * for indexes whose data is a function of the file's content (and the defines); indexes that
+   * resolve references into other files must keep indexing every file.
+   */
+  public static <K, V> DataIndexer<K, V, FileContent> reusable(@NotNull FileBasedIndexExtension<K, V> extension,
+                                                               @NotNull DataIndexer<K, V, FileContent> indexer) {
+    return new ReusableIndexer<>(extension, indexer);
+  }
+
+  private static class ReusableIndexer<K, V> implements DataIndexer<K, V, FileContent> {
+    private final FileBasedIndexExtension<K, V> myExtension;
+    private final DataIndexer<K, V, FileContent> myDelegate;
+
+    ReusableIndexer(FileBasedIndexExtension<K, V> extension, DataIndexer<K, V, FileContent> delegate) {
+      myExtension = extension;
+      myDelegate = delegate;
+    }
+
+    @NotNull
+    @Override
+    public Map<K, V> map(@NotNull FileContent inputData) {
+      Map<K, V> prebuilt = getInstance().lookup(myExtension.getName().getName(), inputData);
+      return prebuilt != null ? prebuilt : myDelegate.map(inputData);
+    }
+  }
+
+  @Nullable
+  private <K, V> Map<K, V> lookup(@NotNull String indexName, @NotNull FileContent inputData) {
+    Project project = inputData.getProject();
+    VirtualFile file = inputData.getFile();
+    LibraryRoot root = findLibraryRoot(file.getParent());
+    if (project == null || root == null) {
+      return null;
+    }
+    HaxeLibraryIndexChunk chunk = getChunk(root, getFingerprint(project));
+    if (chunk == null) {
+      return null;
+    }
+    String relativePath = VfsUtilCore.getRelativePath(file, root.directory);
+    return relativePath == null ? null : chunk.getIndexData(relativePath, getContentHash(inputData), indexName);
+  }
+
+  private static byte[] getContentHash(@NotNull FileContent inputData) {
+    byte[] hash = inputData.getUserData(CONTENT_HASH);
+    if (hash == null) {
+      hash = DigestUtil.sha256().digest(inputData.getContent());
+      inputData.putUserData(CONTENT_HASH, hash);
+    }
+    return hash;
+  }
+
+  @Nullable
+  private LibraryRoot findLibraryRoot(@Nullable VirtualFile directory) {
+    List<VirtualFile> visited = new ArrayList<>();
+    LibraryRoot root = null;
+    for (VirtualFile dir = directory; dir != null; dir = dir.getParent()) {
+      root = myLibraryRoots.get(dir);
+      if (root != null) {
+        break;
+      }
+      visited.add(dir);
+      if (dir.findChild("haxelib.json") != null) {
+        HaxelibMetadata metadata = HaxelibMetadata.load(dir);
+        if (metadata.getName() != null && metadata.getVersion() != null) {
+          root = new LibraryRoot(dir, metadata.getName(), metadata.getVersion());
+          break;
+        }
+      }
+    }
+    if (root == null) {
+      root = NOT_A_LIBRARY;
+    }
+    for (VirtualFile dir : visited) {
+      myLibraryRoots.put(dir, root);
+    }
+    return root == NOT_A_LIBRARY ? null : root;
+  }
+
+  @Nullable
+  private HaxeLibraryIndexChunk getChunk(@NotNull LibraryRoot root, @NotNull String fingerprint) {
+    return findChunk(root.name, root.version, fingerprint);
+  }
+
+  @Nullable
+  HaxeLibraryIndexChunk findChunk(@NotNull String libraryName, @NotNull String libraryVersion, @NotNull String fingerprint) {
+    String fileName = getChunkFileName(libraryName, libraryVersion, fingerprint);
+    HaxeLibraryIndexChunk chunk = myChunks.get(fileName);
+    if (chunk == null) {
+      // Loaded outside of the lock; two indexing threads may both read a chunk, which is harmless.
+      chunk = loadChunk(fileName);
+      HaxeLibraryIndexChunk previous = myChunks.putIfAbsent(fileName, chunk);
+      if (previous != null) {
+        chunk = previous;
+      }
+    }
+    return chunk == NO_CHUNK ? null : chunk;
+  }
+
+  @NotNull
+  private HaxeLibraryIndexChunk loadChunk(@NotNull String fileName) {
+    File file = new File(getChunkDirectory(), fileName);
+    if (!file.isFile()) {
+      return NO_CHUNK;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      return HaxeLibraryIndexChunk.read(in, HaxeLibraryIndexChunks::findReusableExtension);
+    }
+    catch (IOException e) {
+      log.warn("Ignoring unreadable library index chunk " + file + ": " + e.getMessage());
+      FileUtil.delete(file);
+      return NO_CHUNK;
+    }
+  }
+
+  @NotNull
+  private static File getChunkDirectory() {
+    String configured = System.getProperty(CHUNK_DIR_PROPERTY);
+    if (configured != null && !configured.isEmpty()) {
+      return new File(configured);
+    }
+    return new File(PathManager.getSystemPath(), "haxe/library-index");
+  }
+
+  @NotNull
+  private static String getChunkFileName(@NotNull LibraryRoot root, @NotNull String fingerprint) {
+    return getChunkFileName(root.name, root.version, fingerprint);
+  }
+
+  @NotNull
+  static String getChunkFileName(@NotNull String libraryName, @NotNull String libraryVersion, @NotNull String fingerprint) {
+    return FileUtil.sanitizeFileName(libraryName + "-" + libraryVersion, false) + "-" + fingerprint + CHUNK_EXTENSION;
+  }
+
+  private static List<FileBasedIndexExtension<?, ?>> getReusableExtensions() {
+    List<FileBasedIndexExtension<?, ?>> result = new ArrayList<>();
+    for (FileBasedIndexExtension<?, ?> extension : FileBasedIndexExtension.EXTENSION_POINT_NAME.getExtensionList()) {
+      if (extension.getIndexer() instanceof ReusableIndexer) {
+        result.add(extension);
+      }
+    }
+    return result;
+  }
+
+  @Nullable
+  private static FileBasedIndexExtension<?, ?> findReusableExtension(@NotNull String indexName) {
+    for (FileBasedIndexExtension<?, ?> extension : getReusableExtensions()) {
+      if (extension.getName().getName().equals(indexName)) {
+        return extension;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The project's fingerprint, recomputed when the project enters or leaves dumb mode.  Settings
+   * that change the defines or targets trigger reindexing, so one value serves every file of an
+   * indexing session.
+   */
+  @NotNull
+  private static String getFingerprint(@NotNull Project project) {
+    long stamp = DumbService.getInstance(project).getModificationTracker().getModificationCount();
+    Fingerprint fingerprint = project.getUserData(FINGERPRINT);
+    if (fingerprint == null || fingerprint.dumbModeStamp != stamp) {
+      fingerprint = new Fingerprint(stamp, computeFingerprint(project));
+      project.putUserData(FINGERPRINT, fingerprint);
+    }
+    return fingerprint.value;
+  }
+
+  @NotNull
+  private static String computeFingerprint(@NotNull Project project) {
+    List<String> indexVersions = new ArrayList<>();
+    for (FileBasedIndexExtension<?, ?> extension : getReusableExtensions()) {
+      indexVersions.add(extension.getName().getName() + ":" + extension.getVersion());
+    }
+    Set<String> targets = new TreeSet<>();
+    for (Module module : ModuleManager.getInstance(project).getModules()) {
+      if (ModuleType.get(module) instanceof HaxeModuleType) {
+        targets.add(HaxeModuleSettings.getInstance(module).getCompilationTarget().name());
+      }
+    }
+    return computeFingerprint(indexVersions, HaxeDefineDetectionManager.getInstance(project).getAllDefinitions(), targets);
+  }
+
+  /**
+   * Chunks built with different defines, targets or index versions must never be mixed up, so
+   * all of them go into the file name.  The static member index leaves out the std packages of
+   * platforms that aren't targeted, for instance.
+   */
+  @NotNull
+  static String computeFingerprint(@NotNull List<String> indexVersions,
+                                   @NotNull Map<String, String> definitions,
+                                   @NotNull Collection<String> targets) {
+    MessageDigest digest = DigestUtil.sha256();
+    for (String indexVersion : indexVersions) {
+      digest.update((indexVersion + ";").getBytes(StandardCharsets.UTF_8));
+    }
+    for (Map.Entry<String, String> definition : new TreeMap<>(definitions).entrySet()) {
+      digest.update((definition.getKey() + "=" + definition.getValue() + ";").getBytes(StandardCharsets.UTF_8));
+    }
+    for (String target : new TreeSet<>(targets)) {
+      digest.update(("target:" + target + ";").getBytes(StandardCharsets.UTF_8));
+    }
+    return DigestUtil.digestToHash(digest).substring(0, 16);
+  }
+
+  /**
+   * Builds chunks for the project's libraries that don't have one yet.  Runs once the project is
+   * out of dumb mode, so it never competes with the initial indexing; libraries are built in
+   * parallel.
+   */
+  public void scheduleGeneration(@NotNull Project project) {
+    DumbService.getInstance(project).runWhenSmart(() -> {
+      if (project.isDisposed()) {
+        return;
+      }
+      ProgressManager.getInstance().run(new Task.Backgroundable(project, HaxeBundle.message("haxe.library.index.generating"), true) {
+        @Override
+        public void run(@NotNull ProgressIndicator indicator) {
+          generateMissingChunks(project, indicator);
+        }
+      });
+    });
+  }
+
+  private void generateMissingChunks(@NotNull Project project, @NotNull ProgressIndicator indicator) {
+    List<FileBasedIndexExtension<?, ?>> extensions = getReusableExtensions();
+    String fingerprint = ReadAction.compute(() -> getFingerprint(project));
+    Set<LibraryRoot> missing = ReadAction.compute(() -> {
+      Set<LibraryRoot> roots = new LinkedHashSet<>();
+      for (VirtualFile sourceRoot : OrderEnumerator.orderEntries(project).withoutSdk().librariesOnly().getAllSourceRoots()) {
+        LibraryRoot root = findLibraryRoot(sourceRoot);
+        if (root != null && getChunk(root, fingerprint) == null) {
+          roots.add(root);
+        }
+      }
+      return roots;
+    });
+    if (missing.isEmpty()) {
+      return;
+    }
+
+    ExecutorService executor = AppExecutorUtil.createBoundedApplicationPoolExecutor(
+      "Haxe library index chunks", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    try {
+      List<Future<?>> pending = new ArrayList<>();
+      for (LibraryRoot root : missing) {
+        pending.add(executor.submit(() -> generateChunk(project, root, fingerprint, extensions, indicator)));
+      }
+      int done = 0;
+      for (Future<?> future : pending) {
+        waitFor(future, indicator);
+        indicator.setFraction((double)++done / pending.size());
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void waitFor(@NotNull Future<?> future, @NotNull ProgressIndicator indicator) {
+    while (true) {
+      indicator.checkCanceled();
+      try {
+        future.get(100, TimeUnit.MILLISECONDS);
+        return;
+      }
+      catch (TimeoutException ignored) {
+      }
+      catch (InterruptedException e) {
+        throw new ProcessCanceledException(e);
+      }
+      catch (ExecutionException e) {
+        if (e.getCause() instanceof ProcessCanceledException pce) {
+          throw pce;
+        }
+        log.warn("Could not build library index chunk", e.getCause());
+        return;
+      }
+    }
+  }
+
+  private void generateChunk(@NotNull Project project,
+                             @NotNull LibraryRoot root,
+                             @NotNull String fingerprint,
+                             @NotNull List<FileBasedIndexExtension<?, ?>> extensions,
+                             @NotNull ProgressIndicator indicator) {
+    List<VirtualFile> sources = new ArrayList<>();
+    VfsUtilCore.iterateChildrenRecursively(root.directory, null, file -> {
+      if (!file.isDirectory() && HaxeSdkInputFilter.INSTANCE.acceptInput(file)) {
+        sources.add(file);
+      }
+      return true;
+    });
+
+    HaxeLibraryIndexChunk.Builder builder = new HaxeLibraryIndexChunk.Builder(root.name, root.version, fingerprint);
+    for (VirtualFile source : sources) {
+      indicator.checkCanceled();
+      String relativePath = VfsUtilCore.getRelativePath(source, root.directory);
+      if (relativePath == null) {
+        continue;
+      }
+      Map<String, Map<?, ?>> indexData = ReadAction.compute(() -> {
+        if (project.isDisposed() || !source.isValid()) {
+          throw new ProcessCanceledException();
+        }
+        FileContent content;
+        try {
+          content = FileContentImpl.createByFile(source, project);
+        }
+        catch (IOException e) {
+          return null;
+        }
+        Map<String, Map<?, ?>> data = new HashMap<>();
+        for (FileBasedIndexExtension<?, ?> extension : extensions) {
+          ReusableIndexer<?, ?> indexer = (ReusableIndexer<?, ?>)extension.getIndexer();
+          data.put(extension.getName().getName(), indexer.myDelegate.map(content));
+        }
+        builder.addFile(relativePath, getContentHash(content), data);
+        return data;
+      });
+      if (indexData == null) {
+        log.debug("Skipping unreadable library source " + source.getPath());
+      }
+    }
+    writeChunk(builder.build(), getChunkFileName(root, fingerprint));
+  }
+
+  void writeChunk(@NotNull HaxeLibraryIndexChunk chunk, @NotNull String fileName) {
+    File directory = getChunkDirectory();
+    File target = new File(directory, fileName);
+    try {
+      FileUtil.createDirectory(directory);
+      // Write next to the target and move it into place, so that readers never see a partial chunk.
+      File temp = FileUtil.createTempFile(directory, fileName, ".tmp", true, true);
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+        chunk.write(out, HaxeLibraryIndexChunks::findReusableExtension);
+      }
+      Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      myChunks.put(fileName, chunk);
+      log.debug("Wrote library index chunk " + target + " (" + chunk.getFileCount() + " files)");
+    }
+    catch (IOException e) {
+      log.warn("Could not write library index chunk " + target + ": " + e.getMessage());
+    }
+  }
+}
@@ -22,7 +22,7 @@ import java.util.*;
 public class HaxeStaticMemberIndex extends FileBasedIndexExtension<String, HaxeStaticMemberInfo> {
   public static final ID<String, HaxeStaticMemberInfo> HAXE_STATIC_MEMBER_INDEX = ID.create("HaxeStaticMemberIndex");
   private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 12;
-  private DataIndexer<String, HaxeStaticMemberInfo, FileContent> myDataIndexer = new MyDataIndexer();
+  private DataIndexer<String, HaxeStaticMemberInfo, FileContent> myDataIndexer = HaxeLibraryIndexChunks.reusable(this, new MyDataIndexer());
   private final DataExternalizer<HaxeStaticMemberInfo> myExternalizer = new HaxeStaticMemberInfoExternalizer();
 
   @NotNull
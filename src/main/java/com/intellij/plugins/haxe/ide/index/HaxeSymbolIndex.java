@@ -19,7 +19,9 @@
 package com.intellij.plugins.haxe.ide.index;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.plugins.haxe.HaxeFileType;
 import com.intellij.plugins.haxe.lang.psi.*;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
@@ -27,11 +29,13 @@ import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.search.GlobalSearchScope;
-import com.intellij.psi.search.PsiElementProcessor;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
 import com.intellij.util.CommonProcessors;
+import com.intellij.util.PairProcessor;
+import com.intellij.util.Processor;
 import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
 import com.intellij.util.io.EnumeratorStringDescriptor;
 import com.intellij.util.io.KeyDescriptor;
 import org.jetbrains.annotations.NotNull;
@@ -39,14 +43,20 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 
-public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
-  public static final ID<String, Void> HAXE_SYMBOL_INDEX = ID.create("HaxeSymbolIndex");
-  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 8;
-  private DataIndexer<String, Void, FileContent> myDataIndexer = new MyDataIndexer();
+/**
+ * Names of classes and their members, with enough information about each declaration
+ * (see HaxeSymbolInfo) to list it without loading the file.
+ */
+public class HaxeSymbolIndex extends FileBasedIndexExtension<String, List<HaxeSymbolInfo>> {
+  public static final ID<String, List<HaxeSymbolInfo>> HAXE_SYMBOL_INDEX = ID.create("HaxeSymbolIndex");
+  private static final int INDEX_VERSION = HaxeIndexUtil.BASE_INDEX_VERSION + 9;
+  private final DataIndexer<String, List<HaxeSymbolInfo>, FileContent> myDataIndexer =
+    HaxeLibraryIndexChunks.reusable(this, new MyDataIndexer());
+  private final DataExternalizer<List<HaxeSymbolInfo>> myExternalizer = new HaxeSymbolInfoListExternalizer();
 
   @NotNull
   @Override
-  public ID<String, Void> getName() {
+  public ID<String, List<HaxeSymbolInfo>> getName() {
     return HAXE_SYMBOL_INDEX;
   }
 
@@ -57,7 +67,7 @@ public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
 
   @NotNull
   @Override
-  public DataIndexer<String, Void, FileContent> getIndexer() {
+  public DataIndexer<String, List<HaxeSymbolInfo>, FileContent> getIndexer() {
     return myDataIndexer;
   }
 
@@ -67,6 +77,12 @@ public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
     return new EnumeratorStringDescriptor();
   }
 
+  @NotNull
+  @Override
+  public DataExternalizer<List<HaxeSymbolInfo>> getValueExternalizer() {
+    return myExternalizer;
+  }
+
   @NotNull
   @Override
   public FileBasedIndex.InputFilter getInputFilter() {
@@ -85,80 +101,117 @@ public class HaxeSymbolIndex extends ScalarIndexExtension<String> {
     return ArrayUtil.toStringArray(processor.getResults());
   }
 
+  public static boolean processAllSymbols(@NotNull Processor<? super String> processor,
+                                          @NotNull GlobalSearchScope scope,
+                                          @Nullable IdFilter filter) {
+    HaxeIndexUtil.warnIfDumbMode(scope.getProject());
+    return FileBasedIndex.getInstance().processAllKeys(HAXE_SYMBOL_INDEX, processor, scope, filter);
+  }
+
+  /**
+   * Feeds the declarations of the given name to the processor straight from the index; no file is loaded.
+   */
+  public static boolean processSymbols(@NotNull String name,
+                                       @NotNull GlobalSearchScope scope,
+                                       @Nullable IdFilter filter,
+                                       @NotNull PairProcessor<VirtualFile, HaxeSymbolInfo> processor) {
+    HaxeIndexUtil.warnIfDumbMode(scope.getProject());
+    return FileBasedIndex.getInstance().processValues(HAXE_SYMBOL_INDEX, name, null, (file, infos) -> {
+      for (HaxeSymbolInfo info : infos) {
+        if (!processor.process(file, info)) {
+          return false;
+        }
+      }
+      return true;
+    }, scope, filter);
+  }
+
   public static List<HaxeComponentName> getItemsByName(@NotNull final String name,
                                                        @NotNull final Project project,
                                                        @NotNull final GlobalSearchScope searchScope) {
-    HaxeIndexUtil.warnIfDumbMode(project);
-    final Collection<VirtualFile> files =
-      FileBasedIndex.getInstance().getContainingFiles(HAXE_SYMBOL_INDEX, name, searchScope);
     final Set<HaxeComponentName> result = new HashSet<>();
-    for (VirtualFile vFile : files) {
-      final PsiFile psiFile = PsiManager.getInstance(project).findFile(vFile);
-      if (psiFile == null || psiFile.getFileType() != HaxeFileType.INSTANCE) {
-        continue;
+    processSymbols(name, searchScope, null, (vFile, info) -> {
+      final HaxeComponentName componentName = findComponentName(project, vFile, info);
+      if (componentName != null) {
+        result.add(componentName);
       }
-      processComponents(psiFile, subComponent -> {
-        if (name.equals(subComponent.getName())) {
-          result.add(subComponent.getComponentName());
-        }
-        return true;
-      });
-    }
+      return true;
+    });
     return new ArrayList<>(result);
   }
 
-  private static class MyDataIndexer implements DataIndexer<String, Void, FileContent> {
+  /**
+   * Loads the declaration an index entry was made for.
+   */
+  @Nullable
+  public static HaxeComponentName findComponentName(@NotNull Project project,
+                                                    @NotNull VirtualFile vFile,
+                                                    @NotNull HaxeSymbolInfo info) {
+    final PsiFile psiFile = PsiManager.getInstance(project).findFile(vFile);
+    if (psiFile == null || psiFile.getFileType() != HaxeFileType.INSTANCE) {
+      return null;
+    }
+    final PsiElement element = psiFile.findElementAt(info.getOffset());
+    return PsiTreeUtil.getParentOfType(element, HaxeComponentName.class, false);
+  }
+
+  /**
+   * @return the name that the members of the class are recorded under, for matching against
+   *         HaxeSymbolInfo.getOwnerQualifiedName without loading the member's file.
+   */
+  @Nullable
+  public static String getOwnerQualifiedName(@NotNull HaxeClass haxeClass) {
+    final String qualifiedName = haxeClass.getQualifiedName();
+    final String className = haxeClass.getName();
+    if (qualifiedName == null || className == null) {
+      return null;
+    }
+    return HaxeResolveUtil.joinQName(HaxeResolveUtil.splitQName(qualifiedName).getFirst(), className);
+  }
+
+  private static class MyDataIndexer implements DataIndexer<String, List<HaxeSymbolInfo>, FileContent> {
     @Override
     @NotNull
-    public Map<String, Void> map(@NotNull final FileContent inputData) {
+    public Map<String, List<HaxeSymbolInfo>> map(@NotNull final FileContent inputData) {
       final PsiFile psiFile = inputData.getPsiFile();
       final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
       if (classes.isEmpty()) {
         return Collections.emptyMap();
       }
-      final Map<String, Void> result = new HashMap<>();
+      final Map<String, List<HaxeSymbolInfo>> result = new HashMap<>();
       for (HaxeClass haxeClass : classes) {
         final String className = haxeClass.getName();
         if (className == null) {
           continue;
         }
-        result.put(className, null);
+        final Pair<String, String> packageAndName = HaxeResolveUtil.splitQName(haxeClass.getQualifiedName());
+        final String packageName = packageAndName.getFirst();
+        addSymbol(result, haxeClass, packageName, "");
         for (HaxeNamedComponent namedComponent : getNamedComponents(haxeClass)) {
-          result.put(namedComponent.getName(), null);
+          addSymbol(result, namedComponent, packageName, className);
         }
       }
       return result;
     }
-  }
 
-  private static void processComponents(PsiFile psiFile, PsiElementProcessor<HaxeNamedComponent> processor) {
-    // top-level components
-    final List<HaxeClass> classes = HaxeResolveUtil.findComponentDeclarations(psiFile);
-    for (HaxeClass cls : classes) {
-      if (!processSubComponent(processor, cls)) {
+    private static void addSymbol(Map<String, List<HaxeSymbolInfo>> result,
+                                  HaxeNamedComponent component,
+                                  String ownerPackage,
+                                  String ownerName) {
+      final HaxeComponentName componentName = component.getComponentName();
+      final String name = component.getName();
+      if (componentName == null || name == null) {
         return;
       }
+      int flags = 0;
+      if (component.isStatic()) flags |= HaxeSymbolInfo.STATIC;
+      if (component.isPublic()) flags |= HaxeSymbolInfo.PUBLIC;
+      final HaxeSymbolInfo info = new HaxeSymbolInfo(ownerPackage, ownerName, HaxeComponentType.typeOf(component),
+                                                     componentName.getTextOffset(), flags);
+      result.computeIfAbsent(name, k -> new ArrayList<>(1)).add(info);
     }
   }
 
-  private static boolean processSubComponent(PsiElementProcessor<HaxeNamedComponent> processor, HaxeComponent component) {
-    final String componentName = component.getName();
-    if (componentName == null) {
-      return true;
-    }
-    if (!processor.execute(component)) {
-      return false;
-    }
-    if (component instanceof HaxeClass haxeClass) {
-      for (HaxeNamedComponent subComponent : getNamedComponents(haxeClass)) {
-        if (!processor.execute(subComponent)) {
-          return false;
-        }
-      }
-    }
-    return true;
-  }
-
   private static final Class[] BODY_TYPES =
     new Class[]{HaxeClassBody.class, HaxeAbstractBody.class, HaxeEnumBody.class, HaxeExternClassDeclarationBody.class, HaxeAnonymousTypeBody.class};
   private static final Class[] MEMBER_TYPES =
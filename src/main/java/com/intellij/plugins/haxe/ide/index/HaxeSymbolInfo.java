@@ -0,0 +1,65 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+
+/**
+ * What Go to Symbol needs to show and filter a symbol without loading the file that declares it.
+ */
+@Getter
+@EqualsAndHashCode
+public class HaxeSymbolInfo {
+  public static final int STATIC = 1;
+  public static final int PUBLIC = 2;
+
+  @NotNull private final String ownerPackage;
+  /** Name of the declaring class; empty for the classes themselves. */
+  @NotNull private final String ownerName;
+  @Nullable private final HaxeComponentType type;
+  /** Offset of the symbol's name in the file. */
+  private final int offset;
+  private final int flags;
+
+  public HaxeSymbolInfo(@NotNull String ownerPackage,
+                        @NotNull String ownerName,
+                        @Nullable HaxeComponentType type,
+                        int offset,
+                        int flags) {
+    this.ownerPackage = ownerPackage;
+    this.ownerName = ownerName;
+    this.type = type;
+    this.offset = offset;
+    this.flags = flags;
+  }
+
+  public boolean isStatic() {
+    return (flags & STATIC) != 0;
+  }
+
+  public boolean isPublic() {
+    return (flags & PUBLIC) != 0;
+  }
+
+  public boolean isMember() {
+    return !ownerName.isEmpty();
+  }
+
+  /**
+   * @return the qualified name of the declaring class, as given by HaxeSymbolIndex.getOwnerQualifiedName.
+   */
+  @NotNull
+  public String getOwnerQualifiedName() {
+    return HaxeResolveUtil.joinQName(ownerPackage, ownerName);
+  }
+
+  @Nullable
+  public Icon getIcon() {
+    return type == null ? null : type.getIcon();
+  }
+}
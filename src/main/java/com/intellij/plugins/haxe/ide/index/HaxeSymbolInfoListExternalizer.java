@@ -0,0 +1,45 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.IOUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeSymbolInfoListExternalizer implements DataExternalizer<List<HaxeSymbolInfo>> {
+  private final ThreadLocal<byte[]> buffer = ThreadLocal.withInitial(IOUtil::allocReadWriteUTFBuffer);
+
+  @Override
+  public void save(@NotNull DataOutput out, List<HaxeSymbolInfo> value) throws IOException {
+    DataInputOutputUtil.writeINT(out, value.size());
+    for (HaxeSymbolInfo info : value) {
+      final HaxeComponentType haxeComponentType = info.getType();
+      out.writeByte(haxeComponentType == null ? -1 : haxeComponentType.getKey());
+      out.writeByte(info.getFlags());
+      DataInputOutputUtil.writeINT(out, info.getOffset());
+      IOUtil.writeUTFFast(buffer.get(), out, info.getOwnerPackage());
+      IOUtil.writeUTFFast(buffer.get(), out, info.getOwnerName());
+    }
+  }
+
+  @Override
+  public List<HaxeSymbolInfo> read(@NotNull DataInput in) throws IOException {
+    final int size = DataInputOutputUtil.readINT(in);
+    final List<HaxeSymbolInfo> result = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i) {
+      final int key = in.readByte();
+      final int flags = in.readByte();
+      final int offset = DataInputOutputUtil.readINT(in);
+      final String ownerPackage = IOUtil.readUTFFast(buffer.get(), in);
+      final String ownerName = IOUtil.readUTFFast(buffer.get(), in);
+      result.add(new HaxeSymbolInfo(ownerPackage, ownerName, HaxeComponentType.valueOf(key), offset, flags));
+    }
+    return result;
+  }
+}
@@ -5,13 +5,13 @@ import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.HaxeBundle;
 import com.intellij.plugins.haxe.ide.annotator.HaxeAnnotatingVisitor;
 import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.plugins.haxe.model.HaxeClassModel;
+import com.intellij.plugins.haxe.model.HaxeLocalDefUse;
+import com.intellij.plugins.haxe.model.HaxeMethodModel;
 import com.intellij.plugins.haxe.util.HaxeElementGenerator;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiParserFacade;
-import com.intellij.psi.PsiReference;
-import com.intellij.psi.search.LocalSearchScope;
-import com.intellij.psi.search.searches.ReferencesSearch;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
 import org.jetbrains.annotations.Nls;
@@ -50,7 +50,7 @@ public class HaxeUnusedVarInspection extends LocalInspectionTool {
   @Override
   public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
     if (!(file instanceof HaxeFile)) return null;
-    List<HaxeLocalVarDeclaration> unusedVarDeclarations = new ArrayList<>();
+    final List<ProblemDescriptor> result = new ArrayList<>();
     new HaxeAnnotatingVisitor() {
       @Override
       public void visitFieldDeclaration(@NotNull HaxeFieldDeclaration fieldDeclaration) {
@@ -61,34 +61,85 @@ public class HaxeUnusedVarInspection extends LocalInspectionTool {
 
       @Override
       public void visitLocalVarDeclaration(@NotNull HaxeLocalVarDeclaration varDeclaration) {
-        HaxeBlockStatement blockStatement = PsiTreeUtil.getParentOfType(varDeclaration, HaxeBlockStatement.class);
-        if (blockStatement != null) {
-          Collection<PsiReference> references = ReferencesSearch.search(varDeclaration, new LocalSearchScope(blockStatement), false).findAll();
-          if (references.isEmpty()) {
-            unusedVarDeclarations.add(varDeclaration);
-          }
+        HaxeComponentName componentName = varDeclaration.getComponentName();
+        HaxeLocalDefUse defUse = HaxeLocalDefUse.forDeclaration(componentName);
+        if (defUse == null || PsiTreeUtil.getParentOfType(varDeclaration, HaxeBlockStatement.class) == null) {
+          return;
+        }
+        if (defUse.isUnused(componentName)) {
+          result.add(manager.createProblemDescriptor(
+            componentName,
+            getDisplayName(),
+            new LocalQuickFix[]{createVarFix(componentName.getText())},
+            ProblemHighlightType.LIKE_UNUSED_SYMBOL,
+            isOnTheFly,
+            false
+          ));
+        } else if (defUse.isWriteOnly(componentName)) {
+          result.add(manager.createProblemDescriptor(
+            componentName,
+            HaxeBundle.message("haxe.inspections.write.only.var", componentName.getText()),
+            (LocalQuickFix)null,
+            ProblemHighlightType.LIKE_UNUSED_SYMBOL,
+            isOnTheFly
+          ));
+        }
+      }
+
+      @Override
+      public void visitParameter(@NotNull HaxeParameter parameter) {
+        HaxeComponentName componentName = parameter.getComponentName();
+        if (!canReportUnusedParameter(parameter, componentName)) {
+          return;
+        }
+        HaxeLocalDefUse defUse = HaxeLocalDefUse.forDeclaration(componentName);
+        if (defUse != null && defUse.isUnused(componentName)) {
+          result.add(manager.createProblemDescriptor(
+            componentName,
+            HaxeBundle.message("haxe.inspections.unused.parameter", componentName.getText()),
+            (LocalQuickFix)null,
+            ProblemHighlightType.LIKE_UNUSED_SYMBOL,
+            isOnTheFly
+          ));
         }
       }
     }.visitFile(file);
 
-    if (unusedVarDeclarations.isEmpty()) {
-      return ProblemDescriptor.EMPTY_ARRAY;
-    }
+    return result.isEmpty() ? ProblemDescriptor.EMPTY_ARRAY : ArrayUtil.toObjectArray(result, ProblemDescriptor.class);
+  }
 
-    final List<ProblemDescriptor> result = new ArrayList<>();
-    for (HaxeLocalVarDeclaration unusedVar : unusedVarDeclarations) {
-      HaxeComponentName componentName = unusedVar.getComponentName();
-      result.add(manager.createProblemDescriptor(
-        componentName,
-        getDisplayName(),
-        new LocalQuickFix[]{createVarFix(componentName.getText())},
-        ProblemHighlightType.LIKE_UNUSED_SYMBOL,
-        isOnTheFly,
-        false
-      ));
+  /**
+   * Parameters are only reported where the signature is the method's own choice: not for
+   * overrides and public methods (which may implement an interface), not for instance methods
+   * that subclasses can override (private means protected in Haxe, so hooks and template
+   * methods keep parameters they don't use), not for function literals (callbacks must match
+   * the expected function type), and not when the name starts with an underscore, which is the
+   * usual way of saying that a parameter is ignored on purpose.
+   */
+  private static boolean canReportUnusedParameter(@NotNull HaxeParameter parameter, @Nullable HaxeComponentName componentName) {
+    if (componentName == null || componentName.getText().startsWith("_")) {
+      return false;
+    }
+    if (!(parameter.getParent() instanceof HaxeParameterList parameterList)
+        || !(parameterList.getParent() instanceof HaxeMethod method)
+        || method.getBody() == null
+        || method.isOverride()) {
+      return false;
     }
+    if (method instanceof HaxeLocalFunctionDeclaration || method.isConstructor() || method.isStatic()) {
+      return true;
+    }
+    return !method.isPublic() && !canBeOverridden(method);
+  }
 
-    return ArrayUtil.toObjectArray(result, ProblemDescriptor.class);
+  private static boolean canBeOverridden(@NotNull HaxeMethod method) {
+    HaxeMethodModel model = method.getModel();
+    if (model == null || model.isFinal()) {
+      return false;
+    }
+    HaxeClassModel declaringClass = model.getDeclaringClass();
+    // Module level functions have no class; abstracts can't be extended.
+    return declaringClass != null && !declaringClass.isFinal() && !declaringClass.isAbstractType();
   }
 
   private LocalQuickFix createVarFix(String text) {
@@ -20,6 +20,8 @@ import com.intellij.execution.RunManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.configurations.ConfigurationFactory;
 import com.intellij.ide.util.projectWizard.importSources.impl.ProjectFromSourcesBuilderImpl;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.WriteAction;
 import com.intellij.openapi.module.Module;
 import com.intellij.openapi.module.ModuleUtil;
 import com.intellij.openapi.project.Project;
@@ -27,9 +29,11 @@ import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.projectRoots.Sdk;
 import com.intellij.openapi.roots.ModifiableModelsProvider;
 import com.intellij.openapi.roots.ModifiableRootModel;
+import com.intellij.openapi.roots.ModuleRootModificationUtil;
 import com.intellij.openapi.roots.OrderRootType;
 import com.intellij.openapi.roots.libraries.Library;
 import com.intellij.openapi.roots.libraries.LibraryTable;
+import com.intellij.openapi.roots.libraries.LibraryTablesRegistrar;
 import com.intellij.openapi.roots.ui.configuration.ModulesProvider;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -53,6 +57,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class HaxeProjectConfigurationUpdater implements ProjectFromSourcesBuilderImpl.ProjectConfigurationUpdater {
   private Set<String> myLibraries;
@@ -68,9 +73,15 @@ public class HaxeProjectConfigurationUpdater implements ProjectFromSourcesBuilde
 
     if(myLibraries != null && !myLibraries.isEmpty()) {
       Module rootModule = getRootModule(modelsProvider, modulesProvider);
-      List<LibraryData> libraries = collectLibraries(rootModule);
-      if(!libraries.isEmpty()) {
-        setupLibraries(project, modelsProvider, modulesProvider, libraries);
+      if(rootModule != null) {
+        // This runs on the dispatch thread, so haxelib is asked in the background, and the libraries
+        // are added once the new modules are committed and haxelib has answered.
+        Module[] modules = modulesProvider.getModules();
+        collectLibrariesAsync(rootModule).thenAccept(libraries -> {
+          if(!libraries.isEmpty()) {
+            ApplicationManager.getApplication().invokeLater(() -> setupLibraries(project, modules, libraries), project.getDisposed());
+          }
+        });
       }
     }
     if(myHxml != null) {
@@ -145,12 +156,16 @@ public class HaxeProjectConfigurationUpdater implements ProjectFromSourcesBuilde
     }
   }
 
-  private List<LibraryData> collectLibraries(Module module) {
-    List<HaxeProjectConfigurationUpdater.LibraryData> result = new ArrayList<>();
+  private CompletableFuture<List<LibraryData>> collectLibrariesAsync(Module module) {
     Sdk sdk = HaxelibSdkUtils.lookupSdk(module);
     String[] libNames = myLibraries.toArray(new String[0]);
     VirtualFile workDir = ProjectUtil.guessModuleDir(module);
-    Set<String> cpList = HaxelibClasspathUtils.getHaxelibLibrariesClasspaths(sdk, workDir, libNames);
+    return HaxelibClasspathUtils.getHaxelibLibrariesClasspathsAsync(sdk, workDir, libNames)
+      .thenApply(HaxeProjectConfigurationUpdater::collectLibraries);
+  }
+
+  private static List<LibraryData> collectLibraries(Set<String> cpList) {
+    List<HaxeProjectConfigurationUpdater.LibraryData> result = new ArrayList<>();
     for(String cp:cpList) {
       VirtualFile current = LocalFileSystem.getInstance().findFileByPath(cp);
       //"haxelib path" returns something like "/path/to/repo/libname/1,0,0/src"
@@ -172,27 +187,31 @@ public class HaxeProjectConfigurationUpdater implements ProjectFromSourcesBuilde
     return result;
   }
 
-  private void setupLibraries(Project project, ModifiableModelsProvider modelsProvider, ModulesProvider modulesProvider, List<LibraryData> libraries) {
-    LibraryTable.ModifiableModel librariesModel = modelsProvider.getLibraryTableModifiableModel(project);
-
-    for(LibraryData lib:libraries) {
-      VirtualFile root = LocalFileSystem.getInstance().findFileByPath(lib.getClasspath());
-      if(root != null) {
-        Library library = librariesModel.createLibrary(lib.getName(), HaxeLibraryType.HAXE_LIBRARY);
-        Library.ModifiableModel model = library.getModifiableModel();
-        model.addRoot(root, OrderRootType.CLASSES);
-        model.addRoot(root, OrderRootType.SOURCES);
-        model.commit();
-
-        for(Module module:modulesProvider.getModules()) {
-          ModifiableRootModel moduleModel = modelsProvider.getModuleModifiableModel(module);
-          moduleModel.addLibraryEntry(library);
-          moduleModel.commit();
+  private static void setupLibraries(Project project, Module[] modules, List<LibraryData> libraries) {
+    List<Library> created = new ArrayList<>();
+    WriteAction.run(() -> {
+      LibraryTable.ModifiableModel librariesModel = LibraryTablesRegistrar.getInstance().getLibraryTable(project).getModifiableModel();
+
+      for(LibraryData lib:libraries) {
+        VirtualFile root = LocalFileSystem.getInstance().findFileByPath(lib.getClasspath());
+        if(root != null) {
+          Library library = librariesModel.createLibrary(lib.getName(), HaxeLibraryType.HAXE_LIBRARY);
+          Library.ModifiableModel model = library.getModifiableModel();
+          model.addRoot(root, OrderRootType.CLASSES);
+          model.addRoot(root, OrderRootType.SOURCES);
+          model.commit();
+          created.add(library);
         }
       }
-    }
 
-    librariesModel.commit();
+      librariesModel.commit();
+    });
+
+    for(Module module:modules) {
+      if(!module.isDisposed()) {
+        ModuleRootModificationUtil.updateModel(module, model -> created.forEach(model::addLibraryEntry));
+      }
+    }
   }
 
   public void setHxml(@Nullable String hxml) {
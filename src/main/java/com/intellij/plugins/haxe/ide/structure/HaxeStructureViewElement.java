@@ -21,12 +21,14 @@ import com.intellij.ide.structureView.StructureViewTreeElement;
 import com.intellij.ide.structureView.impl.java.AccessLevelProvider;
 import com.intellij.ide.util.treeView.smartTree.SortableTreeElement;
 import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.lang.ASTNode;
 import com.intellij.navigation.ItemPresentation;
 import com.intellij.navigation.NavigationItem;
 import com.intellij.plugins.haxe.lang.psi.HaxeClass;
 import com.intellij.plugins.haxe.lang.psi.HaxeFile;
 import com.intellij.plugins.haxe.lang.psi.HaxeNamedComponent;
 import com.intellij.plugins.haxe.util.HaxeResolveUtil;
+import com.intellij.plugins.haxe.util.UsefulPsiTreeUtil;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.util.PsiUtil;
@@ -34,13 +36,21 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author: Fedor.Korotkov
  */
 public class HaxeStructureViewElement implements StructureViewTreeElement, AccessLevelProvider, SortableTreeElement {
   private final PsiElement myElement;
+  private volatile CachedChildren myChildren;
+
+  // The members are keyed by this element's subtree; the supertypes come from other files.
+  private record CachedChildren(int stamp, List<PsiElement> members, TreeElement[] elements) {
+  }
 
   public HaxeStructureViewElement(final PsiElement element) {
     myElement = element;
@@ -75,31 +85,94 @@ public class HaxeStructureViewElement implements StructureViewTreeElement, Acces
     return myElement instanceof NavigationItem ? ((NavigationItem)myElement).getPresentation() : null;
   }
 
+  /**
+   * Members are kept until something in this element's subtree changes; the elements of unchanged
+   * children are reused, with their own children, so an edit only rebuilds the part of the tree that
+   * contains it.  Supertypes are resolved every time, since they can change in other files.
+   */
   @NotNull
   @Override
   public TreeElement[] getChildren() {
     if (!myElement.isValid()) {
       return new TreeElement[0];
     }
-    final List<TreeElement> result = new ArrayList<TreeElement>();
-    if (myElement instanceof HaxeFile) {
-      for (HaxeNamedComponent subNamedComponent : HaxeResolveUtil.findComponentDeclarations((PsiFile)myElement)) {
-        result.add(new HaxeStructureViewElement(subNamedComponent));
-      }
+    final ASTNode node = myElement.getNode();
+    final int stamp = node == null ? -1 : UsefulPsiTreeUtil.getSubtreeModificationCount(node);
+    final CachedChildren cached = myChildren;
+
+    final List<PsiElement> members;
+    if (cached != null && stamp >= 0 && stamp == cached.stamp() && areValid(cached.members())) {
+      members = cached.members();
+    }
+    else if (myElement instanceof HaxeFile) {
+      members = new ArrayList<>(HaxeResolveUtil.findComponentDeclarations((PsiFile)myElement));
     }
     else if (myElement instanceof HaxeClass) {
+      members = new ArrayList<>(HaxeResolveUtil.getNamedSubComponentsInOrder((HaxeClass)myElement));
+    }
+    else {
+      members = Collections.emptyList();
+    }
+
+    final List<PsiElement> childElements = new ArrayList<>();
+    if (myElement instanceof HaxeClass) {
       final HaxeClass haxeClass = (HaxeClass)myElement;
-      for (HaxeClass superClass : HaxeResolveUtil.tryResolveClassesByQName(haxeClass.getHaxeExtendsList())) {
-        result.add(new HaxeStructureViewElement(superClass));
+      childElements.addAll(HaxeResolveUtil.tryResolveClassesByQName(haxeClass.getHaxeExtendsList()));
+      childElements.addAll(HaxeResolveUtil.tryResolveClassesByQName(haxeClass.getHaxeImplementsList()));
+    }
+    childElements.addAll(members);
+
+    final Map<PsiElement, HaxeStructureViewElement> previous = new HashMap<>();
+    if (cached != null) {
+      for (TreeElement child : cached.elements()) {
+        HaxeStructureViewElement element = (HaxeStructureViewElement)child;
+        previous.put(element.myElement, element);
       }
-      for (HaxeClass superInterface : HaxeResolveUtil.tryResolveClassesByQName(haxeClass.getHaxeImplementsList())) {
-        result.add(new HaxeStructureViewElement(superInterface));
+      if (members == cached.members() && sameElements(cached.elements(), childElements)) {
+        return cached.elements();
       }
-      for (HaxeNamedComponent subNamedComponent : HaxeResolveUtil.getNamedSubComponentsInOrder(haxeClass)) {
-        result.add(new HaxeStructureViewElement(subNamedComponent));
+    }
+    final TreeElement[] result = new TreeElement[childElements.size()];
+    for (int i = 0; i < result.length; i++) {
+      final PsiElement childElement = childElements.get(i);
+      final HaxeStructureViewElement reused = previous.get(childElement);
+      result[i] = reused != null ? reused : new HaxeStructureViewElement(childElement);
+    }
+    myChildren = new CachedChildren(stamp, members, result);
+    return result;
+  }
+
+  private static boolean areValid(@NotNull List<PsiElement> elements) {
+    for (PsiElement element : elements) {
+      if (!element.isValid()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean sameElements(@NotNull TreeElement[] children, @NotNull List<PsiElement> elements) {
+    if (children.length != elements.size()) {
+      return false;
+    }
+    for (int i = 0; i < children.length; i++) {
+      if (!((HaxeStructureViewElement)children[i]).myElement.equals(elements.get(i))) {
+        return false;
       }
     }
-    return result.toArray(new TreeElement[0]);
+    return true;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    return myElement.equals(((HaxeStructureViewElement)o).myElement);
+  }
+
+  @Override
+  public int hashCode() {
+    return myElement.hashCode();
   }
 
   @Override
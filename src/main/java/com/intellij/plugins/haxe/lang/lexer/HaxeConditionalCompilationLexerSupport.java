@@ -132,6 +132,19 @@ public class HaxeConditionalCompilationLexerSupport {
       startBlock(el);
     }
 
+    /**
+     * Re-create a section from its packed state.  The conditions themselves are not needed any
+     * longer; only which of the blocks won (if any) matters for the remainder of the section.
+     */
+    public Section(Section parent, boolean priorBlockActive, boolean currentBlockActive) {
+      myBlocks = new ArrayList<Block>();
+      myParent = parent;
+      if (priorBlockActive) {
+        startBlock(PPELSE).setActive(Block.ActiveState.ACTIVE);
+      }
+      startBlock(PPELSE).setActive(currentBlockActive ? Block.ActiveState.ACTIVE : Block.ActiveState.INACTIVE);
+    }
+
     public Block startBlock(IElementType el) {
       endBlock(currentBlock());
 
@@ -154,7 +167,9 @@ public class HaxeConditionalCompilationLexerSupport {
      */
     @Nullable
     private Block previousActiveBlock(Block stopBlock) {
-      for (Block b : myBlocks) {
+      // Indexed loop: this runs for every token the lexer emits, so avoid the iterator allocation.
+      for (int i = 0, size = myBlocks.size(); i < size; ++i) {
+        Block b = myBlocks.get(i);
         if (b.equals(stopBlock)) {
           break;
         }
@@ -208,6 +223,25 @@ public class HaxeConditionalCompilationLexerSupport {
     public Section getParent() {
       return myParent;
     }
+
+    public int blockCount() {
+      return myBlocks.size();
+    }
+
+    /**
+     * @return the two state bits for this section, or -1 if it can't be represented.
+     */
+    public int pack() {
+      Block current = currentBlock();
+      if (null == current) {
+        return -1;
+      }
+      Block active = activeBlock();
+      if (null == active) {
+        return 0;
+      }
+      return active == current ? PACKED_CURRENT_ACTIVE : PACKED_PRIOR_ACTIVE;
+    }
   }  // End Section  //////////////////////////////////////////////////////////////////////////////////////////
 
   /**
@@ -233,6 +267,12 @@ public class HaxeConditionalCompilationLexerSupport {
   }  // End RootSection ////////////////////////////////////////////////////////////////////////////////////////
 
 
+  /** Number of bits that {@link #packState} uses for each nested section. */
+  public static final int PACKED_BITS_PER_SECTION = 2;
+  private static final int PACKED_CURRENT_ACTIVE = 0x1;
+  private static final int PACKED_PRIOR_ACTIVE = 0x2;
+  private static final int PACKED_SECTION_MASK = (1 << PACKED_BITS_PER_SECTION) - 1;
+
   private RootSection rootSection;
   private Section currentContext;
   private Project projectContext;
@@ -250,11 +290,59 @@ public class HaxeConditionalCompilationLexerSupport {
    * @param context  Project to use for looking up Conditional Compilation variables.
    */
   public void reset(Project context) {
-    rootSection = new RootSection();
+    // Layered (highlighting) lexers reset for every metadata token; don't reallocate when nothing changed.
+    if (null == rootSection || currentContext != rootSection || rootSection.blockCount() != 1) {
+      rootSection = new RootSection();
+    }
     currentContext =  rootSection;
     projectContext = context;
   }
 
+  /**
+   * Packs the section stack into an int, so that the lexer can be restarted in the middle of
+   * a conditional block.  The outermost section occupies the lowest bits.
+   *
+   * @param expectedDepth number of sections that the lexer state stack claims are open.
+   * @return the packed sections; -1 if the sections don't match the expected depth or can't
+   *         be represented (e.g. a condition is still being lexed, or an #else without an #if
+   *         left extra blocks in the root section).
+   */
+  public int packState(int expectedDepth) {
+    if (rootSection.blockCount() != 1) {
+      return -1;
+    }
+    int depth = 0;
+    int packed = 0;
+    for (Section section = currentContext; section != rootSection; section = section.getParent()) {
+      if (null == section || ++depth > expectedDepth) {
+        return -1;
+      }
+      int bits = section.pack();
+      if (bits < 0) {
+        return -1;
+      }
+      // Inner sections are visited first; shift them up as the outer ones arrive.
+      packed = (packed << PACKED_BITS_PER_SECTION) | bits;
+    }
+    return depth == expectedDepth ? packed : -1;
+  }
+
+  /**
+   * Re-create the section stack from a value produced by {@link #packState}.
+   *
+   * @param packed  Packed sections.
+   * @param depth   Number of sections encoded in packed.
+   */
+  public void restoreState(int packed, int depth) {
+    reset(projectContext);
+    for (int level = 0; level < depth; ++level) {
+      int bits = (packed >>> (level * PACKED_BITS_PER_SECTION)) & PACKED_SECTION_MASK;
+      currentContext = new Section(currentContext,
+                                   (bits & PACKED_PRIOR_ACTIVE) != 0,
+                                   (bits & PACKED_CURRENT_ACTIVE) != 0);
+    }
+  }
+
   /**
    * Determines the current conditional compilation context.
    *
@@ -269,6 +357,10 @@ public class HaxeConditionalCompilationLexerSupport {
 
   public boolean currentContextIsActive() {
     Section context = getCurrentContext();
+    if (context == rootSection && rootSection.blockCount() == 1) {
+      // Not inside any conditional: the common case.
+      return true;
+    }
     boolean active;
     do {
       active = context.currentBlock() == context.activeBlock();
@@ -38,6 +38,13 @@ public class HaxeElementType extends IElementType {
     return new HaxeElementType(name);
   }
 
+  /**
+   * Element type factory for rules that are given an elementTypeFactory in haxe.bnf.
+   */
+  public static IElementType createElement(String name) {
+    return new HaxeReparseableBlockElementType(name);
+  }
+
   public String asCode() {
     // Because the debug string is pretty much what we want anyway,
     // we'll just use that for now.
@@ -17,22 +17,57 @@
  */
 package com.intellij.plugins.haxe.lang.lexer;
 
+import com.intellij.lexer.FlexLexer;
 import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.IElementType;
+
+import java.io.IOException;
 
 /**
  * This class exists solely to add hooks to the generated _HaxeLexer.  A better
  * solution could be to use a JFlex skeleton that allows for hooks.  Since we
  * use the skeleton provided with grammar-kit, this is easier to maintain.
  *
+ * The generated yystate() is final, so the lexer is wrapped rather than extended in order
+ * to report (and accept) the encoded states described in {@link HaxeLexerState}.
+ *
  * Created by ebishton on 4/14/17.
  */
-public class HaxeGeneratedLexerWrapper extends _HaxeLexer {
+public class HaxeGeneratedLexerWrapper implements FlexLexer {
+  private final _HaxeLexer myLexer;
+
   public HaxeGeneratedLexerWrapper(Project project) {
-    super(project);
+    myLexer = new _HaxeLexer(project);
+  }
+
+  @Override
+  public void yybegin(int state) {
+    myLexer.restoreState(state);
+  }
+
+  @Override
+  public int yystate() {
+    return myLexer.getRestartableState();
+  }
+
+  @Override
+  public int getTokenStart() {
+    return myLexer.getTokenStart();
+  }
+
+  @Override
+  public int getTokenEnd() {
+    return myLexer.getTokenEnd();
+  }
+
+  @Override
+  public IElementType advance() throws IOException {
+    return myLexer.advance();
   }
 
+  @Override
   public void reset(CharSequence buffer, int start, int end, int initialState) {
-    super.reset(buffer, start, end, initialState);
-    super.ccsupport.reset(super.context);
+    myLexer.reset(buffer, start, end, _HaxeLexer.YYINITIAL);
+    myLexer.restoreState(initialState);
   }
 }
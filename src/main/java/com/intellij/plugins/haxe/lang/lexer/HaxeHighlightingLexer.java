@@ -16,17 +16,42 @@
 package com.intellij.plugins.haxe.lang.lexer;
 
 import com.intellij.lexer.LayeredLexer;
+import com.intellij.lexer.RestartableLexer;
+import com.intellij.lexer.TokenIterator;
 import com.intellij.openapi.project.Project;
 import com.intellij.plugins.haxe.metadata.lexer.HaxeMetadataLexer;
 import com.intellij.plugins.haxe.metadata.lexer.HaxeMetadataTokenTypes;
+import org.jetbrains.annotations.NotNull;
 
-public class HaxeHighlightingLexer extends LayeredLexer {
+/**
+ * Lexer used by the editor highlighter.  It is restartable at the top level and inside conditional
+ * compilation blocks (see {@link HaxeLexerState}), so that a change only relexes from the closest such
+ * token instead of from the start of the enclosing #if.
+ */
+public class HaxeHighlightingLexer extends LayeredLexer implements RestartableLexer {
 
   public HaxeHighlightingLexer(Project project) {
     super(new HaxeLexer(project));
     registerLayer(new HaxeMetaHighlighterLexer(project), HaxeTokenTypes.EMBEDDED_META);
   }
 
+  @Override
+  public int getStartState() {
+    return HaxeLexerState.INITIAL;
+  }
+
+  @Override
+  public boolean isRestartableState(int state) {
+    // Also rejects the layer's own in-layer states, which are never valid encodings.
+    return HaxeLexerState.isRestartable(state);
+  }
+
+  @Override
+  public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState, TokenIterator tokenIterator) {
+    // Everything needed to continue is encoded in the state; previous tokens aren't required.
+    start(buffer, startOffset, endOffset, initialState);
+  }
+
   // it looks like its not allowed to stop parsing in the middle of a token (EMBEDDED_META) and switch to another parser
   // so we need to make a second LayeredLexer that can handle Haxe code in EMBEDDED_META tokens.
   static class HaxeMetaHighlighterLexer extends LayeredLexer {
@@ -18,7 +18,7 @@
  */
 package com.intellij.plugins.haxe.lang.lexer;
 
-import com.intellij.lexer.LookAheadLexer;
+import com.intellij.lexer.DelegateLexer;
 import com.intellij.lexer.MergingLexerAdapter;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.tree.TokenSet;
@@ -26,7 +26,12 @@ import org.jetbrains.annotations.Nullable;
 
 import static com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypeSets.*;
 
-public class HaxeLexer extends LookAheadLexer {
+/**
+ * The Haxe lexing pipeline: the generated lexer, merging of whitespace and comments, and coalescing of
+ * metadata.  This used to be a LookAheadLexer, but it never looked ahead; as a plain delegate it no
+ * longer queues every token through a look-ahead cache.
+ */
+public class HaxeLexer extends DelegateLexer {
   private static final TokenSet tokensToMerge = TokenSet.create(
     MSL_COMMENT,
     MML_COMMENT,
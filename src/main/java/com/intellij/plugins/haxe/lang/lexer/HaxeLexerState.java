@@ -0,0 +1,75 @@
+package com.intellij.plugins.haxe.lang.lexer;
+
+/**
+ * Encoding of the Haxe lexer state into the single int that the lexer API passes around.
+ *
+ * The generated lexer keeps a stack of lexical states (strings, templates, metadata and
+ * conditional compilation blocks) plus conditional compilation sections.  Editor highlighters
+ * only hand the state value back when they restart, so a position is only safe to restart from
+ * if everything needed to continue can be rebuilt from that value.  That is the case at the top
+ * level and inside (nested) conditional compilation blocks, which are the states that routinely
+ * span large parts of a file.  Strings, templates and metadata are short and are relexed from
+ * their start instead.
+ *
+ * Layout of a restartable state (always fits in 15 bits so that highlighters can store it):
+ * <pre>
+ *   bits 0-2   number of enclosing conditional compilation sections (0..MAX_CONDITIONAL_DEPTH)
+ *   bits 3-12  two bits per section, outermost first (see HaxeConditionalCompilationLexerSupport)
+ * </pre>
+ * A non-restartable state carries the NON_RESTARTABLE flag and the raw lexical state, which
+ * is what the lexer reported before this encoding existed.
+ */
+public final class HaxeLexerState {
+
+  /** State of the lexer at the start of a file. */
+  public static final int INITIAL = 0;
+
+  public static final int MAX_CONDITIONAL_DEPTH = 5;
+
+  private static final int DEPTH_BITS = 3;
+  private static final int DEPTH_MASK = (1 << DEPTH_BITS) - 1;
+  private static final int SECTION_BITS = HaxeConditionalCompilationLexerSupport.PACKED_BITS_PER_SECTION;
+
+  private static final int NON_RESTARTABLE = 0x4000;
+  private static final int LEXICAL_STATE_MASK = 0xFF;
+
+  private HaxeLexerState() {
+  }
+
+  public static int restartable(int conditionalDepth, int packedSections) {
+    assert conditionalDepth >= 0 && conditionalDepth <= MAX_CONDITIONAL_DEPTH;
+    return conditionalDepth | (packedSections << DEPTH_BITS);
+  }
+
+  public static int nonRestartable(int lexicalState) {
+    return NON_RESTARTABLE | (lexicalState & LEXICAL_STATE_MASK);
+  }
+
+  /**
+   * @return true if the lexer can be started at a token having this state and produce the
+   *         same tokens as when lexing from the start of the file.
+   */
+  public static boolean isRestartable(int state) {
+    if (state < 0 || (state & NON_RESTARTABLE) != 0) {
+      return false;
+    }
+    int depth = getConditionalDepth(state);
+    // Anything other than our own encoding (e.g. a LayeredLexer's in-layer marker) is rejected.
+    return depth <= MAX_CONDITIONAL_DEPTH && (state >>> (DEPTH_BITS + depth * SECTION_BITS)) == 0;
+  }
+
+  public static int getConditionalDepth(int state) {
+    return state & DEPTH_MASK;
+  }
+
+  public static int getConditionalSections(int state) {
+    return state >>> DEPTH_BITS;
+  }
+
+  /**
+   * @return the raw lexical state of a non-restartable state.
+   */
+  public static int getLexicalState(int state) {
+    return state & LEXICAL_STATE_MASK;
+  }
+}
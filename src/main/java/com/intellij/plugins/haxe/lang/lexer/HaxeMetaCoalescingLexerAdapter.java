@@ -23,7 +23,8 @@ import com.intellij.psi.tree.IElementType;
 import static com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes.*;
 
 public class HaxeMetaCoalescingLexerAdapter extends MergingLexerAdapterBase {
-  private MergeFunction myMergeFunction = new HaxeMetaMergeFunction();
+  /** Stateless, so one instance serves every adapter. */
+  private static final MergeFunction MERGE_FUNCTION = new HaxeMetaMergeFunction();
 
   public HaxeMetaCoalescingLexerAdapter(Lexer original) {
     super(original);
@@ -31,7 +32,7 @@ public class HaxeMetaCoalescingLexerAdapter extends MergingLexerAdapterBase {
 
   @Override
   public MergeFunction getMergeFunction() {
-    return myMergeFunction;
+    return MERGE_FUNCTION;
   }
 
   public static class HaxeMetaMergeFunction implements MergeFunction {
@@ -0,0 +1,131 @@
+package com.intellij.plugins.haxe.lang.lexer;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.Language;
+import com.intellij.lexer.Lexer;
+import com.intellij.lexer.LexerPosition;
+import com.intellij.openapi.project.Project;
+import com.intellij.plugins.haxe.HaxeLanguage;
+import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.tree.TokenSet;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes.*;
+
+/**
+ * Element type for braced bodies (block statements, and so method bodies, and class bodies)
+ * that can be reparsed on their own when the edit stays inside of them.  Typing inside one
+ * method then only rebuilds that method's body instead of the whole class, and the PSI (and
+ * anything cached on it) outside of the body survives.
+ *
+ * Reparsing is refused, falling back to the enclosing node, whenever the result could differ
+ * from a full reparse: unbalanced braces or conditional compilation directives, a block that
+ * would now parse as an object literal, or a body nested in a construct that changes parser
+ * state (macros, map literals, switch case expressions).
+ */
+public class HaxeReparseableBlockElementType extends HaxeLazyParseableElementType {
+
+  /**
+   * Ancestors that push parser state (see HaxeGeneratedParserUtilBase), which a standalone reparse wouldn't see.
+   * Held separately because instances of this class are created while HaxeTokenTypes is still initializing.
+   */
+  private static class StatefulParseContexts {
+    static final TokenSet TYPES = TokenSet.create(
+      MACRO_STATEMENT,
+      MACRO_VALUE_EXPRESSION,
+      MACRO_CLASS_REIFICATION,
+      MAP_LITERAL,
+      SWITCH_CASE_EXPR
+    );
+  }
+
+  public HaxeReparseableBlockElementType(@NotNull String debugName) {
+    super(debugName, HaxeLanguage.INSTANCE);
+  }
+
+  @Override
+  public boolean isParsable(@Nullable ASTNode parent,
+                            @NotNull CharSequence buffer,
+                            @NotNull Language fileLanguage,
+                            @NotNull Project project) {
+    if (null == parent || !fileLanguage.isKindOf(HaxeLanguage.INSTANCE)) {
+      return false;
+    }
+    for (ASTNode node = parent; node != null; node = node.getTreeParent()) {
+      if (StatefulParseContexts.TYPES.contains(node.getElementType())) {
+        return false;
+      }
+    }
+    return isBalanced(buffer, project);
+  }
+
+  private boolean isBalanced(@NotNull CharSequence buffer, @NotNull Project project) {
+    Lexer lexer = new HaxeLexer(project);
+    lexer.start(buffer);
+
+    if (lexer.getTokenType() != PLCURLY) {
+      return false;
+    }
+    lexer.advance();
+
+    if (this == BLOCK_STATEMENT && startsLikeObjectLiteral(lexer)) {
+      return false;
+    }
+
+    int braces = 1;
+    int conditionals = 0;
+    for (IElementType type = lexer.getTokenType(); type != null; lexer.advance(), type = lexer.getTokenType()) {
+      if (braces == 0) {
+        // Something follows the closing brace.
+        return false;
+      }
+      if (type == PLCURLY) {
+        ++braces;
+      } else if (type == PRCURLY) {
+        --braces;
+      } else if (type == PPIF) {
+        ++conditionals;
+      } else if (type == PPEND) {
+        if (--conditionals < 0) return false;
+      } else if ((type == PPELSE || type == PPELSEIF) && conditionals == 0) {
+        return false;
+      }
+    }
+    return braces == 0 && conditionals == 0;
+  }
+
+  /**
+   * Mirrors the !objectLiteralElementList predicate of the blockStatement rule closely enough to
+   * refuse text whose first element is a field ("name:" or "'name':").  Leaves the lexer on the
+   * first token after the opening brace.
+   */
+  private static boolean startsLikeObjectLiteral(@NotNull Lexer lexer) {
+    LexerPosition start = lexer.getCurrentPosition();
+    try {
+      skipWhitespaceAndComments(lexer);
+      IElementType type = lexer.getTokenType();
+      if (type == ID) {
+        lexer.advance();
+      } else if (type == OPEN_QUOTE) {
+        while (lexer.getTokenType() != null && lexer.getTokenType() != CLOSING_QUOTE) {
+          lexer.advance();
+        }
+        lexer.advance();
+      } else {
+        return false;
+      }
+      skipWhitespaceAndComments(lexer);
+      return lexer.getTokenType() == OCOLON;
+    } finally {
+      lexer.restore(start);
+    }
+  }
+
+  private static void skipWhitespaceAndComments(@NotNull Lexer lexer) {
+    while (HaxeTokenTypeSets.WHITESPACES.contains(lexer.getTokenType())
+           || HaxeTokenTypeSets.ONLY_COMMENTS.contains(lexer.getTokenType())) {
+      lexer.advance();
+    }
+  }
+}
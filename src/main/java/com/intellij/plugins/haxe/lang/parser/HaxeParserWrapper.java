@@ -17,6 +17,7 @@ package com.intellij.plugins.haxe.lang.parser;
 
 import com.intellij.lang.ASTNode;
 import com.intellij.lang.PsiBuilder;
+import com.intellij.plugins.haxe.lang.lexer.HaxeTokenTypes;
 import com.intellij.plugins.haxe.metadata.lexer.HaxeMetadataTokenTypes;
 import com.intellij.plugins.haxe.util.HaxeDebugTimeLog;
 import com.intellij.psi.PsiFile;
@@ -58,6 +59,15 @@ public class HaxeParserWrapper extends HaxeParser {
       return compileTimeMetaArgList(builder, level + 1);
     } else if (type == HaxeMetadataTokenTypes.RT_META_ARGS) {
       return runTimeMetaArgList(builder, level + 1);
+    } else if (type == HaxeTokenTypes.BLOCK_STATEMENT) {
+      // Reparsing a HaxeReparseableBlockElementType.  The root marker collapses with the rule's own.
+      return blockStatement(builder, level + 1);
+    } else if (type == HaxeTokenTypes.CLASS_BODY) {
+      return classBody(builder, level + 1);
+    } else if (type == HaxeTokenTypes.ABSTRACT_BODY) {
+      return abstractBody(builder, level + 1);
+    } else if (type == HaxeTokenTypes.INTERFACE_BODY) {
+      return interfaceBody(builder, level + 1);
     }
     return haxeFile(builder, level + 1);
   }
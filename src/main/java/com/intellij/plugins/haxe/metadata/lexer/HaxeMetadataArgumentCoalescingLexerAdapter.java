@@ -16,7 +16,7 @@
 package com.intellij.plugins.haxe.metadata.lexer;
 
 import com.intellij.lexer.Lexer;
-import com.intellij.lexer.LookAheadLexer;
+import com.intellij.lexer.DelegateLexer;
 import com.intellij.lexer.MergingLexerAdapter;
 import com.intellij.psi.tree.TokenSet;
 
@@ -24,7 +24,7 @@ import com.intellij.psi.tree.TokenSet;
  *  LazyPsiToken that isn't parsed by the metadata parser, but passed back to the Haxe language
  *  parser later.
  */
-public class HaxeMetadataArgumentCoalescingLexerAdapter extends LookAheadLexer {
+public class HaxeMetadataArgumentCoalescingLexerAdapter extends DelegateLexer {
   private static final TokenSet tokensToMerge = TokenSet.create(
     HaxeMetadataTokenTypes.HAXE_CODE,
     HaxeMetadataTokenTypes.CT_META_ARGS,
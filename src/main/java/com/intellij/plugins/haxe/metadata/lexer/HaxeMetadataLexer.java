@@ -15,7 +15,7 @@
  */
 package com.intellij.plugins.haxe.metadata.lexer;
 
-import com.intellij.lexer.LookAheadLexer;
+import com.intellij.lexer.DelegateLexer;
 
 /**
  * This is the top-level lexer for metadata. It is called by the HaxeMetadataParserDefinition to parse
@@ -26,7 +26,7 @@ import com.intellij.lexer.LookAheadLexer;
  * When we are parsing the metadata, it really just goes into an ID, parens, and arguments. The arguments
  * are themselves "embedded" Haxe code, and we send that back to the Haxe parser.
  */
-public class HaxeMetadataLexer extends LookAheadLexer {
+public class HaxeMetadataLexer extends DelegateLexer {
   public HaxeMetadataLexer() {
     super(new HaxeMetadataArgumentCoalescingLexerAdapter(new HaxeMetadataFlexLexer(new MetadataLexer())));
   }
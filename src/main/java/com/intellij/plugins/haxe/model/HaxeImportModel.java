@@ -89,12 +89,14 @@ public class HaxeImportModel extends HaxeImportableModel {
   }
 
 
+  /**
+   * Imported enums, and typedefs of enums, bring their constructors into scope as well.
+   */
   @NotNull
   private List<HaxeModel> exposeEnumValues(@NotNull List<HaxeModel> result) {
     result.addAll(
       result.stream()
-        .filter(model -> model instanceof HaxeEnumModel)
-        .flatMap(model -> ((HaxeEnumModel)model).getValues().stream())
+        .flatMap(model -> getImportedEnumValues(model).stream())
         .collect(Collectors.toList())
     );
 
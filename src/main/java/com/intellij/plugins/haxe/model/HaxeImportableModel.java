@@ -134,6 +134,41 @@ public abstract class HaxeImportableModel implements HaxeExposableModel {
     return null;
   }
 
+  /**
+   * @return the enum values that importing the member brings into scope: those of an enum, or those
+   *         of the enum that a typedef (possibly through other typedefs) stands for.
+   */
+  @NotNull
+  public static List<HaxeEnumValueModel> getImportedEnumValues(@NotNull HaxeModel model) {
+    if (model instanceof HaxeEnumModel enumModel) {
+      return enumModel.getValues();
+    }
+    if (model instanceof HaxeClassModel classModel && classModel.haxeClass instanceof HaxeTypedefDeclaration typedefDeclaration) {
+      HaxeEnumModel enumModel = resolveTypedefToEnum(typedefDeclaration);
+      if (enumModel != null) {
+        return enumModel.getValues();
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  @Nullable
+  private static HaxeEnumModel resolveTypedefToEnum(@NotNull HaxeTypedefDeclaration typedefDeclaration) {
+    HaxeTypeOrAnonymous typeOrAnonymous = typedefDeclaration.getTypeOrAnonymous();
+    HaxeType type = typeOrAnonymous != null ? typeOrAnonymous.getType() : null;
+    if (type == null) {
+      return null;
+    }
+    PsiElement resolve = type.getReferenceExpression().resolve();
+    if (resolve instanceof HaxeTypedefDeclaration declaration) {
+      return typeDefRecursionGuard.doPreventingRecursion(typedefDeclaration, true, () -> resolveTypedefToEnum(declaration));
+    }
+    if (resolve instanceof HaxeEnumDeclaration enumDeclaration && enumDeclaration.getModel() instanceof HaxeEnumModel enumModel) {
+      return enumModel;
+    }
+    return null;
+  }
+
   @Nullable
   private static HaxeModel getExposedMemberFromEnum(String name, HaxeModel model, HaxeEnumModel enumModel) {
     for (HaxeEnumValueModel enumModelValue : enumModel.getValues()) {
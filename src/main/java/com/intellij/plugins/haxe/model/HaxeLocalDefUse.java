@@ -0,0 +1,195 @@
+package com.intellij.plugins.haxe.model;
+
+import com.intellij.plugins.haxe.lang.psi.*;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Definitions and uses of the local variables and parameters of one member (method body or
+ * field initializer, including any nested functions).
+ *
+ * The member is walked once: every local and parameter declaration is recorded, and every
+ * unqualified reference whose name matches one of them is resolved and recorded as a read or a
+ * write of that declaration.  This replaces a ReferencesSearch per variable, each of which scans
+ * and resolves the whole block again.  The result is cached on the member until the file changes.
+ */
+public final class HaxeLocalDefUse {
+
+  public enum Access {
+    /** Plain assignment target ({@code x = ...}); the old value isn't read. */
+    WRITE,
+    /** Anything else, including compound assignments and increments. */
+    READ
+  }
+
+  public static final class Use {
+    private final HaxeReference myReference;
+    private final Access myAccess;
+
+    private Use(@NotNull HaxeReference reference, @NotNull Access access) {
+      myReference = reference;
+      myAccess = access;
+    }
+
+    @NotNull
+    public HaxeReference getReference() {
+      return myReference;
+    }
+
+    @NotNull
+    public Access getAccess() {
+      return myAccess;
+    }
+  }
+
+  private final PsiElement myOwner;
+  private final List<HaxeComponentName> myDeclarations;
+  private final Map<HaxeComponentName, List<Use>> myUses;
+
+  private HaxeLocalDefUse(@NotNull PsiElement owner,
+                          @NotNull List<HaxeComponentName> declarations,
+                          @NotNull Map<HaxeComponentName, List<Use>> uses) {
+    myOwner = owner;
+    myDeclarations = declarations;
+    myUses = uses;
+  }
+
+  /**
+   * @return the analysis covering the given local variable or parameter, or null if it is neither.
+   */
+  @Nullable
+  public static HaxeLocalDefUse forDeclaration(@NotNull HaxeComponentName componentName) {
+    return isLocalDeclaration(componentName) ? forElement(componentName) : null;
+  }
+
+  /**
+   * @return the analysis of the outermost function or block containing the element, or null when it
+   *         isn't inside of one.
+   */
+  @Nullable
+  public static HaxeLocalDefUse forElement(@NotNull PsiElement element) {
+    PsiElement owner = findOwner(element);
+    if (owner == null) {
+      return null;
+    }
+    return CachedValuesManager.getCachedValue(owner, () ->
+      CachedValueProvider.Result.create(analyze(owner), owner.getContainingFile()));
+  }
+
+  public static boolean isLocalDeclaration(@NotNull HaxeComponentName componentName) {
+    PsiElement parent = componentName.getParent();
+    return parent instanceof HaxeLocalVarDeclaration || parent instanceof HaxeParameter;
+  }
+
+  @Nullable
+  private static PsiElement findOwner(@NotNull PsiElement element) {
+    PsiElement owner = null;
+    for (PsiElement parent = element; parent != null && !(parent instanceof PsiFile); parent = parent.getParent()) {
+      if (parent instanceof HaxeClass) {
+        break;
+      }
+      if (parent instanceof HaxeMethod || parent instanceof HaxeFunctionLiteral || parent instanceof HaxeBlockStatement) {
+        owner = parent;
+      }
+    }
+    return owner;
+  }
+
+  @NotNull
+  private static HaxeLocalDefUse analyze(@NotNull PsiElement owner) {
+    Map<String, List<HaxeComponentName>> declarationsByName = new HashMap<>();
+    List<HaxeComponentName> declarations = new ArrayList<>();
+    List<HaxeReference> candidates = new ArrayList<>();
+    owner.accept(new PsiRecursiveElementWalkingVisitor() {
+      @Override
+      public void visitElement(@NotNull PsiElement element) {
+        if (element instanceof HaxeComponentName componentName && isLocalDeclaration(componentName)) {
+          declarations.add(componentName);
+          declarationsByName.computeIfAbsent(componentName.getText(), k -> new ArrayList<>(1)).add(componentName);
+        }
+        else if (element instanceof HaxeReference reference && !isQualified(reference)) {
+          candidates.add(reference);
+        }
+        super.visitElement(element);
+      }
+    });
+
+    Map<HaxeComponentName, List<Use>> uses = new HashMap<>();
+    for (HaxeReference reference : candidates) {
+      List<HaxeComponentName> sameName = declarationsByName.get(reference.getReferenceName());
+      if (sameName == null) {
+        continue;
+      }
+      PsiElement target = reference.resolveToComponentName();
+      if (target instanceof HaxeComponentName componentName && sameName.contains(componentName)) {
+        uses.computeIfAbsent(componentName, k -> new ArrayList<>()).add(new Use(reference, accessOf(reference)));
+      }
+    }
+    return new HaxeLocalDefUse(owner, declarations, uses);
+  }
+
+  /** Mirrors HaxeReferenceImpl.isReferenceTo, which never matches the right-hand side of a chain. */
+  private static boolean isQualified(@NotNull HaxeReference reference) {
+    HaxeReference[] children = PsiTreeUtil.getChildrenOfType(reference, HaxeReference.class);
+    return children != null && children.length == 2;
+  }
+
+  @NotNull
+  private static Access accessOf(@NotNull HaxeReference reference) {
+    if (reference.getParent() instanceof HaxeAssignExpression assignment
+        && assignment.getLeftExpression() == reference
+        && assignment.getAssignOperation().textMatches("=")) {
+      return Access.WRITE;
+    }
+    return Access.READ;
+  }
+
+  @NotNull
+  public PsiElement getOwner() {
+    return myOwner;
+  }
+
+  /**
+   * @return the local variables and parameters declared in the member, in source order.
+   */
+  @NotNull
+  public List<HaxeComponentName> getDeclarations() {
+    return Collections.unmodifiableList(myDeclarations);
+  }
+
+  /**
+   * @return the uses of the declaration, in source order.
+   */
+  @NotNull
+  public List<Use> getUses(@NotNull HaxeComponentName declaration) {
+    return myUses.getOrDefault(declaration, Collections.emptyList());
+  }
+
+  public boolean isUnused(@NotNull HaxeComponentName declaration) {
+    return getUses(declaration).isEmpty();
+  }
+
+  /**
+   * @return true if the declaration is assigned to, but its value is never read.
+   */
+  public boolean isWriteOnly(@NotNull HaxeComponentName declaration) {
+    List<Use> uses = getUses(declaration);
+    if (uses.isEmpty()) {
+      return false;
+    }
+    for (Use use : uses) {
+      if (use.getAccess() == Access.READ) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -40,7 +40,6 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
 
 
 import  static com.intellij.plugins.haxe.model.evaluator.HaxeExpressionEvaluatorHandlers.*;
@@ -67,7 +66,6 @@ public class HaxeExpressionEvaluator {
   // in order to avoid this we put any useful results in a thread-local map that we clear once we are done with the evaluation
   record CacheRecord(ResultHolder holder, String resolverAsString){}
   private static final ThreadLocal<Map<PsiElement, CacheRecord>> resultCache = ThreadLocal.withInitial(HashMap::new);
-  private static final ThreadLocal<Map<PsiElement, AtomicInteger>> resultCacheHits = ThreadLocal.withInitial(HashMap::new);
   private static final ThreadLocal<Stack<PsiElement>> processingStack = ThreadLocal.withInitial(Stack::new);
 
 
@@ -562,7 +560,26 @@ public class HaxeExpressionEvaluator {
                                                      @Nullable final PsiElement searchScopePsi,
                                                      @Nullable final ResultHolder hint
   ) {
-    List<PsiReference> references = referenceSearch(componentName, searchScopePsi);
+    HaxeMonomorphInference inference = HaxeMonomorphInference.forDeclaration(componentName);
+    if (inference != null
+        && HaxeMonomorphInference.canRemember(context, resolver, hint)
+        && inference.coversAllUsages(componentName, searchScopePsi)) {
+      return inference.solve(componentName, () -> searchReferencesForType(componentName, context, resolver,
+                                                                          inference.getUsages(componentName, searchScopePsi), hint));
+    }
+    List<PsiReference> references = inference != null
+                                    ? inference.getUsages(componentName, searchScopePsi)
+                                    : referenceSearch(componentName, searchScopePsi);
+    return searchReferencesForType(componentName, context, resolver, references, hint);
+  }
+
+  @NotNull
+  private static ResultHolder searchReferencesForType(final HaxeComponentName componentName,
+                                                      final HaxeExpressionEvaluatorContext context,
+                                                      final HaxeGenericResolver resolver,
+                                                      @NotNull final List<PsiReference> references,
+                                                      @Nullable final ResultHolder hint
+  ) {
     ResultHolder lastValue = null;
     int continueFrom = 0;
     for (int i = 0, size = references.size(); i < size; i++) {
@@ -35,15 +35,18 @@ public class HaxeExpressionEvaluatorCacheService  {
       return holder;
     }
 
+    // Holders are mutable and the cache is shared by every thread evaluating this project, so each
+    // caller gets its own copy; a single lookup also avoids racing with clearCaches().
     EvaluationKey key = new EvaluationKey(element, resolver == null ? "NO_RESOLVER" : resolver.toCacheString());
-    if (cacheMap.containsKey(key)) {
-      return cacheMap.get(key);
+    ResultHolder cached = cacheMap.get(key);
+    if (cached != null) {
+      return cached.duplicate();
     }
     else {
       ResultHolder holder = _handle(element, context, resolver);
       if(holder == null) return SpecificTypeReference.getUnknown(element).createHolder();
       if (!holder.isUnknown() && !holder.containsUnknownTypeParameters()) {
-        cacheMap.put(key, holder);
+        cacheMap.put(key, holder.duplicate());
       }
       return holder;
     }
@@ -97,10 +97,15 @@ public class HaxeExpressionUsageUtil {
     if (classType == null) return resultHolder;
 
     HaxeGenericResolver classResolver = classType.getGenericResolver();
-    PsiSearchHelper searchHelper = PsiSearchHelper.getInstance(componentName.getProject());
-    final SearchScope useScope = searchHelper.getCodeUsageScope(componentName);
-
-    List<PsiReference> references = referenceSearch(componentName, useScope);
+    HaxeMonomorphInference inference = HaxeMonomorphInference.forDeclaration(componentName);
+    List<PsiReference> references;
+    if (inference != null) {
+      references = inference.getUsages(componentName, null);
+    } else {
+      PsiSearchHelper searchHelper = PsiSearchHelper.getInstance(componentName.getProject());
+      final SearchScope useScope = searchHelper.getCodeUsageScope(componentName);
+      references = referenceSearch(componentName, useScope);
+    }
     //TODO we should handle this logic as monomorph as well and only accpet first value
     // NOTE : we might have to change this code a bit if we need to  iterate several references to collect multiple typeParameters / specifics
     boolean isFirst = true;
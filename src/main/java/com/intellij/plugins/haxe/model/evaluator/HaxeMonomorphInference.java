@@ -0,0 +1,141 @@
+package com.intellij.plugins.haxe.model.evaluator;
+
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.plugins.haxe.model.HaxeLocalDefUse;
+import com.intellij.plugins.haxe.model.type.HaxeGenericResolver;
+import com.intellij.plugins.haxe.model.type.ResultHolder;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Usage data for inferring the types of untyped locals and parameters (monomorphs).
+ *
+ * Inferring a monomorph's type means evaluating its usages.  Previously every variable ran its own
+ * ReferencesSearch over the function, which textually scans the body and resolves each candidate,
+ * so a function with many untyped variables was scanned and resolved once per variable.  The
+ * usages now come from the member's HaxeLocalDefUse, which finds them for all locals and
+ * parameters in a single walk.  Usages only depend on the function itself and are dropped when
+ * its file changes; the types solved from them also depend on the declarations they are unified
+ * against, which can live in any file, so they are dropped on any PSI change.
+ *
+ * Types are still solved per variable, on demand, by HaxeExpressionEvaluator.searchReferencesForType,
+ * because the evaluator's rules depend on the order in which a variable's usages are seen.
+ */
+public final class HaxeMonomorphInference {
+
+  private final HaxeLocalDefUse myDefUse;
+  private final ConcurrentMap<HaxeComponentName, List<PsiReference>> myUsages = new ConcurrentHashMap<>();
+
+  private HaxeMonomorphInference(@NotNull HaxeLocalDefUse defUse) {
+    myDefUse = defUse;
+  }
+
+  /**
+   * @return the inference data of the member declaring the given local or parameter, or null if
+   *         it isn't one (fields, for instance, can be used from anywhere and need a real search).
+   */
+  @Nullable
+  public static HaxeMonomorphInference forDeclaration(@NotNull HaxeComponentName componentName) {
+    HaxeLocalDefUse defUse = HaxeLocalDefUse.forDeclaration(componentName);
+    if (defUse == null) {
+      return null;
+    }
+    PsiElement owner = defUse.getOwner();
+    return CachedValuesManager.getCachedValue(owner, () -> {
+      HaxeLocalDefUse current = HaxeLocalDefUse.forElement(owner);
+      return CachedValueProvider.Result.create(current == null ? null : new HaxeMonomorphInference(current), owner.getContainingFile());
+    });
+  }
+
+  /**
+   * @return all usages of the declaration, ordered by their distance from it (as the reference
+   *         search used to return them).
+   */
+  @NotNull
+  private List<PsiReference> getAllUsages(@NotNull HaxeComponentName componentName) {
+    return myUsages.computeIfAbsent(componentName, name -> {
+      int offset = name.getIdentifier().getTextRange().getEndOffset();
+      List<PsiReference> usages = new ArrayList<>();
+      for (HaxeLocalDefUse.Use use : myDefUse.getUses(name)) {
+        usages.add(use.getReference());
+      }
+      usages.sort(Comparator.comparingInt(reference -> HaxeExpressionEvaluatorHandlers.getDistance(reference, offset)));
+      return usages;
+    });
+  }
+
+  /**
+   * @return the references to the declaration within searchScope (the whole function when null),
+   *         ordered by their distance from the declaration.
+   */
+  @NotNull
+  public List<PsiReference> getUsages(@NotNull HaxeComponentName componentName, @Nullable PsiElement searchScope) {
+    List<PsiReference> usages = getAllUsages(componentName);
+    if (searchScope == null || PsiTreeUtil.isAncestor(searchScope, myDefUse.getOwner(), false)) {
+      return usages;
+    }
+    List<PsiReference> inScope = new ArrayList<>(usages.size());
+    for (PsiReference usage : usages) {
+      if (PsiTreeUtil.isAncestor(searchScope, usage.getElement(), false)) {
+        inScope.add(usage);
+      }
+    }
+    return inScope;
+  }
+
+  /**
+   * @return true if the search scope only contains the owning function's usages of the declaration,
+   *         i.e. the usages that could be found with any other scope.
+   */
+  boolean coversAllUsages(@NotNull HaxeComponentName componentName, @Nullable PsiElement searchScope) {
+    return getUsages(componentName, searchScope).size() == getAllUsages(componentName).size();
+  }
+
+  /**
+   * Results only depend on the declaration's usages when nothing else feeds into the evaluation:
+   * no hint, no specialization and no annotation holder that a cached answer would skip.
+   */
+  static boolean canRemember(@NotNull HaxeExpressionEvaluatorContext context,
+                             @Nullable HaxeGenericResolver resolver,
+                             @Nullable ResultHolder hint) {
+    return hint == null && !context.isReportingErrors() && (resolver == null || resolver.isEmpty());
+  }
+
+  /**
+   * @return the remembered type of the declaration, computing it if needed.  Results that were
+   *         affected by a recursion guard are incomplete and aren't remembered.
+   */
+  @NotNull
+  ResultHolder solve(@NotNull HaxeComponentName componentName, @NotNull Supplier<ResultHolder> search) {
+    ConcurrentMap<HaxeComponentName, ResultHolder> solvedTypes = getSolvedTypes();
+    ResultHolder solved = solvedTypes.get(componentName);
+    if (solved != null) {
+      return solved.duplicate();
+    }
+    RecursionGuard.StackStamp stamp = RecursionManager.markStack();
+    ResultHolder result = search.get();
+    if (stamp.mayCacheNow()) {
+      solvedTypes.put(componentName, result.duplicate());
+    }
+    return result;
+  }
+
+  @NotNull
+  private ConcurrentMap<HaxeComponentName, ResultHolder> getSolvedTypes() {
+    return CachedValuesManager.getCachedValue(myDefUse.getOwner(), () -> CachedValueProvider.Result.create(
+      new ConcurrentHashMap<HaxeComponentName, ResultHolder>(), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+}
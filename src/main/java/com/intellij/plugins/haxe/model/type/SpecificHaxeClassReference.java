@@ -359,21 +359,27 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
       // in order to use CachedValuesManager our CachedValueProvider can not be a lambda or method as part of a class instance
       // that contains PSI elements as the lambda/method reference would indirectly keep that psi elementand cause memory leaks
       // or access to an invalid PSI
-      currentProcessingElement.set(this);
-      if ( direction == Compatibility.ASSIGNABLE_TO) {
-        cache = CachedValuesManager.getCachedValue(model.haxeClass, key, SpecificHaxeClassReference::toCachedValueProvider);
-      }else {
-        cache = CachedValuesManager.getCachedValue(model.haxeClass, key, SpecificHaxeClassReference::fromCachedValueProvider);
+      SpecificHaxeClassReference previous = startProcessing();
+      try {
+        if (direction == Compatibility.ASSIGNABLE_TO) {
+          cache = CachedValuesManager.getCachedValue(model.haxeClass, key, SpecificHaxeClassReference::toCachedValueProvider);
+        }
+        else {
+          cache = CachedValuesManager.getCachedValue(model.haxeClass, key, SpecificHaxeClassReference::fromCachedValueProvider);
+        }
+      }
+      finally {
+        finishProcessing(previous);
       }
-      currentProcessingElement.remove();
-
-      processedElements.get().clear();
       // create a new set to avoid  other code to tamper with the cached values
       return new HashSet<>(cache);
     } else {
-      Set<SpecificHaxeClassReference> compatibleTypes = getCompatibleTypesInternal(direction);
-      processedElements.get().clear();
-      return compatibleTypes;
+      try {
+        return getCompatibleTypesInternal(direction);
+      }
+      finally {
+        processedElements.get().clear();
+      }
     }
   }
 
@@ -425,17 +431,45 @@ public class SpecificHaxeClassReference extends SpecificTypeReference {
     HaxeClassModel model = getHaxeClassModel();
     if (null != model && !model.hasGenericParams()) {
 
-      currentProcessingElement.set(this);
-      Set<SpecificHaxeClassReference> result = CachedValuesManager.getCachedValue(model.haxeClass, INFER_TYPES_KEY, SpecificHaxeClassReference::inferTypesProvider);
-      currentProcessingElement.remove();
-
-      processedElements.get().clear();
-
+      Set<SpecificHaxeClassReference> result;
+      SpecificHaxeClassReference previous = startProcessing();
+      try {
+        result = CachedValuesManager.getCachedValue(model.haxeClass, INFER_TYPES_KEY, SpecificHaxeClassReference::inferTypesProvider);
+      }
+      finally {
+        finishProcessing(previous);
+      }
       return  new HashSet<>(result);
     } else {
       processedElements.get().clear();
-      return getInferTypesInternal();
+      try {
+        return getInferTypesInternal();
+      }
+      finally {
+        processedElements.get().clear();
+      }
+    }
+  }
+
+  /**
+   * Makes this reference the one the cached value providers work on.  The per-thread state must
+   * be restored even when the computation is cancelled: pooled threads go on to check other
+   * files, and a stale recursion stack would make them skip types.
+   */
+  private SpecificHaxeClassReference startProcessing() {
+    SpecificHaxeClassReference previous = currentProcessingElement.get();
+    currentProcessingElement.set(this);
+    return previous;
+  }
+
+  private static void finishProcessing(@Nullable SpecificHaxeClassReference previous) {
+    if (previous == null) {
+      currentProcessingElement.remove();
+    }
+    else {
+      currentProcessingElement.set(previous);
     }
+    processedElements.get().clear();
   }
   private static  CachedValueProvider.Result<Set<SpecificHaxeClassReference>> inferTypesProvider() {
     SpecificHaxeClassReference reference = currentProcessingElement.get();
@@ -66,7 +66,6 @@ import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.ui.ColoredTextContainer;
 import com.intellij.ui.SimpleTextAttributes;
-import com.intellij.util.concurrency.QueueProcessor;
 import com.intellij.util.io.URLUtil;
 import com.intellij.util.ui.MessageCategory;
 import com.intellij.xdebugger.*;
@@ -77,15 +76,14 @@ import com.intellij.xdebugger.evaluation.XDebuggerEditorsProvider;
 import com.intellij.xdebugger.evaluation.XDebuggerEvaluator;
 import com.intellij.xdebugger.frame.*;
 import com.intellij.xdebugger.impl.XSourcePositionImpl;
-import com.intellij.xdebugger.impl.ui.tree.nodes.XValueNodeImpl;
 import haxe.root.JavaProtocol;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.swing.*;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -307,23 +305,21 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
     return debugSession.getRunContentDescriptor();
   }
 
-  private class DebugProcess extends XDebugProcess {
+  class DebugProcess extends XDebugProcess {
     public DebugProcess(@NotNull XDebugSession session,
                         Project project, Module module,
                         int port) throws IOException {
       super(session);
-      mClassesWithStatics = new Vector<String>();
       mProject = project;
       mModule = module;
       mDeferredQueue =
         new LinkedList<Pair<debugger.Command, MessageListener>>();
-      mListenerQueue = new LinkedList<MessageListener>();
-      mServerSocket = new java.net.ServerSocket(port);
+      mChannel = new HaxeDebuggerChannel(port, new ChannelListener());
       mBreakpointHandlers = this.createBreakpointHandlers();
       mMap =
-        new HashMap<XLineBreakpoint<XBreakpointProperties>, Integer>();
-
-      mWriteQueue = QueueProcessor.createRunnableQueueProcessor(QueueProcessor.ThreadToUse.POOLED);
+        new ConcurrentHashMap<XLineBreakpoint<XBreakpointProperties>, Integer>();
+      mPendingBreakpoints =
+        new ConcurrentHashMap<XLineBreakpoint<XBreakpointProperties>, Object>();
     }
 
     public void setExecutionResult(ExecutionResult executionResult) {
@@ -331,23 +327,7 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
     }
 
     public void start() {
-      ApplicationManager.getApplication().executeOnPooledThread
-        (new Runnable() {
-          public void run() {
-            try {
-              DebugProcess.this.readLoop();
-            }
-            catch (final Throwable t) {
-              SwingUtilities.invokeLater
-                (new Runnable() {
-                  public void run() {
-                    DebugProcess.this.error
-                      ("Debugging loop failed: " + t);
-                  }
-                });
-            }
-          }
-        });
+      mChannel.start();
     }
 
     @Override
@@ -382,46 +362,39 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
 
     @Override
     public void resume(@Nullable XSuspendContext context) {
-      this.expectOK(debugger.Command.Continue(1));
+      this.continueWith(debugger.Command.Continue(1));
     }
 
     @Override
     public void startStepOver(@Nullable XSuspendContext context) {
-      this.expectOK(debugger.Command.Next(1));
+      this.continueWith(debugger.Command.Next(1));
     }
 
     @Override
     public void startStepInto(@Nullable XSuspendContext context) {
-      this.expectOK(debugger.Command.Step(1));
+      this.continueWith(debugger.Command.Step(1));
     }
 
     @Override
     public void startStepOut(@Nullable XSuspendContext context) {
-      this.expectOK(debugger.Command.Finish(1));
+      this.continueWith(debugger.Command.Finish(1));
+    }
+
+    private void continueWith(debugger.Command command) {
+      // The frames and their variables change once the program runs.
+      this.forgetSuspension();
+      this.expectOK(command);
+    }
+
+    private void forgetSuspension() {
+      mSelectedFrame = null;
+      mSuspension = new HaxeDebuggerSuspension();
     }
 
     @Override
     public void stop() {
-      synchronized (this) {
-        if (mServerSocket != null) {
-          try {
-            mServerSocket.close();
-            mServerSocket = null;
-          }
-          catch (IOException e) {
-          }
-        }
-        if (mDebugSocket != null) {
-          try {
-            mDebugSocket.close();
-            mDebugSocket = null;
-          }
-          catch (IOException e) {
-          }
-        }
-        // Stop the write queue. Otherwise we get a bunch of pointless dialogs.
-        mWriteQueue.dismissLastTasks(0);
-      }
+      // Closing drops the requests in flight.  Otherwise we get a bunch of pointless dialogs.
+      mChannel.close();
     }
 
     @Override
@@ -481,80 +454,79 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
 
     private void enqueueCommand(final debugger.Command command,
                                 MessageListener listener) {
+      this.enqueueCommand(command, null, listener);
+    }
+
+    /**
+     * @param coalescingKey identifies commands whose responses are
+     *                      interchangeable while one of them is in flight;
+     *                      see {@link HaxeDebuggerChannel}.
+     */
+    private void enqueueCommand(final debugger.Command command,
+                                @Nullable Object coalescingKey,
+                                MessageListener listener) {
 //            System.out.println("Writing command: " +
 //                               JavaProtocol.commandToString(command));
-      try {
-        synchronized (this) {
-          if (mDebugSocket == null) {
-            mDeferredQueue.add(Pair.create(command, listener));
-            return;
-          }
-          mListenerQueue.add(listener);
-          final OutputStream os = mDebugSocket.getOutputStream();
-          mWriteQueue.add(new Runnable() {
-            public void run() {
-              try {
-                JavaProtocol.writeCommand(os, command);
-              }
-              catch (RuntimeException e) {
-                DebugProcess.this.error
-                  ("Debugger protocol error: exception while writing " +
-                   "command " + JavaProtocol.commandToString(command) + ": " +
-                   e);
-              }
-            }
-          });
+      synchronized (this) {
+        if (!mConnected) {
+          mDeferredQueue.add(Pair.create(command, listener));
+          return;
         }
       }
-      catch (IOException e) {
-        DebugProcess.this.error
-          ("Debugger error: exception queueing write " +
-           "command " + JavaProtocol.commandToString(command) + ": " +
-           e);
-      }
+      mChannel.send(command, coalescingKey, listener);
     }
 
-    private void readLoop() throws IOException {
-      java.net.ServerSocket serverSocket;
-      synchronized (this) {
-         serverSocket = mServerSocket;
+    /**
+     * Makes a frame the current one for the commands that follow, unless
+     * it already is.  The frame is selected right away, without waiting
+     * for the response, so the commands can be pipelined behind it.
+     */
+    private FrameSelection selectFrame(final int frameNumber) {
+      FrameSelection selection = mSelectedFrame;
+      if (selection != null && selection.mFrameNumber == frameNumber) {
+        return selection;
       }
-      // Don't synchronize around the accept.  It locks up the rest of the debugger still
-      // running on the AWT thread if the application isn't starting correctly.
-      java.net.Socket debugSocket = serverSocket.accept();
-      synchronized (this) {
-        mDebugSocket = debugSocket;
-        mServerSocket.close();
-        mServerSocket = null;
-        JavaProtocol.readClientIdentification
-          (mDebugSocket.getInputStream());
-        // XXX: Put this on the write thread/queue, instead of just posting it?
-        JavaProtocol.writeServerIdentification
-          (mDebugSocket.getOutputStream());
-        // Enqueue a classList callback to populate the class list
-        this.enqueueCommand(debugger.Command.Classes(null),
-                            new MessageListener() {
-                              public void handleMessage(int messageId,
-                                                        debugger.Message message) {
-                                if (messageId == JavaProtocol.IdClasses) {
-                                  DebugProcess.this.handlePartialClassList
-                                    ((debugger.ClassList)message.params[0]);
-                                }
-                              }
-                            });
+      final FrameSelection newSelection = new FrameSelection(frameNumber);
+      mSelectedFrame = newSelection;
+      this.enqueueCommand
+        (debugger.Command.SetFrame(frameNumber),
+         new MessageListener() {
+           public void handleMessage(int messageId,
+                                     debugger.Message message) {
+             if (messageId != JavaProtocol.IdThreadLocation) {
+               newSelection.mFailed = true;
+               if (mSelectedFrame == newSelection) {
+                 mSelectedFrame = null;
+               }
+               DebugProcess.this.warn
+                 ("Failed to set stack frame to " +
+                  frameNumber + "; got message; " +
+                  JavaProtocol.messageToString(message));
+             }
+           }
+         });
+      return newSelection;
+    }
+
+    private class FrameSelection {
+      FrameSelection(int frameNumber) {
+        mFrameNumber = frameNumber;
       }
-      while (true) {
-        synchronized (this) {
-          debugSocket = mDebugSocket;
-        }
-        if (debugSocket == null) {
-          break;
+
+      private final int mFrameNumber;
+      // Set by the response to SetFrame, which arrives before the
+      // responses to the commands pipelined behind it.
+      private volatile boolean mFailed;
+    }
+
+    private class ChannelListener implements HaxeDebuggerChannel.Listener {
+      public void connected() {
+        synchronized (DebugProcess.this) {
+          mConnected = true;
         }
-        debugger.Message message = JavaProtocol.readMessage
-          (debugSocket.getInputStream());
-//      System.out.println("Received message: " +
-//                         JavaProtocol.messageToString(message));
-        int messageId = JavaProtocol.getMessageId(message);
+      }
+
+      public void eventReceived(int messageId, debugger.Message message) {
         if (messageId == JavaProtocol.IdThreadCreated) {
           // Console it out
         }
@@ -565,76 +537,41 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
           // Console it out
         }
         else if (messageId == JavaProtocol.IdThreadStopped) {
+          DebugProcess.this.forgetSuspension();
           if (mStoppedOnce) {
             // Send a where to solicit current thread stack frame
-            this.where();
+            DebugProcess.this.where();
           }
           else {
             mStoppedOnce = true;
-            while (!mDeferredQueue.isEmpty()) {
-              Pair<debugger.Command, MessageListener> p =
-                mDeferredQueue.removeFirst();
-              this.enqueueCommand(p.getFirst(),
-                                  p.getSecond());
+            // Mostly the breakpoints set before the program connected;
+            // they are sent together rather than one at a time.
+            List<Pair<debugger.Command, MessageListener>> deferred;
+            synchronized (DebugProcess.this) {
+              deferred =
+                new ArrayList<Pair<debugger.Command, MessageListener>>(mDeferredQueue);
+              mDeferredQueue.clear();
             }
-            this.resume(null);
-          }
-        }
-        else {
-          MessageListener listener = null;
-          synchronized (this) {
-            if (!mListenerQueue.isEmpty()) {
-              listener = mListenerQueue.removeFirst();
-            }
-          }
-          if (listener == null) {
-            DebugProcess.this.error
-              ("Debugger protocol error: unsolicited response: " +
-               JavaProtocol.messageToString(message));
-            break;
-          }
-          else {
-            listener.handleMessage(messageId, message);
+            mChannel.sendAll(deferred);
+            DebugProcess.this.resume(null);
           }
         }
       }
-    }
 
-    private void handlePartialClassList(debugger.ClassList classList) {
-      while (true) {
-        if (classList.index == 0) {
-          // Terminator
-          break;
-        }
-        if (classList.index == 1) {
-          // Continued
-          this.enqueueCommand
-            (debugger.Command.Classes
-               ((String)classList.params[0]),
-             new MessageListener() {
-               public void handleMessage(int messageId,
-                                         debugger.Message message) {
-                 if (messageId == JavaProtocol.IdClasses) {
-                   DebugProcess.this.handlePartialClassList
-                     ((debugger.ClassList)
-                        message.params[0]);
-                 }
-                 else {
-                   throw new RuntimeException
-                     ("Unexpected message in response " +
-                      "to class list request: " +
-                      JavaProtocol.messageToString(message));
-                 }
-               }
-             });
-          break;
-        }
-        // Element
-        if (((Boolean)classList.params[1]).booleanValue()) {
-          mClassesWithStatics.addElement
-            ((String)classList.params[0]);
-        }
-        classList = (debugger.ClassList)classList.params[2];
+      public void unsolicitedResponse(debugger.Message message) {
+        DebugProcess.this.error
+          ("Debugger protocol error: unsolicited response: " +
+           JavaProtocol.messageToString(message));
+      }
+
+      public void failed(@NotNull final Throwable t) {
+        SwingUtilities.invokeLater
+          (new Runnable() {
+            public void run() {
+              DebugProcess.this.error
+                ("Debugging loop failed: " + t);
+            }
+          });
       }
     }
 
@@ -647,15 +584,27 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
 
       String path = getRelativePath(mProject, position.getFile());
 
+      // Identifies this registration, in case the breakpoint is removed
+      // (or registered again) before the program has numbered it.
+      final Object registration = new Object();
+      mPendingBreakpoints.put(breakpoint, registration);
       DebugProcess.this.enqueueCommand
         (debugger.Command.AddFileLineBreakpoint
           (path, position.getLine() + 1), new MessageListener() {
           public void handleMessage(int messageId,
                                     debugger.Message message) {
+            boolean current =
+              mPendingBreakpoints.remove(breakpoint, registration);
             if (messageId == JavaProtocol.IdFileLineBreakpointNumber) {
-              mMap.put(breakpoint, (Integer)(message.params[0]));
+              int id = (Integer)(message.params[0]);
+              if (current) {
+                mMap.put(breakpoint, id);
+              }
+              else {
+                DebugProcess.this.deleteBreakpoint(id);
+              }
             }
-            else {
+            else if (current) {
               getSession().updateBreakpointPresentation
                 (breakpoint,
                  AllIcons.Debugger.Db_invalid_breakpoint, null);
@@ -668,11 +617,18 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
     private void unregisterBreakpoint
       (@NotNull final XLineBreakpoint<XBreakpointProperties> breakpoint,
        final boolean temporary) {
-      if (!mMap.containsKey(breakpoint)) {
+      if (mPendingBreakpoints.remove(breakpoint) != null) {
+        // Deleted once the program has numbered it.
         return;
       }
 
-      int id = mMap.remove(breakpoint);
+      Integer id = mMap.remove(breakpoint);
+      if (id != null) {
+        this.deleteBreakpoint(id);
+      }
+    }
+
+    private void deleteBreakpoint(int id) {
       DebugProcess.this.enqueueCommand
         (debugger.Command.DeleteBreakpointRange(id, id),
          new MessageListener() {
@@ -700,7 +656,8 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         };
     }
 
-    private abstract class MessageListener {
+    private abstract class MessageListener
+      implements HaxeDebuggerChannel.ResponseHandler {
       public abstract void handleMessage(int messageId,
                                          debugger.Message message);
     }
@@ -890,7 +847,8 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
             (@NotNull String expression,
              @NotNull XEvaluationCallback callback,
              XSourcePosition expressionPosition) {
-            callback.evaluated(new Value(expression));
+            // Evaluating again may give another result, so it isn't cached.
+            callback.evaluated(new Value(expression).withoutCache());
           }
         };
       }
@@ -901,25 +859,15 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
 
       @Override
       public void computeChildren(@NotNull final XCompositeNode node) {
-        // Move to the stack frame
-        DebugProcess.this.enqueueCommand
-          (debugger.Command.SetFrame(mFrameNumber),
-           new MessageListener() {
-             public void handleMessage(int messageId,
-                                       debugger.Message message) {
-               if (messageId == JavaProtocol.IdThreadLocation) {
-                 StackFrame.this.computeChildrenCurrentFrame
-                   (node);
-               }
-               else {
-                 DebugProcess.this.warn
-                   ("Failed to set stack frame to " +
-                    mFrameNumber + "; got message; " +
-                    JavaProtocol.messageToString(message));
-               }
-             }
-             // Get var names
-           });
+        debugger.StringList variables =
+          mSuspension.getVariables(mFrameNumber);
+        if (variables != null) {
+          StackFrame.this.addVariables(node, variables);
+          return;
+        }
+        // Move to the stack frame, and get the var names right behind it.
+        StackFrame.this.computeChildrenCurrentFrame
+          (node, DebugProcess.this.selectFrame(mFrameNumber));
       }
 
       public void customizePresentation
@@ -938,29 +886,28 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
       }
 
       private void computeChildrenCurrentFrame
-        (@NotNull final XCompositeNode node) {
+        (@NotNull final XCompositeNode node,
+         final FrameSelection frame) {
+        // The variables of a frame are only fetched once while a request
+        // for them is in flight.
+        final HaxeDebuggerSuspension suspension = mSuspension;
         DebugProcess.this.enqueueCommand
           (debugger.Command.Variables(false),
+           Pair.create("Variables", frame),
            new MessageListener() {
              public void handleMessage(int messageId,
                                        debugger.Message message) {
-               if (messageId == JavaProtocol.IdVariables) {
-                 XValueChildrenList childrenList =
-                   new XValueChildrenList();
+               if (frame.mFailed) {
+                 // Already reported; these would be another frame's.
+                 node.setErrorMessage("Failed to set stack frame to " +
+                                      mFrameNumber);
+               }
+               else if (messageId == JavaProtocol.IdVariables) {
                  debugger.StringList stringList =
                    (debugger.StringList)
                      message.params[0];
-                 addChildren(childrenList, stringList);
-                 if (true) {
-                   node.addChildren(childrenList, true);
-                 } else {
-                   // Note: Removed because it cluttered the variable list.
-                   //       It's a candidate for reinstatement, possibly with
-                   //       a control variable.
-                   node.addChildren(childrenList, false);
-                   // Add all statics to the list of variables.
-                   addStaticChildren(node);
-                 }
+                 suspension.putVariables(mFrameNumber, stringList);
+                 StackFrame.this.addVariables(node, stringList);
                }
                else {
                  DebugProcess.this.warn
@@ -971,17 +918,25 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
            });
       }
 
-      private void addChildren(XValueChildrenList childrenList,
-                               debugger.StringList stringList) {
-        while (stringList != debugger.StringList.Terminator) {
-
-          String string = (String)stringList.params[0];
-          if (!isIntermediateVariableName(string)) {
-            childrenList.add(string, new Value(string));
+      private void addVariables(@NotNull XCompositeNode node,
+                                debugger.StringList stringList) {
+        final List<String> names = new ArrayList<String>();
+        for (debugger.StringList list = stringList;
+             list != debugger.StringList.Terminator;
+             list = (debugger.StringList)list.params[1]) {
+          String name = (String)list.params[0];
+          if (!isIntermediateVariableName(name)) {
+            names.add(name);
           }
-
-          stringList = (debugger.StringList)stringList.params[1];
         }
+        HaxeDebuggerChildren.addPage
+          (node, names.size(), new HaxeDebuggerChildren.Factory() {
+            @NotNull
+            public Pair<String, XValue> create(int index) {
+              String name = names.get(index);
+              return Pair.create(name, (XValue)new Value(name));
+            }
+          }, 0);
       }
 
       /** Determines whether a variable name has been introduced by
@@ -991,41 +946,15 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         return s.startsWith("_g");
       }
 
-      private void addStaticChildren(@NotNull final XCompositeNode node) {
-        XValueChildrenList childrenList = new XValueChildrenList();
-
-        for (String c : DebugProcess.this.mClassesWithStatics) {
-          childrenList.add("statics of " + c,
-                           new Value(c, true));
-        }
-        node.addChildren(childrenList, true);
-      }
-
-
       private class Value extends XValue {
         public Value(String name) {
           mName = name;
           mExpression = name;
         }
 
-        public Value(String name, boolean isClassStatics) {
-          if (!isClassStatics) {
-            mName = name;
-            mExpression = name;
-            return;
-          }
-
-          // Indirect so that the value is not fetched immediately
-          // by the UI - the user has to click to see the statics,
-          // otherwise, all statics of all classes would be fetched
-          // on every breakpoint which would suck
-          mName = "statics of " + name;
-          mExpression = name;
-          mIcon = AllIcons.Debugger.Value;
-          mType = "";
-          mValue = "";
-          mChildren = new LinkedList<Value>();
-          mChildren.add(new Value(name));
+        private Value withoutCache() {
+          mCacheable = false;
+          return this;
         }
 
         public void computePresentation(@NotNull XValueNode node,
@@ -1124,17 +1053,19 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
           }
           mChildrenComputationRequested = false;
 
-          XValueChildrenList childrenList =
-            new XValueChildrenList(mChildren.size());
-          for (Value child : mChildren) {
-            childrenList.add(child.mName, child);
-          }
-
-          // Stupid hack to get around the fact that we're abusing the APIs.
-          if (node instanceof XValueNodeImpl) {
-            ((XValueNodeImpl)node).addChildren(childrenList, true);
-          } else if(node instanceof XCompositeNode) {
-            ((XCompositeNode)node).addChildren(childrenList, true);
+          // When the children arrive after the tree asked for them, only
+          // the XValueNode that fetchValue was given is at hand.  The
+          // tree's nodes are XCompositeNodes as well.
+          final HaxeDebuggerChildren.StructuredList<Value> children = mChildren;
+          if (node instanceof XCompositeNode) {
+            HaxeDebuggerChildren.addPage
+              ((XCompositeNode)node, children.size(), new HaxeDebuggerChildren.Factory() {
+                @NotNull
+                public Pair<String, XValue> create(int index) {
+                  Value child = children.get(index);
+                  return Pair.create(child.mName, (XValue)child);
+                }
+              }, 0);
           } else {
             error("Unexpected node type in debugger screen: " +
                   node.getClass().toString());
@@ -1143,40 +1074,61 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
 
         private void fetchValue(@NotNull final XValueNode node,
                                 @NotNull final XValuePlace place) {
+          debugger.Message cached =
+            mCacheable ? mSuspension.getValue(mFrameNumber, mExpression) : null;
+          if (cached != null) {
+            this.handleStructured(node, cached);
+            return;
+          }
+
           mWaitingForChildrenResults = true;
+          final HaxeDebuggerSuspension suspension = mSuspension;
+          final String expression = mExpression;
+          final FrameSelection frame =
+            DebugProcess.this.selectFrame(mFrameNumber);
           DebugProcess.this.enqueueCommand
             (debugger.Command.GetStructured(false, mExpression),
+             Pair.create(frame, mExpression),
              new MessageListener() {
                public void handleMessage(int messageId,
                                          debugger.Message message) {
-                 if (messageId == JavaProtocol.IdStructured) {
-                   debugger.StructuredValue structuredValue =
-                     (debugger.StructuredValue)
-                       message.params[0];
-                   Value.this.fromStructuredValue
-                     (structuredValue);
-                 }
-                 else {
-                   mIcon = AllIcons.General.Error;
-                   mValue = mType = "<Unavailable - " +
-                                    getErrorString(message) + ">";
-                 }
-
-                 // If fromStructuredValue contained a list, the nodes
-                 // need to be added to the UI.  The UI usually requests
-                 // them via computeChildren().  In some cases,
-                 // computeChildren() is called before we have retrieved
-                 // the results, and we need to re-trigger the computation.
-                 mWaitingForChildrenResults = false;
-                 if (mChildrenComputationRequested) {
-                   Value.this.internalComputeChildren(node);
+                 if (mCacheable && !frame.mFailed) {
+                   suspension.putValue(mFrameNumber, expression, message);
                  }
-
-                 Value.this.setPresentation(node);
+                 Value.this.handleStructured(node, message);
                }
              });
         }
 
+        private void handleStructured(@NotNull XValueNode node,
+                                      debugger.Message message) {
+          int messageId = JavaProtocol.getMessageId(message);
+          if (messageId == JavaProtocol.IdStructured) {
+            debugger.StructuredValue structuredValue =
+              (debugger.StructuredValue)
+                message.params[0];
+            Value.this.fromStructuredValue
+              (structuredValue);
+          }
+          else {
+            mIcon = AllIcons.General.Error;
+            mValue = mType = "<Unavailable - " +
+                             getErrorString(message) + ">";
+          }
+
+          // If fromStructuredValue contained a list, the nodes
+          // need to be added to the UI.  The UI usually requests
+          // them via computeChildren().  In some cases,
+          // computeChildren() is called before we have retrieved
+          // the results, and we need to re-trigger the computation.
+          mWaitingForChildrenResults = false;
+          if (mChildrenComputationRequested) {
+            Value.this.internalComputeChildren(node);
+          }
+
+          Value.this.setPresentation(node);
+        }
+
         private void fromStructuredValue
           (debugger.StructuredValue structuredValue) {
           if (structuredValue.index == 0) {  // Elided
@@ -1202,8 +1154,13 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
             mIcon = AllIcons.Debugger.Value;
             mType = getTypeString(type);
             mValue = "";
-            mChildren = new LinkedList<Value>();
-            this.addChildren(list);
+            // Children are only turned into Values when their page is shown.
+            mChildren = new HaxeDebuggerChildren.StructuredList<Value>
+              (list, (name, value) -> {
+                Value child = new Value(name);
+                child.fromStructuredValue(value);
+                return child;
+              });
           }
           // Anything else, including Elided, is an error
           else {
@@ -1212,24 +1169,6 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
           }
         }
 
-        private void addChildren(debugger.StructuredValueList list) {
-          if (list == debugger.StructuredValueList.Terminator) {
-            return;
-          }
-
-          String name = (String)list.params[0];
-          debugger.StructuredValue structuredValue =
-            (debugger.StructuredValue)list.params[1];
-          debugger.StructuredValueList next =
-            (debugger.StructuredValueList)list.params[2];
-
-          Value val = new Value(name);
-          val.fromStructuredValue(structuredValue);
-          mChildren.add(val);
-
-          addChildren(next);
-        }
-
         private String getTypeString(debugger.StructuredValueType type) {
           if (type.index == 0) {
             return "Null";
@@ -1307,7 +1246,9 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
         private javax.swing.Icon mIcon;
         private String mType;
         private String mValue;
-        private LinkedList<Value> mChildren;
+        // Set on the channel's thread, paged in on the EDT.
+        private volatile HaxeDebuggerChildren.StructuredList<Value> mChildren;
+        private boolean mCacheable = true;
 
         // These two manage how/when the child nodes are fetched.
         // See internalComputeChildren for an explanation.
@@ -1322,19 +1263,21 @@ public class HaxeDebugRunner extends GenericProgramRunner<RunnerSettings> {
       private XSourcePosition mSourcePosition;
     }
 
-    private Vector<String> mClassesWithStatics;
     private Project mProject;
     private Module mModule;
     private boolean mStoppedOnce;
     private LinkedList<Pair<debugger.Command,
       MessageListener>> mDeferredQueue;
-    private QueueProcessor<Runnable> mWriteQueue;
-    private LinkedList<MessageListener> mListenerQueue;
-    private java.net.ServerSocket mServerSocket;
-    private java.net.Socket mDebugSocket;
+    private final HaxeDebuggerChannel mChannel;
+    private boolean mConnected;
+    private volatile FrameSelection mSelectedFrame;
+    private volatile HaxeDebuggerSuspension mSuspension = new HaxeDebuggerSuspension();
     private ExecutionResult mExecutionResult;
     private XBreakpointHandler[] mBreakpointHandlers;
-    private HashMap<XLineBreakpoint<XBreakpointProperties>, Integer> mMap;
+    // Breakpoint numbers in the program.
+    private final Map<XLineBreakpoint<XBreakpointProperties>, Integer> mMap;
+    // Breakpoints waiting for their number, with their registration.
+    private final Map<XLineBreakpoint<XBreakpointProperties>, Object> mPendingBreakpoints;
   }
 
   private static String getRelativePath(Project project, VirtualFile file) {
@@ -0,0 +1,372 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.openapi.util.Pair;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import haxe.root.JavaProtocol;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * The connection to a debugged hxcpp program.
+ *
+ * The program answers commands strictly in the order they were sent, without request ids.  Each command
+ * is therefore queued as a numbered request and its response is matched with the oldest unanswered
+ * request.  Commands are written as soon as they are sent, so several can be in flight at once.  A
+ * command sent with a coalescing key, while an unanswered request with the same key exists, isn't
+ * written at all; its handler gets the response of the earlier request.
+ *
+ * Sockets are served by one I/O thread in non-blocking mode.  Responses and events are handled, in
+ * order, on a pooled thread, so slow handlers don't hold up the connection.
+ */
+final class HaxeDebuggerChannel {
+
+  interface ResponseHandler {
+    void handleMessage(int messageId, debugger.Message message);
+  }
+
+  interface Listener {
+    /** The program connected and identified itself.  Commands can be sent from now on. */
+    void connected();
+
+    /** A thread of the program was created, started, stopped or terminated. */
+    void eventReceived(int messageId, debugger.Message message);
+
+    /** A response arrived while no request was waiting for one. */
+    void unsolicitedResponse(debugger.Message message);
+
+    /** The connection failed or was closed by the program; it is closed now. */
+    void failed(@NotNull Throwable error);
+  }
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  // The most frames handed to the socket in one gathering write.
+  private static final int MAX_GATHERED_FRAMES = 256;
+
+  private final Listener myListener;
+  private final ServerSocketChannel myServer;
+  private final Selector mySelector;
+  private final Executor myDispatcher =
+    AppExecutorUtil.createBoundedApplicationPoolExecutor("Haxe Debugger Messages", 1);
+
+  private final Object myLock = new Object();
+  private final ArrayDeque<Request> myPending = new ArrayDeque<>();
+  private final Map<Object, Request> myCoalescable = new HashMap<>();
+  private int mySequence;
+  private final Queue<ByteBuffer> myOutgoing = new ConcurrentLinkedQueue<>();
+  private volatile boolean myClosed;
+  private volatile boolean myIdentified;
+  private volatile Thread myThread;
+
+  // Only used by the I/O thread.
+  private SocketChannel mySocket;
+  private ByteBuffer myInput = ByteBuffer.allocate(READ_BUFFER_SIZE);
+  private final ArrayDeque<ByteBuffer> myWriting = new ArrayDeque<>();
+
+  private static final class Request {
+    final int sequence;
+    final debugger.Command command;
+    final @Nullable Object coalescingKey;
+    final List<ResponseHandler> handlers = new ArrayList<>(1);
+
+    Request(int sequence, debugger.Command command, @Nullable Object coalescingKey) {
+      this.sequence = sequence;
+      this.command = command;
+      this.coalescingKey = coalescingKey;
+    }
+  }
+
+  HaxeDebuggerChannel(int port, @NotNull Listener listener) throws IOException {
+    myListener = listener;
+    myServer = ServerSocketChannel.open();
+    try {
+      myServer.bind(new InetSocketAddress(port));
+      myServer.configureBlocking(false);
+      mySelector = Selector.open();
+    }
+    catch (IOException e) {
+      myServer.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Starts waiting for the program to connect.
+   */
+  void start() {
+    Thread thread = new Thread(this::run, "Haxe Debugger I/O");
+    thread.setDaemon(true);
+    myThread = thread;
+    thread.start();
+  }
+
+  boolean isConnected() {
+    return myIdentified && !myClosed;
+  }
+
+  void send(@NotNull debugger.Command command, @NotNull ResponseHandler handler) {
+    send(command, null, handler);
+  }
+
+  /**
+   * @param coalescingKey identifies requests whose responses are interchangeable, or null if this one
+   *                      must be sent regardless.
+   */
+  void send(@NotNull debugger.Command command, @Nullable Object coalescingKey, @NotNull ResponseHandler handler) {
+    synchronized (myLock) {
+      queue(command, coalescingKey, handler);
+    }
+    mySelector.wakeup();
+  }
+
+  /**
+   * Sends several commands in order, such as the breakpoints set before the program connected.  They are
+   * queued at once, so they are written together rather than as one write per command.
+   */
+  void sendAll(@NotNull List<? extends Pair<debugger.Command, ? extends ResponseHandler>> commands) {
+    if (commands.isEmpty()) {
+      return;
+    }
+    synchronized (myLock) {
+      for (Pair<debugger.Command, ? extends ResponseHandler> command : commands) {
+        queue(command.getFirst(), null, command.getSecond());
+      }
+    }
+    mySelector.wakeup();
+  }
+
+  private void queue(@NotNull debugger.Command command, @Nullable Object coalescingKey, @NotNull ResponseHandler handler) {
+    if (myClosed) {
+      return;
+    }
+    Request request = coalescingKey != null ? myCoalescable.get(coalescingKey) : null;
+    if (request == null) {
+      request = new Request(++mySequence, command, coalescingKey);
+      myPending.addLast(request);
+      if (coalescingKey != null) {
+        myCoalescable.put(coalescingKey, request);
+      }
+      // Queued under the lock, so that requests are written in the order they are pending.
+      myOutgoing.add(ByteBuffer.wrap(HaxeDebuggerCodec.encodeFrame(command)));
+    }
+    request.handlers.add(handler);
+  }
+
+  /**
+   * @return the number of requests that haven't been answered yet.
+   */
+  int getPendingCount() {
+    synchronized (myLock) {
+      return myPending.size();
+    }
+  }
+
+  void close() {
+    synchronized (myLock) {
+      if (myClosed) {
+        return;
+      }
+      myClosed = true;
+      myPending.clear();
+      myCoalescable.clear();
+    }
+    myOutgoing.clear();
+    if (myThread != null) {
+      mySelector.wakeup();
+    }
+    else {
+      closeQuietly(myServer);
+      closeQuietly(mySelector);
+    }
+  }
+
+  private void run() {
+    try {
+      myServer.register(mySelector, SelectionKey.OP_ACCEPT);
+      while (!myClosed) {
+        mySelector.select();
+        if (myClosed) {
+          break;
+        }
+        Iterator<SelectionKey> keys = mySelector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (!key.isValid()) {
+            continue;
+          }
+          if (key.isAcceptable()) {
+            accept();
+          }
+          else {
+            if (key.isReadable()) {
+              read();
+            }
+            if (key.isValid() && key.isWritable()) {
+              write();
+            }
+          }
+        }
+        if (mySocket != null && mySocket.isOpen()) {
+          boolean hasOutput = !myWriting.isEmpty() || (myIdentified && !myOutgoing.isEmpty());
+          mySocket.keyFor(mySelector).interestOps(SelectionKey.OP_READ | (hasOutput ? SelectionKey.OP_WRITE : 0));
+        }
+      }
+    }
+    catch (Throwable t) {
+      if (!myClosed) {
+        close();
+        myDispatcher.execute(() -> myListener.failed(t));
+      }
+    }
+    finally {
+      closeQuietly(mySocket);
+      closeQuietly(myServer);
+      closeQuietly(mySelector);
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel socket = myServer.accept();
+    if (socket == null) {
+      return;
+    }
+    // Only one program connects to a debug session.
+    myServer.close();
+    socket.configureBlocking(false);
+    socket.setOption(java.net.StandardSocketOptions.TCP_NODELAY, true);
+    socket.register(mySelector, SelectionKey.OP_READ);
+    mySocket = socket;
+  }
+
+  private void read() throws IOException {
+    if (mySocket.read(myInput) < 0) {
+      throw new EOFException("The debugged program closed the connection");
+    }
+    myInput.flip();
+    try {
+      if (!myIdentified) {
+        byte[] expected = HaxeDebuggerCodec.CLIENT_IDENTIFICATION.getBytes(StandardCharsets.ISO_8859_1);
+        if (myInput.remaining() < expected.length) {
+          return;
+        }
+        byte[] received = new byte[expected.length];
+        myInput.get(received);
+        if (!Arrays.equals(expected, received)) {
+          throw new IOException("Unexpected client identification string: " +
+                                new String(received, StandardCharsets.ISO_8859_1));
+        }
+        myWriting.add(ByteBuffer.wrap(HaxeDebuggerCodec.SERVER_IDENTIFICATION.getBytes(StandardCharsets.ISO_8859_1)));
+        myIdentified = true;
+        myDispatcher.execute(myListener::connected);
+      }
+      while (myInput.remaining() >= HaxeDebuggerCodec.LENGTH_DIGITS) {
+        int start = myInput.position();
+        int length = HaxeDebuggerCodec.decodeLength(myInput.array(), start);
+        int frameLength = HaxeDebuggerCodec.LENGTH_DIGITS + length;
+        if (myInput.remaining() < frameLength) {
+          if (myInput.capacity() < frameLength) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(frameLength, myInput.capacity() * 2));
+            larger.put(myInput);
+            larger.flip();
+            myInput = larger;
+          }
+          break;
+        }
+        debugger.Message message =
+          HaxeDebuggerCodec.decodeMessage(myInput.array(), start + HaxeDebuggerCodec.LENGTH_DIGITS, length);
+        myInput.position(start + frameLength);
+        myDispatcher.execute(() -> dispatch(message));
+      }
+    }
+    finally {
+      myInput.compact();
+    }
+  }
+
+  private void write() throws IOException {
+    while (true) {
+      if (myIdentified) {
+        ByteBuffer frame;
+        while (myWriting.size() < MAX_GATHERED_FRAMES && (frame = myOutgoing.poll()) != null) {
+          myWriting.add(frame);
+        }
+      }
+      if (myWriting.isEmpty()) {
+        return;
+      }
+      mySocket.write(myWriting.toArray(new ByteBuffer[0]));
+      while (!myWriting.isEmpty() && !myWriting.peekFirst().hasRemaining()) {
+        myWriting.removeFirst();
+      }
+      if (!myWriting.isEmpty()) {
+        return;
+      }
+    }
+  }
+
+  private void dispatch(@NotNull debugger.Message message) {
+    if (myClosed) {
+      return;
+    }
+    int messageId = JavaProtocol.getMessageId(message);
+    if (isEvent(messageId)) {
+      myListener.eventReceived(messageId, message);
+      return;
+    }
+    Request request;
+    List<ResponseHandler> handlers;
+    synchronized (myLock) {
+      request = myPending.pollFirst();
+      if (request == null) {
+        handlers = null;
+      }
+      else {
+        if (request.coalescingKey != null) {
+          myCoalescable.remove(request.coalescingKey);
+        }
+        handlers = new ArrayList<>(request.handlers);
+      }
+    }
+    if (handlers == null) {
+      myListener.unsolicitedResponse(message);
+      return;
+    }
+    try {
+      for (ResponseHandler handler : handlers) {
+        handler.handleMessage(messageId, message);
+      }
+    }
+    catch (RuntimeException e) {
+      close();
+      myListener.failed(new IOException("Failed to handle the response to request " + request.sequence + " (" +
+                                        JavaProtocol.commandToString(request.command) + ")", e));
+    }
+  }
+
+  private static boolean isEvent(int messageId) {
+    return messageId == JavaProtocol.IdThreadCreated ||
+           messageId == JavaProtocol.IdThreadTerminated ||
+           messageId == JavaProtocol.IdThreadStarted ||
+           messageId == JavaProtocol.IdThreadStopped;
+  }
+
+  private static void closeQuietly(@Nullable java.io.Closeable closeable) {
+    if (closeable != null) {
+      try {
+        closeable.close();
+      }
+      catch (IOException ignored) {
+      }
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.openapi.util.Pair;
+import com.intellij.xdebugger.frame.XCompositeNode;
+import com.intellij.xdebugger.frame.XValue;
+import com.intellij.xdebugger.frame.XValueChildrenList;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * Children of the debugger's variable tree, which are added a page at a time.  Values like arrays
+ * can have tens of thousands of elements, and creating a node for each of them up front blocks the
+ * tree.
+ */
+final class HaxeDebuggerChildren {
+
+  static final int PAGE_SIZE = 100;
+
+  interface Factory {
+    @NotNull
+    Pair<String, XValue> create(int index);
+  }
+
+  private HaxeDebuggerChildren() {
+  }
+
+  /**
+   * Adds children to a node a page at a time, starting at [from].  The children are only created once
+   * their page is shown.
+   */
+  static void addPage(@NotNull XCompositeNode node, int count, @NotNull Factory children, int from) {
+    int end = Math.min(count, from + PAGE_SIZE);
+    XValueChildrenList childrenList = new XValueChildrenList(Math.max(0, end - from));
+    for (int i = from; i < end; i++) {
+      Pair<String, XValue> child = children.create(i);
+      childrenList.add(child.getFirst(), child.getSecond());
+    }
+    boolean last = end >= count;
+    node.addChildren(childrenList, last);
+    if (!last) {
+      node.tooManyChildren(count - end, () -> addPage(node, count, children, end));
+    }
+  }
+
+  /**
+   * The elements of a structured value, converted when they are first asked for.  The tree asks for
+   * pages on the EDT while responses are handled on the channel's thread, so access is synchronized.
+   */
+  static final class StructuredList<T> {
+    private final List<T> myConverted = new ArrayList<>();
+    private final BiFunction<String, debugger.StructuredValue, T> myConverter;
+    private final int mySize;
+    private debugger.StructuredValueList myRest;
+
+    StructuredList(@NotNull debugger.StructuredValueList list,
+                   @NotNull BiFunction<String, debugger.StructuredValue, T> converter) {
+      myRest = list;
+      mySize = countElements(list);
+      myConverter = converter;
+    }
+
+    private static int countElements(@NotNull debugger.StructuredValueList list) {
+      int count = 0;
+      for (debugger.StructuredValueList rest = list; rest != debugger.StructuredValueList.Terminator;
+           rest = (debugger.StructuredValueList)rest.params[2]) {
+        count++;
+      }
+      return count;
+    }
+
+    int size() {
+      return mySize;
+    }
+
+    @NotNull
+    synchronized T get(int index) {
+      while (myConverted.size() <= index) {
+        String name = (String)myRest.params[0];
+        debugger.StructuredValue value = (debugger.StructuredValue)myRest.params[1];
+        myRest = (debugger.StructuredValueList)myRest.params[2];
+        myConverted.add(myConverter.apply(name, value));
+      }
+      return myConverted.get(index);
+    }
+
+    synchronized int getConvertedCount() {
+      return myConverted.size();
+    }
+  }
+}
@@ -0,0 +1,559 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import haxe.lang.ParamEnum;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes the hxcpp debugger wire protocol without going through the Haxe-generated
+ * {@code debugger.HaxeProtocol}.
+ *
+ * Each message is an eight digit ASCII length followed by a value in the Haxe serialization format.
+ * Messages are read through a buffer in one piece and decoded straight from the bytes into the
+ * generated {@code debugger.*} enum classes, so the runner consumes the same values as before.
+ * Commands are encoded the way {@code haxe.Serializer} encodes them and flushed one at a time.
+ *
+ * Reading and writing may happen on different threads, but each direction must only be used by one
+ * thread at a time.
+ */
+public final class HaxeDebuggerCodec {
+
+  public static final String CLIENT_IDENTIFICATION = "Haxe debug client v1.1 coming at you!\n\n";
+  public static final String SERVER_IDENTIFICATION = "Haxe debug server v1.1 ready and willing, sir!\n\n";
+
+  /** The largest message that {@code debugger.HaxeProtocol} accepts. */
+  public static final int MAX_MESSAGE_LENGTH = 2097152;
+
+  public static final int LENGTH_DIGITS = 8;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final Map<String, EnumType> ENUM_TYPES = new ConcurrentHashMap<>();
+
+  private final InputStream myInput;
+  private final OutputStream myOutput;
+  private final byte[] myLength = new byte[LENGTH_DIGITS];
+  private byte[] myPayload = new byte[1024];
+
+  public HaxeDebuggerCodec(@NotNull InputStream input, @NotNull OutputStream output) {
+    myInput = new BufferedInputStream(input, BUFFER_SIZE);
+    myOutput = new BufferedOutputStream(output, BUFFER_SIZE);
+  }
+
+  public void readClientIdentification() throws IOException {
+    byte[] id = new byte[CLIENT_IDENTIFICATION.length()];
+    readFully(id, id.length);
+    String received = new String(id, StandardCharsets.ISO_8859_1);
+    if (!received.equals(CLIENT_IDENTIFICATION)) {
+      throw new IOException("Unexpected client identification string: " + received);
+    }
+  }
+
+  public void writeServerIdentification() throws IOException {
+    myOutput.write(SERVER_IDENTIFICATION.getBytes(StandardCharsets.ISO_8859_1));
+    myOutput.flush();
+  }
+
+  @NotNull
+  public debugger.Message readMessage() throws IOException {
+    readFully(myLength, LENGTH_DIGITS);
+    int length = decodeLength(myLength, 0);
+    if (myPayload.length < length) {
+      myPayload = new byte[Math.max(length, myPayload.length * 2)];
+    }
+    readFully(myPayload, length);
+    return decodeMessage(myPayload, 0, length);
+  }
+
+  public void writeCommand(@NotNull debugger.Command command) throws IOException {
+    myOutput.write(encodeFrame(command));
+    myOutput.flush();
+  }
+
+  private void readFully(byte[] buffer, int length) throws IOException {
+    int read = 0;
+    while (read < length) {
+      int count = myInput.read(buffer, read, length - read);
+      if (count < 0) {
+        throw new EOFException("Debugger connection closed after " + read + " of " + length + " bytes");
+      }
+      read += count;
+    }
+  }
+
+  /**
+   * Decodes the eight digit length that starts each message.
+   */
+  public static int decodeLength(byte[] buf, int offset) throws IOException {
+    int length = 0;
+    for (int i = offset; i < offset + LENGTH_DIGITS; i++) {
+      byte digit = buf[i];
+      if (digit < '0' || digit > '9') {
+        throw new IOException("Read bad message length: " +
+                              new String(buf, offset, LENGTH_DIGITS, StandardCharsets.ISO_8859_1) + ".");
+      }
+      length = length * 10 + (digit - '0');
+    }
+    if (length > MAX_MESSAGE_LENGTH) {
+      throw new IOException("Read bad message length: " + length + ".");
+    }
+    return length;
+  }
+
+  /**
+   * Decodes the payload of a message, without its length.
+   */
+  @NotNull
+  public static debugger.Message decodeMessage(byte[] buf, int offset, int length) throws IOException {
+    Object value = new Decoder(buf, offset, offset + length).decode();
+    if (!(value instanceof debugger.Message)) {
+      throw new IOException("Expected Message, but got " + value);
+    }
+    return (debugger.Message)value;
+  }
+
+  /**
+   * Encodes a command with its length, ready to be written.
+   */
+  public static byte[] encodeFrame(@NotNull debugger.Command command) {
+    byte[] payload = encode(command);
+    byte[] frame = new byte[LENGTH_DIGITS + payload.length];
+    int remaining = payload.length;
+    for (int i = LENGTH_DIGITS - 1; i >= 0; i--) {
+      frame[i] = (byte)('0' + remaining % 10);
+      remaining /= 10;
+    }
+    System.arraycopy(payload, 0, frame, LENGTH_DIGITS, payload.length);
+    return frame;
+  }
+
+  /**
+   * Decodes one value in the Haxe serialization format.
+   */
+  @Nullable
+  public static Object decode(@NotNull String serialized) throws IOException {
+    byte[] bytes = serialized.getBytes(StandardCharsets.ISO_8859_1);
+    return new Decoder(bytes, 0, bytes.length).decode();
+  }
+
+  /**
+   * Encodes a value in the Haxe serialization format, as {@code haxe.Serializer.run} does.
+   */
+  public static byte[] encode(@Nullable Object value) {
+    Encoder encoder = new Encoder();
+    encoder.encode(value);
+    return encoder.myOut.toByteArray();
+  }
+
+  private static final class PartialEnum {
+    final EnumType type;
+    final int index;
+    final Object[] params;
+    int filled;
+
+    PartialEnum(EnumType type, int index, Object[] params) {
+      this.type = type;
+      this.index = index;
+      this.params = params;
+    }
+  }
+
+  private static final class Decoder {
+    private final byte[] myBuf;
+    private final int myEnd;
+    private final List<String> myStrings = new ArrayList<>();
+    private int myPos;
+
+    Decoder(byte[] buf, int start, int end) {
+      myBuf = buf;
+      myPos = start;
+      myEnd = end;
+    }
+
+    /**
+     * Decodes without recursion: lists such as large arrays arrive as enums nested as deep as they
+     * are long.
+     */
+    Object decode() throws IOException {
+      ArrayDeque<PartialEnum> stack = new ArrayDeque<>();
+      while (true) {
+        Object value;
+        char tag = next();
+        if (tag == 'w' || tag == 'j') {
+          EnumType type = EnumType.get(readName());
+          int index;
+          if (tag == 'w') {
+            index = type.indexOf(readName());
+          }
+          else {
+            expect(':');
+            index = readInt();
+          }
+          expect(':');
+          int count = readInt();
+          if (count > 0) {
+            stack.push(new PartialEnum(type, index, new Object[count]));
+            continue;
+          }
+          value = type.getConstant(index);
+        }
+        else {
+          myPos--;
+          value = readScalar();
+        }
+
+        while (true) {
+          PartialEnum parent = stack.peek();
+          if (parent == null) {
+            if (myPos != myEnd) {
+              throw error("Unexpected data after value");
+            }
+            return value;
+          }
+          parent.params[parent.filled++] = value;
+          if (parent.filled < parent.params.length) {
+            break;
+          }
+          stack.pop();
+          value = parent.type.create(parent.index, parent.params);
+        }
+      }
+    }
+
+    private Object readScalar() throws IOException {
+      switch (next()) {
+        case 'n':
+          return null;
+        case 't':
+          return Boolean.TRUE;
+        case 'f':
+          return Boolean.FALSE;
+        case 'z':
+          return 0;
+        case 'i':
+          return readInt();
+        case 'd':
+          return readFloat();
+        case 'k':
+          return Double.NaN;
+        case 'm':
+          return Double.NEGATIVE_INFINITY;
+        case 'p':
+          return Double.POSITIVE_INFINITY;
+        case 'y':
+          return readString();
+        case 'R': {
+          int index = readInt();
+          if (index < 0 || index >= myStrings.size()) {
+            throw error("Invalid string reference");
+          }
+          return myStrings.get(index);
+        }
+        default:
+          myPos--;
+          throw error("Unsupported value");
+      }
+    }
+
+    private String readName() throws IOException {
+      Object name = readScalar();
+      if (!(name instanceof String)) {
+        throw error("Invalid enum name");
+      }
+      return (String)name;
+    }
+
+    private String readString() throws IOException {
+      int length = readInt();
+      expect(':');
+      if (length < 0 || myEnd - myPos < length) {
+        throw error("Invalid string length");
+      }
+      String value = urlDecode(myBuf, myPos, length);
+      myPos += length;
+      myStrings.add(value);
+      return value;
+    }
+
+    private int readInt() throws IOException {
+      boolean negative = myPos < myEnd && myBuf[myPos] == '-';
+      if (negative) {
+        myPos++;
+      }
+      int start = myPos;
+      int value = 0;
+      while (myPos < myEnd && myBuf[myPos] >= '0' && myBuf[myPos] <= '9') {
+        value = value * 10 + (myBuf[myPos++] - '0');
+      }
+      if (myPos == start) {
+        throw error("Invalid number");
+      }
+      return negative ? -value : value;
+    }
+
+    private double readFloat() throws IOException {
+      int start = myPos;
+      while (myPos < myEnd && isFloatChar(myBuf[myPos])) {
+        myPos++;
+      }
+      try {
+        return Double.parseDouble(new String(myBuf, start, myPos - start, StandardCharsets.ISO_8859_1));
+      }
+      catch (NumberFormatException e) {
+        throw error("Invalid float");
+      }
+    }
+
+    private static boolean isFloatChar(byte c) {
+      return (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.' || c == 'e' || c == 'E';
+    }
+
+    private void expect(char c) throws IOException {
+      if (next() != c) {
+        myPos--;
+        throw error("Expected '" + c + "'");
+      }
+    }
+
+    private char next() throws IOException {
+      if (myPos >= myEnd) {
+        throw error("Unexpected end of message");
+      }
+      return (char)myBuf[myPos++];
+    }
+
+    private IOException error(String message) {
+      return new IOException(message + " at position " + myPos + " of debugger message");
+    }
+  }
+
+  private static final class Encoder {
+    private final ByteArrayOutputStream myOut = new ByteArrayOutputStream(256);
+    private final Map<String, Integer> myStrings = new HashMap<>();
+
+    void encode(@Nullable Object value) {
+      if (value == null) {
+        myOut.write('n');
+      }
+      else if (value instanceof Boolean) {
+        myOut.write((Boolean)value ? 't' : 'f');
+      }
+      else if (value instanceof Integer) {
+        int i = (Integer)value;
+        if (i == 0) {
+          myOut.write('z');
+        }
+        else {
+          myOut.write('i');
+          writeAscii(Integer.toString(i));
+        }
+      }
+      else if (value instanceof String) {
+        encodeString((String)value);
+      }
+      else if (value instanceof ParamEnum) {
+        ParamEnum e = (ParamEnum)value;
+        myOut.write('w');
+        encodeString(e.getClass().getName());
+        encodeString(e.getTag());
+        myOut.write(':');
+        Object[] params = e.params;
+        if (params == null) {
+          myOut.write('0');
+        }
+        else {
+          writeAscii(Integer.toString(params.length));
+          for (Object param : params) {
+            encode(param);
+          }
+        }
+      }
+      else {
+        throw new IllegalArgumentException("Cannot encode " + value.getClass().getName() + " for the debugger");
+      }
+    }
+
+    private void encodeString(String s) {
+      Integer index = myStrings.get(s);
+      if (index != null) {
+        myOut.write('R');
+        writeAscii(index.toString());
+        return;
+      }
+      myStrings.put(s, myStrings.size());
+      byte[] encoded = urlEncode(s);
+      myOut.write('y');
+      writeAscii(Integer.toString(encoded.length));
+      myOut.write(':');
+      myOut.write(encoded, 0, encoded.length);
+    }
+
+    private void writeAscii(String s) {
+      for (int i = 0; i < s.length(); i++) {
+        myOut.write(s.charAt(i));
+      }
+    }
+  }
+
+  private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.ISO_8859_1);
+
+  /**
+   * Encodes like Haxe's {@code StringTools.urlEncode} on Java: {@link java.net.URLEncoder} followed by
+   * {@code postProcessUrlEncode}, which leaves {@code !'()~} alone and writes spaces as {@code %20}.
+   */
+  private static byte[] urlEncode(String s) {
+    byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+    int unsafe = 0;
+    for (byte b : utf8) {
+      if (!isUrlSafe(b)) {
+        unsafe++;
+      }
+    }
+    if (unsafe == 0) {
+      return utf8;
+    }
+    byte[] encoded = new byte[utf8.length + unsafe * 2];
+    int pos = 0;
+    for (byte b : utf8) {
+      if (isUrlSafe(b)) {
+        encoded[pos++] = b;
+      }
+      else {
+        encoded[pos++] = '%';
+        encoded[pos++] = HEX_DIGITS[(b >> 4) & 0xF];
+        encoded[pos++] = HEX_DIGITS[b & 0xF];
+      }
+    }
+    return encoded;
+  }
+
+  private static boolean isUrlSafe(byte b) {
+    return (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9') ||
+           b == '.' || b == '-' || b == '*' || b == '_' || b == '!' || b == '\'' || b == '(' || b == ')' || b == '~';
+  }
+
+  /**
+   * Decodes like {@link java.net.URLDecoder}, which Haxe's {@code StringTools.urlDecode} uses on Java.
+   */
+  private static String urlDecode(byte[] buf, int start, int length) throws IOException {
+    int end = start + length;
+    boolean plain = true;
+    for (int i = start; i < end && plain; i++) {
+      plain = buf[i] != '%' && buf[i] != '+';
+    }
+    if (plain) {
+      return new String(buf, start, length, StandardCharsets.ISO_8859_1);
+    }
+    ByteArrayOutputStream decoded = new ByteArrayOutputStream(length);
+    for (int i = start; i < end; i++) {
+      byte b = buf[i];
+      if (b == '+') {
+        decoded.write(' ');
+      }
+      else if (b == '%') {
+        int high = i + 2 < end ? Character.digit(buf[i + 1], 16) : -1;
+        int low = high >= 0 ? Character.digit(buf[i + 2], 16) : -1;
+        if (low < 0) {
+          throw new IOException("Invalid escape in debugger string");
+        }
+        decoded.write((high << 4) | low);
+        i += 2;
+      }
+      else {
+        decoded.write(b);
+      }
+    }
+    return decoded.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * A generated Haxe enum class.  Constructors without arguments are shared constants in those classes;
+   * the others are created through the {@code (int index, Object[] params)} constructor.
+   */
+  private static final class EnumType {
+    private final String myName;
+    private final Map<String, Integer> myIndices = new HashMap<>();
+    private final Object[] myConstants;
+    private final Constructor<?> myConstructor;
+
+    private EnumType(String name, Class<?> enumClass) throws ReflectiveOperationException {
+      myName = name;
+      String[] constructs = (String[])enumClass.getField("__hx_constructs").get(null);
+      for (int i = 0; i < constructs.length; i++) {
+        myIndices.put(constructs[i], i);
+      }
+      myConstants = new Object[constructs.length];
+      for (Field field : enumClass.getFields()) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) && field.getType() == enumClass) {
+          ParamEnum constant = (ParamEnum)field.get(null);
+          if (constant != null) {
+            myConstants[constant.index] = constant;
+          }
+        }
+      }
+      myConstructor = enumClass.getConstructor(int.class, Object[].class);
+    }
+
+    static EnumType get(String name) throws IOException {
+      EnumType type = ENUM_TYPES.get(name);
+      if (type != null) {
+        return type;
+      }
+      // Only the protocol's own enums can be created from what the debugged program sends.
+      if (!name.startsWith("debugger.")) {
+        throw new IOException("Unexpected enum in debugger message: " + name);
+      }
+      try {
+        Class<?> enumClass = Class.forName(name, true, debugger.Message.class.getClassLoader());
+        if (!ParamEnum.class.isAssignableFrom(enumClass)) {
+          throw new IOException("Not an enum: " + name);
+        }
+        type = new EnumType(name, enumClass);
+      }
+      catch (ReflectiveOperationException | ClassCastException e) {
+        throw new IOException("Unknown enum in debugger message: " + name, e);
+      }
+      ENUM_TYPES.putIfAbsent(name, type);
+      return type;
+    }
+
+    int indexOf(String constructor) throws IOException {
+      Integer index = myIndices.get(constructor);
+      if (index == null) {
+        throw new IOException("Unknown constructor " + myName + "." + constructor);
+      }
+      return index;
+    }
+
+    Object getConstant(int index) throws IOException {
+      if (index < 0 || index >= myConstants.length || myConstants[index] == null) {
+        throw new IOException("Constructor " + index + " of " + myName + " needs parameters");
+      }
+      return myConstants[index];
+    }
+
+    Object create(int index, Object[] params) throws IOException {
+      if (index < 0 || index >= myConstants.length) {
+        throw new IOException("Unknown constructor " + index + " of " + myName);
+      }
+      try {
+        return myConstructor.newInstance(index, params);
+      }
+      catch (ReflectiveOperationException e) {
+        throw new IOException("Cannot create " + myName, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.openapi.util.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * What was fetched from the program while it is suspended, so that switching frames or expanding a
+ * value again doesn't ask again.  A new one is started each time the program stops or runs.
+ */
+final class HaxeDebuggerSuspension {
+  // Variable names by frame number.
+  private final Map<Integer, debugger.StringList> myVariables = new ConcurrentHashMap<>();
+  // GetStructured responses by frame number and expression.
+  private final Map<Pair<Integer, String>, debugger.Message> myValues = new ConcurrentHashMap<>();
+
+  @Nullable
+  debugger.StringList getVariables(int frameNumber) {
+    return myVariables.get(frameNumber);
+  }
+
+  void putVariables(int frameNumber, @NotNull debugger.StringList variables) {
+    myVariables.put(frameNumber, variables);
+  }
+
+  @Nullable
+  debugger.Message getValue(int frameNumber, @NotNull String expression) {
+    return myValues.get(Pair.create(frameNumber, expression));
+  }
+
+  void putValue(int frameNumber, @NotNull String expression, @NotNull debugger.Message message) {
+    myValues.put(Pair.create(frameNumber, expression), message);
+  }
+}
@@ -0,0 +1,147 @@
+package com.intellij.plugins.haxe.util;
+
+import com.intellij.plugins.haxe.lang.psi.HaxeFile;
+import com.intellij.plugins.haxe.lang.psi.HaxeImportStatement;
+import com.intellij.plugins.haxe.lang.psi.HaxeNamedComponent;
+import com.intellij.plugins.haxe.lang.psi.HaxeReferenceExpression;
+import com.intellij.plugins.haxe.model.HaxeEnumValueModel;
+import com.intellij.plugins.haxe.model.HaxeImportModel;
+import com.intellij.plugins.haxe.model.HaxeImportableModel;
+import com.intellij.plugins.haxe.model.HaxeModel;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Which import statements of a file are needed by which of its references.
+ *
+ * Every import is asked once for the names it exposes, and every external reference of the file
+ * is then looked up by name, instead of testing every import against every reference.  The result
+ * is cached per file; because imports expose the members of other files, it is dropped on any PSI
+ * change.
+ *
+ * A reference is attributed to all explicit imports exposing its name, or to the wildcard imports
+ * exposing it when no explicit import does, so a wildcard import is kept as long as it is the only
+ * source of some name.  Of several identical imports, only the first is used.  Imports of enums and
+ * of typedefs of enums also expose the enum's constructors.
+ */
+public class HaxeImportUsage {
+
+  private final List<HaxeImportStatement> myImports;
+  private final Map<PsiElement, List<HaxeImportStatement>> myExposingImports;
+  private final Set<HaxeImportStatement> myUsedImports;
+
+  private HaxeImportUsage(@NotNull List<HaxeImportStatement> imports,
+                          @NotNull Map<PsiElement, List<HaxeImportStatement>> exposingImports) {
+    myImports = imports;
+    myExposingImports = exposingImports;
+    myUsedImports = new HashSet<>();
+    exposingImports.values().forEach(myUsedImports::addAll);
+  }
+
+  @NotNull
+  public static HaxeImportUsage forFile(@NotNull HaxeFile file) {
+    return CachedValuesManager.getCachedValue(file, () ->
+      CachedValueProvider.Result.create(compute(file), PsiModificationTracker.MODIFICATION_COUNT));
+  }
+
+  @NotNull
+  private static HaxeImportUsage compute(@NotNull HaxeFile file) {
+    List<HaxeImportStatement> imports = file.getImportStatements();
+
+    Map<String, List<HaxeImportStatement>> explicitByName = new HashMap<>();
+    Map<String, List<HaxeImportStatement>> wildcardsByName = new HashMap<>();
+    Set<String> seenImports = new HashSet<>();
+    for (HaxeImportStatement statement : imports) {
+      HaxeImportModel model = statement.getModel();
+      if (!seenImports.add(getImportKey(statement, model))) {
+        continue;
+      }
+      Map<String, List<HaxeImportStatement>> byName = model.hasWildcard() ? wildcardsByName : explicitByName;
+      for (String name : getExposedNames(model)) {
+        byName.computeIfAbsent(name, k -> new ArrayList<>(1)).add(statement);
+      }
+    }
+
+    Map<PsiElement, List<HaxeImportStatement>> exposingImports = new HashMap<>();
+    for (PsiElement reference : HaxeImportUtil.getExternalReferences(file)) {
+      String name = reference instanceof HaxeNamedComponent component ? component.getName() : reference.getText();
+      List<HaxeImportStatement> exposing = explicitByName.get(name);
+      if (exposing == null) {
+        exposing = wildcardsByName.get(name);
+      }
+      if (exposing != null) {
+        exposingImports.put(reference, exposing);
+      }
+    }
+    return new HaxeImportUsage(imports, exposingImports);
+  }
+
+  /**
+   * @return the names that HaxeImportModel.exposeByName resolves for the import.
+   */
+  @NotNull
+  private static Set<String> getExposedNames(@NotNull HaxeImportModel model) {
+    if (!model.hasWildcard() && model.getReferenceExpression() == null) {
+      return Collections.emptySet();
+    }
+    List<HaxeModel> members = model.getExposedMembers();
+    if (members.isEmpty()) {
+      return Collections.emptySet();
+    }
+    if (!model.hasWildcard() && model.hasAlias()) {
+      String alias = model.getAliasName();
+      return alias == null ? Collections.emptySet() : Collections.singleton(alias);
+    }
+    Set<String> names = new HashSet<>(members.size());
+    for (HaxeModel member : members) {
+      if (member.getName() != null) {
+        names.add(member.getName());
+      }
+      // Constructors of imported enums and typedefs of enums are used unqualified.
+      for (HaxeEnumValueModel value : HaxeImportableModel.getImportedEnumValues(member)) {
+        names.add(value.getName());
+      }
+    }
+    return names;
+  }
+
+  @NotNull
+  private static String getImportKey(@NotNull HaxeImportStatement statement, @NotNull HaxeImportModel model) {
+    HaxeReferenceExpression expression = model.getReferenceExpression();
+    if (expression == null) {
+      return statement.getText();
+    }
+    return expression.getText() + (model.hasWildcard() ? ".*" : "") + (model.hasAlias() ? " in " + model.getAliasName() : "");
+  }
+
+  /**
+   * @return the imports the reference needs, or an empty list when it isn't imported.
+   */
+  @NotNull
+  public List<HaxeImportStatement> getExposingImports(@NotNull PsiElement reference) {
+    return myExposingImports.getOrDefault(reference, Collections.emptyList());
+  }
+
+  public boolean isUsed(@NotNull HaxeImportStatement statement) {
+    return myUsedImports.contains(statement);
+  }
+
+  /**
+   * @return the unused imports, in source order.
+   */
+  @NotNull
+  public List<HaxeImportStatement> getUnusedImports() {
+    List<HaxeImportStatement> unused = new ArrayList<>();
+    for (HaxeImportStatement statement : myImports) {
+      if (!isUsed(statement)) {
+        unused.add(statement);
+      }
+    }
+    return unused;
+  }
+}
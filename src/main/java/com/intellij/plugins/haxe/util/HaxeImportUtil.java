@@ -20,13 +20,10 @@
 package com.intellij.plugins.haxe.util;
 
 import com.intellij.plugins.haxe.lang.psi.*;
-import com.intellij.plugins.haxe.model.HaxeImportModel;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiPackage;
 import com.intellij.psi.PsiWhiteSpace;
-import com.intellij.util.SmartList;
-import com.intellij.util.containers.MultiMap;
 import lombok.CustomLog;
 
 import org.jetbrains.annotations.NotNull;
@@ -37,40 +34,12 @@ import java.util.*;
 public class HaxeImportUtil {
   //static {log.setLevel(LogLevel.DEBUG);}
 
+  /**
+   * @return the import statements of the file that no reference needs, in source order.
+   * @see HaxeImportUsage
+   */
   public static List<HaxeImportStatement> findUnusedImports(PsiFile file) {
-    final Collection<PsiElement> externalReferences = getExternalReferences(file);
-
-    List<HaxeImportStatement> allImportStatements = ((HaxeFile)file).getImportStatements();
-
-    boolean hasWildcards = false;
-    for (HaxeImportStatement allImportStatement : allImportStatements) {
-      if (allImportStatement.getModel().hasWildcard()) {
-        hasWildcards = true;
-        break;
-      }
-    }
-
-    List<HaxeImportStatement> usefulStatements = new ArrayList<>();
-    Set<HaxeImportStatement> uniqueValues = new HashSet<>();
-
-    for (HaxeImportStatement statement : allImportStatements) {
-      for (PsiElement referencedElement : externalReferences) {
-        if (isStatementExposesReference(statement, referencedElement)) {
-            if (uniqueValues.add(statement)) {
-              usefulStatements.add(statement);
-            }
-          break;
-        }
-      }
-    }
-
-    if (hasWildcards) {
-      removeUnusedWildcards(externalReferences, usefulStatements);
-    }
-
-    usefulStatements.forEach(allImportStatements::remove);
-
-    return allImportStatements;
+    return HaxeImportUsage.forFile((HaxeFile)file).getUnusedImports();
   }
 
   public static boolean isStatementExposesReference(HaxeImportStatement statement, PsiElement referencedElement) {
@@ -88,48 +57,9 @@ public class HaxeImportUtil {
     return result;
   }
 
-  private static void removeUnusedWildcards(Collection<PsiElement> classesInFile, List<HaxeImportStatement> usefulStatements) {
-    final MultiMap<PsiElement, HaxeImportModel> referenceMap = new MultiMap<>();
-
-    usefulStatements.forEach(statement -> classesInFile.forEach(referencedElement -> {
-      if (referencedElement instanceof HaxeClass ||
-          referencedElement instanceof HaxeFieldDeclaration ||
-          referencedElement instanceof HaxeMethod) {
-        HaxeNamedComponent component = (HaxeNamedComponent)referencedElement;
-        if (statement.getModel().exposeByName(component.getName()) != null) {
-          referenceMap.putValue(referencedElement, statement.getModel());
-        }
-      }
-      else if (referencedElement instanceof HaxeReference) {
-        if (statement.getModel().exposeByName(referencedElement.getText()) != null) {
-          referenceMap.putValue(referencedElement, statement.getModel());
-        }
-      }
-    }));
-
-    List<HaxeImportModel> uniqueWildcards = new SmartList<>();
-    List<HaxeImportModel> notUniqueWildcards = new SmartList<>();
-    for (PsiElement key : referenceMap.keySet()) {
-      Collection<HaxeImportModel> imports = referenceMap.get(key);
-      for (HaxeImportModel statement : imports) {
-        if (statement.hasWildcard()) {
-          if (imports.size() > 1 && !uniqueWildcards.contains(statement) && !notUniqueWildcards.contains(statement)) {
-            notUniqueWildcards.add(statement);
-          }
-          if (imports.size() == 1 && !uniqueWildcards.contains(statement)) {
-            uniqueWildcards.add(statement);
-          }
-        }
-      }
-    }
-
-    notUniqueWildcards.forEach(model -> usefulStatements.remove(model.getBasePsi()));
-  }
-
-
   public static Collection<PsiElement> getExternalReferences(@NotNull PsiFile file) {
     final Map<PsiElement, PsiElement> result = new HashMap<>();
-    final List<String> names = new ArrayList<>();
+    final Set<String> names = new HashSet<>();
 
     file.acceptChildren(new HaxeRecursiveVisitor() {
       @Override
@@ -35,6 +35,7 @@ import com.intellij.plugins.haxe.lang.psi.HaxePsiCompositeElement;
 import com.intellij.plugins.haxe.lang.psi.impl.HaxePsiDocComment;
 import com.intellij.plugins.haxe.lang.util.HaxeAstUtil;
 import com.intellij.psi.*;
+import com.intellij.psi.impl.source.tree.CompositeElement;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ArrayUtil;
@@ -139,6 +140,14 @@ public class UsefulPsiTreeUtil {
     return prev;
   }
 
+  /**
+   * @return a count that changes whenever anything in the node's subtree changes, or -1 for leaves.
+   *         Nodes outside of a changed range keep their count when the file is reparsed.
+   */
+  public static int getSubtreeModificationCount(@NotNull ASTNode node) {
+    return node instanceof CompositeElement composite ? composite.getModificationCount() : -1;
+  }
+
   public static boolean isWhitespaceOrComment(ASTNode node) {
     return isWhitespaceOrComment(node.getPsi());
   }
@@ -0,0 +1,184 @@
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.HaxeCommonBundle;
+import com.intellij.plugins.haxe.config.HaxeConfiguration;
+import com.intellij.plugins.haxe.config.HaxeTarget;
+import com.intellij.plugins.haxe.config.sdk.HaxeSdkAdditionalDataBase;
+import com.intellij.plugins.haxe.module.HaxeModuleSettingsBase;
+import com.intellij.plugins.haxe.module.impl.HaxeModuleSettingsBaseImpl;
+import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class HaxeBuildFingerprintTest extends UsefulTestCase {
+
+  private static HaxeBuildFingerprint fingerprint(String commandLine, Map<String, String> defines, List<String> libraries,
+                                                  Map<String, HaxeBuildFingerprint.FileState> inputs,
+                                                  Map<String, String> outputs) {
+    return new HaxeBuildFingerprint(List.of(commandLine), defines, libraries, inputs, outputs);
+  }
+
+  private static HaxeBuildFingerprint.FileState state(String stamp, String hash) {
+    return new HaxeBuildFingerprint.FileState(stamp, hash);
+  }
+
+  private static final Map<String, HaxeBuildFingerprint.FileState> INPUTS =
+    Map.of("/p/src/Main.hx", state("10:1", "aa"), "/p/src/Util.hx", state("20:1", "bb"));
+  private static final Map<String, String> OUTPUTS = Map.of("/p/bin/main.js", "100:2");
+
+  private static HaxeBuildFingerprint base() {
+    return fingerprint("haxe -main Main -js /p/bin/main.js", Map.of("debug", "1"), List.of("Haxelib: lime:8.0.1"),
+                       INPUTS, OUTPUTS);
+  }
+
+  @Test
+  public void testMatchingFingerprintSkipsBuild() {
+    assertNull(base().explainRebuild(base()));
+  }
+
+  @Test
+  public void testTouchedFileWithSameContentSkipsBuild() {
+    HaxeBuildFingerprint touched = fingerprint("haxe -main Main -js /p/bin/main.js", Map.of("debug", "1"),
+                                               List.of("Haxelib: lime:8.0.1"),
+                                               Map.of("/p/src/Main.hx", state("10:5", "aa"),
+                                                      "/p/src/Util.hx", state("20:1", "bb")),
+                                               OUTPUTS);
+    assertNull(touched.explainRebuild(base()));
+  }
+
+  @Test
+  public void testExplainsWhyItRebuilds() {
+    assertEquals("no previous successful build is recorded", base().explainRebuild(null));
+
+    HaxeBuildFingerprint edited = fingerprint("haxe -main Main -js /p/bin/main.js", Map.of("debug", "1"),
+                                              List.of("Haxelib: lime:8.0.1"),
+                                              Map.of("/p/src/Main.hx", state("11:3", "cc"),
+                                                     "/p/src/New.hx", state("5:3", "dd")),
+                                              OUTPUTS);
+    assertEquals("sources changed: modified /p/src/Main.hx, added /p/src/New.hx, removed /p/src/Util.hx",
+                 edited.explainRebuild(base()));
+
+    HaxeBuildFingerprint defines = fingerprint("haxe -main Main -js /p/bin/main.js", Map.of("debug", "1", "mobile", ""),
+                                               List.of("Haxelib: lime:8.0.1"), INPUTS, OUTPUTS);
+    assertEquals("defines changed: added mobile", defines.explainRebuild(base()));
+
+    HaxeBuildFingerprint library = fingerprint("haxe -main Main -js /p/bin/main.js", Map.of("debug", "1"),
+                                               List.of("Haxelib: lime:8.1.0"), INPUTS, OUTPUTS);
+    assertEquals("haxelib versions changed: added Haxelib: lime:8.1.0, removed Haxelib: lime:8.0.1",
+                 library.explainRebuild(base()));
+
+    HaxeBuildFingerprint deleted = fingerprint("haxe -main Main -js /p/bin/main.js", Map.of("debug", "1"),
+                                               List.of("Haxelib: lime:8.0.1"), INPUTS, Map.of("/p/bin/main.js", "missing"));
+    assertEquals("output artifacts changed since the last build: modified /p/bin/main.js", deleted.explainRebuild(base()));
+
+    HaxeBuildFingerprint commandLine = fingerprint("haxe -main Main -js /p/bin/main.js -debug", Map.of("debug", "1"),
+                                                   List.of("Haxelib: lime:8.0.1"), INPUTS, OUTPUTS);
+    assertTrue(commandLine.explainRebuild(base()).startsWith("the compiler command line changed"));
+  }
+
+  @Test
+  public void testUntrackedOutputsAlwaysRebuild() {
+    HaxeBuildFingerprint lime = fingerprint("haxelib run lime build project.xml html5", Map.of(), List.of(), Map.of(), null);
+    assertEquals("the output of this build system is not tracked", lime.explainRebuild(lime));
+  }
+
+  /**
+   * An hxml build of module "app" without an SDK, so that a build that isn't skipped fails right away.
+   */
+  private static class HxmlContext implements HaxeCommonCompilerUtil.CompilationContext {
+    final HaxeModuleSettingsBaseImpl settings = new HaxeModuleSettingsBaseImpl();
+    final List<String> sourceRoots = new ArrayList<>();
+    final List<String> info = new ArrayList<>();
+    final String moduleDir;
+
+    HxmlContext(@NotNull File moduleDir) {
+      this.moduleDir = moduleDir.getPath();
+      settings.setBuildConfig(HaxeConfiguration.HXML.asBuildConfigValue());
+      settings.setHxmlPath(new File(moduleDir, "build.hxml").getPath());
+      settings.setHaxeTarget(HaxeTarget.JAVA_SCRIPT);
+    }
+
+    @Override public HaxeSdkAdditionalDataBase getHaxeSdkData() { return null; }
+    @NotNull @Override public HaxeModuleSettingsBase getModuleSettings() { return settings; }
+    @Override public String getModuleName() { return "app"; }
+    @Override public String getCompilationClass() { return "Main"; }
+    @Override public String getOutputFileName() { return "main.js"; }
+    @Override public String getOutputDirectory() { return "bin"; }
+    @Override public Boolean getIsTestBuild() { return false; }
+    @Override public void errorHandler(String message) { }
+    @Override public void warningHandler(String message) { }
+    @Override public void infoHandler(String message) { info.add(message); }
+    @Override public void log(String message) { }
+    @Override public String getSdkHomePath() { return null; }
+    @Override public String getHaxelibPath() { return null; }
+    @Override public String getNekoBinPath() { return null; }
+    @Override public boolean isDebug() { return false; }
+    @Override public String getSdkName() { return null; }
+    @Override public List<String> getSourceRoots() { return sourceRoots; }
+    @Override public String getModuleDefaultCompileOutputPath() { return moduleDir; }
+    @Override public void setErrorRoot(String root) { }
+    @Override public String getErrorRoot() { return moduleDir; }
+    @Override public void handleOutput(String[] lines) { }
+    @Override public HaxeTarget getHaxeTarget() { return settings.getHaxeTarget(); }
+    @Override public String getModuleDirPath() { return moduleDir; }
+  }
+
+  private static boolean compileIfChanged(HxmlContext context, File fingerprint, Map<String, String> defines, boolean forced) {
+    context.info.clear();
+    return HaxeCommonCompilerUtil.compileIfChanged(context, fingerprint, defines, List.of("Haxelib: lime:8.0.1"), forced);
+  }
+
+  private static String rebuildReason(String reason) {
+    return HaxeCommonBundle.message("compiling.module.0.because.1", "app", reason);
+  }
+
+  @Test
+  public void testSkipOrBuildDecision() throws IOException {
+    File moduleDir = createTempDir("app");
+    FileUtil.writeToFile(new File(moduleDir, "build.hxml"), "-cp src\n-main Main\n-js bin/main.js\n");
+    FileUtil.writeToFile(new File(moduleDir, "src/Main.hx"), "class Main { static function main() {} }");
+    FileUtil.writeToFile(new File(moduleDir, "bin/main.js"), "");
+    // A library root, as the builders add them next to the module's own roots.
+    File library = new File(createTempDir("lib"), "Lib.hx");
+    FileUtil.writeToFile(library, "class Lib {}");
+    HxmlContext context = new HxmlContext(moduleDir);
+    context.sourceRoots.add(library.getParent());
+
+    File fingerprint = new File(createTempDir("fingerprints"), "app.bin");
+    Map<String, String> defines = Map.of("debug", "1");
+    HaxeBuildFingerprint.compute(context, defines, List.of("Haxelib: lime:8.0.1"), null).save(fingerprint);
+
+    assertTrue(compileIfChanged(context, fingerprint, defines, false));
+    assertContainsElements(context.info, HaxeCommonBundle.message("module.0.is.up.to.date", "app"));
+
+    // A build that isn't skipped fails without an SDK, and its fingerprint is forgotten.
+    assertFalse(compileIfChanged(context, fingerprint, Map.of("debug", "1", "mobile", ""), false));
+    assertContainsElements(context.info, rebuildReason("defines changed: added mobile"));
+    assertFalse(fingerprint.exists());
+
+    HaxeBuildFingerprint.compute(context, defines, List.of("Haxelib: lime:8.0.1"), null).save(fingerprint);
+    FileUtil.writeToFile(library, "class Lib { public static var changed = true; }");
+    assertFalse(compileIfChanged(context, fingerprint, defines, false));
+    assertContainsElements(context.info,
+                           rebuildReason("sources changed: modified " + FileUtil.toSystemIndependentName(library.getPath())));
+
+    HaxeBuildFingerprint.compute(context, defines, List.of("Haxelib: lime:8.0.1"), null).save(fingerprint);
+    assertFalse(compileIfChanged(context, fingerprint, defines, true));
+    assertContainsElements(context.info, rebuildReason("a rebuild was requested"));
+  }
+
+  @Test
+  public void testDefinesSurviveTheBuildParameter() {
+    Map<String, String> defines = Map.of("debug", "1", "mobile", "", "version", "a=b");
+    assertEquals(defines, HaxeCommonCompilerUtil.decodeDefines(HaxeCommonCompilerUtil.encodeDefines(defines)));
+    assertEmpty(HaxeCommonCompilerUtil.decodeDefines(null).keySet());
+  }
+}
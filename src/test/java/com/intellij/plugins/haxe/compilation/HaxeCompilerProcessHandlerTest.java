@@ -0,0 +1,106 @@
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.plugins.haxe.util.HaxeCommonCompilerUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeCompilerProcessHandlerTest extends UsefulTestCase {
+
+  private final List<String> myLines = new ArrayList<>();
+  private final List<HaxeCompilerError> myMessages = new ArrayList<>();
+
+  private HaxeCompilerProcessHandler createHandler() {
+    HaxeCommonCompilerUtil.CompilationContext context = (HaxeCommonCompilerUtil.CompilationContext)Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class[]{HaxeCommonCompilerUtil.CompilationContext.class}, (proxy, method, args) -> {
+        if (method.getName().equals("handleCompilerMessage")) {
+          myLines.add((String)args[0]);
+          myMessages.add((HaxeCompilerError)args[1]);
+        }
+        return method.getName().equals("getErrorRoot") ? "/p" : null;
+      });
+    return new HaxeCompilerProcessHandler(context, new FinishedProcess(), "haxe build.hxml", StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testLinesAreDeliveredAsSoonAsTheyEnd() {
+    HaxeCompilerProcessHandler handler = createHandler();
+    handler.coloredTextAvailable("src/Main.hx:3: charac", ProcessOutputTypes.STDOUT);
+    assertEmpty(myLines);
+    handler.coloredTextAvailable("ters 4-9 : Unknown identifier : foo\nClasspath : src\r\n", ProcessOutputTypes.STDOUT);
+    assertEquals(List.of("src/Main.hx:3: characters 4-9 : Unknown identifier : foo", "Classpath : src"), myLines);
+    assertTrue(myMessages.get(0).isErrorMessage());
+    assertEquals(3, myMessages.get(0).getLine());
+    assertTrue(myMessages.get(1).isInformationalMessage());
+
+    handler.coloredTextAvailable("Library lime is not installed", ProcessOutputTypes.STDERR);
+    handler.flushOutput(0);
+    assertEquals("Library lime is not installed", myLines.get(2));
+  }
+
+  @Test
+  public void testStreamsDontMixTheirLines() {
+    HaxeCompilerProcessHandler handler = createHandler();
+    handler.coloredTextAvailable("Generating ", ProcessOutputTypes.STDOUT);
+    handler.coloredTextAvailable("Error: Library lime is not installed\n", ProcessOutputTypes.STDERR);
+    handler.coloredTextAvailable("out/Main.cpp : done\n", ProcessOutputTypes.STDOUT);
+    assertEquals(List.of("Error: Library lime is not installed", "Generating out/Main.cpp : done"), myLines);
+  }
+
+  @Test
+  public void testRepeatedWarningsAreReportedOnce() {
+    HaxeCompilerProcessHandler handler = createHandler();
+    String warning = "src/Main.hx:7: characters 1-5 : Warning : This typedef is deprecated\n";
+    for (int i = 0; i < 1000; i++) {
+      handler.coloredTextAvailable(warning, ProcessOutputTypes.STDOUT);
+    }
+    handler.coloredTextAvailable("src/Main.hx:8: characters 1-5 : Warning : This typedef is deprecated\n", ProcessOutputTypes.STDOUT);
+    handler.flushOutput(1);
+
+    assertEquals(4, myLines.size());
+    assertTrue(myMessages.get(0).isWarningMessage());
+    assertEquals(8, myMessages.get(1).getLine());
+    assertEquals("999 repeated compiler messages were not shown", myLines.get(2));
+    assertTrue(myMessages.get(3).isErrorMessage());
+  }
+
+  private static final class FinishedProcess extends Process {
+    @Override
+    public OutputStream getOutputStream() {
+      return new ByteArrayOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public int waitFor() {
+      return 0;
+    }
+
+    @Override
+    public int exitValue() {
+      return 0;
+    }
+
+    @Override
+    public void destroy() {
+    }
+  }
+}
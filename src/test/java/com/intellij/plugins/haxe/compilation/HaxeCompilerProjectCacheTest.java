@@ -0,0 +1,201 @@
+package com.intellij.plugins.haxe.compilation;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.testFramework.UsefulTestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class HaxeCompilerProjectCacheTest extends UsefulTestCase {
+
+  private File myRoot;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myRoot = FileUtil.createTempDirectory("lime-project", null);
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      FileUtil.delete(myRoot);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  private File write(String path, String text) throws IOException {
+    File file = new File(myRoot, path);
+    FileUtil.writeToFile(file, text);
+    return file;
+  }
+
+  private String path(String relative) {
+    return FileUtil.toSystemIndependentName(new File(myRoot, relative).getAbsolutePath());
+  }
+
+  @Test
+  public void testSnapshotFollowsIncludes() throws IOException {
+    File project = write("project.xml", "<project>\n" +
+                                        "  <include path=\"common.xml\" if=\"mobile\"/>\n" +
+                                        "  <include path='extension'/>\n" +
+                                        "  <include path=\"${HXCPP}/toolchain.xml\"/>\n" +
+                                        "  <include path=\"absent.xml\"/>\n" +
+                                        "</project>");
+    write("common.xml", "<project><include path=\"project.xml\"/></project>");
+    write("extension/include.xml", "<project/>");
+
+    Map<String, HaxeCompilerProjectCache.FileState> files = HaxeCompilerProjectCache.snapshot(project.getPath());
+    assertSameElements(files.keySet(), List.of(path("project.xml"), path("common.xml"), path("extension/include.xml"),
+                                               path("absent.xml")));
+    assertEquals("missing", files.get(path("absent.xml")).hash);
+  }
+
+  @Test
+  public void testEntryFollowsContents() throws IOException {
+    File project = write("project.xml", "<project><include path=\"common.xml\"/></project>");
+    File common = write("common.xml", "<project/>");
+    HaxeCompilerProjectCache.Entry entry =
+      new HaxeCompilerProjectCache.Entry(List.of("-cp", "src"), HaxeCompilerProjectCache.snapshot(project.getPath()));
+    assertTrue(HaxeCompilerProjectCache.isUpToDate(entry));
+
+    // Touched, but the same contents.
+    assertTrue(common.setLastModified(common.lastModified() + 10000));
+    assertTrue(HaxeCompilerProjectCache.isUpToDate(entry));
+
+    FileUtil.writeToFile(common, "<project><haxedef name=\"mobile\"/></project>");
+    assertFalse(HaxeCompilerProjectCache.isUpToDate(entry));
+  }
+
+  @Test
+  public void testCreatingAnIncludedFileOutdatesEntry() throws IOException {
+    File project = write("project.xml", "<project><include path=\"local.xml\"/></project>");
+    HaxeCompilerProjectCache.Entry entry =
+      new HaxeCompilerProjectCache.Entry(List.of("-cp", "src"), HaxeCompilerProjectCache.snapshot(project.getPath()));
+    assertTrue(HaxeCompilerProjectCache.isUpToDate(entry));
+
+    write("local.xml", "<project/>");
+    assertFalse(HaxeCompilerProjectCache.isUpToDate(entry));
+  }
+
+  @Test
+  public void testKeySeparatesTargetsAndConfigurations() {
+    String html5 = HaxeCompilerProjectCache.createKey("app", "/p/project.xml", "/p",
+                                                      List.of("haxelib", "run", "lime", "display", "html5"));
+    String html5Debug = HaxeCompilerProjectCache.createKey("app", "/p/project.xml", "/p",
+                                                           List.of("haxelib", "run", "lime", "display", "html5", "-debug"));
+    String flash = HaxeCompilerProjectCache.createKey("app", "/p/project.xml", "/p",
+                                                      List.of("haxelib", "run", "lime", "display", "flash"));
+    assertFalse(html5.equals(html5Debug));
+    assertFalse(html5.equals(flash));
+  }
+
+  @Test
+  public void testKeySeparatesCompileRoots() {
+    List<String> commandLine = List.of("haxelib", "run", "lime", "display", "html5");
+    String root = HaxeCompilerProjectCache.createKey("app", "/p/project.xml", "/p", commandLine);
+    String build = HaxeCompilerProjectCache.createKey("app", "/p/project.xml", "/p/build", commandLine);
+    String none = HaxeCompilerProjectCache.createKey("app", "/p/project.xml", null, commandLine);
+    assertFalse(root.equals(build));
+    assertFalse(root.equals(none));
+    assertEquals(root, HaxeCompilerProjectCache.createKey("app", "/p/project.xml", "/p", commandLine));
+  }
+
+  /**
+   * Stands in for lime, counting its runs.
+   */
+  private static class Lime implements Supplier<List<String>> {
+    final AtomicInteger runs = new AtomicInteger();
+    List<String> output = List.of("-cp", "src");
+
+    @Override
+    public List<String> get() {
+      runs.incrementAndGet();
+      return output;
+    }
+  }
+
+  private List<String> display(HaxeCompilerProjectCache cache, String project, File projectFile, Lime lime) {
+    return cache.get(project, "app", projectFile.getPath(), myRoot.getPath(), List.of("display", "html5"), lime);
+  }
+
+  @Test
+  public void testSavedEntriesSurviveRestarts() throws IOException {
+    File directory = new File(myRoot, "cache");
+    File project = write("project.xml", "<project/>");
+    Lime lime = new Lime();
+    display(new HaxeCompilerProjectCache(directory), "hash", project, lime);
+    HaxeCompilerProjectCache.waitForBackgroundWork();
+
+    assertEquals(List.of("-cp", "src"), display(new HaxeCompilerProjectCache(directory), "hash", project, lime));
+    assertEquals(1, lime.runs.get());
+  }
+
+  @Test
+  public void testInvalidateOnlyForgetsItsProject() throws IOException {
+    File directory = new File(myRoot, "cache");
+    File project = write("project.xml", "<project/>");
+    Lime lime = new Lime();
+    HaxeCompilerProjectCache cache = new HaxeCompilerProjectCache(directory);
+    display(cache, "first", project, lime);
+    display(cache, "second", project, lime);
+    HaxeCompilerProjectCache.waitForBackgroundWork();
+
+    cache.invalidate("first");
+    HaxeCompilerProjectCache.waitForBackgroundWork();
+    HaxeCompilerProjectCache restarted = new HaxeCompilerProjectCache(directory);
+    display(restarted, "second", project, lime);
+    assertEquals(2, lime.runs.get());
+    display(restarted, "first", project, lime);
+    assertEquals(3, lime.runs.get());
+  }
+
+  @Test
+  public void testFailuresRunLimeAgainOnlyWhenFilesChange() throws IOException {
+    File project = write("project.xml", "<project/>");
+    Lime lime = new Lime();
+    HaxeCompilerProjectCache cache = new HaxeCompilerProjectCache(new File(myRoot, "cache"));
+    display(cache, "hash", project, lime);
+
+    // project.xml breaks; lime runs once in the background and the last arguments are kept.
+    FileUtil.writeToFile(project, "<project>");
+    lime.output = List.of();
+    assertEquals(List.of("-cp", "src"), display(cache, "hash", project, lime));
+    HaxeCompilerProjectCache.waitForBackgroundWork();
+    assertEquals(2, lime.runs.get());
+    assertEquals(List.of("-cp", "src"), display(cache, "hash", project, lime));
+    HaxeCompilerProjectCache.waitForBackgroundWork();
+    assertEquals(2, lime.runs.get());
+
+    // Fixed again.
+    FileUtil.writeToFile(project, "<project><haxelib name=\"lime\"/></project>");
+    lime.output = List.of("-lib", "lime");
+    display(cache, "hash", project, lime);
+    HaxeCompilerProjectCache.waitForBackgroundWork();
+    assertEquals(3, lime.runs.get());
+    assertEquals(List.of("-lib", "lime"), display(cache, "hash", project, lime));
+  }
+
+  @Test
+  public void testFailuresWithoutArgumentsAreRemembered() throws IOException {
+    File project = write("project.xml", "<project>");
+    Lime lime = new Lime();
+    lime.output = List.of();
+    HaxeCompilerProjectCache cache = new HaxeCompilerProjectCache(new File(myRoot, "cache"));
+    assertEmpty(display(cache, "hash", project, lime));
+    assertEmpty(display(cache, "hash", project, lime));
+    assertEquals(1, lime.runs.get());
+
+    FileUtil.writeToFile(project, "<project/>");
+    lime.output = List.of("-cp", "src");
+    assertEquals(List.of("-cp", "src"), display(cache, "hash", project, lime));
+    assertEquals(2, lime.runs.get());
+  }
+}
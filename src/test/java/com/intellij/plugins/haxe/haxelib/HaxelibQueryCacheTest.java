@@ -0,0 +1,141 @@
+package com.intellij.plugins.haxe.haxelib;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.haxelib.HaxelibCommandUtils.CommandOutput;
+import com.intellij.testFramework.UsefulTestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class HaxelibQueryCacheTest extends UsefulTestCase {
+
+  /**
+   * Stands in for a haxelib command, counting its runs.
+   */
+  private static class Command implements Supplier<CompletableFuture<CommandOutput>> {
+    final AtomicInteger runs = new AtomicInteger();
+    int exitCode;
+    RuntimeException failure;
+
+    @Override
+    public CompletableFuture<CommandOutput> get() {
+      int run = runs.incrementAndGet();
+      if (failure != null) {
+        return CompletableFuture.failedFuture(failure);
+      }
+      return CompletableFuture.completedFuture(new CommandOutput(List.of("run " + run), exitCode));
+    }
+  }
+
+  private File createRepository() throws IOException {
+    File repository = createTempDir("haxelib");
+    FileUtil.writeToFile(new File(repository, "lime/.current"), "8.0.1");
+    return repository;
+  }
+
+  @Test
+  public void testOutputIsKept() throws IOException {
+    HaxelibQueryCache cache = new HaxelibQueryCache(10, 0);
+    List<File> repositories = List.of(createRepository());
+    Command command = new Command();
+
+    CommandOutput first = cache.get("list", repositories, command).join();
+    assertSame(first, cache.get("list", repositories, command).join());
+    assertEquals(1, command.runs.get());
+
+    cache.get("path lime", repositories, command);
+    assertEquals(2, command.runs.get());
+  }
+
+  @Test
+  public void testFailuresAreNotKept() throws IOException {
+    HaxelibQueryCache cache = new HaxelibQueryCache(10, 0);
+    List<File> repositories = List.of(createRepository());
+    Command command = new Command();
+
+    command.exitCode = 1;
+    cache.get("list", repositories, command);
+    cache.get("list", repositories, command);
+    assertEquals(2, command.runs.get());
+
+    command.exitCode = 0;
+    command.failure = new IllegalStateException("haxelib is gone");
+    assertTrue(cache.get("list", repositories, command).isCompletedExceptionally());
+    command.failure = null;
+    assertEquals("run 4", cache.get("list", repositories, command).join().lines.get(0));
+    cache.get("list", repositories, command);
+    assertEquals(4, command.runs.get());
+  }
+
+  @Test
+  public void testRepositoryChangesInvalidate() throws IOException {
+    HaxelibQueryCache cache = new HaxelibQueryCache(10, 0);
+    File repository = createRepository();
+    File configuration = new File(createTempDir("home"), ".haxelib");
+    FileUtil.writeToFile(configuration, repository.getPath());
+    List<File> repositories = List.of(configuration, repository);
+    Command command = new Command();
+    cache.get("list", repositories, command);
+
+    // Another version is selected.
+    File current = new File(repository, "lime/.current");
+    FileUtil.writeToFile(current, "8.1.0");
+    assertTrue(current.setLastModified(current.lastModified() + 10_000));
+    cache.get("list", repositories, command);
+    assertEquals(2, command.runs.get());
+
+    // A library is installed.
+    assertTrue(new File(repository, "openfl").mkdir());
+    cache.get("list", repositories, command);
+    assertEquals(3, command.runs.get());
+
+    // The global repository is set up elsewhere.
+    FileUtil.writeToFile(configuration, repository.getPath() + "2");
+    cache.get("list", repositories, command);
+    assertEquals(4, command.runs.get());
+
+    cache.get("list", repositories, command);
+    assertEquals(4, command.runs.get());
+    cache.clear();
+    cache.get("list", repositories, command);
+    assertEquals(5, command.runs.get());
+  }
+
+  @Test
+  public void testRepositoryStateIsTrustedForItsTtl() throws IOException {
+    HaxelibQueryCache cache = new HaxelibQueryCache(10, 60_000);
+    File repository = createRepository();
+    List<File> repositories = List.of(repository);
+    Command command = new Command();
+    cache.get("list", repositories, command);
+
+    assertTrue(new File(repository, "openfl").mkdir());
+    cache.get("list", repositories, command);
+    assertEquals(1, command.runs.get());
+  }
+
+  @Test
+  public void testOnlyRecentOutputIsKept() throws IOException {
+    HaxelibQueryCache cache = new HaxelibQueryCache(2, 0);
+    List<File> repositories = List.of(createRepository());
+    Command command = new Command();
+
+    cache.get("info lime", repositories, command);
+    cache.get("info openfl", repositories, command);
+    cache.get("info lime", repositories, command);
+    cache.get("info heaps", repositories, command);
+    assertEquals(2, cache.size());
+    assertEquals(3, command.runs.get());
+
+    // openfl was the least recently used.
+    cache.get("info lime", repositories, command);
+    assertEquals(3, command.runs.get());
+    cache.get("info openfl", repositories, command);
+    assertEquals(4, command.runs.get());
+  }
+}
@@ -0,0 +1,41 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.annotator.semantics.HaxeCallExpressionUtil;
+import com.intellij.plugins.haxe.ide.annotator.semantics.HaxeCallExpressionUtil.CallExpressionValidation;
+import com.intellij.plugins.haxe.lang.psi.HaxeCallExpression;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.plugins.haxe.lang.psi.HaxeReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.junit.Test;
+
+public class HaxeCallExpressionValidationTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Test
+  public void testValidationIsCachedAndCopied() {
+    myFixture.configureByText("Test.hx", """
+      class Test {
+        function take(a:Int, b:String) {}
+        function test() {
+          take(1, 2);
+        }
+      }
+      """);
+    HaxeCallExpression call = PsiTreeUtil.findChildOfType(myFixture.getFile(), HaxeCallExpression.class);
+    assertNotNull(call);
+    HaxeMethod method = (HaxeMethod)((HaxeReference)call.getExpression()).resolve();
+    assertNotNull(method);
+
+    CallExpressionValidation first = HaxeCallExpressionUtil.checkMethodCall(call, method);
+    assertTrue(first.isCompleted());
+    assertEquals(1, first.getErrors().size());
+
+    first.getErrors().clear();
+    first.getArgumentToParameterIndex().clear();
+
+    CallExpressionValidation second = HaxeCallExpressionUtil.checkMethodCall(call, method);
+    assertNotSame(first, second);
+    assertEquals(1, second.getErrors().size());
+    assertEquals(2, second.getArgumentToParameterIndex().size());
+  }
+}
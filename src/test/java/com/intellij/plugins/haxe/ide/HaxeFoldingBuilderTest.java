@@ -0,0 +1,57 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.lang.folding.FoldingDescriptor;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.ide.folding.HaxeFoldingBuilder;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiFileFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeFoldingBuilderTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Test
+  public void testReusedFoldingMatchesFreshFolding() {
+    StringBuilder text = new StringBuilder("import haxe.ds.StringMap;\nimport haxe.ds.IntMap;\n\nclass Test {\n");
+    for (int i = 0; i < 60; i++) {
+      text.append("  /** Method ").append(i).append(" documentation. */\n")
+        .append("  function method").append(i).append("() {\n")
+        .append("    if (true) {\n      trace(").append(i).append(");\n    }\n")
+        .append("  }\n");
+    }
+    text.append("  // region Tail\n  var tail = 1;\n  // endregion\n}\n");
+    myFixture.configureByText("Test.hx", text.toString());
+    PsiFile file = myFixture.getFile();
+    Document document = myFixture.getEditor().getDocument();
+
+    HaxeFoldingBuilder builder = new HaxeFoldingBuilder();
+    assertEquals(getRanges(buildFresh(document)), getRanges(builder.buildFoldRegions(file.getNode(), document)));
+
+    int offset = document.getText().indexOf("trace(30);");
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.insertString(offset, "var x = 0;\n      if (x > 0) {\n        trace(x);\n      }\n      ");
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+
+    assertEquals(getRanges(buildFresh(document)), getRanges(builder.buildFoldRegions(file.getNode(), document)));
+  }
+
+  private FoldingDescriptor[] buildFresh(Document document) {
+    PsiFile copy = PsiFileFactory.getInstance(getProject()).createFileFromText("Copy.hx", HaxeFileType.INSTANCE, document.getText());
+    return new HaxeFoldingBuilder().buildFoldRegions(copy.getNode(), document);
+  }
+
+  private static List<String> getRanges(FoldingDescriptor[] descriptors) {
+    List<String> ranges = new ArrayList<>();
+    for (FoldingDescriptor descriptor : descriptors) {
+      ranges.add(descriptor.getRange() + " " + descriptor.getPlaceholderText());
+    }
+    return ranges;
+  }
+}
@@ -0,0 +1,74 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.codeInsight.daemon.LineMarkerInfo;
+import com.intellij.openapi.roots.ModuleRootModificationUtil;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SyntaxTraverser;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeLineMarkerProviderTest extends HaxeCodeInsightFixtureTestCase {
+
+  private File myLibraryDirectory;
+
+  @Override
+  protected String getBasePath() {
+    return "/lineMarker/";
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      if (myLibraryDirectory != null) {
+        FileUtil.delete(myLibraryDirectory);
+      }
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  private void addLibrary(String path, String text) throws Exception {
+    myLibraryDirectory = FileUtil.createTempDirectory("line-marker-library", null);
+    FileUtil.writeToFile(new File(myLibraryDirectory, path), text);
+    VirtualFile root = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(myLibraryDirectory);
+    assertNotNull(root);
+    root.refresh(false, true);
+    ModuleRootModificationUtil.addModuleLibrary(getModule(), "ext", List.of(root.getUrl()), List.of(root.getUrl()));
+  }
+
+  private List<String> collectMarkerElements(PsiFile file) {
+    List<PsiElement> elements = SyntaxTraverser.psiTraverser(file).toList();
+    List<LineMarkerInfo<?>> markers = new ArrayList<>();
+    new HaxeLineMarkerProvider().collectSlowLineMarkers(elements, markers);
+    List<String> texts = new ArrayList<>();
+    for (LineMarkerInfo<?> marker : markers) {
+      texts.add(marker.getElement().getText() + "@" + marker.getStartOffset());
+    }
+    return texts;
+  }
+
+  @Test
+  public void testLibrarySubclassGetsMarkers() throws Exception {
+    addLibrary("ext/FancyWidget.hx", "package ext;\n" +
+                                     "class FancyWidget extends Widget {\n" +
+                                     "  override public function update() {}\n" +
+                                     "}\n");
+    PsiFile file = myFixture.configureByText("Widget.hx", "class Widget {\n" +
+                                                          "  public function update() {}\n" +
+                                                          "  public function render() {}\n" +
+                                                          "}\n");
+    String text = file.getText();
+    List<String> markers = collectMarkerElements(file);
+    assertContainsElements(markers, "Widget@" + text.indexOf("Widget"), "update@" + text.indexOf("update"));
+    assertDoesntContain(markers, "render@" + text.indexOf("render"));
+  }
+}
@@ -0,0 +1,43 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticBatchChecker;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeSemanticBatchCheckerTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  @Test
+  public void testChecksFilesConcurrentlyInOrder() {
+    List<VirtualFile> files = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      String body = i % 2 == 0 ? "var i:Int = 1.5;" : "var i:Int = 1;";
+      files.add(myFixture.addFileToProject("Batch" + i + ".hx",
+                                           "class Batch" + i + " {\n  function test() {\n    " + body + "\n  }\n}\n").getVirtualFile());
+    }
+
+    List<HaxeSemanticBatchChecker.FileResult> results = HaxeSemanticBatchChecker.check(getProject(), files, null);
+    assertEquals(files.size(), results.size());
+    for (int i = 0; i < files.size(); i++) {
+      HaxeSemanticBatchChecker.FileResult result = results.get(i);
+      assertEquals(files.get(i), result.getFile());
+      assertTrue(result.getElapsedMillis() >= 0);
+      boolean hasTypeError = false;
+      for (HighlightInfo info : result.getProblems()) {
+        if (info.getDescription() != null && info.getDescription().startsWith("Incompatible type")) {
+          hasTypeError = true;
+        }
+      }
+      assertEquals(result.getFile().getName(), i % 2 == 0, hasTypeError);
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Level;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Phase;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Problem;
+import com.intellij.testFramework.UsefulTestCase;
+import org.junit.Test;
+
+public class HaxeSemanticCheckReportTest extends UsefulTestCase {
+
+  private static HaxeSemanticCheckReport createReport() {
+    HaxeSemanticCheckReport report = new HaxeSemanticCheckReport("1.0");
+    report.addProblem(new Problem("HaxeUnusedVar", Level.NOTE, "Unused variable 'a'", "src/B.hx", 3, 9));
+    report.addProblem(new Problem("HaxeAnnotator", Level.ERROR, "Incompatible type: Float should be Int", "src/A.hx", 2, 17));
+    report.addPhase(new Phase("annotate", 42, 1024));
+    report.addFileTime("src/A.hx", 10);
+    report.addFileTime("src/A.hx", 5);
+    report.addFileTime("src/B.hx", 1);
+    return report;
+  }
+
+  @Test
+  public void testSarif() {
+    JsonObject root = JsonParser.parseString(createReport().toSarif()).getAsJsonObject();
+    assertEquals(HaxeSemanticCheckReport.SARIF_VERSION, root.get("version").getAsString());
+
+    JsonObject run = root.getAsJsonArray("runs").get(0).getAsJsonObject();
+    JsonArray rules = run.getAsJsonObject("tool").getAsJsonObject("driver").getAsJsonArray("rules");
+    assertEquals(2, rules.size());
+    assertEquals("HaxeAnnotator", rules.get(0).getAsJsonObject().get("id").getAsString());
+
+    JsonArray results = run.getAsJsonArray("results");
+    assertEquals(2, results.size());
+    JsonObject first = results.get(0).getAsJsonObject();
+    assertEquals("error", first.get("level").getAsString());
+    assertEquals("Incompatible type: Float should be Int", first.getAsJsonObject("message").get("text").getAsString());
+    JsonObject location = first.getAsJsonArray("locations").get(0).getAsJsonObject().getAsJsonObject("physicalLocation");
+    assertEquals("src/A.hx", location.getAsJsonObject("artifactLocation").get("uri").getAsString());
+    assertEquals(2, location.getAsJsonObject("region").get("startLine").getAsInt());
+    assertEquals(17, location.getAsJsonObject("region").get("startColumn").getAsInt());
+  }
+
+  @Test
+  public void testJson() {
+    JsonObject root = JsonParser.parseString(createReport().toJson()).getAsJsonObject();
+    JsonObject summary = root.getAsJsonObject("summary");
+    assertEquals(2, summary.get("files").getAsInt());
+    assertEquals(1, summary.get("errors").getAsInt());
+    assertEquals(0, summary.get("warnings").getAsInt());
+    assertEquals(1, summary.get("notes").getAsInt());
+
+    JsonObject statistics = root.getAsJsonObject("statistics");
+    assertEquals(15, statistics.getAsJsonObject("fileMillis").get("src/A.hx").getAsLong());
+    JsonObject phase = statistics.getAsJsonArray("phases").get(0).getAsJsonObject();
+    assertEquals("annotate", phase.get("name").getAsString());
+    assertEquals(42, phase.get("millis").getAsLong());
+  }
+}
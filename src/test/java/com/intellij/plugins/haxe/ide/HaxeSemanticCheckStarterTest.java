@@ -0,0 +1,80 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticBatchChecker;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Level;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckReport.Problem;
+import com.intellij.plugins.haxe.ide.annotator.HaxeSemanticCheckStarter;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeSemanticCheckStarterTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  @Test
+  public void testReportsProblemsOfFixtureProject() {
+    myFixture.addFileToProject("Broken.hx", """
+      class Broken {
+        static function log(message:String) {}
+        function test() {
+          var i:Int = 1.5;
+          trace(i);
+        }
+      }
+      """);
+    myFixture.addFileToProject("Clean.hx", """
+      class Clean {
+        function test() {
+          var i:Int = 1;
+          trace(i);
+        }
+      }
+      """);
+
+    List<VirtualFile> files = HaxeSemanticBatchChecker.collectProjectFiles(getProject());
+    List<String> names = new ArrayList<>();
+    for (VirtualFile file : files) {
+      names.add(file.getName());
+    }
+    assertSameElements(names, "Broken.hx", "Clean.hx");
+
+    HaxeSemanticCheckReport report = new HaxeSemanticCheckReport("test");
+    HaxeSemanticCheckStarter.annotate(getProject(), files, report);
+    HaxeSemanticCheckStarter.inspect(getProject(), files, report);
+
+    Problem typeError = null;
+    Problem unusedParameter = null;
+    for (Problem problem : report.getProblems()) {
+      if (problem.path().endsWith("Clean.hx")) {
+        assertFalse(problem.toString(), problem.level() == Level.ERROR);
+      }
+      if (problem.ruleId().equals("HaxeAnnotator") && problem.message().startsWith("Incompatible type")) {
+        typeError = problem;
+      }
+      else if (problem.ruleId().equals("HaxeUnusedVar")) {
+        unusedParameter = problem;
+      }
+    }
+
+    assertNotNull(report.getProblems().toString(), typeError);
+    assertEquals(Level.ERROR, typeError.level());
+    assertEquals(4, typeError.line());
+
+    assertNotNull(report.getProblems().toString(), unusedParameter);
+    assertEquals("Unused parameter 'message'", unusedParameter.message());
+    assertEquals(Level.NOTE, unusedParameter.level());
+    assertEquals(2, unusedParameter.line());
+    assertEquals(23, unusedParameter.column());
+
+    assertTrue(report.countProblems(Level.ERROR) >= 1);
+    assertTrue(report.toSarif().contains("\"ruleId\": \"HaxeUnusedVar\""));
+  }
+}
@@ -0,0 +1,39 @@
+package com.intellij.plugins.haxe.ide;
+
+import com.intellij.ide.util.treeView.smartTree.TreeElement;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.structure.HaxeStructureViewElement;
+import com.intellij.plugins.haxe.lang.psi.HaxeClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class HaxeStructureViewElementTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Test
+  public void testSupertypesFollowOtherFiles() {
+    PsiFile base = myFixture.addFileToProject("Base.hx", "class Base {}");
+    myFixture.configureByText("Child.hx", "class Child extends Base {\n  var value:Int;\n}");
+    HaxeClass child = PsiTreeUtil.findChildOfType(myFixture.getFile(), HaxeClass.class);
+    HaxeStructureViewElement element = new HaxeStructureViewElement(child);
+    assertEquals(List.of("Base", "value"), getNames(element.getChildren()));
+
+    TreeElement[] children = element.getChildren();
+    assertSame(children, element.getChildren());
+
+    WriteCommandAction.runWriteCommandAction(getProject(), base::delete);
+    assertEquals(List.of("value"), getNames(element.getChildren()));
+  }
+
+  private static List<String> getNames(TreeElement[] children) {
+    List<String> names = new ArrayList<>();
+    for (TreeElement child : children) {
+      names.add(((HaxeStructureViewElement)child).getAlphaSortKey());
+    }
+    return names;
+  }
+}
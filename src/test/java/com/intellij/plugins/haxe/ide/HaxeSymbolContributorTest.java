@@ -19,7 +19,10 @@ package com.intellij.plugins.haxe.ide;
 
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.HaxeComponentType;
 import com.intellij.plugins.haxe.ide.index.HaxeSymbolIndex;
+import com.intellij.plugins.haxe.ide.index.HaxeSymbolInfo;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
 import com.intellij.psi.search.GlobalSearchScope;
 import org.junit.Test;
 
@@ -71,4 +74,37 @@ public class HaxeSymbolContributorTest extends HaxeCodeInsightFixtureTestCase {
   public void testBasicSymbols() throws Throwable {
     doTest();
   }
+
+  private HaxeSymbolNavigationItem findSymbol(String name) {
+    List<HaxeSymbolNavigationItem> items = new ArrayList<>();
+    HaxeSymbolIndex.processSymbols(name, GlobalSearchScope.projectScope(getProject()), null, (file, info) ->
+      items.add(new HaxeSymbolNavigationItem(getProject(), file, name, info)));
+    assertEquals(1, items.size());
+    return items.get(0);
+  }
+
+  @Test
+  public void testSymbolPayloads() throws Throwable {
+    myFixture.configureByFiles(getTestName(false) + ".hx");
+
+    HaxeSymbolNavigationItem counter = findSymbol("counter");
+    HaxeSymbolInfo info = counter.getInfo();
+    assertEquals("pack", info.getOwnerPackage());
+    assertEquals("Owner", info.getOwnerName());
+    assertEquals("pack.Owner", counter.getLocationString());
+    assertTrue(info.isStatic());
+    assertTrue(info.isPublic());
+    HaxeComponentName componentName = counter.findComponentName();
+    assertNotNull(componentName);
+    assertEquals("counter", componentName.getText());
+
+    HaxeSymbolInfo helper = findSymbol("helper").getInfo();
+    assertEquals(HaxeComponentType.METHOD, helper.getType());
+    assertFalse(helper.isStatic());
+    assertFalse(helper.isPublic());
+
+    HaxeSymbolNavigationItem owner = findSymbol("Owner");
+    assertFalse(owner.getInfo().isMember());
+    assertEquals("pack", owner.getLocationString());
+  }
 }
\ No newline at end of file
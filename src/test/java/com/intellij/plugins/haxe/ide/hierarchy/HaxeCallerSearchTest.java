@@ -0,0 +1,71 @@
+package com.intellij.plugins.haxe.ide.hierarchy;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.ide.hierarchy.call.HaxeCallerSearch;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethod;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class HaxeCallerSearchTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final String TEXT = "class Test {\n" +
+                                     "  function target() {}\n" +
+                                     "  function first() { target(); }\n" +
+                                     "  function second() { target(); this.target(); }\n" +
+                                     "  function unrelated() { var targetName = 1; }\n" +
+                                     "}\n";
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  private HaxeMethod method(String name) {
+    for (HaxeMethod method : PsiTreeUtil.findChildrenOfType(myFixture.getFile(), HaxeMethod.class)) {
+      if (name.equals(method.getName())) return method;
+    }
+    fail("No method " + name);
+    return null;
+  }
+
+  private List<PsiReference> callers(HaxeMethod method) {
+    List<PsiReference> result = Collections.synchronizedList(new ArrayList<>());
+    assertTrue(HaxeCallerSearch.processCallers(method, GlobalSearchScope.projectScope(getProject()), "project", result::add));
+    return result;
+  }
+
+  @Test
+  public void testFindsAllCallSites() {
+    myFixture.configureByText(HaxeFileType.INSTANCE, TEXT);
+    List<PsiReference> callers = callers(method("target"));
+    assertEquals(3, callers.size());
+    for (PsiReference caller : callers) {
+      assertEquals("target", caller.getElement().getText().replace("this.", ""));
+    }
+  }
+
+  @Test
+  public void testRemembersCompleteResults() {
+    myFixture.configureByText(HaxeFileType.INSTANCE, TEXT);
+    HaxeMethod target = method("target");
+    assertSameElements(callers(target), callers(target));
+  }
+
+  @Test
+  public void testStopsWhenTheProcessorDoes() {
+    myFixture.configureByText(HaxeFileType.INSTANCE, TEXT);
+    List<PsiReference> seen = new ArrayList<>();
+    assertFalse(HaxeCallerSearch.processCallers(method("target"), GlobalSearchScope.projectScope(getProject()), "project", reference -> {
+      seen.add(reference);
+      return false;
+    }));
+    assertEquals(1, seen.size());
+  }
+}
@@ -0,0 +1,96 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.plugins.haxe.HaxeComponentType;
+import com.intellij.testFramework.UsefulTestCase;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HaxeLibraryIndexChunkTest extends UsefulTestCase {
+
+  private static final byte[] HASH = {1, 2, 3, 4};
+
+  private final HaxeComponentIndex myComponentIndex = new HaxeComponentIndex();
+  private final HaxeSymbolIndex mySymbolIndex = new HaxeSymbolIndex();
+
+  private FileBasedIndexExtension<?, ?> findExtension(String name) {
+    if (name.equals(HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName())) return myComponentIndex;
+    if (name.equals(HaxeSymbolIndex.HAXE_SYMBOL_INDEX.getName())) return mySymbolIndex;
+    return null;
+  }
+
+  private HaxeLibraryIndexChunk roundTrip(HaxeLibraryIndexChunk chunk) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      chunk.write(out, this::findExtension);
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return HaxeLibraryIndexChunk.read(in, this::findExtension);
+    }
+  }
+
+  static HaxeLibraryIndexChunk createChunk() {
+    Map<String, Map<?, ?>> data = new HashMap<>();
+    Map<String, HaxeClassInfo> components = new HashMap<>();
+    components.put("Application", new HaxeClassInfo("Application", "lime.app", HaxeComponentType.CLASS));
+    data.put(HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName(), components);
+    Map<String, List<HaxeSymbolInfo>> symbols = new HashMap<>();
+    symbols.put("Application", List.of(new HaxeSymbolInfo("lime.app", "", HaxeComponentType.CLASS, 14, HaxeSymbolInfo.PUBLIC)));
+    symbols.put("onWindowCreate", List.of(new HaxeSymbolInfo("lime.app", "Application", HaxeComponentType.METHOD, 120, 0)));
+    data.put(HaxeSymbolIndex.HAXE_SYMBOL_INDEX.getName(), symbols);
+
+    HaxeLibraryIndexChunk.Builder builder = new HaxeLibraryIndexChunk.Builder("lime", "8.0.0", "0123456789abcdef");
+    builder.addFile("src/lime/app/Application.hx", HASH, data);
+    builder.addFile("src/lime/app/Empty.hx", HASH, Collections.singletonMap(
+      HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName(), Collections.emptyMap()));
+    return builder.build();
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    HaxeLibraryIndexChunk chunk = roundTrip(createChunk());
+    assertEquals("lime", chunk.getLibraryName());
+    assertEquals("8.0.0", chunk.getLibraryVersion());
+    assertEquals("0123456789abcdef", chunk.getFingerprint());
+    assertEquals(2, chunk.getFileCount());
+
+    Map<String, HaxeClassInfo> components =
+      chunk.getIndexData("src/lime/app/Application.hx", HASH, HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName());
+    assertEquals(Collections.singletonMap("Application", new HaxeClassInfo("Application", "lime.app", HaxeComponentType.CLASS)),
+                 components);
+
+    Map<String, List<HaxeSymbolInfo>> symbols =
+      chunk.getIndexData("src/lime/app/Application.hx", HASH, HaxeSymbolIndex.HAXE_SYMBOL_INDEX.getName());
+    assertSameElements(symbols.keySet(), "Application", "onWindowCreate");
+    assertEquals(List.of(new HaxeSymbolInfo("lime.app", "Application", HaxeComponentType.METHOD, 120, 0)), symbols.get("onWindowCreate"));
+
+    assertEmpty(chunk.getIndexData("src/lime/app/Empty.hx", HASH, HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName()).keySet());
+  }
+
+  @Test
+  public void testChangedContentIsNotReused() throws IOException {
+    HaxeLibraryIndexChunk chunk = roundTrip(createChunk());
+    byte[] otherHash = {1, 2, 3, 5};
+    assertNull(chunk.getIndexData("src/lime/app/Application.hx", otherHash, HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName()));
+    assertNull(chunk.getIndexData("src/lime/app/Missing.hx", HASH, HaxeComponentIndex.HAXE_COMPONENT_INDEX.getName()));
+  }
+
+  @Test
+  public void testUnknownIndexIsRejected() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      createChunk().write(out, this::findExtension);
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      HaxeLibraryIndexChunk.read(in, name -> null);
+      fail("Reading a chunk for an unknown index should fail");
+    }
+    catch (IOException expected) {
+    }
+  }
+}
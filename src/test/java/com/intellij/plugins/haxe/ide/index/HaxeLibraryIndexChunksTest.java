@@ -0,0 +1,63 @@
+package com.intellij.plugins.haxe.ide.index;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+public class HaxeLibraryIndexChunksTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final String CHUNK_DIR_PROPERTY = "haxe.library.index.dir";
+
+  private File myChunkDirectory;
+  private String myPreviousChunkDirectory;
+
+  @Override
+  protected String getBasePath() {
+    return "/index/";
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myChunkDirectory = FileUtil.createTempDirectory("library-index", null);
+    myPreviousChunkDirectory = System.setProperty(CHUNK_DIR_PROPERTY, myChunkDirectory.getPath());
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      if (myPreviousChunkDirectory == null) {
+        System.clearProperty(CHUNK_DIR_PROPERTY);
+      }
+      else {
+        System.setProperty(CHUNK_DIR_PROPERTY, myPreviousChunkDirectory);
+      }
+      FileUtil.delete(myChunkDirectory);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  @Test
+  public void testChunkIsNotReusedForAnotherTarget() {
+    List<String> indexVersions = List.of("HaxeComponentIndex:1", "HaxeSymbolIndex:1");
+    Map<String, String> defines = Map.of("lime", "8.0.0");
+    String js = HaxeLibraryIndexChunks.computeFingerprint(indexVersions, defines, List.of("JAVA_SCRIPT"));
+    String flash = HaxeLibraryIndexChunks.computeFingerprint(indexVersions, defines, List.of("FLASH"));
+    assertFalse(js.equals(flash));
+    assertEquals(js, HaxeLibraryIndexChunks.computeFingerprint(indexVersions, defines, List.of("JAVA_SCRIPT")));
+
+    new HaxeLibraryIndexChunks().writeChunk(HaxeLibraryIndexChunkTest.createChunk(),
+                                            HaxeLibraryIndexChunks.getChunkFileName("lime", "8.0.0", js));
+
+    // A fresh instance, so that the chunk is read from disk.
+    HaxeLibraryIndexChunks chunks = new HaxeLibraryIndexChunks();
+    assertNotNull(chunks.findChunk("lime", "8.0.0", js));
+    assertNull(chunks.findChunk("lime", "8.0.0", flash));
+  }
+}
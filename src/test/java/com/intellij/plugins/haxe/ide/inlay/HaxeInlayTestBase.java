@@ -9,6 +9,7 @@ import com.intellij.openapi.roots.LanguageLevelProjectExtension;
 import com.intellij.openapi.util.RecursionManager;
 import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
 import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayHintsSettings;
 import com.intellij.plugins.haxe.util.HaxeTestUtils;
 import com.intellij.pom.java.LanguageLevel;
 import com.intellij.psi.codeStyle.CodeStyleSettings;
@@ -27,6 +28,7 @@ public abstract class HaxeInlayTestBase extends DeclarativeInlayHintsProviderTes
 
   private final IdeaTestFixtureFactory testFixtureFactory = IdeaTestFixtureFactory.getFixtureFactory();
   private ModuleFixtureBuilder moduleFixtureBuilder;
+  private int myTypeHintsBudgetMillis;
 
 
   protected HaxeInlayTestBase() {
@@ -78,11 +80,15 @@ public abstract class HaxeInlayTestBase extends DeclarativeInlayHintsProviderTes
     RecursionManager.disableAssertOnRecursionPrevention(myFixture.getProjectDisposable());
     RecursionManager.disableMissedCacheAssertions(myFixture.getProjectDisposable());
 
+    // the expected hints cover whole files, so none may be left to the background
+    myTypeHintsBudgetMillis = HaxeInlayHintsSettings.getInstance().getTypeHintsBudgetMillis();
+    HaxeInlayHintsSettings.getInstance().setTypeHintsBudgetMillis(0);
   }
 
   @Override
   protected void tearDown() throws Exception {
     try {
+      HaxeInlayHintsSettings.getInstance().setTypeHintsBudgetMillis(myTypeHintsBudgetMillis);
       HaxeTestUtils.cleanupUnexpiredAppleUITimers(this::addSuppressedException);
       myFixture.tearDown();
     }
@@ -0,0 +1,144 @@
+package com.intellij.plugins.haxe.ide.inlay;
+
+import com.intellij.openapi.application.impl.NonBlockingReadActionImpl;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayHintsSettings;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference;
+import com.intellij.plugins.haxe.ide.hint.types.HaxeInlayTypeInference.Hint;
+import com.intellij.plugins.haxe.lang.psi.HaxeLocalVarDeclaration;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HaxeInlayTypeInferenceTest extends HaxeCodeInsightFixtureTestCase {
+
+  private int myBudgetMillis;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    myBudgetMillis = HaxeInlayHintsSettings.getInstance().getTypeHintsBudgetMillis();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      HaxeInlayHintsSettings.getInstance().setTypeHintsBudgetMillis(myBudgetMillis);
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  /**
+   * Hints every local variable as Int, counting the computations per variable.
+   */
+  private static class CountingKind implements HaxeInlayTypeInference.HintKind {
+    final Map<String, AtomicInteger> computed = new ConcurrentHashMap<>();
+    final long sleepMillis;
+
+    CountingKind(long sleepMillis) {
+      this.sleepMillis = sleepMillis;
+    }
+
+    @NotNull
+    @Override
+    public String getProviderId() {
+      return "test";
+    }
+
+    @Override
+    public boolean accepts(@NotNull PsiElement element) {
+      return element instanceof HaxeLocalVarDeclaration;
+    }
+
+    @NotNull
+    @Override
+    public List<Hint> compute(@NotNull PsiElement element) {
+      HaxeLocalVarDeclaration declaration = (HaxeLocalVarDeclaration)element;
+      computed.computeIfAbsent(declaration.getComponentName().getText(), name -> new AtomicInteger()).incrementAndGet();
+      try {
+        TimeUnit.MILLISECONDS.sleep(sleepMillis);
+      }
+      catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return List.of(new Hint(element.getTextRange().getEndOffset(), true, "Int"));
+    }
+
+    int count(String name) {
+      AtomicInteger count = computed.get(name);
+      return count != null ? count.get() : 0;
+    }
+  }
+
+  private List<HaxeLocalVarDeclaration> configureLocals() {
+    myFixture.configureByText("Test.hx", """
+      class Test {
+        function test() {
+          var a = 1;
+          var b = 2;
+          var c = 3;
+        }
+      }
+      """);
+    return new ArrayList<>(PsiTreeUtil.findChildrenOfType(myFixture.getFile(), HaxeLocalVarDeclaration.class));
+  }
+
+  @Test
+  public void testHintsAreComputedOncePerModification() {
+    HaxeInlayHintsSettings.getInstance().setTypeHintsBudgetMillis(0);
+    HaxeLocalVarDeclaration declaration = configureLocals().get(0);
+
+    CountingKind kind = new CountingKind(0);
+    for (int i = 0; i < 3; i++) {
+      HaxeInlayTypeInference.Pass pass = HaxeInlayTypeInference.startPass(myFixture.getFile(), myFixture.getEditor());
+      List<Hint> hints = pass.getHints(kind, declaration);
+      assertEquals(1, hints.size());
+      assertEquals("Int", hints.get(0).text());
+    }
+    assertEquals(1, kind.count("a"));
+
+    CountingKind other = new CountingKind(0);
+    HaxeInlayTypeInference.startPass(myFixture.getFile(), myFixture.getEditor()).getHints(other, declaration);
+    assertEquals(1, other.count("a"));
+  }
+
+  @Test
+  public void testElementsOverBudgetAreCompletedInBackground() {
+    HaxeInlayHintsSettings.getInstance().setTypeHintsBudgetMillis(1);
+    List<HaxeLocalVarDeclaration> locals = configureLocals();
+    HaxeLocalVarDeclaration a = locals.get(0);
+    HaxeLocalVarDeclaration b = locals.get(1);
+
+    // Only the first variable is visible; computing it uses up the budget.
+    CountingKind kind = new CountingKind(5);
+    TextRange visible = a.getTextRange();
+    HaxeInlayTypeInference.Pass pass = HaxeInlayTypeInference.startPass(myFixture.getFile(), visible);
+    assertEquals(1, pass.getHints(kind, a).size());
+    assertEmpty(pass.getHints(kind, b));
+    assertEquals(1, kind.count("a"));
+
+    NonBlockingReadActionImpl.waitForAsyncTaskCompletion();
+    assertEquals(1, kind.count("b"));
+    List<Hint> completed = HaxeInlayTypeInference.startPass(myFixture.getFile(), visible).getHints(kind, b);
+    assertEquals(1, completed.size());
+    assertEquals(1, kind.count("b"));
+
+    // Visible elements are computed whatever the budget.
+    HaxeLocalVarDeclaration c = locals.get(2);
+    assertEquals(1, HaxeInlayTypeInference.startPass(myFixture.getFile(), c.getTextRange()).getHints(kind, c).size());
+  }
+}
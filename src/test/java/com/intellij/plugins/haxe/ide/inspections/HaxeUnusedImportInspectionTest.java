@@ -18,6 +18,7 @@
 package com.intellij.plugins.haxe.ide.inspections;
 
 import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.util.HaxeImportUtil;
 import org.junit.Test;
 
 /**
@@ -26,6 +27,11 @@ import org.junit.Test;
  * Created by Usievaład Kimajeŭ on 27.05.2016.
  */
 public class HaxeUnusedImportInspectionTest extends HaxeCodeInsightFixtureTestCase {
+  @Test
+  public void testDuplicateImport() {
+    doTest("DuplicateImport.hx");
+  }
+
   @Test
   public void testUnusedAliasTypedef() {
     doTest("UnusedAliasTypedef.hx");
@@ -66,6 +72,14 @@ public class HaxeUnusedImportInspectionTest extends HaxeCodeInsightFixtureTestCa
     doTest("UsedTypedef.hx");
   }
 
+  @Test
+  public void testUsedTypedefOfEnumThroughConstructor() {
+    myFixture.configureByFiles("UsedTypedefEnum.hx", "helper/Colors.hx");
+    myFixture.enableInspections(new HaxeUnusedImportInspection());
+    assertEmpty(HaxeImportUtil.findUnusedImports(myFixture.getFile()));
+    myFixture.testHighlighting(true, false, true, myFixture.getFile().getVirtualFile());
+  }
+
   @Override
   protected String getBasePath() {
     return "/imports/unused/";
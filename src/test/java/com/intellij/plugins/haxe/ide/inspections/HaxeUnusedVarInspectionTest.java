@@ -0,0 +1,38 @@
+package com.intellij.plugins.haxe.ide.inspections;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import org.junit.Test;
+
+public class HaxeUnusedVarInspectionTest extends HaxeCodeInsightFixtureTestCase {
+  @Test
+  public void testUnusedVar() {
+    doTest("UnusedVar.hx");
+  }
+
+  @Test
+  public void testUnusedParameter() {
+    doTest("UnusedParameter.hx");
+  }
+
+  @Test
+  public void testOverridableMethodParameter() {
+    doTest("UnusedParameterHook.hx");
+  }
+
+  @Test
+  public void testWriteOnlyVar() {
+    doTest("WriteOnlyVar.hx");
+  }
+
+  @Override
+  protected String getBasePath() {
+    return "/inspections/unusedVar/";
+  }
+
+  private void doTest(String fileName) {
+    myFixture.configureByFiles(fileName);
+    myFixture.setTestDataPath(getTestDataPath());
+    myFixture.enableInspections(new HaxeUnusedVarInspection());
+    myFixture.testHighlighting(true, true, true, myFixture.getFile().getVirtualFile());
+  }
+}
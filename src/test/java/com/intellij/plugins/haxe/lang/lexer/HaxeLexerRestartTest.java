@@ -0,0 +1,84 @@
+package com.intellij.plugins.haxe.lang.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies that restarting the highlighting lexer at any state it reports as restartable
+ * produces the same tokens as lexing the whole text.
+ */
+public class HaxeLexerRestartTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/lexer/";
+  }
+
+  private static String dump(Lexer lexer, CharSequence text, int start, int state) {
+    lexer.start(text, start, text.length(), state);
+    StringBuilder result = new StringBuilder();
+    while (lexer.getTokenType() != null) {
+      result.append(lexer.getTokenStart()).append(' ').append(lexer.getTokenType()).append('\n');
+      lexer.advance();
+    }
+    return result.toString();
+  }
+
+  private void doTest(String text) {
+    HaxeHighlightingLexer lexer = new HaxeHighlightingLexer(getProject());
+    String expected = dump(lexer, text, 0, lexer.getStartState());
+
+    List<int[]> restartPoints = new ArrayList<>();
+    lexer.start(text, 0, text.length(), lexer.getStartState());
+    while (lexer.getTokenType() != null) {
+      if (lexer.isRestartableState(lexer.getState())) {
+        restartPoints.add(new int[]{lexer.getTokenStart(), lexer.getState()});
+      }
+      lexer.advance();
+    }
+    assertTrue(restartPoints.size() > 1);
+
+    for (int[] point : restartPoints) {
+      String tail = point[0] == 0 ? expected : expected.substring(expected.indexOf("\n" + point[0] + " ") + 1);
+      assertEquals("Restarting at offset " + point[0], tail, dump(new HaxeHighlightingLexer(getProject()), text, point[0], point[1]));
+    }
+  }
+
+  @Test
+  public void testTopLevel() {
+    doTest("class A {\n  var s = 'a ${b + {c;}} $d';\n  @:meta(1, (2)) function f() { return ~/x/g; }\n}\n");
+  }
+
+  @Test
+  public void testConditionalBlocks() {
+    doTest("#if (js || flash)\n" +
+           "class A { var s = 'x${y}'; }\n" +
+           "#elseif neko\n" +
+           "  #if debug\n" +
+           "  class B {}\n" +
+           "  #else\n" +
+           "  class C { @:keep function f() {} }\n" +
+           "  #end\n" +
+           "#else\n" +
+           "class D {}\n" +
+           "#end\n" +
+           "class E {}\n");
+  }
+
+  @Test
+  public void testStringStateIsNotRestartable() {
+    HaxeHighlightingLexer lexer = new HaxeHighlightingLexer(getProject());
+    String text = "var s = 'a ${b} c';";
+    lexer.start(text, 0, text.length(), lexer.getStartState());
+    while (lexer.getTokenType() != null) {
+      if (lexer.getTokenType() == HaxeTokenTypes.REGULAR_STRING_PART) {
+        assertFalse(lexer.isRestartableState(lexer.getState()));
+      }
+      lexer.advance();
+    }
+  }
+}
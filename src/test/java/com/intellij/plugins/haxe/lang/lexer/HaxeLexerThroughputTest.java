@@ -0,0 +1,191 @@
+package com.intellij.plugins.haxe.lang.lexer;
+
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.util.HaxeFileUtil;
+import com.intellij.plugins.haxe.util.HaxeTestUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Lexes representative corpora: the std library, generated externs and conditional compilation heavy code.
+ *
+ * By default it checks that the highlighting lexer, restarted at sampled restartable tokens, continues
+ * with the same tokens as lexing the whole corpus.  With the system property "haxe.lexer.benchmark" set
+ * to true it also logs tokens/second for the parsing and highlighting lexers.  Additional corpora
+ * (e.g. lime or openfl checkouts) can be measured by setting "haxe.lexer.benchmark.dirs" to a
+ * path-separator delimited list of directories.
+ */
+public class HaxeLexerThroughputTest extends HaxeCodeInsightFixtureTestCase {
+  private static final Logger LOG = Logger.getInstance(HaxeLexerThroughputTest.class);
+
+  private static final String BENCHMARK_PROPERTY = "haxe.lexer.benchmark";
+  private static final int WARMUP_ROUNDS = 2;
+  private static final int MEASURED_ROUNDS = 3;
+  // Restarts checked per corpus, and tokens compared after each restart.
+  private static final int RESTART_SAMPLES = 64;
+  private static final int COMPARED_TOKENS = 400;
+
+  @Override
+  protected String getBasePath() {
+    return "/lexer/";
+  }
+
+  private static int lexAll(Lexer lexer, CharSequence text) {
+    int tokens = 0;
+    lexer.start(text);
+    while (lexer.getTokenType() != null) {
+      ++tokens;
+      lexer.advance();
+    }
+    return tokens;
+  }
+
+  private static void measure(String corpus, String lexerName, Supplier<Lexer> lexerFactory, CharSequence text) {
+    Lexer lexer = lexerFactory.get();
+    int tokens = 0;
+    for (int i = 0; i < WARMUP_ROUNDS; ++i) {
+      tokens = lexAll(lexer, text);
+    }
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; ++i) {
+      assertEquals("Token count must be stable across runs", tokens, lexAll(lexer, text));
+    }
+    long elapsed = Math.max(1, System.nanoTime() - start);
+    long tokensPerSecond = (long)tokens * MEASURED_ROUNDS * 1_000_000_000L / elapsed;
+    LOG.info(String.format("%-20s %-12s %8d chars %8d tokens %12d tokens/sec",
+                           corpus, lexerName, text.length(), tokens, tokensPerSecond));
+    assertTrue(tokens > 0);
+  }
+
+  private void measureCorpus(String corpus, CharSequence text) {
+    measure(corpus, "parsing", () -> new HaxeLexer(getProject()), text);
+    measure(corpus, "highlighting", () -> new HaxeHighlightingLexer(getProject()), text);
+  }
+
+  private static String readSources(File dir) throws IOException {
+    StringBuilder text = new StringBuilder();
+    for (File file : FileUtil.findFilesByMask(Pattern.compile(".*\\.hx"), dir)) {
+      text.append(FileUtil.loadFile(file)).append('\n');
+    }
+    return text.toString();
+  }
+
+  /** Approximates generated externs: long runs of metadata-heavy declarations. */
+  private static String generatedExterns(int targetLength) {
+    StringBuilder text = new StringBuilder("package js.html;\n\n");
+    for (int cls = 0; text.length() < targetLength; ++cls) {
+      text.append("/** Generated documentation for Element").append(cls).append(". */\n");
+      text.append("@:native(\"Element").append(cls).append("\") @:build(Macro.build([\"a\", \"b\"]))\n");
+      text.append("extern class Element").append(cls).append(" extends Node {\n");
+      for (int member = 0; member < 40; ++member) {
+        text.append("  @:deprecated(\"use other").append(member).append("\") @:optional var field").append(member)
+          .append(" : Null<Array<String>>;\n");
+        text.append("  @:overload(function(a:Int, b:Float):Void {})\n");
+        text.append("  function method").append(member).append("(name : String, ?options : { var x : Int; }) : Promise<Dynamic>;\n");
+      }
+      text.append("}\n\n");
+    }
+    return text.toString();
+  }
+
+  /** Approximates lime/openfl style code: nested conditional compilation and interpolated strings. */
+  private static String conditionalHeavy(int targetLength) {
+    StringBuilder text = new StringBuilder("package lime.app;\n\n");
+    for (int cls = 0; text.length() < targetLength; ++cls) {
+      text.append("#if (js && html5)\n");
+      text.append("class Backend").append(cls).append(" {\n");
+      for (int member = 0; member < 20; ++member) {
+        text.append("  #if !macro\n");
+        text.append("  public function update").append(member).append("(deltaTime:Int):Void {\n");
+        text.append("    #if (lime_cffi && !display) trace('native ${deltaTime + ").append(member).append("}'); #elseif flash\n");
+        text.append("    var re = ~/[a-z]+/g; #else trace(\"other $deltaTime\"); #end\n");
+        text.append("  }\n");
+        text.append("  #end\n");
+      }
+      text.append("}\n#else\nclass Backend").append(cls).append(" {}\n#end\n\n");
+    }
+    return text.toString();
+  }
+
+  private static List<int[]> lexWithStates(Lexer lexer, CharSequence text, int start, int state, int maxTokens) {
+    List<int[]> tokens = new ArrayList<>();
+    lexer.start(text, start, text.length(), state);
+    while (lexer.getTokenType() != null && tokens.size() < maxTokens) {
+      tokens.add(new int[]{lexer.getTokenStart(), lexer.getTokenEnd(), lexer.getTokenType().getIndex(), lexer.getState()});
+      lexer.advance();
+    }
+    return tokens;
+  }
+
+  private void checkRestarts(String corpus, CharSequence text) {
+    HaxeHighlightingLexer lexer = new HaxeHighlightingLexer(getProject());
+    List<int[]> full = lexWithStates(lexer, text, 0, lexer.getStartState(), Integer.MAX_VALUE);
+    assertFalse(corpus, full.isEmpty());
+
+    List<Integer> restartable = new ArrayList<>();
+    for (int i = 0; i < full.size(); ++i) {
+      if (lexer.isRestartableState(full.get(i)[3])) {
+        restartable.add(i);
+      }
+    }
+    assertTrue(corpus, restartable.size() > 1);
+
+    int step = Math.max(1, restartable.size() / RESTART_SAMPLES);
+    for (int sample = 0; sample < restartable.size(); sample += step) {
+      int index = restartable.get(sample);
+      int[] point = full.get(index);
+      List<int[]> restarted = lexWithStates(new HaxeHighlightingLexer(getProject()), text, point[0], point[3], COMPARED_TOKENS);
+      List<int[]> expected = full.subList(index, Math.min(full.size(), index + COMPARED_TOKENS));
+      assertEquals(corpus + ": token count after restarting at offset " + point[0], expected.size(), restarted.size());
+      for (int i = 0; i < expected.size(); ++i) {
+        int[] want = expected.get(i);
+        int[] got = restarted.get(i);
+        assertTrue(corpus + ": token at offset " + want[0] + " differs after restarting at offset " + point[0],
+                   want[0] == got[0] && want[1] == got[1] && want[2] == got[2]);
+      }
+    }
+  }
+
+  private static File getStdDirectory() {
+    return new File(HaxeFileUtil.joinPath(HaxeTestUtils.BASE_TEST_DATA_PATH,
+                                          HaxeTestUtils.HAXE_TOOLKIT_BASE_DIR,
+                                          HaxeTestUtils.LATEST,
+                                          HaxeTestUtils.HAXE_STDLIB_DIR));
+  }
+
+  @Test
+  public void testRestartedLexingMatchesFullLexing() throws IOException {
+    checkRestarts("std", readSources(getStdDirectory()));
+    checkRestarts("generated externs", generatedExterns(64 * 1024));
+    checkRestarts("conditional", conditionalHeavy(64 * 1024));
+  }
+
+  @Test
+  public void testThroughput() throws IOException {
+    if (!Boolean.getBoolean(BENCHMARK_PROPERTY)) {
+      return;
+    }
+    measureCorpus("std", readSources(getStdDirectory()));
+    measureCorpus("generated externs", generatedExterns(1024 * 1024));
+    measureCorpus("conditional", conditionalHeavy(512 * 1024));
+
+    String extraDirs = System.getProperty("haxe.lexer.benchmark.dirs");
+    if (extraDirs != null) {
+      for (String dir : extraDirs.split(File.pathSeparator)) {
+        if (!dir.isEmpty()) {
+          File file = new File(dir);
+          measureCorpus(file.getName(), readSources(file));
+        }
+      }
+    }
+  }
+}
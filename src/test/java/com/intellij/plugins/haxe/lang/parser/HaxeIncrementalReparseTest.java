@@ -0,0 +1,93 @@
+package com.intellij.plugins.haxe.lang.parser;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.lang.psi.HaxeBlockStatement;
+import com.intellij.plugins.haxe.lang.psi.HaxeClassBody;
+import com.intellij.plugins.haxe.lang.psi.HaxeMethodDeclaration;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.impl.DebugUtil;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Checks that edits inside a body only reparse that body, and that the result matches a full reparse.
+ */
+public class HaxeIncrementalReparseTest extends HaxeCodeInsightFixtureTestCase {
+
+  @Override
+  protected String getBasePath() {
+    return "/parsing/reparse/";
+  }
+
+  private List<HaxeMethodDeclaration> configure(String text) {
+    myFixture.configureByText(HaxeFileType.INSTANCE, text);
+    HaxeClassBody body = PsiTreeUtil.findChildOfType(myFixture.getFile(), HaxeClassBody.class);
+    return PsiTreeUtil.getChildrenOfTypeAsList(body, HaxeMethodDeclaration.class);
+  }
+
+  private void typeAndCommit(String text) {
+    myFixture.type(text);
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+  }
+
+  private void checkMatchesFullReparse() {
+    PsiFile edited = myFixture.getFile();
+    String expected = DebugUtil.psiToString(edited, true);
+    PsiFile fresh = myFixture.configureByText("fresh.hx", edited.getText());
+    assertEquals(DebugUtil.psiToString(fresh, true), expected);
+  }
+
+  @Test
+  public void testEditInMethodBodyKeepsOtherMethods() {
+    List<HaxeMethodDeclaration> methods = configure("class A {\n" +
+                                                    "  function a() { var x = 1;<caret> }\n" +
+                                                    "  function b() { trace('b'); }\n" +
+                                                    "}\n");
+    HaxeMethodDeclaration other = methods.get(1);
+    HaxeBlockStatement otherBody = PsiTreeUtil.findChildOfType(other, HaxeBlockStatement.class);
+
+    typeAndCommit(" var y = x + 2;");
+
+    assertTrue(other.isValid());
+    assertTrue(otherBody.isValid());
+    checkMatchesFullReparse();
+  }
+
+  @Test
+  public void testUnbalancedEditFallsBackToFullReparse() {
+    configure("class A {\n" +
+              "  function a() { if (true) <caret> }\n" +
+              "  function b() { trace('b'); }\n" +
+              "}\n");
+    typeAndCommit("{");
+    checkMatchesFullReparse();
+  }
+
+  @Test
+  public void testBlockTurningIntoObjectLiteralIsNotReparsedAlone() {
+    configure("class A {\n" +
+              "  function a() { var o = {<caret> }; }\n" +
+              "}\n");
+    typeAndCommit("x: 1");
+    checkMatchesFullReparse();
+  }
+
+  @Test
+  public void testEditInsideConditionalBlock() {
+    configure("class A {\n" +
+              "  function a() {\n" +
+              "    #if js\n" +
+              "    trace(1);<caret>\n" +
+              "    #else\n" +
+              "    trace(2);\n" +
+              "    #end\n" +
+              "  }\n" +
+              "}\n");
+    typeAndCommit(" { trace(3); }");
+    checkMatchesFullReparse();
+  }
+}
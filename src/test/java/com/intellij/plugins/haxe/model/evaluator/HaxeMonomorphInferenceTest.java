@@ -0,0 +1,83 @@
+package com.intellij.plugins.haxe.model.evaluator;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.plugins.haxe.HaxeFileType;
+import com.intellij.plugins.haxe.lang.psi.HaxeComponentName;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.junit.Test;
+
+import java.util.List;
+
+public class HaxeMonomorphInferenceTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final String TEXT = "class Test {\n" +
+                                     "  var field;\n" +
+                                     "  function test(p) {\n" +
+                                     "    var a = null;\n" +
+                                     "    var b;\n" +
+                                     "    a = 'x';\n" +
+                                     "    b = a;\n" +
+                                     "    p.foo();\n" +
+                                     "    var f = function(q) { return a + q; };<caret>\n" +
+                                     "  }\n" +
+                                     "}\n";
+
+  @Override
+  protected String getBasePath() {
+    return "/annotation.semantic/";
+  }
+
+  private HaxeComponentName declaration(String name) {
+    for (HaxeComponentName componentName : PsiTreeUtil.findChildrenOfType(myFixture.getFile(), HaxeComponentName.class)) {
+      if (name.equals(componentName.getText())) return componentName;
+    }
+    fail("No declaration of " + name);
+    return null;
+  }
+
+  private List<PsiReference> usages(String name) {
+    HaxeComponentName componentName = declaration(name);
+    HaxeMonomorphInference inference = HaxeMonomorphInference.forDeclaration(componentName);
+    assertNotNull(inference);
+    return inference.getUsages(componentName, null);
+  }
+
+  @Test
+  public void testUsagesOfAllLocalsFromOnePass() {
+    myFixture.configureByText(HaxeFileType.INSTANCE, TEXT);
+
+    List<PsiReference> usagesOfA = usages("a");
+    assertEquals(3, usagesOfA.size());
+    for (PsiReference usage : usagesOfA) {
+      assertEquals("a", usage.getElement().getText());
+    }
+    assertEquals(1, usages("b").size());
+    assertEquals(1, usages("p").size());
+    assertEquals(1, usages("q").size());
+  }
+
+  @Test
+  public void testOnlyLocalsAndParameters() {
+    myFixture.configureByText(HaxeFileType.INSTANCE, TEXT);
+    assertNull(HaxeMonomorphInference.forDeclaration(declaration("field")));
+    assertNull(HaxeMonomorphInference.forDeclaration(declaration("test")));
+  }
+
+  @Test
+  public void testSharedUntilTheFileChanges() {
+    myFixture.configureByText(HaxeFileType.INSTANCE, TEXT);
+    HaxeMonomorphInference first = HaxeMonomorphInference.forDeclaration(declaration("a"));
+    assertSame(first, HaxeMonomorphInference.forDeclaration(declaration("b")));
+    // Nested functions are covered by the walk of the enclosing member.
+    assertSame(first, HaxeMonomorphInference.forDeclaration(declaration("q")));
+
+    myFixture.type("\n    trace(b);");
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+
+    HaxeMonomorphInference updated = HaxeMonomorphInference.forDeclaration(declaration("b"));
+    assertNotSame(first, updated);
+    assertEquals(2, usages("b").size());
+  }
+}
@@ -0,0 +1,372 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import _JavaProtocol.InputAdapter;
+import _JavaProtocol.OutputAdapter;
+import debugger.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays the part of an hxcpp program built with the debugger, so that the debugger can be tested and
+ * timed without building one.  It speaks the wire format through the generated
+ * {@code debugger.HaxeProtocol}.
+ *
+ * The program is scripted before it connects: its source files, classes, and the stack of frames of
+ * each thread with their variables.  Like a real program, it stops right after connecting.  Running
+ * commands (continue, step, next, finish) move the top frame of the current thread down one line
+ * and stop again; breakpoints are only recorded.
+ */
+public class FakeHxcppDebugTarget implements Closeable {
+
+  public static final class Frame {
+    final String myClassName;
+    final String myFunctionName;
+    final String myFileName;
+    int myLine;
+    final Map<String, StructuredValue> myVariables = new LinkedHashMap<>();
+
+    Frame(String className, String functionName, String fileName, int line) {
+      myClassName = className;
+      myFunctionName = functionName;
+      myFileName = fileName;
+      myLine = line;
+    }
+
+    public Frame variable(@NotNull String name, @NotNull StructuredValue value) {
+      myVariables.put(name, value);
+      return this;
+    }
+
+    public Frame variable(@NotNull String name, int value) {
+      return variable(name, StructuredValue.Single(StructuredValueType.TypeInt, Integer.toString(value)));
+    }
+
+    public int getLine() {
+      return myLine;
+    }
+  }
+
+  private final List<String> myFiles = new ArrayList<>();
+  private final Map<String, Boolean> myClasses = new LinkedHashMap<>();
+  private final SortedMap<Integer, List<Frame>> myThreads = new TreeMap<>();
+  private final Map<String, StructuredValue> myExpressions = new HashMap<>();
+  private final Map<Integer, String> myBreakpoints = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> myCommandCounts = new ConcurrentHashMap<>();
+  private int myClassPageSize = 100;
+
+  private int myCurrentThread;
+  private int myCurrentFrame;
+  private int myNextBreakpoint = 1;
+
+  private volatile Socket mySocket;
+  private Thread myThread;
+  private volatile Throwable myFailure;
+
+  public FakeHxcppDebugTarget file(@NotNull String fileName) {
+    myFiles.add(fileName);
+    return this;
+  }
+
+  public FakeHxcppDebugTarget classes(int count, boolean withStatics) {
+    for (int i = 0; i < count; i++) {
+      myClasses.put("pack.Class" + i, withStatics);
+    }
+    return this;
+  }
+
+  /**
+   * @param size how many classes are sent per response before the rest is continued.
+   */
+  public FakeHxcppDebugTarget classPageSize(int size) {
+    myClassPageSize = size;
+    return this;
+  }
+
+  /**
+   * Adds a frame below the frames of a thread.  The first frame of a thread is its top frame.
+   */
+  public Frame frame(int thread, @NotNull String className, @NotNull String functionName,
+                     @NotNull String fileName, int line) {
+    Frame frame = new Frame(className, functionName, fileName, line);
+    myThreads.computeIfAbsent(thread, t -> new ArrayList<>()).add(frame);
+    return frame;
+  }
+
+  /**
+   * Makes an expression available to GetStructured, as the debugger asks for elided values.
+   */
+  public FakeHxcppDebugTarget expression(@NotNull String expression, @NotNull StructuredValue value) {
+    myExpressions.put(expression, value);
+    return this;
+  }
+
+  /**
+   * @return an array of {@code size} integers.
+   */
+  public static StructuredValue intArray(int size) {
+    StructuredValueList list = StructuredValueList.Terminator;
+    for (int i = size - 1; i >= 0; i--) {
+      list = StructuredValueList.Element("[" + i + "]", StructuredValue.Single(StructuredValueType.TypeInt, Integer.toString(i)), list);
+    }
+    return StructuredValue.List(StructuredValueListType._Array, list);
+  }
+
+  /**
+   * @return an object with {@code size} fields, each of which is elided behind {@code prefix.field<i>}.
+   */
+  public static StructuredValue elidedObject(@NotNull String className, @NotNull String prefix, int size) {
+    StructuredValueList list = StructuredValueList.Terminator;
+    for (int i = size - 1; i >= 0; i--) {
+      list = StructuredValueList.Element("field" + i, StructuredValue.Elided(StructuredValueType.TypeInstance(className),
+                                                                             prefix + ".field" + i), list);
+    }
+    return StructuredValue.List(StructuredValueListType.Instance(className), list);
+  }
+
+  public int getCommandCount(@NotNull String commandName) {
+    AtomicInteger count = myCommandCounts.get(commandName);
+    return count != null ? count.get() : 0;
+  }
+
+  public Map<Integer, String> getBreakpoints() {
+    return myBreakpoints;
+  }
+
+  @Nullable
+  public Throwable getFailure() {
+    return myFailure;
+  }
+
+  /**
+   * Connects to the debugger listening on a port and serves it on a thread of its own until closed.
+   */
+  public void connect(int port) throws IOException {
+    Socket socket = new Socket("localhost", port);
+    socket.setTcpNoDelay(true);
+    mySocket = socket;
+    // The generated serializer recurses once per element of a list, so large values need a deep stack.
+    myThread = new Thread(null, () -> {
+      try {
+        serve(socket);
+      }
+      catch (Throwable t) {
+        if (!socket.isClosed()) {
+          myFailure = t;
+        }
+      }
+    }, "Fake hxcpp debug target", 256L << 20);
+    myThread.setDaemon(true);
+    myThread.start();
+  }
+
+  @Override
+  public void close() throws IOException {
+    Socket socket = mySocket;
+    if (socket != null) {
+      socket.close();
+    }
+  }
+
+  private void serve(Socket socket) throws IOException {
+    InputAdapter in = new InputAdapter(new BufferedInputStream(socket.getInputStream()));
+    OutputStream stream = new BufferedOutputStream(socket.getOutputStream());
+    OutputAdapter out = new OutputAdapter(stream);
+
+    HaxeProtocol.writeClientIdentification(out);
+    stream.flush();
+    HaxeProtocol.readServerIdentification(in);
+
+    for (int thread : myThreads.keySet()) {
+      HaxeProtocol.writeMessage(out, Message.ThreadCreated(thread));
+    }
+    myCurrentThread = myThreads.isEmpty() ? 0 : myThreads.firstKey();
+    writeStopped(out);
+    stream.flush();
+
+    while (!socket.isClosed()) {
+      Command command = HaxeProtocol.readCommand(in);
+      String name = command.getTag();
+      myCommandCounts.computeIfAbsent(name, n -> new AtomicInteger()).incrementAndGet();
+      handle(name, command.params, out);
+      stream.flush();
+      if (name.equals("Detach") || name.equals("Exit")) {
+        socket.close();
+      }
+    }
+  }
+
+  private void handle(String name, Object[] params, OutputAdapter out) {
+    switch (name) {
+      case "Exit" -> HaxeProtocol.writeMessage(out, Message.Exited);
+      case "Detach" -> HaxeProtocol.writeMessage(out, Message.Detached);
+      case "Files", "FilesFullPath" -> {
+        StringList list = StringList.Terminator;
+        for (int i = myFiles.size() - 1; i >= 0; i--) {
+          list = StringList.Element(myFiles.get(i), list);
+        }
+        HaxeProtocol.writeMessage(out, Message.Files(list));
+      }
+      case "Classes" -> HaxeProtocol.writeMessage(out, Message.Classes(getClassList((String)params[0])));
+      case "Mem" -> HaxeProtocol.writeMessage(out, Message.MemBytes(1 << 20));
+      case "AddFileLineBreakpoint" -> {
+        String fileName = (String)params[0];
+        if (!myFiles.contains(fileName)) {
+          HaxeProtocol.writeMessage(out, Message.ErrorNoSuchFile(fileName));
+        }
+        else {
+          int number = myNextBreakpoint++;
+          myBreakpoints.put(number, fileName + ":" + params[1]);
+          HaxeProtocol.writeMessage(out, Message.FileLineBreakpointNumber(number));
+        }
+      }
+      case "DeleteBreakpointRange" -> {
+        int first = (Integer)params[0];
+        int last = (Integer)params[1];
+        BreakpointStatusList statuses = BreakpointStatusList.Terminator;
+        for (int number = last; number >= first; number--) {
+          statuses = myBreakpoints.remove(number) != null
+                     ? BreakpointStatusList.Deleted(number, statuses)
+                     : BreakpointStatusList.Nonexistent(number, statuses);
+        }
+        HaxeProtocol.writeMessage(out, Message.BreakpointStatuses(statuses));
+      }
+      case "BreakNow" -> {
+        HaxeProtocol.writeMessage(out, Message.OK);
+        writeStopped(out);
+      }
+      case "Continue", "Step", "Next", "Finish" -> {
+        HaxeProtocol.writeMessage(out, Message.OK);
+        myCurrentFrame = 0;
+        List<Frame> frames = myThreads.get(myCurrentThread);
+        if (frames != null && !frames.isEmpty()) {
+          frames.get(0).myLine++;
+        }
+        writeStopped(out);
+      }
+      case "WhereCurrentThread" -> HaxeProtocol.writeMessage(out, Message.ThreadsWhere(
+        ThreadWhereList.Where(myCurrentThread, ThreadStatus.StoppedImmediate, getFrameList(myCurrentThread),
+                              ThreadWhereList.Terminator)));
+      case "WhereAllThreads" -> {
+        ThreadWhereList list = ThreadWhereList.Terminator;
+        List<Integer> threads = new ArrayList<>(myThreads.keySet());
+        for (int i = threads.size() - 1; i >= 0; i--) {
+          list = ThreadWhereList.Where(threads.get(i), ThreadStatus.StoppedImmediate, getFrameList(threads.get(i)), list);
+        }
+        HaxeProtocol.writeMessage(out, Message.ThreadsWhere(list));
+      }
+      case "SetCurrentThread" -> {
+        int thread = (Integer)params[0];
+        if (!myThreads.containsKey(thread)) {
+          HaxeProtocol.writeMessage(out, Message.ErrorNoSuchThread(thread));
+        }
+        else {
+          myCurrentThread = thread;
+          myCurrentFrame = 0;
+          HaxeProtocol.writeMessage(out, getLocation());
+        }
+      }
+      case "SetFrame" -> {
+        int frame = (Integer)params[0];
+        if (frame < 0 || frame >= getFrames().size()) {
+          HaxeProtocol.writeMessage(out, Message.ErrorBadCount(frame));
+        }
+        else {
+          myCurrentFrame = frame;
+          HaxeProtocol.writeMessage(out, getLocation());
+        }
+      }
+      case "Up", "Down" -> {
+        int frame = myCurrentFrame + (name.equals("Up") ? 1 : -1) * (Integer)params[0];
+        if (frame < 0 || frame >= getFrames().size()) {
+          HaxeProtocol.writeMessage(out, Message.ErrorBadCount((Integer)params[0]));
+        }
+        else {
+          myCurrentFrame = frame;
+          HaxeProtocol.writeMessage(out, getLocation());
+        }
+      }
+      case "Variables" -> {
+        StringList list = StringList.Terminator;
+        List<String> names = new ArrayList<>(getFrames().get(myCurrentFrame).myVariables.keySet());
+        for (int i = names.size() - 1; i >= 0; i--) {
+          list = StringList.Element(names.get(i), list);
+        }
+        HaxeProtocol.writeMessage(out, Message.Variables(list));
+      }
+      case "GetStructured" -> {
+        String expression = (String)params[1];
+        StructuredValue value = evaluate(expression);
+        HaxeProtocol.writeMessage(out, value != null
+                                       ? Message.Structured(value)
+                                       : Message.ErrorEvaluatingExpression("Unknown expression " + expression));
+      }
+      case "PrintExpression" -> {
+        String expression = (String)params[1];
+        StructuredValue value = evaluate(expression);
+        HaxeProtocol.writeMessage(out, value != null
+                                       ? Message.Value(expression, "Dynamic", String.valueOf(value))
+                                       : Message.ErrorEvaluatingExpression("Unknown expression " + expression));
+      }
+      default -> HaxeProtocol.writeMessage(out, Message.ErrorInternal("Unsupported command " + name));
+    }
+  }
+
+  @Nullable
+  private StructuredValue evaluate(String expression) {
+    StructuredValue value = getFrames().get(myCurrentFrame).myVariables.get(expression);
+    return value != null ? value : myExpressions.get(expression);
+  }
+
+  private ClassList getClassList(@Nullable String continuation) {
+    List<String> names = new ArrayList<>(myClasses.keySet());
+    int start = continuation == null ? 0 : names.indexOf(continuation);
+    int end = Math.min(names.size(), start + myClassPageSize);
+    ClassList list = end < names.size() ? ClassList.Continued(names.get(end)) : ClassList.Terminator;
+    for (int i = end - 1; i >= start; i--) {
+      list = ClassList.Element(names.get(i), myClasses.get(names.get(i)), list);
+    }
+    return list;
+  }
+
+  private List<Frame> getFrames() {
+    return myThreads.getOrDefault(myCurrentThread, List.of());
+  }
+
+  private FrameList getFrameList(int thread) {
+    List<Frame> frames = myThreads.getOrDefault(thread, List.of());
+    FrameList list = FrameList.Terminator;
+    for (int i = frames.size() - 1; i >= 0; i--) {
+      Frame frame = frames.get(i);
+      list = FrameList.Frame(thread == myCurrentThread && i == myCurrentFrame, i, frame.myClassName, frame.myFunctionName,
+                             frame.myFileName, frame.myLine, list);
+    }
+    return list;
+  }
+
+  private Message getLocation() {
+    Frame frame = getFrames().get(myCurrentFrame);
+    return Message.ThreadLocation(myCurrentThread, myCurrentFrame, frame.myClassName, frame.myFunctionName,
+                                  frame.myFileName, frame.myLine);
+  }
+
+  private void writeStopped(OutputAdapter out) {
+    List<Frame> frames = getFrames();
+    if (frames.isEmpty()) {
+      HaxeProtocol.writeMessage(out, Message.ThreadStopped(myCurrentThread, 0, "", "", "", 0));
+      return;
+    }
+    Frame top = frames.get(0);
+    HaxeProtocol.writeMessage(out, Message.ThreadStopped(myCurrentThread, 0, top.myClassName, top.myFunctionName,
+                                                         top.myFileName, top.myLine));
+  }
+}
@@ -0,0 +1,234 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.plugins.haxe.HaxeCodeInsightFixtureTestCase;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.frame.*;
+import com.intellij.xdebugger.frame.presentation.XValuePresentation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the runner's debug process against {@link FakeHxcppDebugTarget}, and checks what its stack
+ * frames and values ask the program for.
+ */
+public class HaxeDebugProcessTest extends HaxeCodeInsightFixtureTestCase {
+
+  private static final int TIMEOUT_SECONDS = 30;
+
+  private final FakeHxcppDebugTarget myTarget = new FakeHxcppDebugTarget();
+  private final BlockingQueue<XSuspendContext> myPositions = new LinkedBlockingQueue<>();
+  private HaxeDebugRunner.DebugProcess myProcess;
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      // The target first, or it would report the process hanging up on it.
+      myTarget.close();
+      if (myProcess != null) {
+        myProcess.stop();
+      }
+      assertNull(myTarget.getFailure());
+    }
+    catch (Throwable e) {
+      addSuppressedException(e);
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  /**
+   * A session that only records where the program stopped.
+   */
+  private XDebugSession createSession() {
+    return (XDebugSession)Proxy.newProxyInstance(
+      getClass().getClassLoader(), new Class<?>[]{XDebugSession.class}, (proxy, method, args) -> {
+        switch (method.getName()) {
+          case "positionReached" -> myPositions.add((XSuspendContext)args[0]);
+          case "equals" -> {
+            return proxy == args[0];
+          }
+          case "hashCode" -> {
+            return System.identityHashCode(proxy);
+          }
+          case "toString" -> {
+            return "session";
+          }
+        }
+        return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+      });
+  }
+
+  private XSuspendContext startProcess() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    myProcess = new HaxeDebugRunner().new DebugProcess(createSession(), getProject(), myFixture.getModule(), port);
+    myProcess.start();
+    myTarget.connect(port);
+    // The program stops once it connects, and the process lets it run to the first breakpoint.
+    return awaitPosition();
+  }
+
+  private XSuspendContext awaitPosition() throws InterruptedException {
+    XSuspendContext context = myPositions.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertNotNull("The program didn't stop", context);
+    return context;
+  }
+
+  private static List<XStackFrame> getFrames(XSuspendContext context) {
+    XExecutionStack stack = context.getActiveExecutionStack();
+    List<XStackFrame> frames = new ArrayList<>();
+    frames.add(stack.getTopFrame());
+    stack.computeStackFrames(1, new XExecutionStack.XStackFrameContainer() {
+      @Override
+      public void addStackFrames(@NotNull List<? extends XStackFrame> stackFrames, boolean last) {
+        frames.addAll(stackFrames);
+      }
+
+      @Override
+      public void errorOccurred(@NotNull String errorMessage) {
+        fail(errorMessage);
+      }
+    });
+    return frames;
+  }
+
+  private static List<XValue> getChildren(XValueContainer container) throws Exception {
+    ChildrenNode node = new ChildrenNode();
+    container.computeChildren(node);
+    return node.myChildren.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  private static String getPresentation(XValue value) throws Exception {
+    PresentationNode node = new PresentationNode();
+    value.computePresentation(node, XValuePlace.TREE);
+    return node.myValue.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testSuspensionCache() throws Exception {
+    myFixture.addFileToProject("src/pack/Main.hx", "package pack;\nclass Main {}\n");
+    myTarget.frame(0, "pack.Main", "update", "src/pack/Main.hx", 10)
+      .variable("count", 3)
+      .variable("items", FakeHxcppDebugTarget.intArray(3));
+    myTarget.frame(0, "pack.Main", "main", "src/pack/Main.hx", 3).variable("count", 4);
+    myTarget.frame(0, "pack.Main", "run", "src/pack/Main.hx", 1);
+    List<XStackFrame> frames = getFrames(startProcess());
+    XStackFrame update = frames.get(0);
+    XStackFrame main = frames.get(1);
+
+    List<XValue> updateVariables = getChildren(update);
+    assertEquals(2, updateVariables.size());
+    assertEquals(2, getChildren(update).size());
+    assertEquals(1, myTarget.getCommandCount("Variables"));
+    getChildren(main);
+    assertEquals(2, myTarget.getCommandCount("Variables"));
+
+    // The same expression is another value in another frame.
+    assertEquals("3", getPresentation(updateVariables.get(0)));
+    assertEquals("4", getPresentation(getChildren(main).get(0)));
+    assertEquals("3", getPresentation(getChildren(update).get(0)));
+    assertEquals(2, myTarget.getCommandCount("GetStructured"));
+
+    XValue items = getChildren(update).get(1);
+    getPresentation(items);
+    assertEquals(3, getChildren(items).size());
+    assertEquals(3, myTarget.getCommandCount("GetStructured"));
+    getPresentation(getChildren(update).get(1));
+    assertEquals(3, myTarget.getCommandCount("GetStructured"));
+    assertEquals(2, myTarget.getCommandCount("Variables"));
+
+    // Once the program runs, what was fetched is forgotten.
+    myProcess.startStepOver(null);
+    XStackFrame next = getFrames(awaitPosition()).get(0);
+    assertEquals("3", getPresentation(getChildren(next).get(0)));
+    assertEquals(3, myTarget.getCommandCount("Variables"));
+    assertEquals(4, myTarget.getCommandCount("GetStructured"));
+  }
+
+  /**
+   * Completes once all children have been added.
+   */
+  private static final class ChildrenNode implements XCompositeNode {
+    final List<XValue> myAdded = new ArrayList<>();
+    final CompletableFuture<List<XValue>> myChildren = new CompletableFuture<>();
+
+    @Override
+    public void addChildren(@NotNull XValueChildrenList children, boolean last) {
+      for (int i = 0; i < children.size(); i++) {
+        myAdded.add(children.getValue(i));
+      }
+      if (last) {
+        myChildren.complete(myAdded);
+      }
+    }
+
+    public void tooManyChildren(int remaining) {
+      myChildren.completeExceptionally(new AssertionError(remaining + " more children"));
+    }
+
+    public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {
+      addNextChildren.run();
+    }
+
+    public void setAlreadySorted(boolean alreadySorted) {
+    }
+
+    public void setErrorMessage(@NotNull String errorMessage) {
+      myChildren.completeExceptionally(new AssertionError(errorMessage));
+    }
+
+    public void setErrorMessage(@NotNull String errorMessage, @Nullable XDebuggerTreeNodeHyperlink link) {
+      setErrorMessage(errorMessage);
+    }
+
+    public void setMessage(@NotNull String message, @Nullable Icon icon, @NotNull SimpleTextAttributes attributes,
+                           @Nullable XDebuggerTreeNodeHyperlink link) {
+    }
+
+    @Override
+    public boolean isObsolete() {
+      return false;
+    }
+  }
+
+  /**
+   * Completes with the value shown for a variable.
+   */
+  private static final class PresentationNode implements XValueNode {
+    final CompletableFuture<String> myValue = new CompletableFuture<>();
+
+    @Override
+    public void setPresentation(@Nullable Icon icon, @Nullable String type, @NotNull String value, boolean hasChildren) {
+      myValue.complete(value);
+    }
+
+    @Override
+    public void setPresentation(@Nullable Icon icon, @NotNull XValuePresentation presentation, boolean hasChildren) {
+      myValue.completeExceptionally(new AssertionError("Unexpected presentation " + presentation));
+    }
+
+    @Override
+    public void setFullValueEvaluator(@NotNull XFullValueEvaluator fullValueEvaluator) {
+    }
+
+    @Override
+    public boolean isObsolete() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,141 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import _JavaProtocol.InputAdapter;
+import _JavaProtocol.OutputAdapter;
+import com.intellij.openapi.util.Pair;
+import com.intellij.testFramework.UsefulTestCase;
+import debugger.*;
+import haxe.root.JavaProtocol;
+import org.jetbrains.annotations.NotNull;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class HaxeDebuggerChannelTest extends UsefulTestCase {
+
+  private final List<String> myLog = new CopyOnWriteArrayList<>();
+  private final CountDownLatch myConnected = new CountDownLatch(1);
+
+  private final HaxeDebuggerChannel.Listener myListener = new HaxeDebuggerChannel.Listener() {
+    @Override
+    public void connected() {
+      myConnected.countDown();
+    }
+
+    @Override
+    public void eventReceived(int messageId, Message message) {
+      myLog.add("event " + JavaProtocol.messageToString(message));
+    }
+
+    @Override
+    public void unsolicitedResponse(Message message) {
+      myLog.add("unsolicited " + JavaProtocol.messageToString(message));
+    }
+
+    @Override
+    public void failed(@NotNull Throwable error) {
+      myLog.add("failed " + error);
+    }
+  };
+
+  private static int findFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private HaxeDebuggerChannel.ResponseHandler record(String name, CountDownLatch done) {
+    return (messageId, message) -> {
+      myLog.add(name + " " + JavaProtocol.messageToString(message));
+      done.countDown();
+    };
+  }
+
+  @Test
+  public void testPipelinedRequestsAreCorrelatedInOrder() throws Exception {
+    int port = findFreePort();
+    HaxeDebuggerChannel channel = new HaxeDebuggerChannel(port, myListener);
+    channel.start();
+    try (Socket client = new Socket("localhost", port)) {
+      OutputAdapter out = new OutputAdapter(client.getOutputStream());
+      InputAdapter in = new InputAdapter(client.getInputStream());
+      HaxeProtocol.writeClientIdentification(out);
+      HaxeProtocol.readServerIdentification(in);
+      assertTrue(myConnected.await(10, TimeUnit.SECONDS));
+      assertTrue(channel.isConnected());
+
+      CountDownLatch done = new CountDownLatch(4);
+      channel.send(Command.Files, record("files", done));
+      channel.send(Command.Variables(false), "frame 0", record("variables", done));
+      channel.send(Command.Variables(false), "frame 0", record("coalesced", done));
+      channel.send(Command.Mem, record("mem", done));
+
+      // All requests are written before any response; the coalesced one only once.
+      assertEquals(JavaProtocol.commandToString(Command.Files), JavaProtocol.commandToString(HaxeProtocol.readCommand(in)));
+      assertEquals(JavaProtocol.commandToString(Command.Variables(false)),
+                   JavaProtocol.commandToString(HaxeProtocol.readCommand(in)));
+      assertEquals(JavaProtocol.commandToString(Command.Mem), JavaProtocol.commandToString(HaxeProtocol.readCommand(in)));
+      assertEquals(3, channel.getPendingCount());
+
+      HaxeProtocol.writeMessage(out, Message.Files(StringList.Terminator));
+      HaxeProtocol.writeMessage(out, Message.ThreadStarted(1));
+      HaxeProtocol.writeMessage(out, Message.Variables(StringList.Element("a", StringList.Terminator)));
+      HaxeProtocol.writeMessage(out, Message.MemBytes(42));
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+
+      assertEquals(List.of("files " + JavaProtocol.messageToString(Message.Files(StringList.Terminator)),
+                           "event " + JavaProtocol.messageToString(Message.ThreadStarted(1)),
+                           "variables " + JavaProtocol.messageToString(Message.Variables(StringList.Element("a", StringList.Terminator))),
+                           "coalesced " + JavaProtocol.messageToString(Message.Variables(StringList.Element("a", StringList.Terminator))),
+                           "mem " + JavaProtocol.messageToString(Message.MemBytes(42))),
+                   myLog);
+      assertEquals(0, channel.getPendingCount());
+    }
+    finally {
+      channel.close();
+    }
+  }
+
+  @Test
+  public void testCommandsSentTogetherKeepTheirOrder() throws Exception {
+    int port = findFreePort();
+    HaxeDebuggerChannel channel = new HaxeDebuggerChannel(port, myListener);
+    channel.start();
+    try (Socket client = new Socket("localhost", port)) {
+      OutputAdapter out = new OutputAdapter(client.getOutputStream());
+      InputAdapter in = new InputAdapter(client.getInputStream());
+      HaxeProtocol.writeClientIdentification(out);
+      HaxeProtocol.readServerIdentification(in);
+      assertTrue(myConnected.await(10, TimeUnit.SECONDS));
+
+      int count = 500;
+      CountDownLatch done = new CountDownLatch(count);
+      List<Pair<Command, HaxeDebuggerChannel.ResponseHandler>> commands = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        commands.add(Pair.create(Command.AddFileLineBreakpoint("Main.hx", i + 1), record("line " + (i + 1), done)));
+      }
+      channel.sendAll(commands);
+
+      for (int i = 0; i < count; i++) {
+        assertEquals(JavaProtocol.commandToString(Command.AddFileLineBreakpoint("Main.hx", i + 1)),
+                     JavaProtocol.commandToString(HaxeProtocol.readCommand(in)));
+      }
+      for (int i = 0; i < count; i++) {
+        HaxeProtocol.writeMessage(out, Message.FileLineBreakpointNumber(i + 1));
+      }
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      assertEquals("line 500 " + JavaProtocol.messageToString(Message.FileLineBreakpointNumber(500)), myLog.get(count - 1));
+      assertEquals(0, channel.getPendingCount());
+    }
+    finally {
+      channel.close();
+    }
+  }
+}
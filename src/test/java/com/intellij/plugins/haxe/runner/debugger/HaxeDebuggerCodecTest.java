@@ -0,0 +1,153 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import _JavaProtocol.InputAdapter;
+import _JavaProtocol.OutputAdapter;
+import com.intellij.testFramework.UsefulTestCase;
+import debugger.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks {@link HaxeDebuggerCodec} against the generated {@code debugger.HaxeProtocol}.
+ */
+public class HaxeDebuggerCodecTest extends UsefulTestCase {
+
+  private static Message[] sampleMessages() {
+    ClassList classes = ClassList.Element("pack.Main", true,
+                        ClassList.Element("pack.Helper", false,
+                        ClassList.Continued("pack.Helper")));
+    StructuredValueList fields =
+      StructuredValueList.Element("name", StructuredValue.Single(StructuredValueType.TypeString, "a \"quoted\" value"),
+      StructuredValueList.Element("count", StructuredValue.Single(StructuredValueType.TypeInt, "-12"),
+      StructuredValueList.Element("items", StructuredValue.Elided(StructuredValueType.TypeArray, "this.items"),
+      StructuredValueList.Terminator)));
+    ThreadWhereList where =
+      ThreadWhereList.Where(0, ThreadStatus.StoppedBreakpoint(3),
+                            FrameList.Frame(true, 0, "pack.Main", "main", "src/pack/Main.hx", 12,
+                            FrameList.Frame(false, 1, "pack.Main", "new", "src/pack/Main.hx", 5,
+                            FrameList.Terminator)),
+                            ThreadWhereList.Terminator);
+    return new Message[]{
+      Message.OK,
+      Message.Exited,
+      Message.ErrorInternal("Something went wrong: 100% (really) ~ not fine!"),
+      Message.ErrorNoSuchThread(-1),
+      Message.Files(StringList.Element("src/Main.hx", StringList.Element("src/Main.hx", StringList.Terminator))),
+      Message.Classes(classes),
+      Message.Classes(ClassList.Terminator),
+      Message.Compacted(0, 123456789),
+      Message.ThreadStopped(1, 0, "pack.Main", "main", "src/pack/Main.hx", 42),
+      Message.ThreadsWhere(where),
+      Message.Value("s", "String", "äöü ∑ 😀 + space"),
+      Message.Structured(StructuredValue.List(StructuredValueListType._Array, fields)),
+      Message.Structured(StructuredValue.List(StructuredValueListType.Instance("pack.Main"), StructuredValueList.Terminator)),
+      Message.Structured(StructuredValue.Single(
+        StructuredValueType.TypeAnonymous(StructuredValueTypeList._Type(StructuredValueType.TypeBool, StructuredValueTypeList.Terminator)),
+        "{ }")),
+    };
+  }
+
+  private static Command[] sampleCommands() {
+    return new Command[]{
+      Command.BreakNow,
+      Command.Continue(1),
+      Command.Classes(null),
+      Command.Classes("pack.Helper"),
+      Command.AddFileLineBreakpoint("src/pack/My File (1).hx", 17),
+      Command.DeleteBreakpointRange(0, -1),
+      Command.ListBreakpoints(true, false),
+      Command.SetExpression(false, "a", "'b' + \"c\" + ä"),
+      Command.GetStructured(true, "this.items[0]"),
+    };
+  }
+
+  private static byte[] writeMessages(Message... messages) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    OutputAdapter adapter = new OutputAdapter(out);
+    for (Message message : messages) {
+      HaxeProtocol.writeMessage(adapter, message);
+    }
+    return out.toByteArray();
+  }
+
+  @Test
+  public void testDecodesMessagesWrittenByHaxeProtocol() throws IOException {
+    Message[] messages = sampleMessages();
+    HaxeDebuggerCodec codec =
+      new HaxeDebuggerCodec(new ByteArrayInputStream(writeMessages(messages)), new ByteArrayOutputStream());
+    for (Message expected : messages) {
+      Message actual = codec.readMessage();
+      assertEquals(expected.index, actual.index);
+      assertEquals(haxe.Serializer.run(expected), haxe.Serializer.run(actual));
+      assertEquals(expected.toString(), actual.toString());
+    }
+  }
+
+  @Test
+  public void testParameterlessConstructorsAreShared() throws IOException {
+    HaxeDebuggerCodec codec =
+      new HaxeDebuggerCodec(new ByteArrayInputStream(writeMessages(Message.OK, Message.Classes(ClassList.Terminator))),
+                            new ByteArrayOutputStream());
+    assertSame(Message.OK, codec.readMessage());
+    assertSame(ClassList.Terminator, codec.readMessage().params[0]);
+  }
+
+  @Test
+  public void testEncodesCommandsLikeHaxeSerializer() {
+    for (Command command : sampleCommands()) {
+      assertEquals(haxe.Serializer.run(command), new String(HaxeDebuggerCodec.encode(command), StandardCharsets.ISO_8859_1));
+    }
+  }
+
+  @Test
+  public void testCommandsAreReadByHaxeProtocol() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HaxeDebuggerCodec codec = new HaxeDebuggerCodec(new ByteArrayInputStream(new byte[0]), out);
+    Command[] commands = sampleCommands();
+    for (Command command : commands) {
+      codec.writeCommand(command);
+    }
+    InputAdapter in = new InputAdapter(new ByteArrayInputStream(out.toByteArray()));
+    for (Command expected : commands) {
+      assertEquals(haxe.Serializer.run(expected), haxe.Serializer.run(HaxeProtocol.readCommand(in)));
+    }
+  }
+
+  @Test
+  public void testIdentification() throws IOException {
+    ByteArrayOutputStream clientId = new ByteArrayOutputStream();
+    HaxeProtocol.writeClientIdentification(new OutputAdapter(clientId));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    HaxeDebuggerCodec codec = new HaxeDebuggerCodec(new ByteArrayInputStream(clientId.toByteArray()), out);
+    codec.readClientIdentification();
+    codec.writeServerIdentification();
+    HaxeProtocol.readServerIdentification(new InputAdapter(new ByteArrayInputStream(out.toByteArray())));
+  }
+
+  @Test
+  public void testRejectsBadInput() {
+    assertBadMessage("0000000");
+    assertBadMessage("99999999");
+    assertBadMessage("0000001x");
+    assertBadMessage("00000017wy12:haxe.ds.List");
+    assertBadMessage("00000021wy16:debugger.Message");
+    assertBadMessage("00000030wy16:debugger.Messagey4:Nope:0");
+    assertBadMessage("00000029wy16:debugger.Messagey2:OK:0x");
+  }
+
+  private static void assertBadMessage(String data) {
+    HaxeDebuggerCodec codec =
+      new HaxeDebuggerCodec(new ByteArrayInputStream(data.getBytes(StandardCharsets.ISO_8859_1)), new ByteArrayOutputStream());
+    try {
+      codec.readMessage();
+      fail("Expected an error for " + data);
+    }
+    catch (IOException e) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,388 @@
+package com.intellij.plugins.haxe.runner.debugger;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Pair;
+import com.intellij.testFramework.UsefulTestCase;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.xdebugger.frame.*;
+import debugger.*;
+import haxe.root.JavaProtocol;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs debugger sessions against {@link FakeHxcppDebugTarget} through the channel the runner uses.
+ * Values from the target are also paged into the variable tree as the runner does.
+ *
+ * With the system property "haxe.debugger.benchmark" set to true it also logs how long session start,
+ * stepping, variable expansion and breakpoint installation take.
+ */
+public class HaxeDebuggerSessionTest extends UsefulTestCase {
+  private static final Logger LOG = Logger.getInstance(HaxeDebuggerSessionTest.class);
+
+  private static final String BENCHMARK_PROPERTY = "haxe.debugger.benchmark";
+
+  private static final int TIMEOUT_SECONDS = 30;
+
+  private final FakeHxcppDebugTarget myTarget = new FakeHxcppDebugTarget();
+  private final BlockingQueue<Message> myEvents = new LinkedBlockingQueue<>();
+  private final CountDownLatch myConnected = new CountDownLatch(1);
+  private final List<Throwable> myFailures = new CopyOnWriteArrayList<>();
+  private HaxeDebuggerChannel myChannel;
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      // The target first, or it would report the channel hanging up on it.
+      myTarget.close();
+      if (myChannel != null) {
+        myChannel.close();
+      }
+      assertNull(myTarget.getFailure());
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  private void startSession() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    myChannel = new HaxeDebuggerChannel(port, new HaxeDebuggerChannel.Listener() {
+      @Override
+      public void connected() {
+        myConnected.countDown();
+      }
+
+      @Override
+      public void eventReceived(int messageId, Message message) {
+        myEvents.add(message);
+      }
+
+      @Override
+      public void unsolicitedResponse(Message message) {
+        myFailures.add(new IOException("Unsolicited " + JavaProtocol.messageToString(message)));
+      }
+
+      @Override
+      public void failed(@NotNull Throwable error) {
+        myFailures.add(error);
+      }
+    });
+    myChannel.start();
+    myTarget.connect(port);
+    assertTrue(myConnected.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    awaitStopped();
+  }
+
+  private Message awaitStopped() throws InterruptedException {
+    while (true) {
+      Message event = myEvents.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      assertNotNull("No ThreadStopped event", event);
+      if (JavaProtocol.getMessageId(event) == JavaProtocol.IdThreadStopped) {
+        return event;
+      }
+    }
+  }
+
+  private CompletableFuture<Message> send(Command command) {
+    return send(command, null);
+  }
+
+  private CompletableFuture<Message> send(Command command, Object coalescingKey) {
+    CompletableFuture<Message> response = new CompletableFuture<>();
+    myChannel.send(command, coalescingKey, (messageId, message) -> response.complete(message));
+    return response;
+  }
+
+  private Message await(CompletableFuture<Message> response) throws Exception {
+    Message message = response.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertEmpty(myFailures);
+    return message;
+  }
+
+  private static void report(String what, int count, long startNanos) {
+    if (!Boolean.getBoolean(BENCHMARK_PROPERTY)) {
+      return;
+    }
+    long micros = (System.nanoTime() - startNanos) / 1000;
+    LOG.info(String.format("%s: %d in %d ms, %d us each", what, count, micros / 1000, micros / Math.max(1, count)));
+  }
+
+  @Test
+  public void testSessionStartWithClassList() throws Exception {
+    myTarget.classes(2000, true).classPageSize(100).frame(0, "pack.Main", "main", "src/pack/Main.hx", 1);
+    long start = System.nanoTime();
+    startSession();
+
+    List<String> classes = new ArrayList<>();
+    String continuation = null;
+    do {
+      Message message = await(send(Command.Classes(continuation)));
+      assertEquals(JavaProtocol.IdClasses, JavaProtocol.getMessageId(message));
+      continuation = null;
+      for (ClassList list = (ClassList)message.params[0]; list != ClassList.Terminator; ) {
+        if (list.index == 1) {
+          continuation = (String)list.params[0];
+          break;
+        }
+        classes.add((String)list.params[0]);
+        list = (ClassList)list.params[2];
+      }
+    }
+    while (continuation != null);
+    report("session start with 2000 classes", 1, start);
+
+    assertEquals(2000, classes.size());
+    assertEquals("pack.Class1999", classes.get(1999));
+  }
+
+  @Test
+  public void testSteppingLatency() throws Exception {
+    myTarget.frame(0, "pack.Main", "main", "src/pack/Main.hx", 1);
+    startSession();
+
+    int steps = 200;
+    long start = System.nanoTime();
+    for (int i = 0; i < steps; i++) {
+      assertSame(Message.OK, await(send(Command.Next(1))));
+      Message stopped = awaitStopped();
+      assertEquals(i + 2, ((Integer)stopped.params[5]).intValue());
+      Message where = await(send(Command.WhereCurrentThread(false)));
+      assertEquals(JavaProtocol.IdThreadsWhere, JavaProtocol.getMessageId(where));
+    }
+    report("steps", steps, start);
+  }
+
+  @Test
+  public void testVariableExpansion() throws Exception {
+    myTarget.frame(0, "pack.Main", "update", "src/pack/Main.hx", 10)
+      .variable("count", 3)
+      .variable("state", FakeHxcppDebugTarget.elidedObject("pack.State", "state", 50));
+    myTarget.frame(0, "pack.Main", "main", "src/pack/Main.hx", 3)
+      .variable("items", FakeHxcppDebugTarget.intArray(20000));
+    myTarget.expression("state.field7", FakeHxcppDebugTarget.intArray(10));
+    startSession();
+
+    long start = System.nanoTime();
+    // As a stack frame does: select it, then ask for its variables right behind it.
+    CompletableFuture<Message> location = send(Command.SetFrame(1));
+    CompletableFuture<Message> variables = send(Command.Variables(false), "variables of frame 1");
+    CompletableFuture<Message> coalesced = send(Command.Variables(false), "variables of frame 1");
+    CompletableFuture<Message> items = send(Command.GetStructured(false, "items"));
+
+    assertEquals(JavaProtocol.IdThreadLocation, JavaProtocol.getMessageId(await(location)));
+    Message names = await(variables);
+    assertSame(names, await(coalesced));
+    assertEquals("items", ((StringList)names.params[0]).params[0]);
+    StructuredValue array = (StructuredValue)await(items).params[0];
+    int count = 0;
+    for (StructuredValueList list = (StructuredValueList)array.params[1]; list != StructuredValueList.Terminator;
+         list = (StructuredValueList)list.params[2]) {
+      count++;
+    }
+    assertEquals(20000, count);
+    report("frame 1 with 20000 array elements", 1, start);
+    assertEquals(1, myTarget.getCommandCount("Variables"));
+
+    start = System.nanoTime();
+    await(send(Command.SetFrame(0)));
+    StructuredValue state = (StructuredValue)await(send(Command.GetStructured(false, "state"))).params[0];
+    StructuredValueList fields = (StructuredValueList)state.params[1];
+    assertEquals("state.field0", ((StructuredValue)fields.params[1]).params[1]);
+    Message field = await(send(Command.GetStructured(false, "state.field7")));
+    assertEquals(JavaProtocol.IdStructured, JavaProtocol.getMessageId(field));
+    Message unknown = await(send(Command.GetStructured(false, "state.field8")));
+    assertEquals(JavaProtocol.IdErrorEvaluatingExpression, JavaProtocol.getMessageId(unknown));
+    report("elided object expansion", 3, start);
+  }
+
+  @Test
+  public void testBreakpointInstallation() throws Exception {
+    myTarget.file("src/pack/Main.hx").frame(0, "pack.Main", "main", "src/pack/Main.hx", 1);
+    startSession();
+
+    int breakpoints = 1000;
+    long start = System.nanoTime();
+    List<CompletableFuture<Message>> responses = new ArrayList<>();
+    for (int i = 0; i < breakpoints; i++) {
+      responses.add(send(Command.AddFileLineBreakpoint("src/pack/Main.hx", i + 1)));
+    }
+    for (int i = 0; i < breakpoints; i++) {
+      Message message = await(responses.get(i));
+      assertEquals(JavaProtocol.IdFileLineBreakpointNumber, JavaProtocol.getMessageId(message));
+      assertEquals(i + 1, ((Integer)message.params[0]).intValue());
+    }
+    report("breakpoints", breakpoints, start);
+    assertEquals(breakpoints, myTarget.getBreakpoints().size());
+
+    Message missing = await(send(Command.AddFileLineBreakpoint("src/pack/Other.hx", 1)));
+    assertEquals(JavaProtocol.IdErrorNoSuchFile, JavaProtocol.getMessageId(missing));
+    Message deleted = await(send(Command.DeleteBreakpointRange(1, breakpoints)));
+    assertEquals(JavaProtocol.IdBreakpointStatuses, JavaProtocol.getMessageId(deleted));
+    assertEmpty(myTarget.getBreakpoints().keySet());
+  }
+
+  /**
+   * Records the pages added to it, and keeps the continuation of the last one.
+   */
+  private static final class RecordingNode implements XCompositeNode {
+    final List<List<String>> myPages = new ArrayList<>();
+    final List<Integer> myRemaining = new ArrayList<>();
+    boolean myLast;
+    Runnable myMore;
+
+    @Override
+    public void addChildren(@NotNull XValueChildrenList children, boolean last) {
+      List<String> names = new ArrayList<>();
+      for (int i = 0; i < children.size(); i++) {
+        names.add(children.getName(i));
+      }
+      myPages.add(names);
+      myLast = last;
+      myMore = null;
+    }
+
+    public void tooManyChildren(int remaining) {
+      myRemaining.add(remaining);
+    }
+
+    public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {
+      myRemaining.add(remaining);
+      myMore = addNextChildren;
+    }
+
+    public void setAlreadySorted(boolean alreadySorted) {
+    }
+
+    public void setErrorMessage(@NotNull String errorMessage) {
+      fail(errorMessage);
+    }
+
+    public void setErrorMessage(@NotNull String errorMessage, @Nullable XDebuggerTreeNodeHyperlink link) {
+      fail(errorMessage);
+    }
+
+    public void setMessage(@NotNull String message, @Nullable Icon icon, @NotNull SimpleTextAttributes attributes,
+                           @Nullable XDebuggerTreeNodeHyperlink link) {
+    }
+
+    @Override
+    public boolean isObsolete() {
+      return false;
+    }
+
+    /** Shows every page, as clicking the "more" node until there is none would. */
+    void expandAll() {
+      while (myMore != null) {
+        Runnable more = myMore;
+        myMore = null;
+        more.run();
+      }
+    }
+  }
+
+  private static final class NamedValue extends XValue {
+    @Override
+    public void computePresentation(@NotNull XValueNode node, @NotNull XValuePlace place) {
+    }
+  }
+
+  private HaxeDebuggerChildren.StructuredList<String> getArray(String expression) throws Exception {
+    Message message = await(send(Command.GetStructured(false, expression)));
+    assertEquals(JavaProtocol.IdStructured, JavaProtocol.getMessageId(message));
+    StructuredValue value = (StructuredValue)message.params[0];
+    return new HaxeDebuggerChildren.StructuredList<>((StructuredValueList)value.params[1], (name, element) -> name);
+  }
+
+  private static RecordingNode page(HaxeDebuggerChildren.StructuredList<String> children) {
+    RecordingNode node = new RecordingNode();
+    HaxeDebuggerChildren.addPage(node, children.size(), index -> Pair.create(children.get(index), new NamedValue()), 0);
+    return node;
+  }
+
+  @Test
+  public void testChildrenPageBoundaries() throws Exception {
+    int pageSize = HaxeDebuggerChildren.PAGE_SIZE;
+    int[] sizes = {0, 1, pageSize - 1, pageSize, pageSize + 1, 2 * pageSize};
+    FakeHxcppDebugTarget.Frame frame = myTarget.frame(0, "pack.Main", "main", "src/pack/Main.hx", 1);
+    for (int size : sizes) {
+      frame.variable("array" + size, FakeHxcppDebugTarget.intArray(size));
+    }
+    startSession();
+
+    for (int size : sizes) {
+      HaxeDebuggerChildren.StructuredList<String> children = getArray("array" + size);
+      assertEquals(size, children.size());
+      RecordingNode node = page(children);
+      assertEquals(1, node.myPages.size());
+      assertEquals(Math.min(size, pageSize), node.myPages.get(0).size());
+      boolean fits = size <= pageSize;
+      assertEquals("size " + size, fits, node.myLast);
+      assertEquals("size " + size, fits, node.myMore == null);
+      assertEquals("size " + size, fits ? List.of() : List.of(size - pageSize), node.myRemaining);
+      // Only the shown page is converted.
+      assertEquals(Math.min(size, pageSize), children.getConvertedCount());
+    }
+  }
+
+  @Test
+  public void testChildrenPageContinuation() throws Exception {
+    int pageSize = HaxeDebuggerChildren.PAGE_SIZE;
+    int size = 2 * pageSize + 50;
+    myTarget.frame(0, "pack.Main", "main", "src/pack/Main.hx", 1).variable("items", FakeHxcppDebugTarget.intArray(size));
+    startSession();
+
+    HaxeDebuggerChildren.StructuredList<String> children = getArray("items");
+    RecordingNode node = page(children);
+    node.expandAll();
+
+    assertEquals(3, node.myPages.size());
+    assertEquals(List.of(pageSize, pageSize, 50),
+                 List.of(node.myPages.get(0).size(), node.myPages.get(1).size(), node.myPages.get(2).size()));
+    assertEquals(List.of(size - pageSize, size - 2 * pageSize), node.myRemaining);
+    assertTrue(node.myLast);
+    assertEquals("[0]", node.myPages.get(0).get(0));
+    assertEquals("[" + pageSize + "]", node.myPages.get(1).get(0));
+    assertEquals("[" + (size - 1) + "]", node.myPages.get(2).get(49));
+    assertEquals(size, children.getConvertedCount());
+  }
+
+  @Test
+  public void testChildrenConvertedConcurrently() throws Exception {
+    int size = 5000;
+    myTarget.frame(0, "pack.Main", "main", "src/pack/Main.hx", 1).variable("items", FakeHxcppDebugTarget.intArray(size));
+    startSession();
+
+    HaxeDebuggerChildren.StructuredList<String> children = getArray("items");
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int reader = 0; reader < 4; reader++) {
+        int offset = reader;
+        readers.add(executor.submit(() -> {
+          for (int i = size - 1 - offset; i >= 0; i -= 4) {
+            assertEquals("[" + i + "]", children.get(i));
+          }
+        }));
+      }
+      for (Future<?> reader : readers) {
+        reader.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      }
+    }
+    finally {
+      executor.shutdownNow();
+    }
+    assertEquals(size, children.getConvertedCount());
+  }
+}
@@ -0,0 +1,160 @@
+package org.jetbrains.jps.haxe.build;
+
+import com.intellij.testFramework.UsefulTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Leases servers from a build's pool.  The servers are sockets standing in for {@code haxe --wait}; one
+ * that is closed doesn't accept {@code --connect} any more.
+ */
+public class HaxeCompilationServerTest extends UsefulTestCase {
+
+  private static final String SDK = "/sdk/haxe";
+
+  private final List<ServerSocket> mySockets = new ArrayList<>();
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      for (ServerSocket socket : mySockets) {
+        socket.close();
+      }
+    }
+    finally {
+      super.tearDown();
+    }
+  }
+
+  private static class FakeProcess extends Process {
+    volatile boolean destroyed;
+
+    @Override
+    public OutputStream getOutputStream() {
+      return OutputStream.nullOutputStream();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return InputStream.nullInputStream();
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+      return InputStream.nullInputStream();
+    }
+
+    @Override
+    public int waitFor() {
+      return 0;
+    }
+
+    @Override
+    public int exitValue() {
+      return 0;
+    }
+
+    @Override
+    public void destroy() {
+      destroyed = true;
+    }
+
+    @Override
+    public boolean isAlive() {
+      return !destroyed;
+    }
+  }
+
+  private final class Starter implements Supplier<HaxeCompilationServer> {
+    final AtomicInteger started = new AtomicInteger();
+    final List<FakeProcess> processes = new ArrayList<>();
+    boolean fails;
+
+    @Override
+    public HaxeCompilationServer get() {
+      if (fails) {
+        return null;
+      }
+      started.incrementAndGet();
+      try {
+        ServerSocket socket = new ServerSocket(0, 0, InetAddress.getByName("127.0.0.1"));
+        mySockets.add(socket);
+        FakeProcess process = new FakeProcess();
+        processes.add(process);
+        return new HaxeCompilationServer(SDK, process, socket.getLocalPort());
+      }
+      catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  @Test
+  public void testReleasedServerIsReused() {
+    HaxeCompilationServer.Pool pool = new HaxeCompilationServer.Pool();
+    Starter starter = new Starter();
+    HaxeCompilationServer server = pool.lease(SDK, starter);
+    assertNotNull(server);
+    pool.release(server);
+    assertSame(server, pool.lease(SDK, starter));
+    assertEquals(1, starter.started.get());
+
+    // A server that is leased isn't handed out twice.
+    HaxeCompilationServer other = pool.lease(SDK, starter);
+    assertNotSame(server, other);
+    assertEquals(2, starter.started.get());
+  }
+
+  @Test
+  public void testServerThatStoppedRespondingIsReplaced() throws IOException {
+    HaxeCompilationServer.Pool pool = new HaxeCompilationServer.Pool();
+    Starter starter = new Starter();
+    HaxeCompilationServer server = pool.lease(SDK, starter);
+    pool.release(server);
+    mySockets.get(0).close();
+
+    HaxeCompilationServer replacement = pool.lease(SDK, starter);
+    assertNotNull(replacement);
+    assertNotSame(server, replacement);
+    assertTrue(replacement.isResponding());
+    assertTrue(starter.processes.get(0).destroyed);
+  }
+
+  @Test
+  public void testCompilesWithoutServerWhenConnectWouldFail() throws IOException {
+    HaxeCompilationServer.Pool pool = new HaxeCompilationServer.Pool();
+    Starter starter = new Starter();
+    HaxeCompilationServer server = pool.lease(SDK, starter);
+    pool.release(server);
+    mySockets.get(0).close();
+
+    // No server, so the module is compiled on its own.
+    starter.fails = true;
+    assertNull(pool.lease(SDK, starter));
+    assertTrue(starter.processes.get(0).destroyed);
+  }
+
+  @Test
+  public void testStoppedPoolStopsLeasedServers() {
+    HaxeCompilationServer.Pool pool = new HaxeCompilationServer.Pool();
+    Starter starter = new Starter();
+    HaxeCompilationServer leased = pool.lease(SDK, starter);
+    HaxeCompilationServer idle = pool.lease(SDK, starter);
+    pool.release(idle);
+
+    pool.stopAll();
+    assertFalse(leased.isAlive());
+    assertFalse(idle.isAlive());
+    assertNull(pool.lease(SDK, starter));
+    assertEquals(2, starter.started.get());
+  }
+}
@@ -0,0 +1,6 @@
+import <info descr="null">helper.Bar</info>;
+<warning descr="Unused import statement">import <info descr="null">helper.Bar</info>;</warning>
+
+class <info descr="null">DuplicateImport</info> {
+  var <info descr="null">bar</info>:<info descr="null">Bar</info>;
+}
@@ -0,0 +1,8 @@
+import helper.Colors.Palette;
+
+class UsedTypedefEnum {
+  static function main() {
+    var color = Red;
+    trace(color);
+  }
+}
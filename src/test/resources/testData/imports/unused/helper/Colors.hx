@@ -0,0 +1,9 @@
+package helper;
+
+enum Color {
+  Red;
+  Green;
+  Blue;
+}
+
+typedef Palette = Color;
@@ -0,0 +1,7 @@
+package pack;
+
+class Owner {
+  public static var counter:Int;
+
+  private function helper() {}
+}
@@ -0,0 +1,15 @@
+class Base {
+  public function new(<warning descr="Unused parameter 'size'">size</warning>:Int) {}
+
+  public function callback(value:Int) {}
+
+  static function helper(used:Int, <warning descr="Unused parameter 'ignored'">ignored</warning>:Int, _skipped:Int) {
+    function local(<warning descr="Unused parameter 'x'">x</warning>:Int) {}
+    local(used);
+    [1, 2].map(function(item) return 0);
+  }
+}
+
+class Derived extends Base {
+  override public function callback(value:Int) {}
+}
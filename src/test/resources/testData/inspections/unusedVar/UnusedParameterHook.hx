@@ -0,0 +1,27 @@
+class Widget {
+  public function new() {}
+
+  public function update(dt:Float) {
+    onUpdate(dt);
+    render(dt);
+  }
+
+  // A hook for subclasses; the base implementation ignores its parameter.
+  function onUpdate(dt:Float) {}
+
+  final function render(<warning descr="Unused parameter 'dt'">dt</warning>:Float) {}
+}
+
+class Button extends Widget {
+  var elapsed:Float = 0;
+
+  override function onUpdate(dt:Float) {
+    elapsed += dt;
+  }
+}
+
+final class Label {
+  public function new() {}
+
+  function layout(<warning descr="Unused parameter 'width'">width</warning>:Int) {}
+}
@@ -0,0 +1,12 @@
+class UnusedVar {
+  public function test() {
+    var <warning descr="Unused variable">unused</warning> = 1;
+    var used = 2;
+    var shadowed = 3;
+    trace(used + shadowed);
+    function inner() {
+      var <warning descr="Unused variable">shadowed</warning> = 4;
+    }
+    inner();
+  }
+}
@@ -0,0 +1,11 @@
+class WriteOnlyVar {
+  public function test() {
+    var <warning descr="Variable 'assigned' is assigned but its value is never used">assigned</warning>;
+    assigned = 1;
+    var counter = 0;
+    counter += 1;
+    var read;
+    read = 2;
+    trace(read);
+  }
+}